@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.urbanairship.api.push.model.DeviceType;
+import com.urbanairship.api.push.model.DeviceTypeData;
+import com.urbanairship.api.push.model.PushExpiry;
+import com.urbanairship.api.push.model.PushPayload;
+import com.urbanairship.api.push.model.audience.Selectors;
+import com.urbanairship.api.push.model.notification.Notification;
+import com.urbanairship.api.push.model.notification.android.AndroidDevicePayload;
+import com.urbanairship.api.push.model.notification.ios.IOSBadgeData;
+import com.urbanairship.api.push.model.notification.ios.IOSDevicePayload;
+import com.urbanairship.api.push.model.notification.web.WebDevicePayload;
+import com.urbanairship.api.push.model.notification.web.WebIcon;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Representative payloads and response bodies shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final String ERROR_CONTENT_TYPE = "application/vnd.urbanairship+json; version=3";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A push to a single named user with the platform specific keys a typical campaign sets.
+     *
+     * @param deviceType One of ios, android or web.
+     * @param index Varies the audience and the alert between payloads.
+     * @return PushPayload
+     */
+    static PushPayload payload(String deviceType, int index) {
+        String alert = "Your order #" + index + " has shipped and will arrive tomorrow";
+        Notification.Builder notification = Notification.newBuilder().setAlert(alert);
+        DeviceType type;
+
+        switch (deviceType) {
+            case "ios":
+                type = DeviceType.IOS;
+                notification.addDeviceTypeOverride(type, IOSDevicePayload.newBuilder()
+                        .setAlert(alert)
+                        .setTitle("Order shipped")
+                        .setBadge(IOSBadgeData.newBuilder().setType(IOSBadgeData.Type.INCREMENT).setValue(1).build())
+                        .setMutableContent(true)
+                        .setThreadId("orders")
+                        .addExtraEntry("order_id", String.valueOf(index))
+                        .addExtraEntry("deep_link", "shop://orders/" + index)
+                        .build());
+                break;
+            case "android":
+                type = DeviceType.ANDROID;
+                notification.addDeviceTypeOverride(type, AndroidDevicePayload.newBuilder()
+                        .setAlert(alert)
+                        .setTitle("Order shipped")
+                        .setNotificationChannel("orders")
+                        .setCollapseKey("order-" + index)
+                        .setTimeToLive(PushExpiry.newBuilder().setExpirySeconds(3600).build())
+                        .setDeliveryPriority("high")
+                        .addExtraEntry("order_id", String.valueOf(index))
+                        .addExtraEntry("deep_link", "shop://orders/" + index)
+                        .build());
+                break;
+            case "web":
+                type = DeviceType.WEB;
+                notification.addDeviceTypeOverride(type, WebDevicePayload.newBuilder()
+                        .setAlert(alert)
+                        .setTitle("Order shipped")
+                        .setWebIcon(WebIcon.newBuilder().setUrl("https://example.com/icon.png").build())
+                        .setRequireInteraction(true)
+                        .addExtraEntry("order_id", String.valueOf(index))
+                        .build());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown device type " + deviceType);
+        }
+
+        return PushPayload.newBuilder()
+                .setAudience(Selectors.namedUser("user-" + index))
+                .setDeviceTypes(DeviceTypeData.of(type))
+                .setNotification(notification.build())
+                .build();
+    }
+
+    /**
+     * A batch mixing the three platforms.
+     *
+     * @param size The number of payloads.
+     * @return List of PushPayload
+     */
+    static List<PushPayload> batch(int size) {
+        String[] types = {"ios", "android", "web"};
+        List<PushPayload> payloads = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            payloads.add(payload(types[i % types.length], i));
+        }
+        return payloads;
+    }
+
+    /**
+     * A channel listing page, with multi-byte characters in the aliases and tags.
+     *
+     * @param channels The number of channels on the page.
+     * @return The page as UTF-8 bytes.
+     */
+    static byte[] channelPage(int channels) {
+        StringBuilder body = new StringBuilder(channels * 420).append("{\"ok\":true,\"channels\":[");
+        for (int i = 0; i < channels; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"channel_id\":\"").append(new UUID(i, i)).append("\",")
+                    .append("\"device_type\":\"").append(i % 2 == 0 ? "ios" : "android").append("\",")
+                    .append("\"installed\":true,\"opt_in\":true,\"background\":true,")
+                    .append("\"push_address\":\"").append(UUID.nameUUIDFromBytes(Integer.toString(i).getBytes(StandardCharsets.UTF_8))).append("\",")
+                    .append("\"created\":\"2014-03-06T18:52:59\",\"last_registration\":\"2021-10-01T12:00:00\",")
+                    .append("\"named_user_id\":\"user-").append(i).append("\",")
+                    .append("\"alias\":\"caf\u00e9-\u901a\u77e5-").append(i).append("\",")
+                    .append("\"tags\":[\"\u00fcber\",\"\u30bf\u30b0\",\"customer\",\"tier-").append(i % 5).append("\"],")
+                    .append("\"tag_groups\":{\"loyalty\":[\"gold\"],\"ua_locale_language\":[\"en\"]}}");
+        }
+        body.append("],\"next_page\":\"https://go.urbanairship.com/api/channels?start=").append(new UUID(channels, channels)).append("\"}");
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Enough channels for a page of about the given size.
+     *
+     * @param bytes The target page size.
+     * @return The page as UTF-8 bytes.
+     */
+    static byte[] channelPageOfSize(int bytes) {
+        int perChannel = channelPage(10).length / 10;
+        return channelPage(Math.max(1, bytes / perChannel));
+    }
+
+    /**
+     * A v3 error body, as returned for an invalid push.
+     *
+     * @return String
+     */
+    static String errorBody() {
+        return "{\"ok\":false,\"error\":\"Could not parse request body.\",\"error_code\":40001,"
+                + "\"details\":{\"error\":\"Unrecognized device type 'ipone'\",\"path\":\"device_types[0]\","
+                + "\"location\":{\"line\":1,\"column\":42}},\"operation_id\":\"df6a6b50-9843-0304-d5a5-743f246a4946\"}";
+    }
+
+    /**
+     * A static list download, one identifier per row.
+     *
+     * @param rows The number of rows.
+     * @return The CSV as UTF-8 bytes.
+     */
+    static byte[] staticListCsv(int rows) {
+        StringBuilder csv = new StringBuilder(rows * 48);
+        for (int i = 0; i < rows; i++) {
+            csv.append("named_user,").append(new UUID(i, rows - i)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestClient;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.ResponseCallback;
+import com.urbanairship.api.client.ResponseParser;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.push.PushRequest;
+import com.urbanairship.api.push.model.PushResponse;
+import org.apache.http.entity.ContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header construction for a push, measured up to the request client: static headers served from the client cache,
+ * per-request header maps, and the former per-request Base64 encoding of the credentials. Run with {@code -prof gc}
+ * to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeaderBenchmark {
+
+    private static final CompletableFuture<Response<Object>> DONE = CompletableFuture.completedFuture(null);
+
+    private UrbanAirshipClient client;
+    private PushRequest staticRequest;
+    private Request<PushResponse> perRequestHeadersRequest;
+    private Map<String, String> lastHeaders;
+
+    @Setup
+    public void setUp() {
+        client = UrbanAirshipClient.newBuilder()
+                .setKey("key")
+                .setSecret("secret")
+                .setClient(new RequestClient() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+                        lastHeaders = headers;
+                        return (Future<Response<T>>) (Future<?>) DONE;
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                })
+                .build();
+        staticRequest = PushRequest.newRequest(BenchmarkData.payload("ios", 0));
+        perRequestHeadersRequest = new PerRequestHeaders(staticRequest);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Benchmark
+    public Map<String, String> staticHeaders() {
+        client.executeAsync(staticRequest);
+        return lastHeaders;
+    }
+
+    @Benchmark
+    public Map<String, String> perRequestHeaders() {
+        client.executeAsync(perRequestHeadersRequest);
+        return lastHeaders;
+    }
+
+    @Benchmark
+    public Map<String, String> encodedPerRequest() {
+        // The header construction the client did for every request before the auth headers were pre-encoded.
+        Map<String, String> requestHeaders = new HashMap<>();
+        requestHeaders.put(HttpHeaders.CONTENT_TYPE, Request.CONTENT_TYPE_JSON);
+        requestHeaders.put(HttpHeaders.ACCEPT, Request.UA_VERSION_JSON);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("User-Agent", "UAJavaLib key");
+        for (Map.Entry<String, String> entry : requestHeaders.entrySet()) {
+            headers.put(entry.getKey(), entry.getValue());
+        }
+        headers.put("Authorization", "Basic " + BaseEncoding.base64().encode(("key" + ":" + "secret").getBytes()));
+        headers.put("X-UA-Appkey", "key");
+        return headers;
+    }
+
+    /**
+     * A push request building its header map on every call, as requests without static headers do.
+     */
+    private static final class PerRequestHeaders implements Request<PushResponse> {
+
+        private final PushRequest request;
+
+        private PerRequestHeaders(PushRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public HttpMethod getHttpMethod() {
+            return request.getHttpMethod();
+        }
+
+        @Override
+        public String getRequestBody() {
+            return request.getRequestBody();
+        }
+
+        @Override
+        public ContentType getContentType() {
+            return request.getContentType();
+        }
+
+        @Override
+        public Map<String, String> getRequestHeaders() {
+            Map<String, String> headers = new HashMap<>();
+            headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
+            headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
+            return headers;
+        }
+
+        @Override
+        public URI getUri(URI baseUri) throws URISyntaxException {
+            return request.getUri(baseUri);
+        }
+
+        @Override
+        public ResponseParser<PushResponse> getResponseParser() {
+            return request.getResponseParser();
+        }
+
+        @Override
+        public boolean bearerTokenAuthRequired() {
+            return request.bearerTokenAuthRequired();
+        }
+
+        @Override
+        public boolean canUseBearerTokenAuth() {
+            return request.canUseBearerTokenAuth();
+        }
+    }
+}
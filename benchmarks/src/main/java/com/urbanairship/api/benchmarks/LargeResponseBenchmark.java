@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.channel.model.ChannelResponse;
+import com.urbanairship.api.client.AsyncRequestClient;
+import com.urbanairship.api.client.BodySinks;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.staticlists.StaticListDownloadRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Large responses: a 5 MB channel listing page, and a static list downloaded either buffered in memory or
+ * streamed row by row to a sink. Run with {@code -prof gc} for the allocation per operation; the peak heap of
+ * every iteration is printed at its end.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class LargeResponseBenchmark {
+
+    private static final int CHANNEL_PAGE_BYTES = 5 * 1024 * 1024;
+    private static final int STATIC_LIST_ROWS = 500000;
+
+    private StubServer server;
+    private UrbanAirshipClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubServer()
+                .respond("/api/channels/", 200, "application/json", BenchmarkData.channelPageOfSize(CHANNEL_PAGE_BYTES))
+                .respond("/api/lists/benchmark/csv", 200, "text/csv", BenchmarkData.staticListCsv(STATIC_LIST_ROWS));
+        client = UrbanAirshipClient.newBuilder()
+                .setKey("key")
+                .setSecret("secret")
+                .setClient(AsyncRequestClient.newBuilder()
+                        .setBaseUri(server.getBaseUri())
+                        .build())
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.println("peak heap: " + (peak / (1024 * 1024)) + " MB");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Response<ChannelResponse> channelListingPage() throws IOException {
+        return client.execute(ChannelRequest.newRequest());
+    }
+
+    @Benchmark
+    public Response<String> staticListBuffered() throws IOException {
+        return client.execute(StaticListDownloadRequest.newRequest("benchmark"));
+    }
+
+    @Benchmark
+    public long staticListToSink() throws IOException {
+        LongAdder rows = new LongAdder();
+        client.execute(StaticListDownloadRequest.newRequest("benchmark")
+                .setBodySink(BodySinks.ofRows(row -> rows.increment())));
+        return rows.sum();
+    }
+}
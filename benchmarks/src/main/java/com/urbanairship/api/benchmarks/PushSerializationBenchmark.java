@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.urbanairship.api.push.PushRequest;
+import com.urbanairship.api.push.model.PushPayload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of push payloads, alone and as the body of a batch PushRequest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PushSerializationBenchmark {
+
+    @Param({"ios", "android", "web"})
+    public String deviceType;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private PushPayload payload;
+    private PushRequest batchRequest;
+
+    @Setup
+    public void setUp() {
+        payload = BenchmarkData.payload(deviceType, 0);
+        batchRequest = PushRequest.newRequest(BenchmarkData.batch(batchSize));
+    }
+
+    @Benchmark
+    public String payloadToJson() {
+        return payload.toJSON();
+    }
+
+    @Benchmark
+    public String batchRequestBody() {
+        return batchRequest.getRequestBody();
+    }
+}
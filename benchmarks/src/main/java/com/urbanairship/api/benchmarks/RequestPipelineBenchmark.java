@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.channel.model.ChannelResponse;
+import com.urbanairship.api.client.AsyncRequestClient;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.push.PushRequest;
+import com.urbanairship.api.push.model.PushResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end round trips through UrbanAirshipClient and the AsyncRequestClient against an in-process server:
+ * request serialization, headers, the Netty pipeline, the response handler and parsing.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestPipelineBenchmark {
+
+    private static final String PUSH_RESPONSE = "{\"ok\":true,\"operation_id\":\"df6a6b50-9843-0304-d5a5-743f246a4946\","
+            + "\"push_ids\":[\"9d78a53b-b16a-c58f-b78d-181d5e242078\"]}";
+
+    private StubServer server;
+    private UrbanAirshipClient client;
+    private PushRequest pushRequest;
+    private ChannelRequest channelRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubServer()
+                .respond("/api/push/", 202, "application/json", PUSH_RESPONSE.getBytes(StandardCharsets.UTF_8))
+                .respond("/api/channels/", 200, "application/json", BenchmarkData.channelPage(100));
+        client = UrbanAirshipClient.newBuilder()
+                .setKey("key")
+                .setSecret("secret")
+                .setClient(AsyncRequestClient.newBuilder()
+                        .setBaseUri(server.getBaseUri())
+                        .build())
+                .build();
+        pushRequest = PushRequest.newRequest(BenchmarkData.payload("ios", 0));
+        channelRequest = ChannelRequest.newRequest();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Response<PushResponse> push() throws IOException {
+        return client.execute(pushRequest);
+    }
+
+    @Benchmark
+    public Response<ChannelResponse> channelListing() throws IOException {
+        return client.execute(channelRequest);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.urbanairship.api.channel.model.ChannelResponse;
+import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.RequestError;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of channel listing pages and of API errors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseParsingBenchmark {
+
+    @Param({"10", "1000"})
+    public int channels;
+
+    private ObjectReader channelReader;
+    private byte[] channelPage;
+    private String errorBody;
+
+    @Setup
+    public void setUp() {
+        channelReader = ChannelObjectMapper.getInstance().readerFor(ChannelResponse.class);
+        channelPage = BenchmarkData.channelPage(channels);
+        errorBody = BenchmarkData.errorBody();
+    }
+
+    @Benchmark
+    public ChannelResponse channelListingPage() throws IOException {
+        return channelReader.readValue(channelPage);
+    }
+
+    @Benchmark
+    public RequestError errorFromResponse() throws IOException {
+        return RequestError.errorFromResponse(errorBody, BenchmarkData.ERROR_CONTENT_TYPE);
+    }
+}
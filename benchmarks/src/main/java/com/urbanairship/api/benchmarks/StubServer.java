@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP server answering every request on a path with the same canned response, so the round trip
+ * benchmarks measure the client rather than a remote service.
+ */
+final class StubServer implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    StubServer() throws IOException {
+        this(Executors.newFixedThreadPool(4, new ThreadFactoryBuilder()
+                .setNameFormat("stub-server-%d")
+                .setDaemon(true)
+                .build()), 128);
+    }
+
+    /**
+     * StubServer handling the exchanges on the given executor, which is shut down with the server.
+     *
+     * @param executor The executor.
+     * @param backlog The accept backlog.
+     * @throws IOException if the server can not be bound.
+     */
+    StubServer(ExecutorService executor, int backlog) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), backlog);
+        this.executor = executor;
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Answer the requests on a path, the request body is read and discarded.
+     *
+     * @param path The path prefix.
+     * @param status The response status.
+     * @param contentType The response content type.
+     * @param body The response body.
+     * @return StubServer
+     */
+    StubServer respond(String path, int status, String contentType, byte[] body) {
+        return respond(path, status, contentType, body, 0);
+    }
+
+    /**
+     * Answer the requests on a path after a delay standing for the service latency.
+     *
+     * @param path The path prefix.
+     * @param status The response status.
+     * @param contentType The response content type.
+     * @param body The response body.
+     * @param latencyMs The delay before responding, in milliseconds.
+     * @return StubServer
+     */
+    StubServer respond(String path, int status, String contentType, byte[] body, long latencyMs) {
+        server.createContext(path, exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteStreams.exhaust(in);
+            }
+            if (latencyMs > 0) {
+                try {
+                    Thread.sleep(latencyMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        return this;
+    }
+
+    String getBaseUri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
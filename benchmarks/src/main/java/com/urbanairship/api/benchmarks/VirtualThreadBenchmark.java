@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.benchmarks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.urbanairship.api.client.BlockingRequestClient;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.push.PushRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Time to send a burst of pushes with the BlockingRequestClient, each push on its own virtual thread, against a
+ * fixed pool of platform threads. The virtual threads run on a 4 carrier pool; the server answers after a fixed
+ * latency, so the burst only completes quickly if blocked pushes release their carrier.
+ *
+ * Every push is started at once, the semaphore only bounds the open sockets under the file descriptor limit. Both
+ * client and stub server keep that many sockets alive, otherwise pushes fail on connections closed while idle.
+ * Requires Java 21, the library itself targeting Java 8 the virtual thread executor is looked up reflectively.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Djdk.virtualThreadScheduler.parallelism=4",
+        "-Djdk.virtualThreadScheduler.maxPoolSize=4",
+        "-Dhttp.maxConnections=2000",
+        "-Dsun.net.httpserver.maxIdleConnections=2000"})
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final String PUSH_RESPONSE = "{\"ok\":true,\"operation_id\":\"df6a6b50-9843-0304-d5a5-743f246a4946\","
+            + "\"push_ids\":[\"9d78a53b-b16a-c58f-b78d-181d5e242078\"]}";
+
+    @Param({"100000"})
+    public int pushes;
+
+    @Param({"2000"})
+    public int maxOpenSockets;
+
+    @Param({"200"})
+    public int platformThreads;
+
+    @Param({"10"})
+    public long latencyMs;
+
+    private StubServer server;
+    private UrbanAirshipClient client;
+    private PushRequest pushRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubServer(newVirtualThreadExecutor(), 4096)
+                .respond("/api/push/", 202, "application/json", PUSH_RESPONSE.getBytes(StandardCharsets.UTF_8), latencyMs);
+        client = UrbanAirshipClient.newBuilder()
+                .setKey("key")
+                .setSecret("secret")
+                .setClient(BlockingRequestClient.newBuilder()
+                        .setBaseUri(server.getBaseUri())
+                        .build())
+                .build();
+        pushRequest = PushRequest.newRequest(BenchmarkData.payload("ios", 0));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int virtualThreads() throws InterruptedException {
+        return burst(newVirtualThreadExecutor());
+    }
+
+    @Benchmark
+    public int platformThreads() throws InterruptedException {
+        return burst(Executors.newFixedThreadPool(platformThreads, new ThreadFactoryBuilder()
+                .setNameFormat("push-%d")
+                .setDaemon(true)
+                .build()));
+    }
+
+    private int burst(ExecutorService executor) throws InterruptedException {
+        Semaphore sockets = new Semaphore(maxOpenSockets);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Exception> firstFailure = new AtomicReference<>();
+        for (int i = 0; i < pushes; i++) {
+            executor.execute(() -> {
+                sockets.acquireUninterruptibly();
+                try {
+                    client.execute(pushRequest);
+                } catch (IOException | RuntimeException e) {
+                    failures.incrementAndGet();
+                    firstFailure.compareAndSet(null, e);
+                } finally {
+                    sockets.release();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " pushes failed", firstFailure.get());
+        }
+        return pushes;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21", e);
+        }
+    }
+}
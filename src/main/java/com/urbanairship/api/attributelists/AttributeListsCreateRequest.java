@@ -5,15 +5,16 @@
 package com.urbanairship.api.attributelists;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.attributelists.parse.AttributeListsObjectMapper;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -89,11 +90,8 @@ public class AttributeListsCreateRequest implements Request<String> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -104,17 +102,32 @@ public class AttributeListsCreateRequest implements Request<String> {
 
     @Override
     public String getRequestBody() {
-        if (!extras.isEmpty()) {
-            this.payload.put(EXTRAS_KEY, extras);
+        Map<String, Object> requestPayload = buildPayload();
+        try {
+            return AttributeListsObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception ex) {
+            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
         }
+    }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        Map<String, Object> requestPayload = buildPayload();
         try {
-            return AttributeListsObjectMapper.getInstance().writeValueAsString(this.payload);
+            return AttributeListsObjectMapper.getInstance().writeValueAsBytes(requestPayload);
         } catch (Exception ex) {
-            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
         }
     }
 
+    private Map<String, Object> buildPayload() {
+        if (!extras.isEmpty()) {
+            this.payload.put(EXTRAS_KEY, extras);
+        }
+
+        return this.payload;
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, path);
@@ -4,10 +4,11 @@
 
 package com.urbanairship.api.attributelists;
 
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.attributelists.model.AttributeListsListingResponse;
 import com.urbanairship.api.attributelists.parse.AttributeListsObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.client.utils.URIBuilder;
@@ -16,8 +17,6 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The AttributeListsListingRequest class builds attribute lists listing requests to be executed in
@@ -25,6 +24,7 @@ import java.util.Map;
  */
 public class AttributeListsListingRequest implements Request<AttributeListsListingResponse> {
     private final static String ATTRIBUTE_LISTS_PATH = "/api/attribute-lists/";
+    private static final ResponseParser<AttributeListsListingResponse> RESPONSE_PARSER = JsonResponseParser.of(AttributeListsObjectMapper.getInstance(), AttributeListsListingResponse.class);
 
 
     /**
@@ -42,10 +42,8 @@ public class AttributeListsListingRequest implements Request<AttributeListsListi
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -67,7 +65,7 @@ public class AttributeListsListingRequest implements Request<AttributeListsListi
 
     @Override
     public ResponseParser<AttributeListsListingResponse> getResponseParser() {
-        return response -> AttributeListsObjectMapper.getInstance().readValue(response, AttributeListsListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -0,0 +1,773 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.channel;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.urbanairship.api.attributelists.AttributeListsUploadRequest;
+import com.urbanairship.api.channel.model.attributes.Attribute;
+import com.urbanairship.api.channel.model.attributes.AttributeAction;
+import com.urbanairship.api.channel.model.attributes.ChannelAttributesPayload;
+import com.urbanairship.api.channel.model.attributes.audience.AttributeAudience;
+import com.urbanairship.api.channel.model.attributes.audience.AttributeAudienceType;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.nameduser.NamedUserAttributeRequest;
+import com.urbanairship.api.nameduser.model.NamedUserAttributePayload;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * BulkAttributeWriter sends a stream of attribute records, each an {@link Attribute} and its
+ * {@link AttributeAction} for one channel or named user, with as few requests as possible. Records can be written
+ * from any number of threads and writing never blocks; they are held until the first of them has waited
+ * {@code lingerMs}, or {@code maxRecords} distinct attributes are pending.
+ *
+ * Within a window, the last record written for an attribute key of an audience replaces the earlier ones. The
+ * window is then sent:
+ * <pre>
+ * 1. If an attribute list name is set and at least {@code csvThreshold} records set a value without a timestamp,
+ *    those records are uploaded as attribute list CSV files, one for named users and one for channels.
+ * 2. The other named user records are sent with a {@link NamedUserAttributeRequest} per named user.
+ * 3. The other channel records are sent with {@link ChannelAttributesRequest}s, the channels whose attributes are
+ *    identical sharing a request, up to {@code maxAudienceSize} channels each.
+ * </pre>
+ * A window filled by a write is built into requests and CSV files on the scheduler thread, like a lingering one, so
+ * writing never pays for it. At most {@code maxConcurrency} requests are in flight, up to {@code maxQueued} others
+ * wait in memory; the records of requests beyond that fail with a {@link RejectedExecutionException}, so a writer
+ * outpacing the API does not grow the heap without bound. Uploads run one at a time, since the attribute list
+ * accepts a single upload while processing one.
+ *
+ * Every record gets a future completed once the request carrying it completes, failed with the request error.
+ * Records replaced within their window get the future of the record that replaced them. An upload completes
+ * its futures once the file is accepted; the rows Airship fails to process are listed by an
+ * {@link com.urbanairship.api.attributelists.AttributeListsErrorsRequest}. Closing the writer sends the pending
+ * records; it does not close the UrbanAirshipClient.
+ */
+public class BulkAttributeWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkAttributeWriter.class);
+
+    private static final String NAMED_USER_COLUMN = "named_user_id";
+    private static final String CHANNEL_COLUMN = "channel_id";
+
+    private final UrbanAirshipClient client;
+    private final int maxRecords;
+    private final int maxAudienceSize;
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private final long lingerMs;
+    private final Optional<String> attributeListName;
+    private final int csvThreshold;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Object lock = new Object();
+    private Window window = new Window();
+    private ScheduledFuture<?> lingerTask;
+    private boolean closed;
+    private final ArrayDeque<Supplier<CompletableFuture<?>>> queued = new ArrayDeque<>();
+    private int inFlight;
+    private CompletableFuture<?> lastUpload = CompletableFuture.completedFuture(null);
+    private long records;
+    private long requests;
+    private long uploads;
+
+    private BulkAttributeWriter(Builder builder) {
+        this.client = builder.client;
+        this.maxRecords = builder.maxRecords;
+        this.maxAudienceSize = builder.maxAudienceSize;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.maxQueued = builder.maxQueued;
+        this.lingerMs = builder.lingerMs;
+        this.attributeListName = Optional.ofNullable(builder.attributeListName);
+        this.csvThreshold = builder.csvThreshold;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("ua-attribute-writer-%d")
+                        .setDaemon(true)
+                        .build())
+                : builder.scheduler;
+    }
+
+    /**
+     * New BulkAttributeWriter Builder.
+     *
+     * @return BulkAttributeWriter Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Write an attribute record. The attribute action tells whether the attribute is set or removed.
+     *
+     * @param audienceType The audience type, {@link AttributeAudienceType#NAMED_USER_ID} for a named user.
+     * @param id The channel ID, email address or named user ID.
+     * @param attribute The attribute.
+     * @return A future completed once the request carrying the record completes.
+     */
+    public CompletableFuture<Void> write(AttributeAudienceType audienceType, String id, Attribute attribute) {
+        Preconditions.checkNotNull(audienceType, "Audience type required when writing attributes");
+        Preconditions.checkArgument(StringUtils.isNotEmpty(id), "Audience ID required when writing attributes");
+        Preconditions.checkNotNull(attribute, "Attribute required when writing attributes");
+
+        Window ready = null;
+        CompletableFuture<Void> future;
+        synchronized (lock) {
+            Preconditions.checkState(!closed, "Attribute writer is closed");
+
+            records++;
+            future = window.put(audienceType, id, attribute);
+
+            if (window.size() >= maxRecords) {
+                ready = takeWindow();
+            } else if (lingerTask == null) {
+                final Window lingering = window;
+                lingerTask = scheduler.schedule(() -> flush(lingering), lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (ready != null) {
+            sendLater(ready);
+        }
+        return future;
+    }
+
+    /**
+     * Send the pending records right away, if there are any.
+     */
+    public void flush() {
+        Window ready;
+        synchronized (lock) {
+            if (window.size() == 0) {
+                return;
+            }
+            ready = takeWindow();
+        }
+        send(ready);
+    }
+
+    /**
+     * Send the pending records and stop accepting new ones.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Get the number of records written.
+     *
+     * @return long
+     */
+    public long getRecordCount() {
+        synchronized (lock) {
+            return records;
+        }
+    }
+
+    /**
+     * Get the number of attribute requests the records were sent with, uploads excluded.
+     *
+     * @return long
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+
+    /**
+     * Get the number of attribute list CSV files uploaded.
+     *
+     * @return long
+     */
+    public long getUploadCount() {
+        synchronized (lock) {
+            return uploads;
+        }
+    }
+
+    /**
+     * Get the number of requests waiting for a free slot.
+     *
+     * @return int
+     */
+    public int getQueuedCount() {
+        synchronized (lock) {
+            return queued.size();
+        }
+    }
+
+    private void flush(Window lingering) {
+        Window ready;
+        synchronized (lock) {
+            // The window may already have been sent because it filled up.
+            if (window != lingering || window.size() == 0) {
+                return;
+            }
+            ready = takeWindow();
+        }
+        send(ready);
+    }
+
+    private Window takeWindow() {
+        Window ready = window;
+        window = new Window();
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return ready;
+    }
+
+    /**
+     * Send a window from the scheduler thread, or from the calling one if the scheduler no longer accepts tasks.
+     */
+    private void sendLater(Window ready) {
+        try {
+            scheduler.execute(() -> send(ready));
+        } catch (RejectedExecutionException e) {
+            send(ready);
+        }
+    }
+
+    private void send(Window ready) {
+        Map<String, Map<String, Map<String, Record>>> csvRows = new LinkedHashMap<>();
+        if (attributeListName.isPresent() && ready.csvEligibleCount() >= csvThreshold) {
+            csvRows = ready.takeCsvEligible();
+        }
+        for (Map.Entry<String, Map<String, Map<String, Record>>> file : csvRows.entrySet()) {
+            upload(file.getKey(), file.getValue());
+        }
+
+        Map<String, Map<String, Record>> namedUsers = ready.audiences.get(AttributeAudienceType.NAMED_USER_ID);
+        if (namedUsers != null) {
+            for (Map.Entry<String, Map<String, Record>> namedUser : namedUsers.entrySet()) {
+                NamedUserAttributePayload.Builder payload = NamedUserAttributePayload.newBuilder();
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (Record record : namedUser.getValue().values()) {
+                    payload.addAttribute(record.attribute);
+                    futures.addAll(record.futures);
+                }
+                dispatch(NamedUserAttributeRequest.newRequest(namedUser.getKey(), payload.build()),
+                        response -> response.isOk() ? Optional.<String>empty() : Optional.of(response.getError().orElse("unknown error")),
+                        futures);
+            }
+        }
+
+        for (ChannelGroup group : ready.channelGroups(maxAudienceSize)) {
+            dispatch(ChannelAttributesRequest.newRequest(group.toPayload()),
+                    response -> response.isOk() ? Optional.<String>empty() : Optional.of(response.getError().orElse("unknown error")),
+                    group.futures);
+        }
+    }
+
+    /**
+     * Write the rows of an attribute list CSV file and upload it once the previous upload completed.
+     */
+    private void upload(String idColumn, Map<String, Map<String, Record>> rows) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map<String, Record> row : rows.values()) {
+            for (Record record : row.values()) {
+                futures.addAll(record.futures);
+            }
+        }
+
+        final Path csv;
+        try {
+            csv = writeCsv(idColumn, rows);
+        } catch (IOException e) {
+            log.error("Failed to write attribute list CSV file", e);
+            fail(futures, e);
+            return;
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<?> previous;
+        synchronized (lock) {
+            uploads++;
+            previous = lastUpload;
+            lastUpload = done;
+        }
+
+        previous.whenComplete((ignored, throwable) -> {
+            CompletableFuture<Response<String>> response;
+            try {
+                response = client.executeAsyncCF(AttributeListsUploadRequest.newRequest(attributeListName.get(), csv.toString())
+                        .setGzipEnabled(true));
+            } catch (RuntimeException e) {
+                log.error("Failed to upload attribute list CSV file", e);
+                response = new CompletableFuture<>();
+                response.completeExceptionally(e);
+            }
+
+            response.whenComplete((result, error) -> {
+                try {
+                    Files.deleteIfExists(csv);
+                } catch (IOException e) {
+                    log.warn("Failed to delete attribute list CSV file " + csv, e);
+                }
+                complete(result, error, body -> Optional.<String>empty(), futures);
+                done.complete(null);
+            });
+        });
+    }
+
+    private static Path writeCsv(String idColumn, Map<String, Map<String, Record>> rows) throws IOException {
+        TreeSet<String> keys = new TreeSet<>();
+        for (Map<String, Record> row : rows.values()) {
+            keys.addAll(row.keySet());
+        }
+
+        Path csv = Files.createTempFile("ua-attributes-", ".csv");
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+            writer.write(idColumn);
+            for (String key : keys) {
+                writer.write(',');
+                writer.write(csvField(key));
+            }
+            writer.write('\n');
+
+            for (Map.Entry<String, Map<String, Record>> row : rows.entrySet()) {
+                writer.write(csvField(row.getKey()));
+                for (String key : keys) {
+                    writer.write(',');
+                    Record record = row.getValue().get(key);
+                    if (record != null) {
+                        writer.write(csvField(record.attribute.getValue().get()));
+                    }
+                }
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(csv);
+            throw e;
+        }
+        return csv;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Send a request as soon as fewer than {@code maxConcurrency} requests are in flight, or fail its records when
+     * {@code maxQueued} requests are already waiting.
+     */
+    private <T> void dispatch(Request<T> request, Function<T, Optional<String>> errorOf, List<CompletableFuture<Void>> futures) {
+        Supplier<CompletableFuture<?>> send = () -> {
+            CompletableFuture<Response<T>> response;
+            try {
+                response = client.executeAsyncCF(request);
+            } catch (RuntimeException e) {
+                log.error("Failed to send attribute request", e);
+                fail(futures, e);
+                return CompletableFuture.completedFuture(null);
+            }
+            return response.whenComplete((result, throwable) -> complete(result, throwable, errorOf, futures));
+        };
+
+        synchronized (lock) {
+            if (inFlight >= maxConcurrency) {
+                if (queued.size() >= maxQueued) {
+                    fail(futures, new RejectedExecutionException(
+                            "Attribute writer queue is full, " + queued.size() + " requests waiting"));
+                    return;
+                }
+                requests++;
+                queued.add(send);
+                return;
+            }
+            requests++;
+            inFlight++;
+        }
+        run(send);
+    }
+
+    private void run(Supplier<CompletableFuture<?>> send) {
+        send.get().whenComplete((ignored, throwable) -> {
+            Supplier<CompletableFuture<?>> next;
+            synchronized (lock) {
+                next = queued.poll();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            run(next);
+        });
+    }
+
+    private static <T> void complete(Response<T> result, Throwable throwable, Function<T, Optional<String>> errorOf,
+                                     List<CompletableFuture<Void>> futures) {
+        if (throwable != null) {
+            fail(futures, throwable);
+        } else if (!result.getBody().isPresent()) {
+            fail(futures, new IllegalStateException("Attribute response has no body, status " + result.getStatus()));
+        } else {
+            Optional<String> error = errorOf.apply(result.getBody().get());
+            if (error.isPresent()) {
+                fail(futures, new IllegalStateException("Attribute request failed: " + error.get()));
+            } else {
+                for (CompletableFuture<Void> future : futures) {
+                    future.complete(null);
+                }
+            }
+        }
+    }
+
+    private static void fail(List<CompletableFuture<Void>> futures, Throwable throwable) {
+        for (CompletableFuture<Void> future : futures) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * The last attribute written for a key of an audience, and the futures of the records it replaced.
+     */
+    private static class Record {
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>(1);
+        private Attribute attribute;
+
+        private boolean isCsvEligible(AttributeAudienceType audienceType) {
+            return audienceType != AttributeAudienceType.EMAIL_ADDRESS
+                    && attribute.getAction() == AttributeAction.SET
+                    && !attribute.getTimeStamp().isPresent();
+        }
+
+        private List<Object> signature() {
+            return Arrays.<Object>asList(attribute.getAction(), attribute.getKey(), attribute.getValue().orElse(null),
+                    attribute.getTimeStamp().isPresent() ? attribute.getTimeStamp().get().getMillis() : null);
+        }
+    }
+
+    /**
+     * The pending records, by audience type, audience ID and attribute key.
+     */
+    private static class Window {
+        private final Map<AttributeAudienceType, Map<String, Map<String, Record>>> audiences = new EnumMap<>(AttributeAudienceType.class);
+        private int size;
+        private int csvEligible;
+
+        private CompletableFuture<Void> put(AttributeAudienceType audienceType, String id, Attribute attribute) {
+            Map<String, Record> keys = audiences.computeIfAbsent(audienceType, type -> new LinkedHashMap<>())
+                    .computeIfAbsent(id, key -> new TreeMap<>());
+            Record record = keys.get(attribute.getKey());
+            if (record == null) {
+                record = new Record();
+                keys.put(attribute.getKey(), record);
+                size++;
+            } else if (record.isCsvEligible(audienceType)) {
+                csvEligible--;
+            }
+            record.attribute = attribute;
+            if (record.isCsvEligible(audienceType)) {
+                csvEligible++;
+            }
+
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            record.futures.add(future);
+            return future;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int csvEligibleCount() {
+            return csvEligible;
+        }
+
+        /**
+         * Remove the records an attribute list can carry, by CSV identifier column and row ID.
+         */
+        private Map<String, Map<String, Map<String, Record>>> takeCsvEligible() {
+            Map<String, Map<String, Map<String, Record>>> files = new LinkedHashMap<>();
+            for (Map.Entry<AttributeAudienceType, Map<String, Map<String, Record>>> audience : audiences.entrySet()) {
+                AttributeAudienceType audienceType = audience.getKey();
+                if (audienceType == AttributeAudienceType.EMAIL_ADDRESS) {
+                    continue;
+                }
+                String idColumn = audienceType == AttributeAudienceType.NAMED_USER_ID ? NAMED_USER_COLUMN : CHANNEL_COLUMN;
+                for (Map.Entry<String, Map<String, Record>> id : audience.getValue().entrySet()) {
+                    Map<String, Record> row = null;
+                    for (Record record : new ArrayList<>(id.getValue().values())) {
+                        if (!record.isCsvEligible(audienceType)) {
+                            continue;
+                        }
+                        if (row == null) {
+                            row = files.computeIfAbsent(idColumn, column -> new LinkedHashMap<>())
+                                    .computeIfAbsent(id.getKey(), key -> new TreeMap<>());
+                        }
+                        row.put(record.attribute.getKey(), record);
+                        id.getValue().remove(record.attribute.getKey());
+                    }
+                }
+                audience.getValue().values().removeIf(Map::isEmpty);
+            }
+            return files;
+        }
+
+        /**
+         * Group the channels whose attributes are identical.
+         */
+        private List<ChannelGroup> channelGroups(int maxAudienceSize) {
+            Map<List<List<Object>>, List<ChannelGroup>> bySignature = new LinkedHashMap<>();
+            for (Map.Entry<AttributeAudienceType, Map<String, Map<String, Record>>> audience : audiences.entrySet()) {
+                if (audience.getKey() == AttributeAudienceType.NAMED_USER_ID) {
+                    continue;
+                }
+                for (Map.Entry<String, Map<String, Record>> id : audience.getValue().entrySet()) {
+                    List<List<Object>> signature = new ArrayList<>();
+                    for (Record record : id.getValue().values()) {
+                        signature.add(record.signature());
+                    }
+
+                    List<ChannelGroup> groups = bySignature.computeIfAbsent(signature, key -> new ArrayList<>());
+                    ChannelGroup group = groups.isEmpty() ? null : groups.get(groups.size() - 1);
+                    if (group == null || group.audienceSize >= maxAudienceSize) {
+                        group = new ChannelGroup(id.getValue().values());
+                        groups.add(group);
+                    }
+                    group.add(audience.getKey(), id.getKey(), id.getValue().values());
+                }
+            }
+
+            List<ChannelGroup> channelGroups = new ArrayList<>();
+            for (List<ChannelGroup> groups : bySignature.values()) {
+                channelGroups.addAll(groups);
+            }
+            return channelGroups;
+        }
+    }
+
+    /**
+     * The channels sharing the same attributes, sent with a single request.
+     */
+    private static class ChannelGroup {
+        private final List<Attribute> attributes = new ArrayList<>();
+        private final AttributeAudience.Builder audience = AttributeAudience.newBuilder();
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private int audienceSize;
+
+        private ChannelGroup(Iterable<Record> records) {
+            for (Record record : records) {
+                attributes.add(record.attribute);
+            }
+        }
+
+        private void add(AttributeAudienceType audienceType, String id, Iterable<Record> records) {
+            audience.addDeviceId(audienceType, id);
+            for (Record record : records) {
+                futures.addAll(record.futures);
+            }
+            audienceSize++;
+        }
+
+        private ChannelAttributesPayload toPayload() {
+            ChannelAttributesPayload.Builder payload = ChannelAttributesPayload.newBuilder()
+                    .setAudience(audience.build());
+            for (Attribute attribute : attributes) {
+                payload.addAttribute(attribute);
+            }
+            return payload.build();
+        }
+    }
+
+    /**
+     * BulkAttributeWriter Builder.
+     */
+    public static class Builder {
+        private UrbanAirshipClient client;
+        private int maxRecords = 100000;
+        private int maxAudienceSize = 1000;
+        private int maxConcurrency = 8;
+        private int maxQueued = 10000;
+        private long lingerMs = 1000;
+        private String attributeListName;
+        private int csvThreshold = 10000;
+        private ScheduledExecutorService scheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client used to send the records.
+         *
+         * @param client UrbanAirshipClient
+         * @return Builder
+         */
+        public Builder setClient(UrbanAirshipClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the number of distinct pending attributes that triggers sending them -- defaults to 100000.
+         *
+         * @param maxRecords int
+         * @return Builder
+         */
+        public Builder setMaxRecords(int maxRecords) {
+            this.maxRecords = maxRecords;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of channels in the audience of a request -- defaults to 1000.
+         *
+         * @param maxAudienceSize int
+         * @return Builder
+         */
+        public Builder setMaxAudienceSize(int maxAudienceSize) {
+            this.maxAudienceSize = maxAudienceSize;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of attribute requests in flight -- defaults to 8.
+         *
+         * @param maxConcurrency int
+         * @return Builder
+         */
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of attribute requests waiting for a free slot, the records of further requests
+         * fail with a RejectedExecutionException -- defaults to 10000.
+         *
+         * @param maxQueued int
+         * @return Builder
+         */
+        public Builder setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+            return this;
+        }
+
+        /**
+         * Set how long the first record of a window waits for more records, in milliseconds -- defaults to 1000.
+         *
+         * @param lingerMs long
+         * @return Builder
+         */
+        public Builder setLingerMs(long lingerMs) {
+            this.lingerMs = lingerMs;
+            return this;
+        }
+
+        /**
+         * Set the name of the attribute list large windows are uploaded to -- defaults to none, every record being
+         * sent with attribute requests. The list must already exist, see
+         * {@link com.urbanairship.api.attributelists.AttributeListsCreateRequest}.
+         *
+         * @param attributeListName String
+         * @return Builder
+         */
+        public Builder setAttributeListName(String attributeListName) {
+            this.attributeListName = attributeListName;
+            return this;
+        }
+
+        /**
+         * Set the number of records of a window an attribute list can carry above which they are uploaded
+         * -- defaults to 10000.
+         *
+         * @param csvThreshold int
+         * @return Builder
+         */
+        public Builder setCsvThreshold(int csvThreshold) {
+            this.csvThreshold = csvThreshold;
+            return this;
+        }
+
+        /**
+         * Set the scheduler running the linger timeouts and sending the windows filled by writes -- defaults to a daemon thread owned by the writer.
+         * A scheduler set here is not shut down when the writer is closed.
+         *
+         * @param scheduler ScheduledExecutorService
+         * @return Builder
+         */
+        public Builder setScheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Build a BulkAttributeWriter object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The maximum number of records must be positive.
+         * 3. The maximum audience size must be positive.
+         * 4. The maximum concurrency must be positive.
+         * 5. The linger time cannot be negative.
+         * 6. The attribute list name, if set, must start with 'ua_attributes_'.
+         * 7. The CSV threshold must be positive.
+         * 8. The maximum number of queued requests cannot be negative.
+         * </pre>
+         *
+         * @return BulkAttributeWriter
+         */
+        public BulkAttributeWriter build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(maxRecords > 0, "max records must be positive");
+            Preconditions.checkArgument(maxAudienceSize > 0, "max audience size must be positive");
+            Preconditions.checkArgument(maxConcurrency > 0, "max concurrency must be positive");
+            Preconditions.checkArgument(lingerMs >= 0, "linger time cannot be negative");
+            Preconditions.checkArgument(attributeListName == null || attributeListName.startsWith("ua_attributes_"),
+                    "attribute list name must start with 'ua_attributes_'");
+            Preconditions.checkArgument(csvThreshold > 0, "CSV threshold must be positive");
+            Preconditions.checkArgument(maxQueued >= 0, "max queued cannot be negative");
+
+            return new BulkAttributeWriter(this);
+        }
+    }
+}
@@ -1,24 +1,24 @@
 package com.urbanairship.api.channel;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.ChannelAttributesResponse;
 import com.urbanairship.api.channel.model.attributes.ChannelAttributesPayload;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 public class ChannelAttributesRequest implements Request<ChannelAttributesResponse> {
 
     private final ObjectMapper MAPPER = ChannelObjectMapper.getInstance();
     private final static String API_CHANNELS_ATTRIBUTES = "/api/channels/attributes";
+    private static final ResponseParser<ChannelAttributesResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), ChannelAttributesResponse.class);
     private final String path;
     private final ChannelAttributesPayload payload;
 
@@ -47,17 +47,19 @@ public class ChannelAttributesRequest implements Request<ChannelAttributesRespon
         return payload.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return payload.toJSONBytes();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -67,7 +69,7 @@ public class ChannelAttributesRequest implements Request<ChannelAttributesRespon
 
     @Override
     public ResponseParser<ChannelAttributesResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, ChannelAttributesResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -5,18 +5,20 @@
 package com.urbanairship.api.channel;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.google.common.collect.ImmutableList;
 import com.urbanairship.api.channel.model.ChannelResponse;
+import com.urbanairship.api.channel.model.ChannelView;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The ChannelRequest class builds channel listing requests to be executed in
@@ -27,6 +29,7 @@ public class ChannelRequest implements Request<ChannelResponse> {
     private final static String API_CHANNELS_LIST = "/api/channels/";
     private final static String API_SMS_CHANNEL = "/api/channels/sms/";
     private final static String API_EMAIL_CHANNEL = "/api/channels/email/";
+    private static final ResponseParser<ChannelResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), ChannelResponse.class);
 
 
     private final String path;
@@ -91,17 +94,29 @@ public class ChannelRequest implements Request<ChannelResponse> {
         return new ChannelRequest(API_EMAIL_CHANNEL + email);
     }
 
+    /**
+     * Create a paginator walking every page of this channel listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<ChannelResponse, ChannelView> paginator() {
+        return Paginator.<ChannelResponse, ChannelView>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(ChannelRequest::newRequest)
+                .setNextPage(ChannelResponse::getNextPage)
+                .setItems(response -> response.getChannelObjects().orElse(ImmutableList.of()))
+                .build();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -121,7 +136,7 @@ public class ChannelRequest implements Request<ChannelResponse> {
 
     @Override
     public ResponseParser<ChannelResponse> getResponseParser() {
-        return response -> ChannelObjectMapper.getInstance().readValue(response, ChannelResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -0,0 +1,573 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.channel;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.urbanairship.api.channel.model.ChannelType;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.common.model.GenericResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChannelTagBatcher coalesces individual channel tag mutations into as few {@link ChannelTagRequest}s as possible.
+ * Mutations can be submitted from any number of threads; they are merged per channel and tag group until the
+ * first of them has waited {@code lingerMs}, or {@code maxChannels} channels have pending mutations.
+ *
+ * Within a window, the mutations of a tag group fold into its net effect, applied in submission order:
+ * <pre>
+ * 1. Adding then removing a tag only removes it, removing then adding it only adds it.
+ * 2. Repeated adds and removes of a tag count once.
+ * 3. Setting the tags of a group replaces every earlier mutation of the group; later adds and removes are
+ *    applied to the set tags.
+ * </pre>
+ * The channels whose net mutations are identical then share a request, up to {@code maxAudienceSize} channels
+ * each. Set mutations are sent apart from add and remove mutations, which the API does not accept together.
+ *
+ * Every submitter gets a future completed with the response of the request carrying its tag group mutation.
+ * Futures are completed on the client I/O thread, use the async variants of the CompletableFuture methods for
+ * anything expensive. Closing the batcher sends the pending mutations; it does not close the UrbanAirshipClient.
+ */
+public class ChannelTagBatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelTagBatcher.class);
+
+    private final UrbanAirshipClient client;
+    private final int maxChannels;
+    private final int maxAudienceSize;
+    private final long lingerMs;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Object lock = new Object();
+    private Window window = new Window();
+    private ScheduledFuture<?> lingerTask;
+    private boolean closed;
+    private long operations;
+    private long requests;
+
+    private ChannelTagBatcher(Builder builder) {
+        this.client = builder.client;
+        this.maxChannels = builder.maxChannels;
+        this.maxAudienceSize = builder.maxAudienceSize;
+        this.lingerMs = builder.lingerMs;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("ua-channel-tag-batcher-%d")
+                        .setDaemon(true)
+                        .build())
+                : builder.scheduler;
+    }
+
+    /**
+     * New ChannelTagBatcher Builder.
+     *
+     * @return ChannelTagBatcher Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Add tags to a channel.
+     *
+     * @param channelType The channel type.
+     * @param channelId The channel ID.
+     * @param tagGroup The tag group.
+     * @param tags The tags to add.
+     * @return A future completed with the response of the request carrying the mutation.
+     */
+    public CompletableFuture<GenericResponse> addTags(ChannelType channelType, String channelId, String tagGroup, Set<String> tags) {
+        return submit(channelType, channelId, tagGroup, tags, Operation.ADD);
+    }
+
+    /**
+     * Remove tags from a channel.
+     *
+     * @param channelType The channel type.
+     * @param channelId The channel ID.
+     * @param tagGroup The tag group.
+     * @param tags The tags to remove.
+     * @return A future completed with the response of the request carrying the mutation.
+     */
+    public CompletableFuture<GenericResponse> removeTags(ChannelType channelType, String channelId, String tagGroup, Set<String> tags) {
+        return submit(channelType, channelId, tagGroup, tags, Operation.REMOVE);
+    }
+
+    /**
+     * Set the tags of a channel tag group, replacing its current tags.
+     *
+     * @param channelType The channel type.
+     * @param channelId The channel ID.
+     * @param tagGroup The tag group.
+     * @param tags The tags of the group, empty to clear it.
+     * @return A future completed with the response of the request carrying the mutation.
+     */
+    public CompletableFuture<GenericResponse> setTags(ChannelType channelType, String channelId, String tagGroup, Set<String> tags) {
+        return submit(channelType, channelId, tagGroup, tags, Operation.SET);
+    }
+
+    /**
+     * Send the pending mutations right away, if there are any.
+     */
+    public void flush() {
+        Window ready;
+        synchronized (lock) {
+            if (window.isEmpty()) {
+                return;
+            }
+            ready = takeWindow();
+        }
+        send(ready);
+    }
+
+    /**
+     * Send the pending mutations and stop accepting new ones.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Get the number of mutations submitted.
+     *
+     * @return long
+     */
+    public long getOperationCount() {
+        synchronized (lock) {
+            return operations;
+        }
+    }
+
+    /**
+     * Get the number of requests the mutations were sent with.
+     *
+     * @return long
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+
+    private CompletableFuture<GenericResponse> submit(ChannelType channelType, String channelId, String tagGroup, Set<String> tags, Operation operation) {
+        Preconditions.checkNotNull(channelType, "Channel type required when mutating channel tags");
+        Preconditions.checkArgument(channelId != null && !channelId.isEmpty(), "Channel ID required when mutating channel tags");
+        Preconditions.checkArgument(tagGroup != null && !tagGroup.isEmpty(), "Tag group required when mutating channel tags");
+        Preconditions.checkNotNull(tags, "Tags required when mutating channel tags");
+        Preconditions.checkArgument(operation == Operation.SET || !tags.isEmpty(), "Tags required when adding or removing channel tags");
+
+        CompletableFuture<GenericResponse> future = new CompletableFuture<>();
+        Window ready = null;
+        synchronized (lock) {
+            Preconditions.checkState(!closed, "Channel tag batcher is closed");
+
+            operations++;
+            window.apply(audienceKey(channelType), channelId, tagGroup, tags, operation, future);
+
+            if (window.channelCount() >= maxChannels) {
+                ready = takeWindow();
+            } else if (lingerTask == null) {
+                final Window lingering = window;
+                lingerTask = scheduler.schedule(() -> flush(lingering), lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (ready != null) {
+            send(ready);
+        }
+        return future;
+    }
+
+    private void flush(Window lingering) {
+        Window ready;
+        synchronized (lock) {
+            // The window may already have been sent because it filled up.
+            if (window != lingering || window.isEmpty()) {
+                return;
+            }
+            ready = takeWindow();
+        }
+        send(ready);
+    }
+
+    private Window takeWindow() {
+        Window ready = window;
+        window = new Window();
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return ready;
+    }
+
+    private void send(Window ready) {
+        List<Target> targets = ready.toTargets(maxAudienceSize);
+        synchronized (lock) {
+            requests += targets.size();
+        }
+
+        for (Target target : targets) {
+            final List<CompletableFuture<GenericResponse>> futures = target.futures;
+            CompletableFuture<Response<GenericResponse>> response;
+            try {
+                response = client.executeAsyncCF(target.toRequest());
+            } catch (RuntimeException e) {
+                log.error("Failed to send channel tag mutations", e);
+                fail(futures, e);
+                continue;
+            }
+
+            response.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    fail(futures, throwable);
+                } else if (!result.getBody().isPresent()) {
+                    fail(futures, new IllegalStateException("Channel tag response has no body, status " + result.getStatus()));
+                } else {
+                    for (CompletableFuture<GenericResponse> future : futures) {
+                        future.complete(result.getBody().get());
+                    }
+                }
+            });
+        }
+    }
+
+    private static void fail(List<CompletableFuture<GenericResponse>> futures, Throwable throwable) {
+        for (CompletableFuture<GenericResponse> future : futures) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    private static AudienceKey audienceKey(ChannelType channelType) {
+        switch (channelType) {
+            case IOS:
+                return AudienceKey.IOS;
+            case ANDROID:
+                return AudienceKey.ANDROID;
+            case ADM:
+                return AudienceKey.AMAZON;
+            default:
+                return AudienceKey.GENERIC;
+        }
+    }
+
+    private enum Operation {
+        ADD,
+        REMOVE,
+        SET
+    }
+
+    /**
+     * The audience lists of a ChannelTagRequest.
+     */
+    private enum AudienceKey {
+        IOS,
+        ANDROID,
+        AMAZON,
+        GENERIC
+    }
+
+    /**
+     * The net mutation of a tag group of a channel, and the futures of the submissions folded into it.
+     */
+    private static class GroupMutation {
+        private final Set<String> tags = new TreeSet<>();
+        private final Set<String> removed = new TreeSet<>();
+        private final List<CompletableFuture<GenericResponse>> futures = new ArrayList<>(1);
+        private boolean set;
+
+        private void apply(Set<String> operationTags, Operation operation) {
+            switch (operation) {
+                case SET:
+                    set = true;
+                    tags.clear();
+                    removed.clear();
+                    tags.addAll(operationTags);
+                    break;
+                case ADD:
+                    tags.addAll(operationTags);
+                    removed.removeAll(operationTags);
+                    break;
+                case REMOVE:
+                    tags.removeAll(operationTags);
+                    if (!set) {
+                        removed.addAll(operationTags);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        }
+    }
+
+    /**
+     * The pending mutations of every channel, by audience list, channel ID and tag group.
+     */
+    private static class Window {
+        private final Map<AudienceKey, Map<String, Map<String, GroupMutation>>> channels = new EnumMap<>(AudienceKey.class);
+        private int channelCount;
+
+        private void apply(AudienceKey audienceKey, String channelId, String tagGroup, Set<String> tags, Operation operation,
+                           CompletableFuture<GenericResponse> future) {
+            Map<String, Map<String, GroupMutation>> ids = channels.computeIfAbsent(audienceKey, key -> new LinkedHashMap<>());
+            Map<String, GroupMutation> groups = ids.get(channelId);
+            if (groups == null) {
+                groups = new TreeMap<>();
+                ids.put(channelId, groups);
+                channelCount++;
+            }
+            GroupMutation mutation = groups.computeIfAbsent(tagGroup, group -> new GroupMutation());
+            mutation.apply(tags, operation);
+            mutation.futures.add(future);
+        }
+
+        private boolean isEmpty() {
+            return channelCount == 0;
+        }
+
+        private int channelCount() {
+            return channelCount;
+        }
+
+        /**
+         * Group the channels sharing the same net mutation, set mutations apart from add and remove mutations.
+         */
+        private List<Target> toTargets(int maxAudienceSize) {
+            Map<List<Object>, List<Target>> byMutation = new LinkedHashMap<>();
+            for (Map.Entry<AudienceKey, Map<String, Map<String, GroupMutation>>> audience : channels.entrySet()) {
+                for (Map.Entry<String, Map<String, GroupMutation>> channel : audience.getValue().entrySet()) {
+                    Map<String, Set<String>> setTags = new TreeMap<>();
+                    Map<String, Set<String>> addTags = new TreeMap<>();
+                    Map<String, Set<String>> removeTags = new TreeMap<>();
+                    List<CompletableFuture<GenericResponse>> setFutures = new ArrayList<>();
+                    List<CompletableFuture<GenericResponse>> addRemoveFutures = new ArrayList<>();
+
+                    for (Map.Entry<String, GroupMutation> group : channel.getValue().entrySet()) {
+                        GroupMutation mutation = group.getValue();
+                        if (mutation.set) {
+                            setTags.put(group.getKey(), mutation.tags);
+                            setFutures.addAll(mutation.futures);
+                        } else {
+                            if (!mutation.tags.isEmpty()) {
+                                addTags.put(group.getKey(), mutation.tags);
+                            }
+                            if (!mutation.removed.isEmpty()) {
+                                removeTags.put(group.getKey(), mutation.removed);
+                            }
+                            addRemoveFutures.addAll(mutation.futures);
+                        }
+                    }
+
+                    if (!setTags.isEmpty()) {
+                        target(byMutation, Arrays.<Object>asList(setTags), maxAudienceSize)
+                                .add(audience.getKey(), channel.getKey(), setFutures);
+                    }
+                    if (!addTags.isEmpty() || !removeTags.isEmpty()) {
+                        target(byMutation, Arrays.<Object>asList(addTags, removeTags), maxAudienceSize)
+                                .add(audience.getKey(), channel.getKey(), addRemoveFutures);
+                    }
+                }
+            }
+
+            List<Target> targets = new ArrayList<>();
+            for (List<Target> sameMutation : byMutation.values()) {
+                targets.addAll(sameMutation);
+            }
+            return targets;
+        }
+
+        private static Target target(Map<List<Object>, List<Target>> byMutation, List<Object> mutation, int maxAudienceSize) {
+            List<Target> sameMutation = byMutation.computeIfAbsent(mutation, key -> new ArrayList<>());
+            Target last = sameMutation.isEmpty() ? null : sameMutation.get(sameMutation.size() - 1);
+            if (last == null || last.audienceSize >= maxAudienceSize) {
+                @SuppressWarnings("unchecked")
+                Target target = mutation.size() == 1
+                        ? new Target((Map<String, Set<String>>) mutation.get(0), null, null)
+                        : new Target(null, (Map<String, Set<String>>) mutation.get(0), (Map<String, Set<String>>) mutation.get(1));
+                sameMutation.add(target);
+                return target;
+            }
+            return last;
+        }
+    }
+
+    /**
+     * The channels sharing a net mutation, sent with a single request.
+     */
+    private static class Target {
+        private final Map<String, Set<String>> setTags;
+        private final Map<String, Set<String>> addTags;
+        private final Map<String, Set<String>> removeTags;
+        private final Map<AudienceKey, Set<String>> audience = new EnumMap<>(AudienceKey.class);
+        private final List<CompletableFuture<GenericResponse>> futures = new ArrayList<>();
+        private int audienceSize;
+
+        private Target(Map<String, Set<String>> setTags, Map<String, Set<String>> addTags, Map<String, Set<String>> removeTags) {
+            this.setTags = setTags;
+            this.addTags = addTags;
+            this.removeTags = removeTags;
+        }
+
+        private void add(AudienceKey audienceKey, String channelId, List<CompletableFuture<GenericResponse>> channelFutures) {
+            audience.computeIfAbsent(audienceKey, key -> new HashSet<>()).add(channelId);
+            futures.addAll(channelFutures);
+            audienceSize++;
+        }
+
+        private ChannelTagRequest toRequest() {
+            ChannelTagRequest request = ChannelTagRequest.newRequest();
+            for (Map.Entry<AudienceKey, Set<String>> channels : audience.entrySet()) {
+                switch (channels.getKey()) {
+                    case IOS:
+                        request.addIOSChannels(channels.getValue());
+                        break;
+                    case ANDROID:
+                        request.addAndroidChannels(channels.getValue());
+                        break;
+                    case AMAZON:
+                        request.addAmazonChannels(channels.getValue());
+                        break;
+                    default:
+                        request.addGenericChannels(channels.getValue());
+                        break;
+                }
+            }
+            if (setTags != null) {
+                for (Map.Entry<String, Set<String>> group : setTags.entrySet()) {
+                    request.setTags(group.getKey(), new HashSet<>(group.getValue()));
+                }
+            } else {
+                for (Map.Entry<String, Set<String>> group : addTags.entrySet()) {
+                    request.addTags(group.getKey(), new HashSet<>(group.getValue()));
+                }
+                for (Map.Entry<String, Set<String>> group : removeTags.entrySet()) {
+                    request.removeTags(group.getKey(), new HashSet<>(group.getValue()));
+                }
+            }
+            return request;
+        }
+    }
+
+    /**
+     * ChannelTagBatcher Builder.
+     */
+    public static class Builder {
+        private UrbanAirshipClient client;
+        private int maxChannels = 10000;
+        private int maxAudienceSize = 1000;
+        private long lingerMs = 1000;
+        private ScheduledExecutorService scheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client used to send the mutations.
+         *
+         * @param client UrbanAirshipClient
+         * @return Builder
+         */
+        public Builder setClient(UrbanAirshipClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the number of channels with pending mutations that triggers sending them -- defaults to 10000.
+         *
+         * @param maxChannels int
+         * @return Builder
+         */
+        public Builder setMaxChannels(int maxChannels) {
+            this.maxChannels = maxChannels;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of channels in the audience of a request -- defaults to 1000, the API limit.
+         *
+         * @param maxAudienceSize int
+         * @return Builder
+         */
+        public Builder setMaxAudienceSize(int maxAudienceSize) {
+            this.maxAudienceSize = maxAudienceSize;
+            return this;
+        }
+
+        /**
+         * Set how long the first mutation of a window waits for more mutations, in milliseconds -- defaults to 1000.
+         *
+         * @param lingerMs long
+         * @return Builder
+         */
+        public Builder setLingerMs(long lingerMs) {
+            this.lingerMs = lingerMs;
+            return this;
+        }
+
+        /**
+         * Set the scheduler running the linger timeouts -- defaults to a daemon thread owned by the batcher.
+         * A scheduler set here is not shut down when the batcher is closed.
+         *
+         * @param scheduler ScheduledExecutorService
+         * @return Builder
+         */
+        public Builder setScheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Build a ChannelTagBatcher object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The maximum number of channels must be positive.
+         * 3. The maximum audience size must be positive.
+         * 4. The linger time cannot be negative.
+         * </pre>
+         *
+         * @return ChannelTagBatcher
+         */
+        public ChannelTagBatcher build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(maxChannels > 0, "max channels must be positive");
+            Preconditions.checkArgument(maxAudienceSize > 0, "max audience size must be positive");
+            Preconditions.checkArgument(lingerMs >= 0, "linger time cannot be negative");
+
+            return new ChannelTagBatcher(this);
+        }
+    }
+}
@@ -5,15 +5,16 @@
 package com.urbanairship.api.channel;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -215,11 +216,8 @@ public class ChannelTagRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -229,6 +227,25 @@ public class ChannelTagRequest implements Request<GenericResponse> {
 
     @Override
     public String getRequestBody() {
+        Map<String, Map<String, Set<String>>> requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception ex) {
+            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
+        }
+    }
+
+    @Override
+    public byte[] getRequestBodyBytes() {
+        Map<String, Map<String, Set<String>>> requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private Map<String, Map<String, Set<String>>> buildPayload() {
         final Map<String, Map<String, Set<String>>> payload = new HashMap<String, Map<String, Set<String>>>();
 
         payload.put(AUDIENCE_KEY, audience);
@@ -250,11 +267,7 @@ public class ChannelTagRequest implements Request<GenericResponse> {
             Preconditions.checkArgument(!payload.containsKey(REMOVE_KEY) && !payload.containsKey(ADD_KEY));
         }
 
-        try {
-            return ChannelObjectMapper.getInstance().writeValueAsString(payload);
-        } catch (Exception ex) {
-            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
-        }
+        return payload;
     }
 
     @Override
@@ -5,18 +5,18 @@
 package com.urbanairship.api.channel;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.ChannelUninstallPayload;
 import com.urbanairship.api.channel.model.ChannelUninstallResponse;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 /**
  * The ChannelUninstallRequest class builds channels uninstall requests to be executed in
@@ -26,6 +26,7 @@ public class ChannelUninstallRequest implements Request<ChannelUninstallResponse
 
     private final static String API_CHANNELS_UNINSTALL_PATH = "/api/channels/uninstall/";
     private final static ObjectMapper MAPPER = ChannelObjectMapper.getInstance();
+    private static final ResponseParser<ChannelUninstallResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, ChannelUninstallResponse.class);
     private final ChannelUninstallPayload payload;
 
     private ChannelUninstallRequest(ChannelUninstallPayload payload) {
@@ -48,11 +49,8 @@ public class ChannelUninstallRequest implements Request<ChannelUninstallResponse
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -69,6 +67,15 @@ public class ChannelUninstallRequest implements Request<ChannelUninstallResponse
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(payload.getChannels());
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, API_CHANNELS_UNINSTALL_PATH);
@@ -76,7 +83,7 @@ public class ChannelUninstallRequest implements Request<ChannelUninstallResponse
 
     @Override
     public ResponseParser<ChannelUninstallResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, ChannelUninstallResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
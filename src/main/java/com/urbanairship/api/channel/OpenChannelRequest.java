@@ -1,11 +1,12 @@
 package com.urbanairship.api.channel;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.OpenChannelResponse;
 import com.urbanairship.api.channel.model.open.OpenChannelPayload;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
@@ -13,12 +14,11 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 public class OpenChannelRequest implements Request<OpenChannelResponse> {
 
     private final static String API_OPEN_CHANNEL = "/api/channels/open/";
+    private static final ResponseParser<OpenChannelResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), OpenChannelResponse.class);
 
     private final OpenChannelPayload payload;
 
@@ -41,17 +41,19 @@ public class OpenChannelRequest implements Request<OpenChannelResponse> {
         return payload.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return payload.toJSONBytes();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -61,7 +63,7 @@ public class OpenChannelRequest implements Request<OpenChannelResponse> {
 
     @Override
     public ResponseParser<OpenChannelResponse> getResponseParser() {
-        return response -> ChannelObjectMapper.getInstance().readValue(response, OpenChannelResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
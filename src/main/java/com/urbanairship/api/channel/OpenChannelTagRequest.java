@@ -3,14 +3,15 @@ package com.urbanairship.api.channel;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -106,7 +107,25 @@ public class OpenChannelTagRequest implements Request<String> {
 
     @Override
     public String getRequestBody() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception ex) {
+            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
+        }
+    }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ObjectNode buildPayload() {
         openNode.put(ADDRESS_KEY, address);
         openNode.put(OPEN_PLATFORM_NAME_KEY, openPlatformName);
         payloadNode.set(AUDIENCE_KEY, openNode);
@@ -129,11 +148,7 @@ public class OpenChannelTagRequest implements Request<String> {
             Preconditions.checkArgument(!payloadNode.has(REMOVE_KEY) && !payloadNode.has(ADD_KEY));
         }
 
-        try {
-            return ChannelObjectMapper.getInstance().writeValueAsString(payloadNode);
-        } catch (Exception ex) {
-            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
-        }
+        return payloadNode;
     }
 
     @Override
@@ -142,11 +157,8 @@ public class OpenChannelTagRequest implements Request<String> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -2,10 +2,11 @@ package com.urbanairship.api.channel;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.ChannelUninstallResponse;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.APIParsingException;
@@ -13,6 +14,7 @@ import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +22,7 @@ public class OpenChannelUninstallRequest implements Request<ChannelUninstallResp
 
     private final static String API_OPEN_CHANNEL_UNINSTALL = "/api/channels/open/uninstall";
     private final static ObjectMapper MAPPER = ChannelObjectMapper.getInstance();
+    private static final ResponseParser<ChannelUninstallResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, ChannelUninstallResponse.class);
 
     private final Map<String, String> payload = new HashMap<String, String>();
 
@@ -48,17 +51,23 @@ public class OpenChannelUninstallRequest implements Request<ChannelUninstallResp
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(payload);
+        } catch (Exception e) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -68,7 +77,7 @@ public class OpenChannelUninstallRequest implements Request<ChannelUninstallResp
 
     @Override
     public ResponseParser<ChannelUninstallResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, ChannelUninstallResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
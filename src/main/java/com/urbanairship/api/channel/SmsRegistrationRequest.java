@@ -2,10 +2,11 @@ package com.urbanairship.api.channel;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.SmsRegistrationResponse;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.DateFormats;
@@ -15,6 +16,7 @@ import org.joda.time.DateTime;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +29,7 @@ public class SmsRegistrationRequest implements Request<SmsRegistrationResponse>
     private static final String SENDER_KEY = "sender";
     private static final String MSISDN_KEY = "msisdn";
     private static final String OPTED_IN_KEY = "opted_in";
+    private static final ResponseParser<SmsRegistrationResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), SmsRegistrationResponse.class);
 
     private final String path;
     private final Map<String, String> payload = new HashMap<String, String>();
@@ -100,28 +103,40 @@ public class SmsRegistrationRequest implements Request<SmsRegistrationResponse>
 
     @Override
     public String getRequestBody() {
-        Preconditions.checkArgument(!payload.isEmpty());
-        Preconditions.checkArgument(payload.containsKey(SENDER_KEY) && payload.containsKey(MSISDN_KEY),
-                "Sender and msisdn are required for opt-out, registration, and uninstall requests.");
-
+        Map<String, String> requestPayload = buildPayload();
         try {
-            return ChannelObjectMapper.getInstance().writeValueAsString(payload);
+            return ChannelObjectMapper.getInstance().writeValueAsString(requestPayload);
         } catch (JsonProcessingException e) {
             return "{ \"exception\" : \"" + e.getClass().getName() + "\", \"message\" : \"" + e.getMessage() + "\" }";
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        Map<String, String> requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (JsonProcessingException e) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private Map<String, String> buildPayload() {
+        Preconditions.checkArgument(!payload.isEmpty());
+        Preconditions.checkArgument(payload.containsKey(SENDER_KEY) && payload.containsKey(MSISDN_KEY),
+                "Sender and msisdn are required for opt-out, registration, and uninstall requests.");
+
+        return payload;
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -131,7 +146,7 @@ public class SmsRegistrationRequest implements Request<SmsRegistrationResponse>
 
     @Override
     public ResponseParser<SmsRegistrationResponse> getResponseParser() {
-        return response -> ChannelObjectMapper.getInstance().readValue(response, SmsRegistrationResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -1,23 +1,23 @@
 package com.urbanairship.api.channel;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.subscriptionlist.SubscriptionListPayload;
 import com.urbanairship.api.channel.model.subscriptionlist.SubscriptionListResponse;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 public class SubscriptionListRequest implements Request<SubscriptionListResponse> {
     private final ObjectMapper MAPPER = ChannelObjectMapper.getInstance();
     private final static String API_CHANNELS_SUBSCRIPTION_LIST = "/api/channels/subscription_lists/";
+    private static final ResponseParser<SubscriptionListResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), SubscriptionListResponse.class);
     private final String path;
     private final SubscriptionListPayload payload;
 
@@ -46,17 +46,19 @@ public class SubscriptionListRequest implements Request<SubscriptionListResponse
         return payload.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return payload.toJSONBytes();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -66,7 +68,7 @@ public class SubscriptionListRequest implements Request<SubscriptionListResponse
 
     @Override
     public ResponseParser<SubscriptionListResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, SubscriptionListResponse.class);
+        return RESPONSE_PARSER;
     }
     @Override
     public boolean bearerTokenAuthRequired() {
@@ -3,9 +3,9 @@ package com.urbanairship.api.channel.model.email;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -13,6 +13,7 @@ import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -104,7 +105,25 @@ public class EmailTagRequest implements Request<GenericResponse> {
 
     @Override
     public String getRequestBody() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception ex) {
+            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
+        }
+    }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ObjectNode buildPayload() {
         emailNode.put(EMAIL_CHANNEL_KEY, jsonStringBuilder.toString());
         payloadNode.set(AUDIENCE_KEY, emailNode);
 
@@ -124,11 +143,7 @@ public class EmailTagRequest implements Request<GenericResponse> {
             Preconditions.checkArgument(!payloadNode.has(REMOVE_KEY) && !payloadNode.has(ADD_KEY));
         }
 
-        try {
-            return ChannelObjectMapper.getInstance().writeValueAsString(payloadNode);
-        } catch (Exception ex) {
-            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
-        }
+        return payloadNode;
     }
 
     @Override
@@ -137,11 +152,8 @@ public class EmailTagRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
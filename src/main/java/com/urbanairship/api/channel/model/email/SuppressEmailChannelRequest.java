@@ -1,9 +1,10 @@
 package com.urbanairship.api.channel.model.email;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -18,6 +19,7 @@ import java.util.Map;
 public class SuppressEmailChannelRequest implements Request<GenericResponse> {
 
     private final static String API_EMAIL_CHANNEL_SUPPRESS = "/api/channels/email/suppress";
+    private static final ResponseParser<GenericResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), GenericResponse.class);
     private final Map<String, String> payload = new HashMap<>();
 
     private SuppressEmailChannelRequest(String address, String reason) {
@@ -45,17 +47,23 @@ public class SuppressEmailChannelRequest implements Request<GenericResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(payload);
+        } catch (Exception e) {
+            throw new APIParsingException(e.getMessage());
+        }
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -65,7 +73,7 @@ public class SuppressEmailChannelRequest implements Request<GenericResponse> {
 
     @Override
     public ResponseParser<GenericResponse> getResponseParser() {
-        return response -> ChannelObjectMapper.getInstance().readValue(response, GenericResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -1,17 +1,16 @@
 package com.urbanairship.api.channel.model.email;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 
 /**
@@ -21,6 +20,7 @@ import java.util.Map;
 public class UninstallEmailChannelRequest implements Request<EmailChannelResponse> {
 
     private final static String API_UNINSTALL_EMAIL_CHANNEL = "/api/channels/email/uninstall";
+    private static final ResponseParser<EmailChannelResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), EmailChannelResponse.class);
 
     private final UninstallEmailChannel payload;
 
@@ -49,17 +49,19 @@ public class UninstallEmailChannelRequest implements Request<EmailChannelRespons
         return payload.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return payload.toJSONBytes();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -69,7 +71,7 @@ public class UninstallEmailChannelRequest implements Request<EmailChannelRespons
 
     @Override
     public ResponseParser<EmailChannelResponse> getResponseParser() {
-        return response -> ChannelObjectMapper.getInstance().readValue(response, EmailChannelResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
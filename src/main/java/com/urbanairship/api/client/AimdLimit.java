@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+/**
+ * Additive increase, multiplicative decrease concurrency limit. Every successful request whose latency stays
+ * under the threshold grows the limit by {@code 1 / limit}, about one permit per round of requests; a rate
+ * limited request halves it and a slow one shrinks it by the backoff ratio. The limit is decreased at most once
+ * per round trip: requests sent before the last decrease were sent under the previous limit, so a burst of 429s
+ * from the same window only halves it once. Not thread safe, callers synchronize.
+ */
+class AimdLimit {
+
+    private static final double RATE_LIMITED_RATIO = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private double limit;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Record the outcome of a request.
+     *
+     * @param startNanos When the request was sent, on the same time source for every sample.
+     * @param latencyNanos The request latency.
+     * @param rateLimited Whether the request was rejected with a 429.
+     */
+    void onSample(long startNanos, long latencyNanos, boolean rateLimited) {
+        boolean slow = latencyThresholdNanos > 0 && latencyNanos > latencyThresholdNanos;
+        if (!rateLimited && !slow) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            return;
+        }
+
+        if (decreased && startNanos - lastDecreaseNanos < 0) {
+            // Sent before the last decrease, its window was already accounted for.
+            return;
+        }
+        limit = Math.max(minLimit, limit * (rateLimited ? RATE_LIMITED_RATIO : backoffRatio));
+        decreased = true;
+        lastDecreaseNanos = startNanos + latencyNanos;
+    }
+
+    /**
+     * Get the current number of requests allowed in flight.
+     *
+     * @return int
+     */
+    int getLimit() {
+        return (int) limit;
+    }
+}
@@ -1,23 +1,46 @@
 package com.urbanairship.api.client;
 
 import com.google.common.base.Preconditions;
-import org.apache.http.entity.ContentType;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.Channel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.asynchttpclient.AsyncCompletionHandlerBase;
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.BoundRequestBuilder;
 import org.asynchttpclient.DefaultAsyncHttpClient;
 import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.filter.FilterContext;
 import org.asynchttpclient.proxy.ProxyServer;
+import org.asynchttpclient.request.body.generator.InputStreamBodyGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
+import javax.net.ssl.SSLSession;
 
 /**
  * The AsyncRequestClient is the default request client used by the UrbanAirshipClient.
@@ -31,13 +54,25 @@ public class AsyncRequestClient implements RequestClient {
     private final URI baseUri;
     private final AsyncHttpClient client;
     private final DefaultAsyncHttpClientConfig clientConfig;
+    private final RetryBackoff retryBackoff;
+    private final Timer retryTimer;
+    private final ClientMetricsListener metricsListener;
+    private final Optional<WarmUpReport> warmUpReport;
+    private final Optional<Long> requestTimeoutMs;
 
     private AsyncRequestClient(Builder builder) {
         this.baseUri = URI.create(builder.baseUri);
+        this.retryBackoff = builder.retryBackoff;
+        this.metricsListener = builder.metricsListener;
+        this.requestTimeoutMs = Optional.ofNullable(builder.requestTimeoutMs);
+        this.retryTimer = new HashedWheelTimer(new ThreadFactoryBuilder()
+                .setNameFormat("ua-retry-timer-%d")
+                .setDaemon(true)
+                .build(), 10, TimeUnit.MILLISECONDS);
 
         DefaultAsyncHttpClientConfig.Builder clientConfigBuilder = builder.clientConfigBuilder;
 
-        clientConfigBuilder.addResponseFilter(new RequestRetryFilter(builder.maxRetries, Optional.ofNullable(builder.retryPredicate)));
+        clientConfigBuilder.addResponseFilter(new RequestRetryFilter(builder.maxRetries, Optional.ofNullable(builder.retryPredicate), retryBackoff));
 
         if (Optional.ofNullable(builder.proxyServer).isPresent()) {
             proxyServer = Optional.ofNullable(builder.proxyServer);
@@ -49,6 +84,14 @@ public class AsyncRequestClient implements RequestClient {
 
         this.clientConfig = clientConfigBuilder.build();
         this.client = new DefaultAsyncHttpClient(clientConfig);
+        int warmUpConnections = builder.warmUpConnections;
+        if (clientConfig.getMaxConnectionsPerHost() > 0) {
+            // Connections past the per host maximum would be refused by the pool.
+            warmUpConnections = Math.min(warmUpConnections, clientConfig.getMaxConnectionsPerHost());
+        }
+        this.warmUpReport = warmUpConnections > 0
+                ? Optional.of(warmUp(warmUpConnections, builder.warmUpTimeoutMs))
+                : Optional.empty();
     }
 
     /**
@@ -87,6 +130,41 @@ public class AsyncRequestClient implements RequestClient {
         return clientConfig;
     }
 
+    /**
+     * Get the retry backoff.
+     *
+     * @return RetryBackoff
+     */
+    public RetryBackoff getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Get the metrics listener.
+     *
+     * @return ClientMetricsListener
+     */
+    public ClientMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Get the total time a request may take, retries and their backoff included.
+     *
+     * @return Optional timeout in milliseconds, empty if requests are only bounded by the HTTP client timeouts.
+     */
+    public Optional<Long> getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    /**
+     * Get the report of the warm-up run when the client was built.
+     *
+     * @return Optional WarmUpReport, empty if the warm-up was not enabled.
+     */
+    public Optional<WarmUpReport> getWarmUpReport() {
+        return warmUpReport;
+    }
 
     @Override
     /**
@@ -96,16 +174,19 @@ public class AsyncRequestClient implements RequestClient {
      * @param callback A ResponseCallback instance.
      * @return A client response future.
      */
-    public <T> Future<Response> executeAsync(final Request<T> request, final ResponseCallback callback, Map<String, String> headers) {
+    public <T> Future<Response<T>> executeAsync(final Request<T> request, final ResponseCallback callback, Map<String, String> headers) {
         BoundRequestBuilder requestBuilder;
+        URI requestUri;
         String uri;
 
         try {
-            uri = request.getUri(baseUri).toString();
+            requestUri = request.getUri(baseUri);
+            uri = requestUri.toString();
         } catch (URISyntaxException e) {
             log.error("Failed to generate a request URI from base URI " + baseUri.toString(), e);
             throw new RuntimeException(e);
         }
+        MetricsRecorder metrics = new MetricsRecorder(metricsListener, request.getHttpMethod(), requestUri.getPath());
 
         switch (request.getHttpMethod()) {
             case GET:
@@ -131,26 +212,276 @@ public class AsyncRequestClient implements RequestClient {
         }
 
         // Body
-        String body = request.getRequestBody();
-        ContentType contentType = request.getContentType();
-        if (body != null && contentType != null) {
-            requestBuilder.setBody(body.getBytes(contentType.getCharset()));
+        Optional<BodyPublisher> bodyPublisher = request.getBodyPublisher();
+        if (bodyPublisher.isPresent()) {
+            if (bodyPublisher.get().getFile().isPresent()) {
+                requestBuilder.setBody(bodyPublisher.get().getFile().get());
+                long length = bodyPublisher.get().getFile().get().length();
+                metrics.setBytesOut(() -> length);
+            }
+            log.debug(String.format("Executing Urban Airship request to %s with a streamed body.", uri));
+        } else {
+            byte[] body = request.getContentType() != null ? request.getRequestBodyBytes() : null;
+            if (body != null) {
+                requestBuilder.setBody(body);
+                metrics.setBytesOut(() -> body.length);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Executing Urban Airship request to %s with body %s.", uri,
+                        body != null ? new String(body, StandardCharsets.UTF_8) : null));
+            }
         }
 
-        log.debug(String.format("Executing Urban Airship request to %s with body %s.", uri, request.getRequestBody()));
-        ResponseAsyncHandler<T> handler = new ResponseAsyncHandler<>(Optional.ofNullable(callback), request.getResponseParser());
-        return requestBuilder.execute(handler);
+        ResponseAsyncHandler<T> handler = new ResponseAsyncHandler<>(Optional.ofNullable(callback), request.getResponseParser(), request.getBodySink(), metrics);
+        Execution<T> execution = new Execution<>(() -> {
+            if (bodyPublisher.isPresent() && !bodyPublisher.get().getFile().isPresent()) {
+                // Streams can only be read once, every attempt sends a freshly opened one.
+                CountingInputStream stream = new CountingInputStream(bodyPublisher.get().openStream());
+                metrics.setBytesOut(stream::getCount);
+                requestBuilder.setBody(new InputStreamBodyGenerator(stream, bodyPublisher.get().getContentLength()));
+            }
+            return requestBuilder.build();
+        }, handler, metrics);
+        Optional<Long> timeoutMs = request.getTimeoutMs().isPresent() ? request.getTimeoutMs() : requestTimeoutMs;
+        if (timeoutMs.isPresent()) {
+            execution.expireAfter(uri, timeoutMs.get());
+        }
+        execution.attempt();
+        return execution.result;
     }
 
     /**
-     * Close the underlying HTTP client's thread pool.
+     * Resolve the base URI host, then open connections to it in parallel so they are pooled before the first
+     * request. Each connection is opened by a HEAD request to the base URI, whatever its response.
+     */
+    private WarmUpReport warmUp(int connections, long timeoutMs) {
+        long startNanos = System.nanoTime();
+        WarmUpReport.Builder report = WarmUpReport.newBuilder()
+                .setBaseUri(baseUri)
+                .setConnectionsRequested(connections);
+        Throwable error = null;
+
+        try {
+            List<InetAddress> addresses = Arrays.asList(InetAddress.getAllByName(baseUri.getHost()));
+            report.setResolveNanos(System.nanoTime() - startNanos)
+                    .addAllAddresses(addresses);
+        } catch (UnknownHostException e) {
+            error = e;
+        }
+
+        List<WarmUpHandler> handlers = new ArrayList<>(connections);
+        List<ListenableFuture<org.asynchttpclient.Response>> futures = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            WarmUpHandler handler = new WarmUpHandler();
+            handlers.add(handler);
+            futures.add(client.prepareHead(baseUri.toString()).execute(handler));
+        }
+
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (ListenableFuture<org.asynchttpclient.Response> future : futures) {
+            try {
+                future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                error = error != null ? error : e.getCause();
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                error = error != null ? error : e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                error = error != null ? error : e;
+            }
+        }
+
+        for (WarmUpHandler handler : handlers) {
+            if (handler.connectNanos != null) {
+                report.addConnectNanos(handler.connectNanos);
+            }
+        }
+
+        WarmUpReport warmUp = report
+                .setError(error)
+                .setTotalNanos(System.nanoTime() - startNanos)
+                .build();
+        if (warmUp.isComplete()) {
+            log.info(String.format("Warmed up %d connections to %s in %d ms", connections, baseUri,
+                    TimeUnit.NANOSECONDS.toMillis(warmUp.getTotalNanos())));
+        } else {
+            log.warn(String.format("Warm-up opened %d of %d connections to %s", warmUp.getConnectionsOpened(),
+                    connections, baseUri), error);
+        }
+
+        try {
+            metricsListener.onWarmUpCompleted(warmUp);
+        } catch (RuntimeException e) {
+            log.warn("Metrics listener failed", e);
+        }
+        return warmUp;
+    }
+
+    /**
+     * Close the underlying HTTP client's thread pool and cancel requests waiting to be retried.
      */
     @Override
     public void close() throws IOException {
         log.info("Closing client");
+        for (Timeout timeout : retryTimer.stop()) {
+            if (timeout.task() instanceof Execution) {
+                ((Execution<?>) timeout.task()).result.cancel(true);
+            }
+        }
         client.close();
     }
 
+    /**
+     * A single logical request, spanning the initial attempt and every retry. Retries are scheduled on the retry
+     * timer rather than waited for, so no I/O thread is ever held by a backing-off request. The timeout of the
+     * request is scheduled on the same timer, and cancels whichever attempt or retry is pending when it fires.
+     */
+    private class Execution<T> implements TimerTask {
+        private final Callable<org.asynchttpclient.Request> httpRequest;
+        private final ResponseAsyncHandler<T> handler;
+        private final MetricsRecorder metrics;
+        private final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+
+        private volatile ListenableFuture<Response<T>> currentAttempt;
+        private volatile Timeout pendingRetry;
+        private volatile Timeout expiry;
+        private String uri;
+        private long timeoutMs;
+        private long deadlineNanos;
+
+        private Execution(Callable<org.asynchttpclient.Request> httpRequest, ResponseAsyncHandler<T> handler, MetricsRecorder metrics) {
+            this.httpRequest = httpRequest;
+            this.handler = handler;
+            this.metrics = metrics;
+
+            result.whenComplete((response, throwable) -> {
+                Timeout timeout = expiry;
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+                if (result.isCancelled() || throwable instanceof RequestTimeoutException) {
+                    cancelInFlight();
+                }
+                metrics.complete(throwable, handler.getRetryCount());
+            });
+        }
+
+        /**
+         * Fail the request once the timeout elapsed, to be called before the first attempt.
+         */
+        private void expireAfter(String uri, long timeoutMs) {
+            this.uri = uri;
+            this.timeoutMs = timeoutMs;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            try {
+                expiry = retryTimer.newTimeout(timeout -> expire(), timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException e) {
+                // The timer is stopped once the client is closed.
+                result.cancel(true);
+            }
+        }
+
+        private void expire() {
+            if (result.isDone()) {
+                return;
+            }
+
+            RequestTimeoutException e = new RequestTimeoutException(String.format("Request to %s timed out after %d ms and %d retries",
+                    uri, timeoutMs, handler.getRetryCount()), timeoutMs, handler.getRetryCount());
+            // Notify the callback before the in-flight attempt is cancelled, it only hears of the first failure.
+            handler.onThrowable(e);
+            result.completeExceptionally(e);
+        }
+
+        private void attempt() {
+            if (result.isDone()) {
+                return;
+            }
+
+            metrics.onAttempt();
+            ListenableFuture<Response<T>> future;
+            try {
+                future = client.executeRequest(httpRequest.call(), handler);
+            } catch (Exception e) {
+                handler.onThrowable(e);
+                result.completeExceptionally(e);
+                return;
+            }
+            currentAttempt = future;
+            future.toCompletableFuture().whenComplete(this::onAttemptCompleted);
+        }
+
+        private void onAttemptCompleted(Response<T> response, Throwable throwable) {
+            Optional<Long> retryDelay = handler.takePendingRetry();
+            if (throwable == null && retryDelay.isPresent()) {
+                if (expiry != null && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelay.get()) >= deadlineNanos) {
+                    // The retry would start after the deadline, fail now rather than hold the request.
+                    expire();
+                    return;
+                }
+                try {
+                    pendingRetry = retryTimer.newTimeout(this, retryDelay.get(), TimeUnit.MILLISECONDS);
+                } catch (IllegalStateException e) {
+                    // The timer is stopped once the client is closed.
+                    result.cancel(true);
+                }
+            } else if (throwable != null) {
+                result.completeExceptionally(unwrap(throwable));
+            } else {
+                result.complete(response);
+            }
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            attempt();
+        }
+
+        private void cancelInFlight() {
+            Timeout retry = pendingRetry;
+            if (retry != null) {
+                retry.cancel();
+            }
+
+            Future<Response<T>> attempt = currentAttempt;
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+        }
+
+        private Throwable unwrap(Throwable throwable) {
+            if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+                return throwable.getCause();
+            }
+            return throwable;
+        }
+    }
+
+    /**
+     * Times the opening of the connection a warm-up request is sent on, TLS handshake included.
+     */
+    private static class WarmUpHandler extends AsyncCompletionHandlerBase {
+        private volatile long connectStartNanos;
+        private volatile Long connectNanos;
+
+        @Override
+        public void onTcpConnectAttempt(InetSocketAddress remoteAddress) {
+            connectStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void onTcpConnectSuccess(InetSocketAddress remoteAddress, Channel connection) {
+            connectNanos = System.nanoTime() - connectStartNanos;
+        }
+
+        @Override
+        public void onTlsHandshakeSuccess(SSLSession sslSession) {
+            connectNanos = System.nanoTime() - connectStartNanos;
+        }
+    }
+
     /**
      * AsyncRequestClient Builder.
      */
@@ -160,7 +491,12 @@ public class AsyncRequestClient implements RequestClient {
         private Integer maxRetries = 10;
         private DefaultAsyncHttpClientConfig.Builder clientConfigBuilder = new DefaultAsyncHttpClientConfig.Builder();
         private Predicate<FilterContext> retryPredicate = null;
+        private RetryBackoff retryBackoff = RetryBackoff.newBuilder().build();
         private ProxyServer proxyServer;
+        private ClientMetricsListener metricsListener = ClientMetricsListener.NOOP;
+        private Integer warmUpConnections = 0;
+        private Long warmUpTimeoutMs = 10000L;
+        private Long requestTimeoutMs = null;
 
         private Builder() {
             baseUri = "https://go.urbanairship.com";
@@ -220,6 +556,67 @@ public class AsyncRequestClient implements RequestClient {
             return this;
         }
 
+        /**
+         * Set the backoff used between request retries -- defaults to full jitter with a 5 ms base and a 10 second cap.
+         *
+         * @param retryBackoff The retry backoff.
+         * @return Builder
+         */
+        public Builder setRetryBackoff(RetryBackoff retryBackoff) {
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
+        /**
+         * Set the listener receiving the measurements of every request -- defaults to a listener ignoring them.
+         *
+         * @param metricsListener The metrics listener.
+         * @return Builder
+         */
+        public Builder setMetricsListener(ClientMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        /**
+         * Set the number of connections to open before the client is built -- defaults to 0, no warm-up. The base
+         * URI host, e.g. UrbanAirshipClient.EU_URI, is resolved first, then the connections are opened in parallel
+         * and left in the pool, so the first requests do not pay for DNS, TCP and TLS. The count is capped by the
+         * maximum number of connections per host of the client config, when one is set.
+         *
+         * @param warmUpConnections The number of connections.
+         * @return Builder
+         */
+        public Builder setWarmUpConnections(Integer warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+            return this;
+        }
+
+        /**
+         * Set how long the warm-up may block the build -- defaults to 10000 ms. Connections still opening then are
+         * abandoned, the client is built anyway.
+         *
+         * @param warmUpTimeoutMs The timeout in milliseconds.
+         * @return Builder
+         */
+        public Builder setWarmUpTimeoutMs(Long warmUpTimeoutMs) {
+            this.warmUpTimeoutMs = warmUpTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the total time a request may take, every retry and backoff included -- defaults to none, requests are
+         * only bounded by the HTTP client timeouts. A request still running once it elapsed is cancelled and fails
+         * with a RequestTimeoutException. Requests can override it, see {@link TimeoutRequest}.
+         *
+         * @param requestTimeoutMs The timeout in milliseconds.
+         * @return Builder
+         */
+        public Builder setRequestTimeoutMs(Long requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+            return this;
+        }
+
         /**
          * Build an UrbanAirshipClient object.  Will fail if any of the following
          * preconditions are not met.
@@ -229,6 +626,11 @@ public class AsyncRequestClient implements RequestClient {
          * 3. The base URI has been overridden but not set.
          * 4. Max for non-POST 5xx retries must be set, already defaults to 10.
          * 5. HTTP client config builder must be set, already defaults to a new builder.
+         * 6. Retry backoff must be set, already defaults to full jitter.
+         * 7. Metrics listener must be set, already defaults to a listener ignoring the measurements.
+         * 8. Warm-up connections must be set and not negative, already defaults to 0.
+         * 9. Warm-up timeout must be set and positive, already defaults to 10000 ms.
+         * 10. Request timeout must be positive when set.
          * </pre>
          *
          * @return UrbanAirshipClient
@@ -237,6 +639,13 @@ public class AsyncRequestClient implements RequestClient {
             Preconditions.checkNotNull(baseUri, "base URI needed to build APIClient");
             Preconditions.checkNotNull(maxRetries, "max non-POST retries needed to build APIClient");
             Preconditions.checkNotNull(clientConfigBuilder, "Async HTTP client config builder needed to build APIClient");
+            Preconditions.checkNotNull(retryBackoff, "retry backoff needed to build APIClient");
+            Preconditions.checkNotNull(metricsListener, "metrics listener needed to build APIClient");
+            Preconditions.checkNotNull(warmUpConnections, "warm-up connections needed to build APIClient");
+            Preconditions.checkArgument(warmUpConnections >= 0, "warm-up connections must not be negative");
+            Preconditions.checkNotNull(warmUpTimeoutMs, "warm-up timeout needed to build APIClient");
+            Preconditions.checkArgument(warmUpTimeoutMs > 0, "warm-up timeout must be positive");
+            Preconditions.checkArgument(requestTimeoutMs == null || requestTimeoutMs > 0, "request timeout must be positive");
 
             return new AsyncRequestClient(this);
         }
@@ -0,0 +1,557 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.filter.FilterContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A RequestClient performing every request on the calling thread with the JDK's blocking HTTP stack. It is meant
+ * for callers that own their threads, typically one virtual thread per request on Java 21: the client takes no
+ * monitor around I/O and keeps no thread local state, and the JDK socket and HttpURLConnection implementations park
+ * virtual threads on I/O rather than pinning their carrier.
+ *
+ * {@link UrbanAirshipClient#execute(Request)} throws the request failure as is with this client:
+ * {@link ClientException}, {@link ServerException} or an IOException. The futures returned by
+ * {@link #executeAsync} are already complete. Retries follow the {@link RequestRetryFilter} rules, backing off by
+ * sleeping on the calling thread. A request timeout, see {@link Builder#setRequestTimeoutMs(Long)} and
+ * {@link TimeoutRequest}, bounds every attempt and backoff together: the connection of an attempt still running at
+ * the deadline is cut, and the request fails with a {@link RequestTimeoutException}.
+ */
+public class BlockingRequestClient implements RequestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockingRequestClient.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final URI baseUri;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final Optional<Long> requestTimeoutMs;
+    private final Optional<Proxy> proxy;
+    private final RequestRetryFilter retryFilter;
+    private final RetryBackoff retryBackoff;
+    private final ClientMetricsListener metricsListener;
+    private final BufferPool buffers;
+    private final Timer timer;
+
+    private BlockingRequestClient(Builder builder) {
+        this.baseUri = URI.create(builder.baseUri);
+        this.connectTimeoutMs = builder.connectTimeoutMs;
+        this.readTimeoutMs = builder.readTimeoutMs;
+        this.requestTimeoutMs = Optional.ofNullable(builder.requestTimeoutMs);
+        this.proxy = Optional.ofNullable(builder.proxy);
+        this.retryBackoff = builder.retryBackoff;
+        this.retryFilter = new RequestRetryFilter(builder.maxRetries, Optional.ofNullable(builder.retryPredicate), retryBackoff);
+        this.metricsListener = builder.metricsListener;
+        this.buffers = new BufferPool(BUFFER_SIZE, builder.maxPooledBuffers);
+        // The timer thread only starts once a request with a timeout runs.
+        this.timer = new HashedWheelTimer(new ThreadFactoryBuilder()
+                .setNameFormat("ua-blocking-timer-%d")
+                .setDaemon(true)
+                .build(), 10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * New BlockingRequestClient Builder.
+     *
+     * @return BlockingRequestClient Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the base URI used for the client.
+     *
+     * @return URI
+     */
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Get the proxy.
+     *
+     * @return Optional Proxy
+     */
+    public Optional<Proxy> getProxy() {
+        return proxy;
+    }
+
+    /**
+     * Get the timeout bounding every attempt and backoff of a request, unless the request brings its own.
+     *
+     * @return Optional timeout in milliseconds, empty if requests are only bounded by the connect and read timeouts.
+     */
+    public Optional<Long> getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    /**
+     * Get the retry backoff.
+     *
+     * @return RetryBackoff
+     */
+    public RetryBackoff getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Get the metrics listener.
+     *
+     * @return ClientMetricsListener
+     */
+    public ClientMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Execute the request on the calling thread.
+     *
+     * @param request An Urban Airship request object.
+     * @param callback A ResponseCallback instance.
+     * @param headers The request headers.
+     * @return A completed response future.
+     */
+    @Override
+    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+        CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        try {
+            result.complete(execute(request, callback, headers));
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Execute the request on the calling thread, throwing its failure as is.
+     *
+     * @param request An Urban Airship request object.
+     * @param callback A ResponseCallback instance.
+     * @param headers The request headers.
+     * @return The response.
+     * @throws IOException if the request could not be sent or its response read.
+     * @throws ClientException on a 401 or 403 response.
+     * @throws ServerException on a 5xx response that is not retried.
+     * @throws RequestTimeoutException once the request timeout elapsed.
+     */
+    @Override
+    public <T> Response<T> execute(Request<T> request, ResponseCallback callback, Map<String, String> headers) throws IOException {
+        URI requestUri;
+        try {
+            requestUri = request.getUri(baseUri);
+        } catch (URISyntaxException e) {
+            log.error("Failed to generate a request URI from base URI " + baseUri.toString(), e);
+            throw new RuntimeException(e);
+        }
+        MetricsRecorder metrics = new MetricsRecorder(metricsListener, request.getHttpMethod(), requestUri.getPath());
+        ResponseAsyncHandler<T> handler = new ResponseAsyncHandler<>(Optional.ofNullable(callback), request.getResponseParser(), request.getBodySink(), metrics);
+
+        Optional<BodyPublisher> bodyPublisher = request.getBodyPublisher();
+        byte[] body = null;
+        if (bodyPublisher.isPresent()) {
+            log.debug(String.format("Executing Urban Airship request to %s with a streamed body.", requestUri));
+        } else {
+            body = request.getContentType() != null ? request.getRequestBodyBytes() : null;
+            if (body != null) {
+                int length = body.length;
+                metrics.setBytesOut(() -> length);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Executing Urban Airship request to %s with body %s.", requestUri,
+                        body != null ? new String(body, StandardCharsets.UTF_8) : null));
+            }
+        }
+
+        String method = request.getHttpMethod().name();
+        // The retry predicate only sees the method and URI of the request.
+        org.asynchttpclient.Request filterRequest = new RequestBuilder(method).setUrl(requestUri.toString()).build();
+
+        Optional<Long> timeoutMs = request.getTimeoutMs().isPresent() ? request.getTimeoutMs() : requestTimeoutMs;
+        Optional<Long> deadlineNanos = timeoutMs.map(ms -> System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ms));
+        try {
+            while (true) {
+                metrics.onAttempt();
+                Response<T> response;
+                try {
+                    response = attempt(requestUri, method, headers, body, bodyPublisher, filterRequest, handler, metrics, deadlineNanos);
+                } catch (IOException e) {
+                    if (deadlineNanos.isPresent() && System.nanoTime() - deadlineNanos.get() >= 0) {
+                        // The attempt was cut at the deadline.
+                        throw timedOut(requestUri, timeoutMs.get(), handler);
+                    }
+                    throw e;
+                }
+
+                Optional<Long> retryDelay = handler.takePendingRetry();
+                if (!retryDelay.isPresent()) {
+                    metrics.complete(null, handler.getRetryCount());
+                    return response;
+                }
+                if (deadlineNanos.isPresent()
+                        && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelay.get()) - deadlineNanos.get() >= 0) {
+                    // The retry would start after the deadline, fail now rather than sleep.
+                    throw timedOut(requestUri, timeoutMs.get(), handler);
+                }
+                sleep(retryDelay.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            handler.onThrowable(e);
+            metrics.complete(e, handler.getRetryCount());
+            throw e;
+        }
+    }
+
+    private <T> Response<T> attempt(URI uri, String method, Map<String, String> headers, byte[] body,
+                                    Optional<BodyPublisher> bodyPublisher, org.asynchttpclient.Request filterRequest,
+                                    ResponseAsyncHandler<T> handler, MetricsRecorder metrics,
+                                    Optional<Long> deadlineNanos) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) (proxy.isPresent()
+                ? uri.toURL().openConnection(proxy.get())
+                : uri.toURL().openConnection());
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeoutMs);
+        connection.setReadTimeout(readTimeoutMs);
+        connection.setInstanceFollowRedirects(false);
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            connection.setRequestProperty(entry.getKey(), entry.getValue());
+        }
+
+        if (!deadlineNanos.isPresent()) {
+            return exchange(connection, uri, body, bodyPublisher, filterRequest, handler, metrics);
+        }
+
+        long remainingNanos = Math.max(0, deadlineNanos.get() - System.nanoTime());
+        int remainingMs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+        connection.setConnectTimeout(Math.min(connectTimeoutMs, remainingMs));
+        connection.setReadTimeout(Math.min(readTimeoutMs, remainingMs));
+        // The timeouts only bound one connect or read at a time, the connection is cut once the deadline passed.
+        Timeout watchdog;
+        try {
+            watchdog = timer.newTimeout(timeout -> connection.disconnect(), remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (IllegalStateException e) {
+            throw new IOException("Client closed", e);
+        }
+        try {
+            return exchange(connection, uri, body, bodyPublisher, filterRequest, handler, metrics);
+        } finally {
+            watchdog.cancel();
+        }
+    }
+
+    private <T> Response<T> exchange(HttpURLConnection connection, URI uri, byte[] body, Optional<BodyPublisher> bodyPublisher,
+                                     org.asynchttpclient.Request filterRequest, ResponseAsyncHandler<T> handler,
+                                     MetricsRecorder metrics) throws IOException {
+        InputStream source = null;
+        if (bodyPublisher.isPresent()) {
+            // Streams can only be read once, every attempt sends a freshly opened one.
+            CountingInputStream stream = new CountingInputStream(bodyPublisher.get().openStream());
+            metrics.setBytesOut(stream::getCount);
+            source = stream;
+            long length = bodyPublisher.get().getContentLength();
+            if (length >= 0) {
+                connection.setFixedLengthStreamingMode(length);
+            } else {
+                connection.setChunkedStreamingMode(BUFFER_SIZE);
+            }
+            connection.setDoOutput(true);
+        } else if (body != null) {
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setDoOutput(true);
+        }
+
+        metrics.onConnectAttempt();
+        connection.connect();
+        metrics.onConnected();
+
+        if (source != null) {
+            try (InputStream in = source; OutputStream out = connection.getOutputStream()) {
+                copy(in, out);
+            }
+        } else if (body != null) {
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        int statusCode = connection.getResponseCode();
+        HttpHeaders responseHeaders = new DefaultHttpHeaders(false);
+        for (Map.Entry<String, List<String>> entry : connection.getHeaderFields().entrySet()) {
+            // The status line is listed under a null name.
+            if (entry.getKey() != null) {
+                responseHeaders.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        HttpResponseStatus status = ResponseParts.status(uri, statusCode, connection.getResponseMessage(), 1, 1);
+        try {
+            retryFilter.filter(new FilterContext.FilterContextBuilder<Response<T>>()
+                    .asyncHandler(handler)
+                    .request(filterRequest)
+                    .responseStatus(status)
+                    .responseHeaders(responseHeaders)
+                    .build());
+            handler.onStatusReceived(status);
+            handler.onHeadersReceived(responseHeaders);
+
+            InputStream responseBody = statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (responseBody != null && statusCode >= 400) {
+                // Error bodies are parsed from a single part, the handler does not aggregate them.
+                byte[] error;
+                try (InputStream in = responseBody) {
+                    error = ByteStreams.toByteArray(in);
+                }
+                if (error.length > 0) {
+                    handler.onBodyPartReceived(ResponseParts.bodyPart(error));
+                }
+            } else if (responseBody != null) {
+                try (InputStream in = responseBody) {
+                    byte[] buffer = buffers.acquire();
+                    try {
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            if (read > 0) {
+                                handler.onBodyPartReceived(ResponseParts.bodyPart(Arrays.copyOf(buffer, read)));
+                            }
+                        }
+                    } finally {
+                        buffers.release(buffer);
+                    }
+                }
+            }
+            return handler.onCompleted();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = buffers.acquire();
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    private static <T> RequestTimeoutException timedOut(URI uri, long timeoutMs, ResponseAsyncHandler<T> handler) {
+        return new RequestTimeoutException(String.format("Request to %s timed out after %d ms and %d retries",
+                uri, timeoutMs, handler.getRetryCount()), timeoutMs, handler.getRetryCount());
+    }
+
+    private static void sleep(long delayMs) throws InterruptedIOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry the request");
+        }
+    }
+
+    /**
+     * Stop the timeout timer. Idle connections are kept alive by the JDK.
+     */
+    @Override
+    public void close() {
+        log.info("Closing client");
+        timer.stop();
+    }
+
+    /**
+     * BlockingRequestClient Builder.
+     */
+    public static class Builder {
+
+        private String baseUri;
+        private Integer maxRetries = 10;
+        private Integer connectTimeoutMs = 5000;
+        private Integer readTimeoutMs = 60000;
+        private Long requestTimeoutMs = null;
+        private Integer maxPooledBuffers = 256;
+        private Proxy proxy;
+        private Predicate<FilterContext> retryPredicate = null;
+        private RetryBackoff retryBackoff = RetryBackoff.newBuilder().build();
+        private ClientMetricsListener metricsListener = ClientMetricsListener.NOOP;
+
+        private Builder() {
+            baseUri = "https://go.urbanairship.com";
+        }
+
+        /**
+         * Set the base URI -- defaults to "https://go.urbanairship.com"
+         * @param URI String base URI
+         * @return Builder
+         */
+        public Builder setBaseUri(String URI) {
+            this.baseUri = URI;
+            return this;
+        }
+
+        /**
+         * Set the maximum for non-POST request retries on 5xxs -- defaults to 10.
+         *
+         * @param maxRetries The maximum.
+         * @return Builder
+         */
+        public Builder setMaxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Set the connect timeout in milliseconds -- defaults to 5000.
+         *
+         * @param connectTimeoutMs The timeout.
+         * @return Builder
+         */
+        public Builder setConnectTimeoutMs(Integer connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the timeout of every read in milliseconds -- defaults to 60000.
+         *
+         * @param readTimeoutMs The timeout.
+         * @return Builder
+         */
+        public Builder setReadTimeoutMs(Integer readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the timeout bounding every attempt and backoff of a request, in milliseconds -- defaults to none, requests
+         * only being bounded by the connect and read timeouts. A request still running once it elapsed fails with a
+         * RequestTimeoutException. Requests can override it, see {@link TimeoutRequest}.
+         *
+         * @param requestTimeoutMs The timeout in milliseconds.
+         * @return Builder
+         */
+        public Builder setRequestTimeoutMs(Long requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of idle 16 KB copy buffers kept for reuse -- defaults to 256.
+         *
+         * @param maxPooledBuffers The maximum.
+         * @return Builder
+         */
+        public Builder setMaxPooledBuffers(Integer maxPooledBuffers) {
+            this.maxPooledBuffers = maxPooledBuffers;
+            return this;
+        }
+
+        /**
+         * Set the proxy.
+         *
+         * @param proxy Proxy
+         * @return Builder
+         */
+        public Builder setProxy(Proxy proxy) {
+            this.proxy = proxy;
+            return this;
+        }
+
+        /**
+         * Set an optional predicate for allowing request retries on 5xxs.
+         *
+         * @param retryPredicate The retry predicate.
+         * @return Builder
+         */
+        public Builder setRetryPredicate(Predicate<FilterContext> retryPredicate) {
+            this.retryPredicate = retryPredicate;
+            return this;
+        }
+
+        /**
+         * Set the backoff used between request retries -- defaults to full jitter with a 5 ms base and a 10 second cap.
+         *
+         * @param retryBackoff The retry backoff.
+         * @return Builder
+         */
+        public Builder setRetryBackoff(RetryBackoff retryBackoff) {
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
+        /**
+         * Set the listener receiving the measurements of every request -- defaults to a listener ignoring them.
+         *
+         * @param metricsListener The metrics listener.
+         * @return Builder
+         */
+        public Builder setMetricsListener(ClientMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        /**
+         * Build a BlockingRequestClient object.  Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The base URI has been overridden but not set.
+         * 2. Max for non-POST 5xx retries must be set, already defaults to 10.
+         * 3. Connect and read timeouts must be positive, already default to 5 and 60 seconds.
+         * 4. Request timeout, if set, must be positive.
+         * 5. Max pooled buffers must not be negative, already defaults to 256.
+         * 6. Retry backoff must be set, already defaults to full jitter.
+         * 7. Metrics listener must be set, already defaults to a listener ignoring the measurements.
+         * </pre>
+         *
+         * @return BlockingRequestClient
+         */
+        public BlockingRequestClient build() {
+            Preconditions.checkNotNull(baseUri, "base URI needed to build APIClient");
+            Preconditions.checkNotNull(maxRetries, "max non-POST retries needed to build APIClient");
+            Preconditions.checkArgument(connectTimeoutMs != null && connectTimeoutMs > 0, "connect timeout must be positive");
+            Preconditions.checkArgument(readTimeoutMs != null && readTimeoutMs > 0, "read timeout must be positive");
+            Preconditions.checkArgument(requestTimeoutMs == null || requestTimeoutMs > 0, "request timeout must be positive");
+            Preconditions.checkArgument(maxPooledBuffers != null && maxPooledBuffers >= 0, "max pooled buffers cannot be negative");
+            Preconditions.checkNotNull(retryBackoff, "retry backoff needed to build APIClient");
+            Preconditions.checkNotNull(metricsListener, "metrics listener needed to build APIClient");
+
+            return new BlockingRequestClient(this);
+        }
+    }
+}
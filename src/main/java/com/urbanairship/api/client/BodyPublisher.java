@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * A request body streamed to the connection instead of being materialized as a String.
+ * Requests expose one through {@link Request#getBodyPublisher()}; see {@link BodyPublishers} for the
+ * available implementations.
+ */
+public interface BodyPublisher {
+
+    /**
+     * Get the body length in bytes.
+     *
+     * @return The length, or -1 if it is not known up front and the body must be sent chunked.
+     */
+    long getContentLength();
+
+    /**
+     * Open a new stream over the body. Called once per attempt, so a retried request sends the body again
+     * from the start. The caller closes the stream.
+     *
+     * @return InputStream
+     * @throws IOException if the body can not be opened.
+     */
+    InputStream openStream() throws IOException;
+
+    /**
+     * Get the file holding the body as is, if any. Clients may send such a body straight from disk
+     * (zero-copy where the transport allows it) instead of going through {@link #openStream()}.
+     *
+     * @return Optional file.
+     */
+    default Optional<File> getFile() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Factory methods for the {@link BodyPublisher} implementations.
+ */
+public final class BodyPublishers {
+
+    private BodyPublishers() {
+    }
+
+    /**
+     * A body read from a file. The file is sent as is and never loaded in memory.
+     *
+     * @param file The file.
+     * @return BodyPublisher
+     */
+    public static BodyPublisher ofFile(final File file) {
+        Preconditions.checkNotNull(file, "file cannot be null");
+        return new BodyPublisher() {
+            @Override
+            public long getContentLength() {
+                return file.length();
+            }
+
+            @Override
+            public InputStream openStream() throws IOException {
+                return new BufferedInputStream(new FileInputStream(file));
+            }
+
+            @Override
+            public Optional<File> getFile() {
+                return Optional.of(file);
+            }
+        };
+    }
+
+    /**
+     * A body held in memory. The array is not copied and must not be modified afterwards.
+     *
+     * @param bytes The body.
+     * @return BodyPublisher
+     */
+    public static BodyPublisher ofBytes(final byte[] bytes) {
+        Preconditions.checkNotNull(bytes, "bytes cannot be null");
+        return new BodyPublisher() {
+            @Override
+            public long getContentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+
+    /**
+     * A body gzip compressed on the fly while it is sent. Only a fixed size buffer is used whatever the
+     * size of the source, and the compressed length is not known up front, so the body is sent chunked.
+     *
+     * @param source The uncompressed body.
+     * @return BodyPublisher
+     */
+    public static BodyPublisher gzip(final BodyPublisher source) {
+        Preconditions.checkNotNull(source, "source cannot be null");
+        return new BodyPublisher() {
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public InputStream openStream() throws IOException {
+                return new GzipCompressingInputStream(source.openStream());
+            }
+        };
+    }
+}
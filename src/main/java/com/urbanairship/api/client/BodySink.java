@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A destination for a response body, fed part by part as the body arrives instead of being buffered and parsed.
+ * Requests expose one through {@link Request#getBodySink()}; see {@link BodySinks} for the available
+ * implementations.
+ *
+ * Parts are delivered in order on the client I/O thread. Reading from the connection does not resume until
+ * {@link #onBodyPart(ByteBuffer)} returns, so a slow sink throttles the download rather than piling the body
+ * up in memory.
+ */
+public interface BodySink {
+
+    /**
+     * Consume the next part of a successful response body.
+     *
+     * @param part The part, only valid for the duration of the call.
+     * @throws IOException if the part can not be consumed, aborting the request.
+     */
+    void onBodyPart(ByteBuffer part) throws IOException;
+
+    /**
+     * Called once the whole body was consumed.
+     *
+     * @throws IOException if the sink can not be completed.
+     */
+    void onComplete() throws IOException;
+
+    /**
+     * Called instead of {@link #onComplete()} when the request fails or its response is not a 2xx, in which case
+     * the body is not streamed to the sink.
+     *
+     * @param t The failure.
+     */
+    default void onError(Throwable t) {
+    }
+}
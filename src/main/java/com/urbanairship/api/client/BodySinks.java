@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Factory methods for the {@link BodySink} implementations.
+ */
+public final class BodySinks {
+
+    private BodySinks() {
+    }
+
+    /**
+     * A sink writing the body to an output stream, closed once the body is complete or the request fails.
+     *
+     * @param out The output stream.
+     * @return BodySink
+     */
+    public static BodySink ofOutputStream(final OutputStream out) {
+        Preconditions.checkNotNull(out, "output stream cannot be null");
+        return new BodySink() {
+            @Override
+            public void onBodyPart(ByteBuffer part) throws IOException {
+                if (part.hasArray()) {
+                    out.write(part.array(), part.arrayOffset() + part.position(), part.remaining());
+                } else {
+                    byte[] bytes = new byte[part.remaining()];
+                    part.get(bytes);
+                    out.write(bytes);
+                }
+            }
+
+            @Override
+            public void onComplete() throws IOException {
+                out.close();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                closeQuietly(out);
+            }
+        };
+    }
+
+    /**
+     * A sink writing the body to a channel, closed once the body is complete or the request fails.
+     *
+     * @param channel The channel.
+     * @return BodySink
+     */
+    public static BodySink ofChannel(final WritableByteChannel channel) {
+        Preconditions.checkNotNull(channel, "channel cannot be null");
+        return new BodySink() {
+            @Override
+            public void onBodyPart(ByteBuffer part) throws IOException {
+                while (part.hasRemaining()) {
+                    channel.write(part);
+                }
+            }
+
+            @Override
+            public void onComplete() throws IOException {
+                channel.close();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                closeQuietly(channel);
+            }
+        };
+    }
+
+    /**
+     * A sink decoding the body as UTF-8 and handing it over line by line, without the line terminator. Only the
+     * line being assembled is held in memory, so rows can be processed while the rest of the body downloads.
+     *
+     * @param rows The row callback.
+     * @return BodySink
+     */
+    public static BodySink ofRows(final Consumer<String> rows) {
+        Preconditions.checkNotNull(rows, "row callback cannot be null");
+        return new RowSink(rows);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static class RowSink implements BodySink {
+        private final Consumer<String> rows;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer chars = CharBuffer.allocate(8192);
+        private final StringBuilder line = new StringBuilder();
+        // Bytes of a character split across two parts.
+        private ByteBuffer leftover = ByteBuffer.allocate(0);
+
+        private RowSink(Consumer<String> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void onBodyPart(ByteBuffer part) {
+            ByteBuffer input = part;
+            if (leftover.hasRemaining()) {
+                input = ByteBuffer.allocate(leftover.remaining() + part.remaining());
+                input.put(leftover).put(part);
+                input.flip();
+            }
+            decode(input, false);
+            leftover = input.hasRemaining() ? copy(input) : ByteBuffer.allocate(0);
+        }
+
+        @Override
+        public void onComplete() {
+            decode(leftover, true);
+            leftover = ByteBuffer.allocate(0);
+            if (line.length() > 0) {
+                emit();
+            }
+        }
+
+        private void decode(ByteBuffer input, boolean endOfInput) {
+            CoderResult result;
+            do {
+                result = decoder.decode(input, chars, endOfInput);
+                drain();
+            } while (result.isOverflow());
+
+            if (endOfInput) {
+                while (decoder.flush(chars).isOverflow()) {
+                    drain();
+                }
+                drain();
+                decoder.reset();
+            }
+        }
+
+        private void drain() {
+            chars.flip();
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') {
+                    emit();
+                } else {
+                    line.append(c);
+                }
+            }
+            chars.clear();
+        }
+
+        private void emit() {
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                line.setLength(end - 1);
+            }
+            rows.accept(line.toString());
+            line.setLength(0);
+        }
+
+        private static ByteBuffer copy(ByteBuffer buffer) {
+            ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+            copy.put(buffer);
+            copy.flip();
+            return copy;
+        }
+    }
+}
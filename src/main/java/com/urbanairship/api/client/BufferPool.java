@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of fixed size copy buffers, shared by every thread. It is lock free and holds no thread local
+ * state, so it neither pins virtual threads nor grows with their number the way a per-thread cache would.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Take a buffer from the pool, or allocate one if the pool is empty.
+     *
+     * @return byte[] of the pool buffer size.
+     */
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            return new byte[bufferSize];
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool, dropping it if the pool is full.
+     *
+     * @param buffer A buffer taken from this pool.
+     */
+    void release(byte[] buffer) {
+        if (buffer.length != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of buffers waiting in the pool.
+     *
+     * @return int
+     */
+    int size() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+import com.urbanairship.api.client.CircuitBreakerRequestClient.State;
+
+/**
+ * Circuit breaker over a sliding window of the last calls. It opens once enough calls were recorded and either
+ * the failure rate or the slow call rate reaches its threshold, rejects every call while open, then lets a few
+ * probe calls through: the circuit closes if they all succeed quickly and opens again on the first that does
+ * not. Not thread safe, callers synchronize.
+ */
+class CircuitBreaker {
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final Ticker ticker;
+
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slow;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesLeft;
+    private int probesSucceeded;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowCallRateThreshold,
+                   long slowCallNanos, long openNanos, int halfOpenProbes, Ticker ticker) {
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenProbes = halfOpenProbes;
+        this.ticker = ticker;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    /**
+     * Ask to make a call, moving an open circuit to half open once its open duration is over.
+     *
+     * @return Whether the call may be made.
+     */
+    boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanosUntilHalfOpen() > 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesLeft = halfOpenProbes;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesLeft == 0) {
+                return false;
+            }
+            probesLeft--;
+        }
+        return true;
+    }
+
+    /**
+     * Record the outcome of a call allowed by {@link #tryAcquire()}.
+     *
+     * @param failed Whether the call failed.
+     * @param latencyNanos The call latency.
+     */
+    void onCall(boolean failed, long latencyNanos) {
+        boolean slowCall = latencyNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failed || slowCall) {
+                open();
+            } else if (++probesSucceeded == halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call started before the circuit opened.
+            return;
+        }
+
+        if (recorded == failedCalls.length) {
+            failures -= failedCalls[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failedCalls[next] = failed;
+        slowCalls[next] = slowCall;
+        failures += failed ? 1 : 0;
+        slow += slowCall ? 1 : 0;
+        next = (next + 1) % failedCalls.length;
+
+        if (recorded >= minimumCalls && (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    /**
+     * Give back the permit of a call whose outcome tells nothing of the endpoint health, e.g. a cancelled call.
+     */
+    void onIgnored() {
+        if (state == State.HALF_OPEN && probesLeft < halfOpenProbes - probesSucceeded) {
+            probesLeft++;
+        }
+    }
+
+    /**
+     * Get the time until an open circuit lets probe calls through.
+     *
+     * @return The delay in nanoseconds, 0 if the circuit is not open.
+     */
+    long nanosUntilHalfOpen() {
+        return state == State.OPEN ? Math.max(0, openedAtNanos + openNanos - ticker.read()) : 0;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Get the share of failed calls in the window.
+     *
+     * @return double between 0 and 1, 0 if no call was recorded.
+     */
+    double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    /**
+     * Get the share of slow calls in the window.
+     *
+     * @return double between 0 and 1, 0 if no call was recorded.
+     */
+    double getSlowCallRate() {
+        return recorded == 0 ? 0 : (double) slow / recorded;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = ticker.read();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slow = 0;
+    }
+}
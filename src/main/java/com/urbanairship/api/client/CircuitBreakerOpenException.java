@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+/**
+ * Exception thrown, without any request being sent, when the circuit of the request endpoint is open in the
+ * {@link CircuitBreakerRequestClient}.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    private final String pathTemplate;
+    private final long retryAfterMs;
+
+    public CircuitBreakerOpenException(String pathTemplate, long retryAfterMs) {
+        super(String.format("Circuit open for %s, probing again in %d ms", pathTemplate, retryAfterMs));
+        this.pathTemplate = pathTemplate;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    /**
+     * Get the path template of the endpoint whose circuit is open.
+     *
+     * @return String
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Get the time until the circuit lets probe requests through.
+     *
+     * @return long milliseconds, 0 if it is already probing and every probe is in flight.
+     */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
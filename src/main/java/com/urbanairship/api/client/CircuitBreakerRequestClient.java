@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RequestClient failing fast the requests to a degraded endpoint instead of handing them to another
+ * RequestClient, usually the {@link AsyncRequestClient}, so one sick API cannot hold every connection and thread.
+ *
+ * Every request path template, e.g. "/api/reports/{id}", has its own circuit breaker, which opens when over
+ * the window of its last requests either of the following reaches its threshold:
+ * <pre>
+ * 1. The failure rate. Server errors, I/O errors and timeouts are failures, client errors are not.
+ * 2. The slow call rate, a request being slow once it takes longer than the slow call threshold.
+ * </pre>
+ * While a circuit is open its requests fail with a {@link CircuitBreakerOpenException}. Once the open duration
+ * is over, a few probe requests are let through: the circuit closes if they all succeed, opens again otherwise.
+ * At most {@link Builder#setMaxCircuits(int)} circuits are kept, the least recently requested being dropped first.
+ *
+ * <pre>
+ * UrbanAirshipClient client = UrbanAirshipClient.newBuilder()
+ *     .setKey("key")
+ *     .setSecret("secret")
+ *     .setClient(CircuitBreakerRequestClient.newBuilder()
+ *         .setClient(AsyncRequestClient.newBuilder().build())
+ *         .setFailureRateThreshold(0.5)
+ *         .build())
+ *     .build();
+ * </pre>
+ */
+public class CircuitBreakerRequestClient implements RequestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerRequestClient.class);
+
+    /**
+     * The state of a circuit.
+     */
+    public enum State {
+        /**
+         * Requests go through and their outcomes are recorded.
+         */
+        CLOSED,
+        /**
+         * Requests fail with a CircuitBreakerOpenException.
+         */
+        OPEN,
+        /**
+         * A limited number of probe requests go through, the others fail as if the circuit was open.
+         */
+        HALF_OPEN
+    }
+
+    private final RequestClient client;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallThresholdMs;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+    private final Ticker ticker;
+
+    private final Object lock = new Object();
+    private final Map<String, CircuitBreaker> breakers;
+    private long rejected;
+
+    private CircuitBreakerRequestClient(Builder builder) {
+        this.client = builder.client;
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallThresholdMs = builder.slowCallThresholdMs;
+        this.openDurationMs = builder.openDurationMs;
+        this.halfOpenProbes = builder.halfOpenProbes;
+        this.ticker = builder.ticker;
+        int maxCircuits = builder.maxCircuits;
+        this.breakers = new LinkedHashMap<String, CircuitBreaker>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CircuitBreaker> eldest) {
+                return size() > maxCircuits;
+            }
+        };
+    }
+
+    /**
+     * New CircuitBreakerRequestClient Builder.
+     *
+     * @return CircuitBreakerRequestClient Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+        String pathTemplate = MetricsRecorder.pathTemplate(request);
+        CircuitBreaker breaker;
+        long retryAfterNanos;
+        synchronized (lock) {
+            breaker = breakers.computeIfAbsent(pathTemplate, template -> newBreaker());
+            State before = breaker.getState();
+            boolean allowed = breaker.tryAcquire();
+            if (before != breaker.getState()) {
+                log.info(String.format("Circuit for %s half open, probing", pathTemplate));
+            }
+            if (allowed) {
+                retryAfterNanos = -1;
+            } else {
+                rejected++;
+                retryAfterNanos = breaker.nanosUntilHalfOpen();
+            }
+        }
+
+        CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        if (retryAfterNanos >= 0) {
+            result.completeExceptionally(new CircuitBreakerOpenException(pathTemplate,
+                    TimeUnit.NANOSECONDS.toMillis(retryAfterNanos)));
+            return result;
+        }
+
+        final long start = ticker.read();
+        final AtomicBoolean recorded = new AtomicBoolean();
+        final CompletableFuture<Response<T>> viaCallback = new CompletableFuture<>();
+
+        Future<Response<T>> future;
+        try {
+            future = client.executeAsync(request, new ResponseCallback() {
+                @Override
+                public void completed(Response response) {
+                    if (callback != null) {
+                        callback.completed(response);
+                    }
+                    @SuppressWarnings("unchecked")
+                    Response<T> typed = response;
+                    viaCallback.complete(typed);
+                }
+
+                @Override
+                public void error(Throwable throwable) {
+                    if (callback != null) {
+                        callback.error(throwable);
+                    }
+                    viaCallback.completeExceptionally(throwable);
+                }
+            }, headers);
+        } catch (RuntimeException e) {
+            record(pathTemplate, breaker, start, null, e, recorded);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        CompletableFuture<Response<T>> source = future instanceof CompletableFuture
+                ? (CompletableFuture<Response<T>>) future
+                : viaCallback;
+        source.whenComplete((response, throwable) -> {
+            Throwable error = throwable != null ? unwrap(throwable) : null;
+            record(pathTemplate, breaker, start, response, error, recorded);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the state of the circuit of a path template.
+     *
+     * @param pathTemplate The request path with its identifiers replaced by {@code {id}}, as in
+     * {@link RequestMetrics#getPathTemplate()}.
+     * @return State, CLOSED if no request was made to the path template.
+     */
+    public State getState(String pathTemplate) {
+        synchronized (lock) {
+            CircuitBreaker breaker = breakers.get(pathTemplate);
+            return breaker == null ? State.CLOSED : breaker.getState();
+        }
+    }
+
+    /**
+     * Get the state of the circuit of every path template requested so far.
+     *
+     * @return Map of path templates to states.
+     */
+    public Map<String, State> getStates() {
+        synchronized (lock) {
+            ImmutableMap.Builder<String, State> states = ImmutableMap.builder();
+            for (Map.Entry<String, CircuitBreaker> breaker : breakers.entrySet()) {
+                states.put(breaker.getKey(), breaker.getValue().getState());
+            }
+            return states.build();
+        }
+    }
+
+    /**
+     * Get the failure rate over the window of a closed circuit.
+     *
+     * @param pathTemplate The request path template.
+     * @return Optional rate between 0 and 1, empty if no request was made to the path template.
+     */
+    public Optional<Double> getFailureRate(String pathTemplate) {
+        synchronized (lock) {
+            CircuitBreaker breaker = breakers.get(pathTemplate);
+            return breaker == null ? Optional.empty() : Optional.of(breaker.getFailureRate());
+        }
+    }
+
+    /**
+     * Get the slow call rate over the window of a closed circuit.
+     *
+     * @param pathTemplate The request path template.
+     * @return Optional rate between 0 and 1, empty if no request was made to the path template.
+     */
+    public Optional<Double> getSlowCallRate(String pathTemplate) {
+        synchronized (lock) {
+            CircuitBreaker breaker = breakers.get(pathTemplate);
+            return breaker == null ? Optional.empty() : Optional.of(breaker.getSlowCallRate());
+        }
+    }
+
+    /**
+     * Get the number of requests failed fast because their circuit was open.
+     *
+     * @return long
+     */
+    public long getRejectedCount() {
+        synchronized (lock) {
+            return rejected;
+        }
+    }
+
+    /**
+     * Get the underlying request client.
+     *
+     * @return RequestClient
+     */
+    public RequestClient getClient() {
+        return client;
+    }
+
+    /**
+     * Close the underlying client.
+     */
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    private CircuitBreaker newBreaker() {
+        return new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs), TimeUnit.MILLISECONDS.toNanos(openDurationMs),
+                halfOpenProbes, ticker);
+    }
+
+    private void record(String pathTemplate, CircuitBreaker breaker, long start, Response<?> response, Throwable error, AtomicBoolean recorded) {
+        if (!recorded.compareAndSet(false, true)) {
+            return;
+        }
+
+        long latencyNanos = ticker.read() - start;
+        State before;
+        State after;
+        synchronized (lock) {
+            before = breaker.getState();
+            if (error instanceof CancellationException || error instanceof RejectedExecutionException) {
+                breaker.onIgnored();
+            } else {
+                boolean failed = error != null
+                        ? !(error instanceof ClientException)
+                        : response != null && response.getStatus() >= 500;
+                breaker.onCall(failed, latencyNanos);
+            }
+            after = breaker.getState();
+        }
+        if (after == State.OPEN && before != State.OPEN) {
+            log.warn(String.format("Circuit for %s opened for %d ms", pathTemplate, openDurationMs));
+        } else if (after == State.CLOSED && before == State.HALF_OPEN) {
+            log.info(String.format("Circuit for %s closed", pathTemplate));
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * CircuitBreakerRequestClient Builder.
+     */
+    public static class Builder {
+        private RequestClient client;
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 1.0;
+        private long slowCallThresholdMs = 10000;
+        private long openDurationMs = 30000;
+        private int halfOpenProbes = 5;
+        private int maxCircuits = 1000;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client the requests are handed to.
+         *
+         * @param client RequestClient
+         * @return Builder
+         */
+        public Builder setClient(RequestClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the number of last requests the rates are computed over -- defaults to 100.
+         *
+         * @param windowSize int
+         * @return Builder
+         */
+        public Builder setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Set the number of requests to record before a circuit may open -- defaults to 20.
+         *
+         * @param minimumCalls int
+         * @return Builder
+         */
+        public Builder setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Set the failure rate opening a circuit -- defaults to 0.5.
+         *
+         * @param failureRateThreshold double in (0, 1]
+         * @return Builder
+         */
+        public Builder setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Set the slow call rate opening a circuit -- defaults to 1.0, every request in the window being slow.
+         *
+         * @param slowCallRateThreshold double in (0, 1]
+         * @return Builder
+         */
+        public Builder setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * Set the latency from which a request is slow -- defaults to 10 seconds.
+         *
+         * @param slowCallThresholdMs long
+         * @return Builder
+         */
+        public Builder setSlowCallThresholdMs(long slowCallThresholdMs) {
+            this.slowCallThresholdMs = slowCallThresholdMs;
+            return this;
+        }
+
+        /**
+         * Set how long an open circuit fails requests before probing -- defaults to 30 seconds.
+         *
+         * @param openDurationMs long
+         * @return Builder
+         */
+        public Builder setOpenDurationMs(long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+            return this;
+        }
+
+        /**
+         * Set the number of probe requests a half open circuit lets through -- defaults to 5.
+         *
+         * @param halfOpenProbes int
+         * @return Builder
+         */
+        public Builder setHalfOpenProbes(int halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of circuits kept, the least recently requested path template losing its circuit
+         * first -- defaults to 1000.
+         *
+         * @param maxCircuits int
+         * @return Builder
+         */
+        public Builder setMaxCircuits(int maxCircuits) {
+            this.maxCircuits = maxCircuits;
+            return this;
+        }
+
+        /**
+         * Set the time source, for tests.
+         *
+         * @param ticker Ticker
+         * @return Builder
+         */
+        Builder setTicker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Build a CircuitBreakerRequestClient object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The window size must be positive.
+         * 3. The minimum calls must be between 1 and the window size.
+         * 4. The failure and slow call rate thresholds must be in (0, 1].
+         * 5. The slow call threshold and the open duration must be positive.
+         * 6. The half open probes must be positive.
+         * 7. The max circuits must be positive.
+         * </pre>
+         *
+         * @return CircuitBreakerRequestClient
+         */
+        public CircuitBreakerRequestClient build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(windowSize > 0, "window size must be positive");
+            Preconditions.checkArgument(minimumCalls > 0 && minimumCalls <= windowSize,
+                    "minimum calls must be between 1 and the window size");
+            Preconditions.checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1, "failure rate threshold must be in (0, 1]");
+            Preconditions.checkArgument(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1, "slow call rate threshold must be in (0, 1]");
+            Preconditions.checkArgument(slowCallThresholdMs > 0, "slow call threshold must be positive");
+            Preconditions.checkArgument(openDurationMs > 0, "open duration must be positive");
+            Preconditions.checkArgument(halfOpenProbes > 0, "half open probes must be positive");
+            Preconditions.checkArgument(maxCircuits > 0, "max circuits must be positive");
+
+            return new CircuitBreakerRequestClient(this);
+        }
+    }
+}
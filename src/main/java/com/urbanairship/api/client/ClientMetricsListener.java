@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+/**
+ * Receives timing and size measurements for the requests executed by the {@link AsyncRequestClient}, to be
+ * exported to a metrics library. Listeners are called on the I/O threads, so they should only record the
+ * values and return; exceptions they throw are logged and ignored.
+ *
+ * <pre>
+ * AsyncRequestClient.newBuilder()
+ *     .setMetricsListener(metrics -&gt; timer(metrics.getPathTemplate(), metrics.getStatus())
+ *         .record(metrics.getTotalNanos(), TimeUnit.NANOSECONDS))
+ *     .build();
+ * </pre>
+ */
+@FunctionalInterface
+public interface ClientMetricsListener {
+
+    /**
+     * Listener ignoring every event, the default.
+     */
+    ClientMetricsListener NOOP = metrics -> { };
+
+    /**
+     * Called when a request is handed to the HTTP client, before any connection is made.
+     *
+     * @param method The HTTP method.
+     * @param pathTemplate The request path with its identifiers replaced by {@code {id}}.
+     */
+    default void onRequestEnqueued(Request.HttpMethod method, String pathTemplate) {
+    }
+
+    /**
+     * Called once a request is over, after its last retry, whether it succeeded or failed.
+     *
+     * @param metrics The request measurements.
+     */
+    void onRequestCompleted(RequestMetrics metrics);
+
+    /**
+     * Called once the warm-up of a client is over, before the client is returned by its builder.
+     *
+     * @param report The warm-up measurements.
+     */
+    default void onWarmUpCompleted(WarmUpReport report) {
+    }
+}
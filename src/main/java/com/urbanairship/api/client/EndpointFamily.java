@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Groups of API endpoints sharing a rate limit, used by the {@link RateLimitedRequestClient}.
+ */
+public enum EndpointFamily {
+    PUSH("/api/push/"),
+    CHANNELS("/api/channels/"),
+    NAMED_USERS("/api/named_users/"),
+    REPORTS("/api/reports/"),
+    OTHER(null);
+
+    private static final URI RESOLUTION_BASE = URI.create("https://go.urbanairship.com");
+
+    private final String pathPrefix;
+
+    EndpointFamily(String pathPrefix) {
+        this.pathPrefix = pathPrefix;
+    }
+
+    /**
+     * Get the family a request path belongs to.
+     *
+     * @param path The request path.
+     * @return EndpointFamily, OTHER if the path matches none of the families.
+     */
+    public static EndpointFamily fromPath(String path) {
+        if (path != null) {
+            String normalized = path.endsWith("/") ? path : path + "/";
+            for (EndpointFamily family : values()) {
+                if (family.pathPrefix != null && normalized.startsWith(family.pathPrefix)) {
+                    return family;
+                }
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Get the family a request belongs to.
+     *
+     * @param request The request.
+     * @return EndpointFamily, OTHER if the request matches none of the families.
+     */
+    public static EndpointFamily of(Request<?> request) {
+        try {
+            return fromPath(request.getUri(RESOLUTION_BASE).getPath());
+        } catch (URISyntaxException e) {
+            return OTHER;
+        }
+    }
+}
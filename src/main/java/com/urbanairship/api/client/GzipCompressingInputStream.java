@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * InputStream producing the gzip compressed form of its source as it is read, the pull counterpart of
+ * {@link java.util.zip.GZIPOutputStream}.
+ */
+class GzipCompressingInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b,  // magic number
+            Deflater.DEFLATED,  // compression method
+            0,                  // flags
+            0, 0, 0, 0,         // modification time
+            0,                  // extra flags
+            (byte) 0xff         // operating system: unknown
+    };
+
+    private final InputStream source;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] input = new byte[BUFFER_SIZE];
+    private final byte[] single = new byte[1];
+
+    private byte[] pending = HEADER;
+    private int pendingOffset = 0;
+    private boolean trailerQueued;
+    private boolean closed;
+
+    GzipCompressingInputStream(InputStream source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            if (pendingOffset < pending.length) {
+                int n = Math.min(len, pending.length - pendingOffset);
+                System.arraycopy(pending, pendingOffset, b, off, n);
+                pendingOffset += n;
+                return n;
+            }
+
+            if (trailerQueued) {
+                return -1;
+            }
+
+            if (!deflater.finished()) {
+                if (deflater.needsInput()) {
+                    int read = source.read(input, 0, input.length);
+                    if (read == -1) {
+                        deflater.finish();
+                    } else if (read > 0) {
+                        crc.update(input, 0, read);
+                        deflater.setInput(input, 0, read);
+                    }
+                }
+
+                int n = deflater.deflate(b, off, len);
+                if (n > 0) {
+                    return n;
+                }
+                continue;
+            }
+
+            pending = trailer();
+            pendingOffset = 0;
+            trailerQueued = true;
+        }
+    }
+
+    private byte[] trailer() {
+        byte[] trailer = new byte[8];
+        writeInt((int) crc.getValue(), trailer, 0);
+        writeInt((int) deflater.getBytesRead(), trailer, 4);
+        return trailer;
+    }
+
+    private static void writeInt(int value, byte[] buffer, int offset) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            deflater.end();
+            source.close();
+        }
+    }
+}
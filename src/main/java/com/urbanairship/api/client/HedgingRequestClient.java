@@ -0,0 +1,538 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RequestClient hedging the GET requests handed to another RequestClient, usually the {@link AsyncRequestClient},
+ * to cut the tail latency of lookups such as {@code ChannelRequest.newRequest(channel)}.
+ *
+ * When a GET has not completed after the hedge delay of its path template, an identical request is sent; the
+ * first of the two to succeed completes the request and the other one is cancelled. The hedge delay is a
+ * percentile, 95th by default, of the recent latencies of the path template, so only the slowest requests are
+ * hedged. A latency spans the whole request, from the original request being sent to the first success, whichever
+ * attempt it came from; the percentile is only computed again every twentieth of the window. A budget caps the
+ * hedges to a share of the requests, so a slow API is not sent twice the load.
+ * Other methods, and requests streaming their response body to a sink, are never hedged.
+ *
+ * <pre>
+ * UrbanAirshipClient client = UrbanAirshipClient.newBuilder()
+ *     .setKey("key")
+ *     .setSecret("secret")
+ *     .setClient(HedgingRequestClient.newBuilder()
+ *         .setClient(AsyncRequestClient.newBuilder().build())
+ *         .setMaxHedgeRatio(0.05)
+ *         .build())
+ *     .build();
+ * </pre>
+ */
+public class HedgingRequestClient implements RequestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingRequestClient.class);
+
+    private final RequestClient client;
+    private final double percentile;
+    private final int windowSize;
+    private final int minimumSamples;
+    private final long minHedgeDelayNanos;
+    private final double maxHedgeRatio;
+    private final double maxHedgeBurst;
+    private final Ticker ticker;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private final Map<String, LatencyWindow> latencies = new HashMap<>();
+    private double hedgeBudget;
+    private long requests;
+    private long hedges;
+    private long hedgeWins;
+
+    private HedgingRequestClient(Builder builder) {
+        this.client = builder.client;
+        this.percentile = builder.percentile;
+        this.windowSize = builder.windowSize;
+        this.minimumSamples = builder.minimumSamples;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.minHedgeDelayMs);
+        this.maxHedgeRatio = builder.maxHedgeRatio;
+        this.maxHedgeBurst = builder.maxHedgeBurst;
+        this.hedgeBudget = builder.maxHedgeBurst;
+        this.ticker = builder.ticker;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ua-hedger-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * New HedgingRequestClient Builder.
+     *
+     * @return HedgingRequestClient Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+        if (request.getHttpMethod() != Request.HttpMethod.GET || request.getBodySink().isPresent()) {
+            return client.executeAsync(request, callback, headers);
+        }
+
+        String pathTemplate = MetricsRecorder.pathTemplate(request);
+        LatencyWindow window;
+        Optional<Long> hedgeDelayNanos;
+        synchronized (lock) {
+            requests++;
+            hedgeBudget = Math.min(maxHedgeBurst, hedgeBudget + maxHedgeRatio);
+            window = latencies.computeIfAbsent(pathTemplate, template -> new LatencyWindow(windowSize));
+            hedgeDelayNanos = hedgeDelayNanos(window);
+        }
+
+        Hedged<T> hedged = new Hedged<>(request, callback, headers, window);
+        hedged.result.whenComplete((response, throwable) -> {
+            hedged.cancelOutstanding();
+            if (callback != null && !hedged.result.isCancelled()) {
+                if (throwable != null) {
+                    callback.error(unwrap(throwable));
+                } else {
+                    callback.completed(response);
+                }
+            }
+        });
+
+        hedged.send(false);
+        if (hedgeDelayNanos.isPresent() && !hedged.result.isDone()) {
+            try {
+                hedged.scheduledHedge = scheduler.schedule(hedged::hedge, hedgeDelayNanos.get(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Hedging scheduler is shut down");
+            }
+        }
+        return hedged.result;
+    }
+
+    /**
+     * Get the delay after which a GET request to a path template is hedged.
+     *
+     * @param pathTemplate The request path with its identifiers replaced by {@code {id}}, as in
+     * {@link RequestMetrics#getPathTemplate()}.
+     * @return Optional delay in milliseconds, empty while too few requests were made to the path template.
+     */
+    public Optional<Long> getHedgeDelayMs(String pathTemplate) {
+        synchronized (lock) {
+            LatencyWindow window = latencies.get(pathTemplate);
+            if (window == null) {
+                return Optional.empty();
+            }
+            return hedgeDelayNanos(window).map(TimeUnit.NANOSECONDS::toMillis);
+        }
+    }
+
+    /**
+     * Get the number of GET requests eligible for hedging.
+     *
+     * @return long
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+
+    /**
+     * Get the number of hedge requests sent.
+     *
+     * @return long
+     */
+    public long getHedgeCount() {
+        synchronized (lock) {
+            return hedges;
+        }
+    }
+
+    /**
+     * Get the number of requests completed by their hedge rather than by the original request.
+     *
+     * @return long
+     */
+    public long getHedgeWinCount() {
+        synchronized (lock) {
+            return hedgeWins;
+        }
+    }
+
+    /**
+     * Get the share of the GET requests that were hedged.
+     *
+     * @return double between 0 and 1, 0 if no request was made.
+     */
+    public double getHedgeRate() {
+        synchronized (lock) {
+            return requests == 0 ? 0 : (double) hedges / requests;
+        }
+    }
+
+    /**
+     * Get the underlying request client.
+     *
+     * @return RequestClient
+     */
+    public RequestClient getClient() {
+        return client;
+    }
+
+    /**
+     * Stop hedging and close the underlying client.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        client.close();
+    }
+
+    private Optional<Long> hedgeDelayNanos(LatencyWindow window) {
+        if (window.size() < minimumSamples) {
+            return Optional.empty();
+        }
+        return Optional.of(Math.max(minHedgeDelayNanos, window.percentile(percentile)));
+    }
+
+    private boolean tryAcquireHedge() {
+        synchronized (lock) {
+            if (hedgeBudget < 1) {
+                return false;
+            }
+            hedgeBudget -= 1;
+            hedges++;
+            return true;
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * A GET request and its hedge. The first attempt to succeed completes the request, a failure only completes
+     * it once no other attempt is outstanding.
+     */
+    private class Hedged<T> {
+        private final Request<T> request;
+        private final ResponseCallback callback;
+        private final Map<String, String> headers;
+        private final LatencyWindow window;
+        private final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        private final long start = ticker.read();
+
+        private Future<Response<T>> primary;
+        private Future<Response<T>> hedge;
+        private int outstanding;
+        private volatile ScheduledFuture<?> scheduledHedge;
+
+        private Hedged(Request<T> request, ResponseCallback callback, Map<String, String> headers, LatencyWindow window) {
+            this.request = request;
+            this.callback = callback;
+            this.headers = headers;
+            this.window = window;
+        }
+
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!tryAcquireHedge()) {
+                log.debug("Hedge budget exhausted");
+                return;
+            }
+            send(true);
+        }
+
+        private void send(boolean isHedge) {
+            final CompletableFuture<Response<T>> viaCallback = new CompletableFuture<>();
+
+            Future<Response<T>> future;
+            try {
+                future = client.executeAsync(request, new ResponseCallback() {
+                    @Override
+                    public void completed(Response response) {
+                        @SuppressWarnings("unchecked")
+                        Response<T> typed = response;
+                        viaCallback.complete(typed);
+                    }
+
+                    @Override
+                    public void error(Throwable throwable) {
+                        viaCallback.completeExceptionally(throwable);
+                    }
+                }, headers);
+            } catch (RuntimeException e) {
+                if (!isHedge) {
+                    result.completeExceptionally(e);
+                }
+                return;
+            }
+
+            synchronized (this) {
+                outstanding++;
+                if (isHedge) {
+                    hedge = future;
+                } else {
+                    primary = future;
+                }
+                if (result.isDone()) {
+                    future.cancel(true);
+                }
+            }
+
+            CompletableFuture<Response<T>> source = future instanceof CompletableFuture
+                    ? (CompletableFuture<Response<T>>) future
+                    : viaCallback;
+            source.whenComplete((response, throwable) -> onAttemptCompleted(isHedge, response, throwable));
+        }
+
+        private void onAttemptCompleted(boolean isHedge, Response<T> response, Throwable throwable) {
+            boolean last;
+            synchronized (this) {
+                last = --outstanding == 0;
+            }
+
+            if (throwable == null) {
+                if (result.complete(response)) {
+                    // One sample per request, the losing attempt is cancelled and would only be timed partly.
+                    long latencyNanos = ticker.read() - start;
+                    synchronized (lock) {
+                        window.add(latencyNanos);
+                        if (isHedge) {
+                            hedgeWins++;
+                        }
+                    }
+                }
+            } else if (last) {
+                // Also drops the hedge when the original request failed before it was sent.
+                result.completeExceptionally(unwrap(throwable));
+            } else {
+                log.debug("Hedged request attempt failed, waiting for the other one", throwable);
+            }
+        }
+
+        private void cancelOutstanding() {
+            ScheduledFuture<?> scheduled = scheduledHedge;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            Future<Response<T>> first;
+            Future<Response<T>> second;
+            synchronized (this) {
+                first = primary;
+                second = hedge;
+            }
+            if (first != null && !first.isDone()) {
+                first.cancel(true);
+            }
+            if (second != null && !second.isDone()) {
+                second.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * The last latencies of a path template. The percentile is cached, and only sorted again once a twentieth of
+     * the window was replaced. Not thread safe, callers synchronize.
+     */
+    private static class LatencyWindow {
+        private final long[] samples;
+        private final long[] sorted;
+        private final int refreshInterval;
+        private int next;
+        private int size;
+        private int sinceRefresh;
+        private long cachedPercentile = -1;
+
+        private LatencyWindow(int windowSize) {
+            this.samples = new long[windowSize];
+            this.sorted = new long[windowSize];
+            this.refreshInterval = Math.max(1, windowSize / 20);
+        }
+
+        private void add(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+            sinceRefresh++;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private long percentile(double percentile) {
+            if (cachedPercentile < 0 || sinceRefresh >= refreshInterval) {
+                System.arraycopy(samples, 0, sorted, 0, size);
+                Arrays.sort(sorted, 0, size);
+                cachedPercentile = sorted[(int) Math.round(percentile * (size - 1))];
+                sinceRefresh = 0;
+            }
+            return cachedPercentile;
+        }
+    }
+
+    /**
+     * HedgingRequestClient Builder.
+     */
+    public static class Builder {
+        private RequestClient client;
+        private double percentile = 0.95;
+        private int windowSize = 1000;
+        private int minimumSamples = 100;
+        private long minHedgeDelayMs = 5;
+        private double maxHedgeRatio = 0.05;
+        private double maxHedgeBurst = 10;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client the requests are handed to.
+         *
+         * @param client RequestClient
+         * @return Builder
+         */
+        public Builder setClient(RequestClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the latency percentile after which a request is hedged -- defaults to 0.95.
+         *
+         * @param percentile double in (0, 1)
+         * @return Builder
+         */
+        public Builder setPercentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Set the number of last latencies of a path template the percentile is computed over -- defaults to 1000.
+         *
+         * @param windowSize int
+         * @return Builder
+         */
+        public Builder setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Set the number of latencies of a path template to record before its requests are hedged -- defaults
+         * to 100.
+         *
+         * @param minimumSamples int
+         * @return Builder
+         */
+        public Builder setMinimumSamples(int minimumSamples) {
+            this.minimumSamples = minimumSamples;
+            return this;
+        }
+
+        /**
+         * Set the shortest hedge delay, however fast the path template -- defaults to 5 ms.
+         *
+         * @param minHedgeDelayMs long
+         * @return Builder
+         */
+        public Builder setMinHedgeDelayMs(long minHedgeDelayMs) {
+            this.minHedgeDelayMs = minHedgeDelayMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum share of requests that may be hedged -- defaults to 0.05. Every request adds this
+         * much to the hedge budget and every hedge takes one from it.
+         *
+         * @param maxHedgeRatio double in (0, 1]
+         * @return Builder
+         */
+        public Builder setMaxHedgeRatio(double maxHedgeRatio) {
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        /**
+         * Set the most hedges the budget may accumulate, also its initial value -- defaults to 10.
+         *
+         * @param maxHedgeBurst double
+         * @return Builder
+         */
+        public Builder setMaxHedgeBurst(double maxHedgeBurst) {
+            this.maxHedgeBurst = maxHedgeBurst;
+            return this;
+        }
+
+        /**
+         * Set the time source, for tests.
+         *
+         * @param ticker Ticker
+         * @return Builder
+         */
+        Builder setTicker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Build a HedgingRequestClient object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The percentile must be in (0, 1).
+         * 3. The window size must be positive.
+         * 4. The minimum samples must be between 1 and the window size.
+         * 5. The minimum hedge delay cannot be negative.
+         * 6. The max hedge ratio must be in (0, 1].
+         * 7. The max hedge burst must be at least 1.
+         * </pre>
+         *
+         * @return HedgingRequestClient
+         */
+        public HedgingRequestClient build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(percentile > 0 && percentile < 1, "percentile must be in (0, 1)");
+            Preconditions.checkArgument(windowSize > 0, "window size must be positive");
+            Preconditions.checkArgument(minimumSamples > 0 && minimumSamples <= windowSize,
+                    "minimum samples must be between 1 and the window size");
+            Preconditions.checkArgument(minHedgeDelayMs >= 0, "min hedge delay cannot be negative");
+            Preconditions.checkArgument(maxHedgeRatio > 0 && maxHedgeRatio <= 1, "max hedge ratio must be in (0, 1]");
+            Preconditions.checkArgument(maxHedgeBurst >= 1, "max hedge burst must be at least 1");
+
+            return new HedgingRequestClient(this);
+        }
+    }
+}
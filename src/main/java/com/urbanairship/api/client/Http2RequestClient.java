@@ -0,0 +1,1292 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http2.DefaultHttp2DataFrame;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
+import io.netty.handler.codec.http2.DefaultHttp2WindowUpdateFrame;
+import io.netty.handler.codec.http2.Http2DataFrame;
+import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2GoAwayFrame;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2NoMoreStreamIdsException;
+import io.netty.handler.codec.http2.Http2ResetFrame;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2SettingsFrame;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.codec.http2.StreamBufferingEncoder;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.filter.FilterContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import javax.net.ssl.SSLException;
+
+/**
+ * A RequestClient multiplexing requests as HTTP/2 streams over a few long lived connections per origin, instead of
+ * holding one HTTP/1.1 connection per in-flight request. TLS origins negotiate HTTP/2 with ALPN, plain text origins
+ * are spoken to with prior knowledge (h2c). The protocol itself is Netty's HTTP/2 frame codec, every request being
+ * a child stream channel of its connection.
+ *
+ * Responses go through the same {@link RequestRetryFilter} and {@link ResponseAsyncHandler} as with the
+ * {@link AsyncRequestClient}, so retries, backoff, {@link ClientException}s and {@link ServerException}s behave the
+ * same. Streams refused by the server, or cut off by a connection going away before it processed them, are sent
+ * again on another connection without counting as retries. Streamed request bodies are read on dedicated threads,
+ * a chunk at a time while the stream is writable, so a slow body never holds an I/O thread. The request timeout of
+ * the builder bounds every attempt, a {@link TimeoutRequest} additionally bounds the whole request, retries
+ * included, failing it with a {@link RequestTimeoutException}.
+ */
+public class Http2RequestClient implements RequestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(Http2RequestClient.class);
+    private static final int MAX_REFUSALS = 5;
+    private static final int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+    private static final int DEFAULT_WINDOW = 65535;
+    private static final int STREAM_WINDOW = 1 << 20;
+    private static final int CONNECTION_WINDOW = 1 << 24;
+    private static final int BODY_CHUNK_SIZE = 16384;
+    private static final Set<String> CONNECTION_HEADERS = ImmutableSet.of(
+            "connection", "content-length", "host", "keep-alive", "proxy-connection", "te", "transfer-encoding", "upgrade");
+
+    // Server push is disabled, a stream opened by the server anyway is closed right away.
+    private static final ChannelHandler PUSHED_STREAMS = new ChannelInitializer<Channel>() {
+        @Override
+        protected void initChannel(Channel channel) {
+            channel.close();
+        }
+    };
+
+    private final URI baseUri;
+    private final int maxConnections;
+    private final int connectTimeoutMs;
+    private final long requestTimeoutMs;
+    private final RequestRetryFilter retryFilter;
+    private final RetryBackoff retryBackoff;
+    private final ClientMetricsListener metricsListener;
+    private final Optional<SslContext> configuredSslContext;
+    private final EventLoopGroup eventLoopGroup;
+    private final ExecutorService bodyExecutor;
+    private final Timer timer;
+    private final ConcurrentMap<String, Origin> origins = new ConcurrentHashMap<>();
+
+    private volatile SslContext sslContext;
+
+    private Http2RequestClient(Builder builder) {
+        this.baseUri = URI.create(builder.baseUri);
+        this.maxConnections = builder.maxConnections;
+        this.connectTimeoutMs = builder.connectTimeoutMs;
+        this.requestTimeoutMs = builder.requestTimeoutMs;
+        this.retryBackoff = builder.retryBackoff;
+        this.retryFilter = new RequestRetryFilter(builder.maxRetries, Optional.ofNullable(builder.retryPredicate), retryBackoff);
+        this.metricsListener = builder.metricsListener;
+        this.configuredSslContext = Optional.ofNullable(builder.sslContext);
+        this.eventLoopGroup = new NioEventLoopGroup(builder.ioThreads, new ThreadFactoryBuilder()
+                .setNameFormat("ua-http2-%d")
+                .setDaemon(true)
+                .build());
+        this.bodyExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("ua-http2-body-%d")
+                .setDaemon(true)
+                .build());
+        this.timer = new HashedWheelTimer(new ThreadFactoryBuilder()
+                .setNameFormat("ua-http2-timer-%d")
+                .setDaemon(true)
+                .build(), 10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * New Http2RequestClient Builder.
+     *
+     * @return Http2RequestClient Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the base URI used for the client.
+     *
+     * @return URI
+     */
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Get the maximum number of connections per origin.
+     *
+     * @return int
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Get the retry backoff.
+     *
+     * @return RetryBackoff
+     */
+    public RetryBackoff getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Get the metrics listener.
+     *
+     * @return ClientMetricsListener
+     */
+    public ClientMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    @Override
+    public <T> Future<Response<T>> executeAsync(final Request<T> request, final ResponseCallback callback, Map<String, String> headers) {
+        URI requestUri;
+        try {
+            requestUri = request.getUri(baseUri);
+        } catch (URISyntaxException e) {
+            log.error("Failed to generate a request URI from base URI " + baseUri.toString(), e);
+            throw new RuntimeException(e);
+        }
+        MetricsRecorder metrics = new MetricsRecorder(metricsListener, request.getHttpMethod(), requestUri.getPath());
+
+        Optional<BodyPublisher> bodyPublisher = request.getBodyPublisher();
+        byte[] body = null;
+        if (bodyPublisher.isPresent()) {
+            log.debug(String.format("Executing Urban Airship request to %s with a streamed body.", requestUri));
+        } else {
+            body = request.getContentType() != null ? request.getRequestBodyBytes() : null;
+            if (body != null) {
+                int length = body.length;
+                metrics.setBytesOut(() -> length);
+            }
+            log.debug(String.format("Executing Urban Airship request to %s over HTTP/2.", requestUri));
+        }
+
+        ResponseAsyncHandler<T> handler = new ResponseAsyncHandler<>(Optional.ofNullable(callback), request.getResponseParser(), request.getBodySink(), metrics);
+        Execution<T> execution = new Execution<>(requestUri, request.getHttpMethod().name(), headers, body, bodyPublisher, handler, metrics);
+        if (request.getTimeoutMs().isPresent()) {
+            execution.expireAfter(request.getTimeoutMs().get());
+        }
+        execution.attempt();
+        return execution.result;
+    }
+
+    /**
+     * Close the connections, the I/O and body threads, and cancel requests waiting to be retried.
+     */
+    @Override
+    public void close() throws IOException {
+        log.info("Closing client");
+        for (Timeout timeout : timer.stop()) {
+            if (timeout.task() instanceof Execution) {
+                ((Execution<?>) timeout.task()).result.cancel(true);
+            }
+        }
+        for (Origin origin : origins.values()) {
+            origin.close();
+        }
+        bodyExecutor.shutdownNow();
+        eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+
+    private Origin origin(URI uri) {
+        boolean tls = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : tls ? 443 : 80;
+        String key = (tls ? "https://" : "http://") + uri.getHost() + ":" + port;
+        return origins.computeIfAbsent(key, k -> new Origin(uri.getHost(), port, tls));
+    }
+
+    private SslContext sslContext() throws SSLException {
+        if (configuredSslContext.isPresent()) {
+            return configuredSslContext.get();
+        }
+        SslContext context = sslContext;
+        if (context == null) {
+            synchronized (this) {
+                if (sslContext == null) {
+                    sslContext = SslContextBuilder.forClient()
+                            .applicationProtocolConfig(new ApplicationProtocolConfig(
+                                    ApplicationProtocolConfig.Protocol.ALPN,
+                                    ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                                    ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                                    ApplicationProtocolNames.HTTP_2))
+                            .build();
+                }
+                context = sslContext;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * The connections to one scheme, host and port. New streams go to the least loaded connection, and a new
+     * connection is only opened once every connection is at the server's concurrent stream limit.
+     */
+    private final class Origin {
+        private final String host;
+        private final int port;
+        private final boolean tls;
+        private final List<Connection> connections = new ArrayList<>();
+
+        private Origin(String host, int port, boolean tls) {
+            this.host = host;
+            this.port = port;
+            this.tls = tls;
+        }
+
+        private synchronized Connection acquire() {
+            Connection best = null;
+            for (Connection connection : connections) {
+                if (connection.isUsable() && (best == null || connection.getAssigned() < best.getAssigned())) {
+                    best = connection;
+                }
+            }
+            if (best == null || (best.getAssigned() >= best.getMaxConcurrentStreams() && connections.size() < maxConnections)) {
+                best = connect();
+                connections.add(best);
+            }
+            return best;
+        }
+
+        private Connection connect() {
+            EventLoop eventLoop = eventLoopGroup.next();
+            Connection connection = new Connection(this, eventLoop);
+
+            SslContext context = null;
+            if (tls) {
+                try {
+                    context = sslContext();
+                } catch (SSLException e) {
+                    connection.connectFailed(e);
+                    return connection;
+                }
+            }
+
+            SslContext channelSslContext = context;
+            new Bootstrap()
+                    .group(eventLoop)
+                    .channel(NioSocketChannel.class)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            if (channelSslContext != null) {
+                                channel.pipeline().addLast(channelSslContext.newHandler(channel.alloc(), host, port));
+                            }
+                            channel.pipeline().addLast(
+                                    Http2FrameCodecBuilder.forClient()
+                                            .initialSettings(Http2Settings.defaultSettings()
+                                                    .pushEnabled(false)
+                                                    .initialWindowSize(STREAM_WINDOW))
+                                            // Streams above the server's concurrency limit wait in the codec until others close.
+                                            .encoderEnforceMaxConcurrentStreams(true)
+                                            .build(),
+                                    new Http2MultiplexHandler(PUSHED_STREAMS),
+                                    connection);
+                        }
+                    })
+                    .connect(host, port)
+                    .addListener(future -> {
+                        if (!future.isSuccess()) {
+                            connection.connectFailed(future.cause());
+                        }
+                    });
+            return connection;
+        }
+
+        private synchronized void remove(Connection connection) {
+            connections.remove(connection);
+        }
+
+        private synchronized void close() {
+            for (Connection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * One HTTP/2 connection, the handler following the frame codec and the stream multiplexer in the channel
+     * pipeline. Streams wait for the server settings before being opened, and the connection is closed once it is
+     * going away and its last stream is over.
+     */
+    private final class Connection extends ChannelInboundHandlerAdapter {
+        private final Origin origin;
+        private final EventLoop eventLoop;
+        private final AtomicInteger assigned = new AtomicInteger();
+        private volatile int maxConcurrentStreams = DEFAULT_MAX_CONCURRENT_STREAMS;
+        private volatile boolean usable = true;
+        private volatile boolean goingAway;
+
+        // Confined to the event loop.
+        private final Queue<Exchange<?>> waiting = new ArrayDeque<>();
+        private Channel channel;
+        private Throwable failure;
+        private boolean ready;
+        private boolean closed;
+
+        private Connection(Origin origin, EventLoop eventLoop) {
+            this.origin = origin;
+            this.eventLoop = eventLoop;
+        }
+
+        /**
+         * Whether the connection accepts new streams.
+         *
+         * @return boolean
+         */
+        private boolean isUsable() {
+            return usable;
+        }
+
+        /**
+         * Get the number of streams assigned to the connection and not yet over, open or waiting.
+         *
+         * @return int
+         */
+        private int getAssigned() {
+            return assigned.get();
+        }
+
+        /**
+         * Get the server limit on concurrent streams, an estimate until the server settings arrive.
+         *
+         * @return int
+         */
+        private int getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        /**
+         * Open a stream for the exchange, or hold it until the server settings arrive.
+         *
+         * @param exchange The exchange.
+         */
+        private void submit(Exchange<?> exchange) {
+            assigned.incrementAndGet();
+            eventLoop.execute(() -> {
+                if (failure != null && !ready) {
+                    exchange.onError(failure);
+                } else if (closed || goingAway) {
+                    exchange.onRefused();
+                } else if (!ready) {
+                    waiting.add(exchange);
+                } else {
+                    open(exchange);
+                }
+            });
+        }
+
+        /**
+         * Release an exchange that is over, closing its stream if still open. A stream closed before the server
+         * ended it is reset.
+         *
+         * @param exchange The exchange.
+         */
+        private void release(Exchange<?> exchange) {
+            assigned.decrementAndGet();
+            execute(() -> {
+                waiting.remove(exchange);
+                exchange.closeStream();
+                if (goingAway && assigned.get() == 0 && channel != null) {
+                    channel.close();
+                }
+            });
+        }
+
+        private void close() {
+            execute(() -> {
+                if (channel != null) {
+                    channel.close();
+                }
+            });
+        }
+
+        /**
+         * The connection could not be established.
+         *
+         * @param cause The failure.
+         */
+        private void connectFailed(Throwable cause) {
+            execute(() -> {
+                failure = cause;
+                closed = true;
+                markUnusable();
+                failWaiting();
+            });
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            // The settings announce the stream window, the connection window is raised on its own.
+            ctx.writeAndFlush(new DefaultHttp2WindowUpdateFrame(CONNECTION_WINDOW - DEFAULT_WINDOW));
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+            if (event instanceof SslHandshakeCompletionEvent) {
+                SslHandshakeCompletionEvent handshake = (SslHandshakeCompletionEvent) event;
+                if (!handshake.isSuccess()) {
+                    fail(ctx, handshake.cause());
+                } else if (!ApplicationProtocolNames.HTTP_2.equals(ctx.pipeline().get(SslHandler.class).applicationProtocol())) {
+                    fail(ctx, new IOException("The server did not negotiate HTTP/2"));
+                }
+            }
+            super.userEventTriggered(ctx, event);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            try {
+                if (msg instanceof Http2SettingsFrame) {
+                    Long max = ((Http2SettingsFrame) msg).settings().maxConcurrentStreams();
+                    if (max != null) {
+                        maxConcurrentStreams = (int) Math.min(max, Integer.MAX_VALUE);
+                    }
+                    if (!ready) {
+                        ready = true;
+                        while (!waiting.isEmpty()) {
+                            open(waiting.poll());
+                        }
+                    }
+                } else if (msg instanceof Http2GoAwayFrame) {
+                    Http2GoAwayFrame goAway = (Http2GoAwayFrame) msg;
+                    log.debug(String.format("HTTP/2 connection going away, last stream %s, error code %s",
+                            goAway.lastStreamId(), goAway.errorCode()));
+                    // The multiplexer hands the frame to the streams the server did not process, they are sent again.
+                    goingAway = true;
+                    markUnusable();
+                    failWaiting();
+                    if (assigned.get() == 0) {
+                        ctx.close();
+                    }
+                }
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.debug("HTTP/2 connection failure", cause);
+            fail(ctx, cause);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            // Open streams are closed along with the connection, their exchanges are notified by their channels.
+            closed = true;
+            markUnusable();
+            failWaiting();
+            super.channelInactive(ctx);
+        }
+
+        private void open(Exchange<?> exchange) {
+            new Http2StreamChannelBootstrap(channel)
+                    .handler(exchange)
+                    .open()
+                    .addListener(future -> {
+                        if (future.isSuccess()) {
+                            exchange.start((Http2StreamChannel) future.getNow());
+                        } else {
+                            exchange.onRefused();
+                        }
+                    });
+        }
+
+        private void failWaiting() {
+            List<Exchange<?>> exchanges = new ArrayList<>(waiting);
+            waiting.clear();
+            for (Exchange<?> exchange : exchanges) {
+                if (failure != null && !ready) {
+                    exchange.onError(failure);
+                } else {
+                    exchange.onRefused();
+                }
+            }
+        }
+
+        private void fail(ChannelHandlerContext ctx, Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+            }
+            markUnusable();
+            ctx.close();
+        }
+
+        private void markUnusable() {
+            if (usable) {
+                usable = false;
+                origin.remove(this);
+            }
+        }
+
+        private void execute(Runnable task) {
+            try {
+                eventLoop.execute(task);
+            } catch (RejectedExecutionException e) {
+                // The client is closed, and its connections with it.
+                log.debug("HTTP/2 connection task rejected", e);
+            }
+        }
+    }
+
+    /**
+     * A single logical request, spanning the initial attempt and every retry, retries being scheduled on the timer
+     * as with the {@link AsyncRequestClient}.
+     */
+    private final class Execution<T> implements TimerTask {
+        private final URI uri;
+        private final Http2Headers headers;
+        private final byte[] body;
+        private final Optional<BodyPublisher> bodyPublisher;
+        private final org.asynchttpclient.Request filterRequest;
+        private final ResponseAsyncHandler<T> handler;
+        private final MetricsRecorder metrics;
+        private final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+
+        private volatile Exchange<T> current;
+        private volatile Timeout pendingRetry;
+        private volatile Timeout expiry;
+        private long timeoutMs;
+        private long deadlineNanos;
+        private int refusals;
+
+        private Execution(URI uri, String method, Map<String, String> requestHeaders, byte[] body,
+                          Optional<BodyPublisher> bodyPublisher, ResponseAsyncHandler<T> handler, MetricsRecorder metrics) {
+            this.uri = uri;
+            this.body = body != null && body.length > 0 ? body : null;
+            this.bodyPublisher = bodyPublisher;
+            this.handler = handler;
+            this.metrics = metrics;
+            // The retry predicate only sees the method and URI of the request.
+            this.filterRequest = new RequestBuilder(method).setUrl(uri.toString()).build();
+
+            long length = bodyPublisher.isPresent() ? bodyPublisher.get().getContentLength() : body != null ? body.length : -1;
+            this.headers = headers(uri, method, requestHeaders, length);
+
+            result.whenComplete((response, throwable) -> {
+                Timeout timeout = expiry;
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+                if (result.isCancelled() || throwable instanceof RequestTimeoutException) {
+                    Exchange<T> exchange = current;
+                    if (exchange != null) {
+                        exchange.cancel();
+                    }
+                    Timeout retry = pendingRetry;
+                    if (retry != null) {
+                        retry.cancel();
+                    }
+                }
+                metrics.complete(throwable, handler.getRetryCount());
+            });
+        }
+
+        /**
+         * Fail the request once the timeout elapsed, to be called before the first attempt.
+         */
+        private void expireAfter(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            try {
+                expiry = timer.newTimeout(timeout -> expire(), timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException e) {
+                // The timer is stopped once the client is closed.
+                result.cancel(true);
+            }
+        }
+
+        private void expire() {
+            if (result.isDone()) {
+                return;
+            }
+
+            RequestTimeoutException e = new RequestTimeoutException(String.format("Request to %s timed out after %d ms and %d retries",
+                    uri, timeoutMs, handler.getRetryCount()), timeoutMs, handler.getRetryCount());
+            // Notify the callback before the in-flight stream is reset, it only hears of the first failure.
+            handler.onThrowable(e);
+            result.completeExceptionally(e);
+        }
+
+        private void attempt() {
+            if (result.isDone()) {
+                return;
+            }
+            metrics.onAttempt();
+            dispatch();
+        }
+
+        private void dispatch() {
+            Exchange<T> exchange;
+            try {
+                exchange = new Exchange<>(this, openBody(), origin(uri).acquire());
+            } catch (Exception e) {
+                handler.onThrowable(e);
+                result.completeExceptionally(e);
+                return;
+            }
+
+            try {
+                exchange.timeout = timer.newTimeout(timeout -> exchange.timedOut(), requestTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException e) {
+                // The timer is stopped once the client is closed.
+                exchange.closeBody();
+                result.cancel(true);
+                return;
+            }
+            current = exchange;
+            exchange.connection.submit(exchange);
+        }
+
+        private InputStream openBody() throws IOException {
+            if (bodyPublisher.isPresent()) {
+                // Streams can only be read once, every attempt sends a freshly opened one.
+                CountingInputStream stream = new CountingInputStream(bodyPublisher.get().openStream());
+                metrics.setBytesOut(stream::getCount);
+                return stream;
+            }
+            return null;
+        }
+
+        private void onAttemptCompleted(Response<T> response, Throwable throwable) {
+            Optional<Long> retryDelay = handler.takePendingRetry();
+            if (throwable == null && retryDelay.isPresent()) {
+                if (expiry != null && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelay.get()) >= deadlineNanos) {
+                    // The retry would start after the deadline, fail now rather than hold the request.
+                    expire();
+                    return;
+                }
+                try {
+                    pendingRetry = timer.newTimeout(this, retryDelay.get(), TimeUnit.MILLISECONDS);
+                } catch (IllegalStateException e) {
+                    result.cancel(true);
+                }
+            } else if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(response);
+            }
+        }
+
+        private void onRefused() {
+            if (result.isDone()) {
+                return;
+            }
+            if (++refusals > MAX_REFUSALS) {
+                IOException e = new IOException(String.format("HTTP/2 stream to %s refused %s times", uri, refusals));
+                handler.onThrowable(e);
+                result.completeExceptionally(e);
+                return;
+            }
+            log.debug(String.format("HTTP/2 stream to %s refused, sending it again", uri));
+            dispatch();
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            attempt();
+        }
+    }
+
+    /**
+     * One attempt on one stream, handling the stream channel and feeding the response to the handler as the
+     * AsyncHttpClient would. At most one of the outcomes is acted upon, whichever comes first.
+     */
+    private final class Exchange<T> extends ChannelInboundHandlerAdapter {
+        private final Execution<T> execution;
+        private final InputStream body;
+        private final Connection connection;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final Object bodyLock = new Object();
+        private volatile Http2StreamChannel stream;
+        private volatile Timeout timeout;
+
+        // Confined to the stream event loop.
+        private boolean headersSent;
+        private boolean responseStarted;
+        private boolean awaitingWritable;
+        private ByteArrayOutputStream errorBody;
+
+        // Guarded by the body lock.
+        private boolean bodyClosed;
+
+        private Exchange(Execution<T> execution, InputStream body, Connection connection) {
+            this.execution = execution;
+            this.body = body;
+            this.connection = connection;
+        }
+
+        /**
+         * Send the request on the newly opened stream. The streamed body is read on the body threads.
+         *
+         * @param stream The stream channel.
+         */
+        private void start(Http2StreamChannel stream) {
+            this.stream = stream;
+            if (finished.get()) {
+                stream.close();
+                return;
+            }
+
+            boolean hasBody = execution.body != null || body != null;
+            stream.write(new DefaultHttp2HeadersFrame(execution.headers, !hasBody)).addListener(future -> {
+                if (future.isSuccess()) {
+                    headersSent = true;
+                } else if (isRefusal(future.cause())) {
+                    onRefused();
+                } else {
+                    onError(future.cause());
+                }
+            });
+            if (execution.body != null) {
+                stream.write(new DefaultHttp2DataFrame(Unpooled.wrappedBuffer(execution.body), true));
+            }
+            stream.flush();
+            if (body != null) {
+                readBodyLater();
+            }
+        }
+
+        private void readBodyLater() {
+            try {
+                bodyExecutor.execute(this::readBody);
+            } catch (RejectedExecutionException e) {
+                onError(e);
+            }
+        }
+
+        /**
+         * Read the next chunk of the body, on a body thread, and hand it to the stream event loop.
+         */
+        private void readBody() {
+            ByteBuf chunk = stream.alloc().buffer(BODY_CHUNK_SIZE);
+            boolean end = false;
+            try {
+                synchronized (bodyLock) {
+                    if (bodyClosed) {
+                        chunk.release();
+                        return;
+                    }
+                    while (chunk.readableBytes() < BODY_CHUNK_SIZE) {
+                        if (chunk.writeBytes(body, BODY_CHUNK_SIZE - chunk.readableBytes()) < 0) {
+                            end = true;
+                            break;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                chunk.release();
+                onError(e);
+                return;
+            }
+
+            if (end) {
+                closeBodyNow();
+            }
+            boolean last = end;
+            try {
+                stream.eventLoop().execute(() -> writeBody(chunk, last));
+            } catch (RejectedExecutionException e) {
+                chunk.release();
+            }
+        }
+
+        private void writeBody(ByteBuf chunk, boolean end) {
+            if (finished.get() || !stream.isActive()) {
+                chunk.release();
+                return;
+            }
+            stream.writeAndFlush(new DefaultHttp2DataFrame(chunk, end));
+            if (end) {
+                return;
+            }
+            if (stream.isWritable()) {
+                readBodyLater();
+            } else {
+                // Blocked by flow control, reading resumes once the stream is writable again.
+                awaitingWritable = true;
+            }
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            if (awaitingWritable && ctx.channel().isWritable()) {
+                awaitingWritable = false;
+                readBodyLater();
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            try {
+                if (finished.get()) {
+                    return;
+                }
+                if (msg instanceof Http2HeadersFrame) {
+                    Http2HeadersFrame frame = (Http2HeadersFrame) msg;
+                    if (!responseStarted) {
+                        onResponseHeaders(frame.headers());
+                    }
+                    if (frame.isEndStream()) {
+                        onEnd();
+                    }
+                } else if (msg instanceof Http2DataFrame) {
+                    Http2DataFrame frame = (Http2DataFrame) msg;
+                    if (responseStarted) {
+                        onData(frame.content());
+                    }
+                    if (frame.isEndStream()) {
+                        onEnd();
+                    }
+                }
+            } catch (Exception e) {
+                onError(e);
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+            if (event instanceof Http2ResetFrame) {
+                long errorCode = ((Http2ResetFrame) event).errorCode();
+                if (errorCode == Http2Error.REFUSED_STREAM.code()) {
+                    onRefused();
+                } else {
+                    onError(new IOException(String.format("HTTP/2 stream reset by the server, error code %s", errorCode)));
+                }
+            } else if (event instanceof Http2GoAwayFrame) {
+                // Only the streams the server did not process are notified.
+                onRefused();
+            }
+            super.userEventTriggered(ctx, event);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (headersSent) {
+                onError(new IOException("HTTP/2 stream closed before the response completed"));
+            } else {
+                // The request never left, it can be sent again.
+                onRefused();
+            }
+            super.channelInactive(ctx);
+        }
+
+        private void onResponseHeaders(Http2Headers responseHeaders) throws Exception {
+            CharSequence statusValue = responseHeaders.status();
+            if (statusValue == null) {
+                throw new IOException("HTTP/2 response without a status");
+            }
+            int status = Integer.parseInt(statusValue.toString());
+            if (status < 200) {
+                // Informational responses precede the final one.
+                return;
+            }
+            responseStarted = true;
+
+            HttpHeaders headers = new DefaultHttpHeaders();
+            for (Map.Entry<CharSequence, CharSequence> header : responseHeaders) {
+                if (!Http2Headers.PseudoHeaderName.hasPseudoHeaderFormat(header.getKey())) {
+                    headers.add(header.getKey(), header.getValue());
+                }
+            }
+
+            ResponseAsyncHandler<T> handler = execution.handler;
+            HttpResponseStatus responseStatus = ResponseParts.status(execution.uri, status, null, 2, 0);
+            retryFilter.filter(new FilterContext.FilterContextBuilder<Response<T>>()
+                    .asyncHandler(handler)
+                    .request(execution.filterRequest)
+                    .responseStatus(responseStatus)
+                    .responseHeaders(headers)
+                    .build());
+            handler.onStatusReceived(responseStatus);
+            handler.onHeadersReceived(headers);
+            if (status >= 400) {
+                errorBody = new ByteArrayOutputStream();
+            }
+        }
+
+        private void onData(ByteBuf data) throws Exception {
+            if (errorBody != null) {
+                // Error bodies are parsed from a single part, the handler does not aggregate them.
+                data.readBytes(errorBody, data.readableBytes());
+                return;
+            }
+            if (!data.isReadable()) {
+                return;
+            }
+            byte[] bytes = new byte[data.readableBytes()];
+            data.readBytes(bytes);
+            execution.handler.onBodyPartReceived(ResponseParts.bodyPart(bytes));
+        }
+
+        private void onEnd() {
+            if (!finish()) {
+                return;
+            }
+            Response<T> response;
+            try {
+                if (errorBody != null && errorBody.size() > 0) {
+                    execution.handler.onBodyPartReceived(ResponseParts.bodyPart(errorBody.toByteArray()));
+                }
+                response = execution.handler.onCompleted();
+            } catch (Exception e) {
+                execution.handler.onThrowable(e);
+                execution.onAttemptCompleted(null, e);
+                return;
+            }
+            execution.onAttemptCompleted(response, null);
+        }
+
+        private void onError(Throwable cause) {
+            if (finish()) {
+                execution.handler.onThrowable(cause);
+                execution.onAttemptCompleted(null, cause);
+            }
+        }
+
+        private void onRefused() {
+            if (finish()) {
+                execution.onRefused();
+            }
+        }
+
+        private void timedOut() {
+            if (finish()) {
+                TimeoutException e = new TimeoutException(String.format("Request timeout to %s after %s ms", execution.uri, requestTimeoutMs));
+                execution.handler.onThrowable(e);
+                execution.onAttemptCompleted(null, e);
+            }
+        }
+
+        private void cancel() {
+            finish();
+        }
+
+        private boolean finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            Timeout attemptTimeout = timeout;
+            if (attemptTimeout != null) {
+                attemptTimeout.cancel();
+            }
+            connection.release(this);
+            closeBody();
+            return true;
+        }
+
+        private void closeStream() {
+            Http2StreamChannel channel = stream;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+        /**
+         * Close the streamed body, on a body thread as a read may be in progress.
+         */
+        private void closeBody() {
+            if (body == null) {
+                return;
+            }
+            try {
+                bodyExecutor.execute(this::closeBodyNow);
+            } catch (RejectedExecutionException e) {
+                closeBodyNow();
+            }
+        }
+
+        private void closeBodyNow() {
+            synchronized (bodyLock) {
+                if (bodyClosed) {
+                    return;
+                }
+                bodyClosed = true;
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close a request body", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether a failure to send the request headers means the server never saw the stream, in which case it can be
+     * sent again.
+     */
+    private static boolean isRefusal(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof StreamBufferingEncoder.Http2GoAwayException
+                    || t instanceof Http2NoMoreStreamIdsException
+                    || (t instanceof Http2Exception && ((Http2Exception) t).error() == Http2Error.REFUSED_STREAM)) {
+                return true;
+            }
+        }
+        return cause instanceof ClosedChannelException;
+    }
+
+    private static Http2Headers headers(URI uri, String method, Map<String, String> requestHeaders, long length) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+
+        Http2Headers headers = new DefaultHttp2Headers()
+                .method(method)
+                .scheme(uri.getScheme().toLowerCase(Locale.ROOT))
+                .authority(uri.getRawAuthority())
+                .path(path);
+        for (Map.Entry<String, String> entry : requestHeaders.entrySet()) {
+            // HTTP/2 header names are lower case, and connection specific headers are not allowed.
+            String name = entry.getKey().toLowerCase(Locale.ROOT);
+            if (!CONNECTION_HEADERS.contains(name)) {
+                headers.add(name, entry.getValue());
+            }
+        }
+        if (length > 0) {
+            headers.setLong("content-length", length);
+        }
+        return headers;
+    }
+
+    /**
+     * Http2RequestClient Builder.
+     */
+    public static class Builder {
+
+        private String baseUri;
+        private Integer maxRetries = 10;
+        private Integer maxConnections = 2;
+        private Integer ioThreads = 0;
+        private Integer connectTimeoutMs = 5000;
+        private Long requestTimeoutMs = 60000L;
+        private Predicate<FilterContext> retryPredicate = null;
+        private RetryBackoff retryBackoff = RetryBackoff.newBuilder().build();
+        private ClientMetricsListener metricsListener = ClientMetricsListener.NOOP;
+        private SslContext sslContext;
+
+        private Builder() {
+            baseUri = "https://go.urbanairship.com";
+        }
+
+        /**
+         * Set the base URI -- defaults to "https://go.urbanairship.com". Plain http URIs are spoken to with HTTP/2
+         * prior knowledge (h2c).
+         *
+         * @param URI String base URI
+         * @return Builder
+         */
+        public Builder setBaseUri(String URI) {
+            this.baseUri = URI;
+            return this;
+        }
+
+        /**
+         * Set the maximum for non-POST request retries on 5xxs -- defaults to 10.
+         *
+         * @param maxRetries The maximum.
+         * @return Builder
+         */
+        public Builder setMaxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of connections per origin -- defaults to 2. A new connection is only opened once
+         * the others carry as many streams as the server allows.
+         *
+         * @param maxConnections The maximum.
+         * @return Builder
+         */
+        public Builder setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Set the number of I/O threads -- defaults to 0, letting Netty pick twice the number of cores.
+         *
+         * @param ioThreads The number of threads.
+         * @return Builder
+         */
+        public Builder setIoThreads(Integer ioThreads) {
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        /**
+         * Set the connect timeout in milliseconds -- defaults to 5000.
+         *
+         * @param connectTimeoutMs The timeout.
+         * @return Builder
+         */
+        public Builder setConnectTimeoutMs(Integer connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set the timeout of every attempt in milliseconds -- defaults to 60000.
+         *
+         * @param requestTimeoutMs The timeout.
+         * @return Builder
+         */
+        public Builder setRequestTimeoutMs(Long requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Set an optional predicate for allowing request retries on 5xxs.
+         *
+         * @param retryPredicate The retry predicate.
+         * @return Builder
+         */
+        public Builder setRetryPredicate(Predicate<FilterContext> retryPredicate) {
+            this.retryPredicate = retryPredicate;
+            return this;
+        }
+
+        /**
+         * Set the backoff used between request retries -- defaults to full jitter with a 5 ms base and a 10 second cap.
+         *
+         * @param retryBackoff The retry backoff.
+         * @return Builder
+         */
+        public Builder setRetryBackoff(RetryBackoff retryBackoff) {
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
+        /**
+         * Set the listener receiving the measurements of every request -- defaults to a listener ignoring them.
+         *
+         * @param metricsListener The metrics listener.
+         * @return Builder
+         */
+        public Builder setMetricsListener(ClientMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        /**
+         * Set the TLS context -- defaults to the JDK trust store, negotiating "h2" with ALPN. A custom context must
+         * negotiate "h2" as well.
+         *
+         * @param sslContext The TLS context.
+         * @return Builder
+         */
+        public Builder setSslContext(SslContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * Build an Http2RequestClient object.  Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The base URI has been overridden but not set.
+         * 2. Max for non-POST 5xx retries must be set, already defaults to 10.
+         * 3. Max connections per origin must be positive, already defaults to 2.
+         * 4. I/O threads must not be negative, already defaults to 0.
+         * 5. Connect and request timeouts must be positive, already default to 5 and 60 seconds.
+         * 6. Retry backoff must be set, already defaults to full jitter.
+         * 7. Metrics listener must be set, already defaults to a listener ignoring the measurements.
+         * </pre>
+         *
+         * @return Http2RequestClient
+         */
+        public Http2RequestClient build() {
+            Preconditions.checkNotNull(baseUri, "base URI needed to build APIClient");
+            Preconditions.checkNotNull(maxRetries, "max non-POST retries needed to build APIClient");
+            Preconditions.checkArgument(maxConnections != null && maxConnections > 0, "max connections must be positive");
+            Preconditions.checkArgument(ioThreads != null && ioThreads >= 0, "I/O threads cannot be negative");
+            Preconditions.checkArgument(connectTimeoutMs != null && connectTimeoutMs > 0, "connect timeout must be positive");
+            Preconditions.checkArgument(requestTimeoutMs != null && requestTimeoutMs > 0, "request timeout must be positive");
+            Preconditions.checkNotNull(retryBackoff, "retry backoff needed to build APIClient");
+            Preconditions.checkNotNull(metricsListener, "metrics listener needed to build APIClient");
+
+            return new Http2RequestClient(this);
+        }
+    }
+}
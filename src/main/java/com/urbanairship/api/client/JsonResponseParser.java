@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ResponseParser backed by one of the domain ObjectMappers. Responses handled by the
+ * {@link AsyncRequestClient} are read straight from the received body parts, so the payload is
+ * never decoded into an intermediate String.
+ *
+ * @param <T> The response type.
+ */
+public class JsonResponseParser<T> implements ResponseParser<T> {
+
+    private final ObjectReader reader;
+
+    private JsonResponseParser(ObjectMapper mapper, Class<T> type) {
+        this.reader = mapper.readerFor(type);
+    }
+
+    /**
+     * Create a parser reading responses of the given type.
+     *
+     * @param mapper The ObjectMapper registering the deserializers for the type.
+     * @param type The response type.
+     * @param <T> The response type.
+     * @return JsonResponseParser
+     */
+    public static <T> JsonResponseParser<T> of(ObjectMapper mapper, Class<T> type) {
+        Preconditions.checkNotNull(mapper, "mapper cannot be null");
+        Preconditions.checkNotNull(type, "type cannot be null");
+        return new JsonResponseParser<>(mapper, type);
+    }
+
+    @Override
+    public T parse(String response) throws IOException {
+        return reader.readValue(response);
+    }
+
+    @Override
+    public T parse(InputStream response) throws IOException {
+        return reader.readValue(response);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.collect.ImmutableSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.function.LongSupplier;
+
+/**
+ * Collects the measurements of a single request for a {@link ClientMetricsListener}. Attempt events come from
+ * the I/O thread handling the attempt, the fields are volatile so the completion can be reported from any thread.
+ */
+class MetricsRecorder {
+    private static final Logger log = LoggerFactory.getLogger(MetricsRecorder.class);
+    // Every literal segment of the API paths, any other segment is an identifier.
+    private static final ImmutableSet<String> LITERAL_SEGMENTS = ImmutableSet.of(
+            "", "api", "associate", "attachments", "attribute-lists", "attributes", "batch-delete", "channels",
+            "create-and-send", "csv", "custom-events", "custom-response", "detail", "devices", "disassociate", "email",
+            "errors", "events", "experiment", "experiments", "interaction", "keywords", "list", "lists", "messages",
+            "named_users", "open", "opens", "opt-out", "optins", "optouts", "overview", "pause", "push", "replace",
+            "reports", "responses", "resume", "schedules", "scheduled", "scoped", "segments", "sends", "sms",
+            "subscription_lists", "suppress", "tag-lists", "tags", "templates", "timeinapp", "uninstall", "user",
+            "validate", "web");
+    private static final String ID_SEGMENT = "{id}";
+    // Requests only build their path against a base URI, any host gives the same path.
+    private static final URI RESOLUTION_BASE = URI.create("https://go.urbanairship.com");
+
+    private final ClientMetricsListener listener;
+    private final Request.HttpMethod method;
+    private final String path;
+    private final long startNanos;
+
+    private volatile long connectStartNanos;
+    private volatile Long connectNanos;
+    private volatile Long firstByteNanos;
+    private volatile Integer status;
+    private volatile long parseNanos;
+    private volatile long bytesIn;
+    private volatile LongSupplier bytesOut = () -> 0;
+
+    MetricsRecorder(ClientMetricsListener listener, Request.HttpMethod method, String path) {
+        this.listener = listener;
+        this.method = method;
+        this.path = path;
+        this.startNanos = System.nanoTime();
+
+        if (isEnabled()) {
+            try {
+                listener.onRequestEnqueued(method, pathTemplate(path));
+            } catch (RuntimeException e) {
+                log.warn("Metrics listener failed", e);
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return listener != ClientMetricsListener.NOOP;
+    }
+
+    /**
+     * Reset the per attempt measurements, called before every attempt.
+     */
+    void onAttempt() {
+        connectNanos = null;
+        firstByteNanos = null;
+        status = null;
+        bytesIn = 0;
+    }
+
+    void onConnectAttempt() {
+        connectStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Called once the TCP connection is open, then again once the TLS handshake is done if there is one.
+     */
+    void onConnected() {
+        connectNanos = System.nanoTime() - connectStartNanos;
+    }
+
+    void onStatus(int statusCode) {
+        status = statusCode;
+        firstByteNanos = System.nanoTime() - startNanos;
+    }
+
+    void onBodyPart(int length) {
+        bytesIn += length;
+    }
+
+    void addParseNanos(long nanos) {
+        parseNanos += nanos;
+    }
+
+    /**
+     * Set where the size of the request body is read from on completion, streamed bodies are only counted as
+     * they are sent.
+     *
+     * @param bytesOut The request body size.
+     */
+    void setBytesOut(LongSupplier bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    void complete(Throwable error, int retries) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        RequestMetrics metrics = RequestMetrics.newBuilder()
+                .setMethod(method)
+                .setPathTemplate(pathTemplate(path))
+                .setStatus(status)
+                .setError(error)
+                .setRetries(retries)
+                .setConnectNanos(connectNanos)
+                .setFirstByteNanos(firstByteNanos)
+                .setParseNanos(parseNanos)
+                .setTotalNanos(System.nanoTime() - startNanos)
+                .setBytesOut(bytesOut.getAsLong())
+                .setBytesIn(bytesIn)
+                .build();
+        try {
+            listener.onRequestCompleted(metrics);
+        } catch (RuntimeException e) {
+            log.warn("Metrics listener failed", e);
+        }
+    }
+
+    /**
+     * Replace the path segments that are not literal segments of the API paths with {@code {id}}. Identifiers are
+     * never kept, whatever they look like, so the templates stay few enough to be used as metric labels.
+     *
+     * @param path The request path.
+     * @return The path template.
+     */
+    static String pathTemplate(String path) {
+        if (path == null) {
+            return "";
+        }
+
+        StringBuilder template = new StringBuilder(path.length());
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start, end);
+            template.append(LITERAL_SEGMENTS.contains(segment) ? segment : ID_SEGMENT);
+            if (end < path.length()) {
+                template.append('/');
+            }
+            start = end + 1;
+        }
+        return template.toString();
+    }
+
+    /**
+     * Get the path template of a request, as the clients keying state by endpoint see it.
+     *
+     * @param request The request.
+     * @return The path template, empty if the request URI is invalid.
+     */
+    static String pathTemplate(Request<?> request) {
+        try {
+            return pathTemplate(request.getUri(RESOLUTION_BASE).getPath());
+        } catch (URISyntaxException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,935 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.entity.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * RequestClient storing on local disk the requests another RequestClient, usually a
+ * {@link CircuitBreakerRequestClient}, could not deliver because the API was unreachable, and sending them again
+ * once it recovers. Workers survive long outages without holding the undelivered requests on heap.
+ *
+ * A request is stored in the outbox when it is known not to have been processed: it could not connect, its circuit
+ * was open, or it got a 429 or a 503, as an exception or as a response. It then fails with an
+ * {@link OutboxedRequestException} instead. Other server errors, I/O errors and timeouts may come after the API
+ * processed the request, so sending it again could apply it twice; they are only stored with
+ * {@link Builder#setStoreAmbiguousFailures(boolean)}. Only requests sent again as they are can be stored: GETs, and
+ * requests streaming their body from a publisher or their response to a sink, are not. The method, path, headers
+ * and body of a request are appended to a log of memory mapped segment files. Of the Authorization header only
+ * its scheme, e.g. Basic or Bearer, is written to disk; the replay uses the last header of that scheme seen by
+ * the client.
+ *
+ * Every request has an ordering key, its path template by default. Order is only kept once a key is in the outbox:
+ * the requests of the key submitted after one of them was stored go to the outbox without being tried, and the
+ * outbox sends the requests of a key one at a time in order. Requests in flight are not tracked, so a request
+ * submitted while an earlier one of its key is still in flight is sent right away and may overtake it, e.g. when
+ * the earlier one ends up stored. Callers needing the order of a key kept throughout must serialize its requests,
+ * waiting for each one to complete before submitting the next. When a replay fails again with an error the request would be stored for, its key waits for
+ * an exponential backoff, or until the circuit probes again. A replayed request is otherwise acknowledged, once it
+ * got a response or an error it would not be stored for, such as a 400; the segments left without unacknowledged
+ * requests are deleted. The responses are reported to the {@link Listener}.
+ *
+ * <pre>
+ * UrbanAirshipClient client = UrbanAirshipClient.newBuilder()
+ *     .setKey("key")
+ *     .setSecret("secret")
+ *     .setClient(OutboxRequestClient.newBuilder()
+ *         .setClient(CircuitBreakerRequestClient.newBuilder()
+ *             .setClient(AsyncRequestClient.newBuilder().build())
+ *             .build())
+ *         .setDirectory(Paths.get("/var/lib/app/outbox"))
+ *         .build())
+ *     .build();
+ * </pre>
+ */
+public class OutboxRequestClient implements RequestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRequestClient.class);
+    private static final URI RESOLUTION_BASE = URI.create("https://go.urbanairship.com/");
+    private static final String AUTHORIZATION = "Authorization";
+
+    /**
+     * Receives the outcome of the requests stored in the outbox. Called from the client I/O and replay threads.
+     */
+    public interface Listener {
+
+        /**
+         * Called once a request is stored in the outbox.
+         *
+         * @param sequence The outbox sequence number of the request.
+         * @param key The ordering key of the request.
+         * @param cause The error that sent the request to the outbox, null if earlier requests of the key were
+         * waiting in the outbox.
+         */
+        default void onStored(long sequence, String key, Throwable cause) {
+        }
+
+        /**
+         * Called once a request from the outbox got a response.
+         *
+         * @param sequence The outbox sequence number of the request.
+         * @param key The ordering key of the request.
+         * @param response The response, its body unparsed.
+         */
+        default void onDelivered(long sequence, String key, Response<String> response) {
+        }
+
+        /**
+         * Called once a request from the outbox failed with an error it is not stored for, e.g. a 400.
+         *
+         * @param sequence The outbox sequence number of the request.
+         * @param key The ordering key of the request.
+         * @param error The error.
+         */
+        default void onDropped(long sequence, String key, Throwable error) {
+        }
+    }
+
+    private final RequestClient client;
+    private final Function<Request<?>, String> keyFunction;
+    private final long maxBytes;
+    private final long minBackoffMs;
+    private final long maxBackoffMs;
+    private final boolean storeAmbiguousFailures;
+    private final Listener listener;
+    private final ScheduledExecutorService replayer;
+
+    private final Object lock = new Object();
+    private final SegmentLog segmentLog;
+    private final Map<String, ArrayDeque<Long>> pending = new LinkedHashMap<>();
+    private final Map<String, Backoff> backoffs = new HashMap<>();
+    private final Map<String, String> authorizations = new ConcurrentHashMap<>();
+    private long nextSequence;
+    private long stored;
+    private long delivered;
+    private long dropped;
+
+    private OutboxRequestClient(Builder builder) {
+        this.client = builder.client;
+        this.keyFunction = builder.keyFunction;
+        this.maxBytes = builder.maxBytes;
+        this.minBackoffMs = builder.minBackoffMs;
+        this.maxBackoffMs = builder.maxBackoffMs;
+        this.storeAmbiguousFailures = builder.storeAmbiguousFailures;
+        this.listener = builder.listener;
+
+        try {
+            this.segmentLog = new SegmentLog(builder.directory, builder.segmentBytes, builder.sync);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open the outbox in " + builder.directory, e);
+        }
+        for (Long sequence : segmentLog.liveSequences()) {
+            try {
+                String key = Entry.decode(segmentLog.read(sequence)).key;
+                pending.computeIfAbsent(key, k -> new ArrayDeque<>()).add(sequence);
+            } catch (IOException e) {
+                log.error(String.format("Dropping unreadable outbox request %d", sequence), e);
+                ackQuietly(sequence);
+            }
+        }
+        this.nextSequence = segmentLog.lastSequence() + 1;
+        if (segmentLog.size() > 0) {
+            log.info(String.format("Recovered %d requests from the outbox in %s", segmentLog.size(), builder.directory));
+        }
+
+        this.replayer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ua-outbox-%d")
+                .setDaemon(true)
+                .build());
+        this.replayer.scheduleWithFixedDelay(this::replay, builder.replayIntervalMs, builder.replayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * New OutboxRequestClient Builder.
+     *
+     * @return OutboxRequestClient Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+        String authorization = headers.get(AUTHORIZATION);
+        if (authorization != null) {
+            authorizations.put(authScheme(authorization), authorization);
+        }
+        if (!isStorable(request)) {
+            return client.executeAsync(request, callback, headers);
+        }
+
+        final String key = keyFunction.apply(request);
+        CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        boolean queued;
+        // Only keys already in the outbox are ordered, requests of the key still in flight are not waited for.
+        synchronized (lock) {
+            queued = pending.containsKey(key);
+        }
+        if (queued) {
+            fail(result, callback, store(request, headers, key, null));
+            return result;
+        }
+
+        final CompletableFuture<Response<T>> viaCallback = new CompletableFuture<>();
+        Future<Response<T>> future;
+        try {
+            future = client.executeAsync(request, new ResponseCallback() {
+                @Override
+                public void completed(Response response) {
+                    @SuppressWarnings("unchecked")
+                    Response<T> typed = response;
+                    viaCallback.complete(typed);
+                }
+
+                @Override
+                public void error(Throwable throwable) {
+                    viaCallback.completeExceptionally(throwable);
+                }
+            }, headers);
+        } catch (RuntimeException e) {
+            fail(result, callback, shouldStore(e) ? store(request, headers, key, e) : e);
+            return result;
+        }
+
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        CompletableFuture<Response<T>> source = future instanceof CompletableFuture
+                ? (CompletableFuture<Response<T>>) future
+                : viaCallback;
+        source.whenComplete((response, throwable) -> {
+            // A 429, or a server error the client did not throw, comes back as a response.
+            Throwable error = throwable != null ? unwrap(throwable) : failureOf(response);
+            if (error != null && shouldStore(error)) {
+                fail(result, callback, store(request, headers, key, error));
+            } else if (throwable != null) {
+                fail(result, callback, error);
+            } else {
+                if (callback != null) {
+                    callback.completed(response);
+                }
+                result.complete(response);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the number of requests waiting in the outbox.
+     *
+     * @return int
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return segmentLog.size();
+        }
+    }
+
+    /**
+     * Get the number of requests waiting in the outbox for a key.
+     *
+     * @param key The ordering key.
+     * @return int
+     */
+    public int getPendingCount(String key) {
+        synchronized (lock) {
+            ArrayDeque<Long> sequences = pending.get(key);
+            return sequences == null ? 0 : sequences.size();
+        }
+    }
+
+    /**
+     * Get the size of the outbox segment files.
+     *
+     * @return long bytes
+     */
+    public long getDiskBytes() {
+        synchronized (lock) {
+            return segmentLog.diskBytes();
+        }
+    }
+
+    /**
+     * Get the number of requests stored in the outbox since the client was built.
+     *
+     * @return long
+     */
+    public long getStoredCount() {
+        synchronized (lock) {
+            return stored;
+        }
+    }
+
+    /**
+     * Get the number of requests from the outbox that got a response since the client was built.
+     *
+     * @return long
+     */
+    public long getDeliveredCount() {
+        synchronized (lock) {
+            return delivered;
+        }
+    }
+
+    /**
+     * Get the number of requests from the outbox dropped on an error they are not stored for.
+     *
+     * @return long
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return dropped;
+        }
+    }
+
+    /**
+     * Get the underlying request client.
+     *
+     * @return RequestClient
+     */
+    public RequestClient getClient() {
+        return client;
+    }
+
+    /**
+     * Stop the replay, close the outbox and the underlying client. The requests left in the outbox are sent
+     * by the next client opening its directory.
+     */
+    @Override
+    public void close() throws IOException {
+        replayer.shutdownNow();
+        try {
+            replayer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            segmentLog.close();
+        }
+        client.close();
+    }
+
+    /**
+     * Send the requests of every key not backing off, in order, until one fails again.
+     */
+    void replay() {
+        List<String> keys;
+        synchronized (lock) {
+            keys = new ArrayList<>(pending.keySet());
+        }
+
+        for (String key : keys) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            while (true) {
+                long sequence;
+                Entry entry;
+                synchronized (lock) {
+                    Backoff backoff = backoffs.get(key);
+                    ArrayDeque<Long> sequences = pending.get(key);
+                    if (sequences == null || (backoff != null && System.nanoTime() < backoff.notBeforeNanos)) {
+                        break;
+                    }
+                    sequence = sequences.peek();
+                    try {
+                        entry = Entry.decode(segmentLog.read(sequence));
+                    } catch (IOException e) {
+                        log.error(String.format("Dropping unreadable outbox request %d", sequence), e);
+                        acknowledge(key, sequence);
+                        continue;
+                    }
+                }
+
+                String auth = null;
+                if (!entry.authScheme.isEmpty()) {
+                    auth = authorizations.get(entry.authScheme);
+                    if (auth == null) {
+                        // Recovered requests wait until the client sends a request with the same scheme.
+                        break;
+                    }
+                }
+
+                Throwable error;
+                Response<String> response = null;
+                try {
+                    response = send(entry, auth);
+                    error = failureOf(response);
+                } catch (ExecutionException e) {
+                    error = unwrap(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                if (error != null && shouldStore(error)) {
+                    synchronized (lock) {
+                        Backoff backoff = backoffs.computeIfAbsent(key, k -> new Backoff());
+                        long delayMs = backoff.nextDelayMs(minBackoffMs, maxBackoffMs);
+                        if (error instanceof CircuitBreakerOpenException) {
+                            delayMs = Math.max(delayMs, ((CircuitBreakerOpenException) error).getRetryAfterMs());
+                        }
+                        backoff.notBeforeNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                    }
+                    log.debug(String.format("Outbox replay of %s failed, retrying", key), error);
+                    break;
+                }
+
+                synchronized (lock) {
+                    backoffs.remove(key);
+                    acknowledge(key, sequence);
+                    if (error == null) {
+                        delivered++;
+                    } else {
+                        dropped++;
+                    }
+                }
+                if (error == null) {
+                    listener.onDelivered(sequence, key, response);
+                } else {
+                    log.warn(String.format("Dropping outbox request %d for %s", sequence, key), error);
+                    listener.onDropped(sequence, key, error);
+                }
+            }
+        }
+    }
+
+    private Response<String> send(Entry entry, String auth) throws ExecutionException, InterruptedException {
+        Map<String, String> headers = new HashMap<>(entry.headers);
+        if (auth != null) {
+            headers.put(AUTHORIZATION, auth);
+        }
+
+        final CompletableFuture<Response<String>> viaCallback = new CompletableFuture<>();
+        Future<Response<String>> future;
+        try {
+            future = client.executeAsync(new StoredRequest(entry), new ResponseCallback() {
+                @Override
+                public void completed(Response response) {
+                    @SuppressWarnings("unchecked")
+                    Response<String> typed = response;
+                    viaCallback.complete(typed);
+                }
+
+                @Override
+                public void error(Throwable throwable) {
+                    viaCallback.completeExceptionally(throwable);
+                }
+            }, headers);
+        } catch (RuntimeException e) {
+            throw new ExecutionException(e);
+        }
+        return (future instanceof CompletableFuture ? future : viaCallback).get();
+    }
+
+    /**
+     * Append a request to the outbox.
+     *
+     * @return The OutboxedRequestException to fail the request with, or the cause if the outbox is full.
+     */
+    private Throwable store(Request<?> request, Map<String, String> headers, String key, Throwable cause) {
+        byte[] data;
+        try {
+            data = Entry.encode(request, headers, key);
+        } catch (IOException | URISyntaxException e) {
+            log.error("Failed to encode request for the outbox", e);
+            return cause != null ? cause : e;
+        }
+
+        long sequence;
+        synchronized (lock) {
+            if (segmentLog.liveBytes() + data.length > maxBytes) {
+                log.error(String.format("Outbox full, failing request for %s", key));
+                return cause != null ? cause : new IllegalStateException("Outbox full for " + key);
+            }
+            sequence = nextSequence++;
+            try {
+                segmentLog.append(sequence, data);
+            } catch (IOException e) {
+                log.error("Failed to append request to the outbox", e);
+                return cause != null ? cause : e;
+            }
+            pending.computeIfAbsent(key, k -> new ArrayDeque<>()).add(sequence);
+            stored++;
+        }
+        listener.onStored(sequence, key, cause);
+        return new OutboxedRequestException(sequence, key, cause);
+    }
+
+    private void acknowledge(String key, long sequence) {
+        ArrayDeque<Long> sequences = pending.get(key);
+        if (sequences != null) {
+            sequences.remove(sequence);
+            if (sequences.isEmpty()) {
+                pending.remove(key);
+            }
+        }
+        ackQuietly(sequence);
+    }
+
+    private void ackQuietly(long sequence) {
+        try {
+            segmentLog.ack(sequence);
+        } catch (IOException e) {
+            log.error(String.format("Failed to acknowledge outbox request %d", sequence), e);
+        }
+    }
+
+    private static <T> void fail(CompletableFuture<Response<T>> result, ResponseCallback callback, Throwable error) {
+        if (callback != null) {
+            callback.error(error);
+        }
+        result.completeExceptionally(error);
+    }
+
+    /**
+     * Whether a request failing with an error is stored, see the class documentation.
+     */
+    private boolean shouldStore(Throwable error) {
+        return isUndelivered(error) || (storeAmbiguousFailures && isRetryable(error));
+    }
+
+    private static boolean isStorable(Request<?> request) {
+        return request.getHttpMethod() != Request.HttpMethod.GET
+                && !request.getBodyPublisher().isPresent()
+                && !request.getBodySink().isPresent();
+    }
+
+    /**
+     * Whether a request failed before the API processed it, so sending it again cannot apply it twice.
+     */
+    static boolean isUndelivered(Throwable error) {
+        if (error instanceof ClientException) {
+            return ((ClientException) error).getStatusCode() == 429;
+        }
+        if (error instanceof ServerException) {
+            return ((ServerException) error).getStatusCode() == 503;
+        }
+        if (error instanceof CircuitBreakerOpenException) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether sending a request again may succeed where it just failed.
+     */
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof ClientException) {
+            return ((ClientException) error).getStatusCode() == 429;
+        }
+        if (error instanceof ServerException || error instanceof CircuitBreakerOpenException
+                || error instanceof RequestTimeoutException) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The error a response stands for when the client returned it rather than failing with it: a 429, or a server
+     * error.
+     */
+    private static Throwable failureOf(Response<?> response) {
+        if (response == null) {
+            return null;
+        }
+        if (response.getStatus() == 429) {
+            return ClientException.newBuilder().setStatusCode(429).setStatusText("Too Many Requests").build();
+        }
+        if (response.getStatus() >= 500) {
+            return ServerException.newBuilder().setStatusCode(response.getStatus()).build();
+        }
+        return null;
+    }
+
+    /**
+     * The scheme of an Authorization header, the only part of it written to disk.
+     */
+    private static String authScheme(String authorization) {
+        int end = authorization.indexOf(' ');
+        return end > 0 ? authorization.substring(0, end) : "";
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private static final class Backoff {
+        private long delayMs;
+        private long notBeforeNanos;
+
+        private long nextDelayMs(long minBackoffMs, long maxBackoffMs) {
+            delayMs = delayMs == 0 ? minBackoffMs : Math.min(maxBackoffMs, delayMs * 2);
+            return delayMs;
+        }
+    }
+
+    /**
+     * A request as stored in the outbox.
+     */
+    private static final class Entry {
+        private final String key;
+        private final String authScheme;
+        private final Request.HttpMethod method;
+        private final String path;
+        private final String contentType;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private Entry(String key, String authScheme, Request.HttpMethod method, String path, String contentType,
+                      Map<String, String> headers, byte[] body) {
+            this.key = key;
+            this.authScheme = authScheme;
+            this.method = method;
+            this.path = path;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        private static byte[] encode(Request<?> request, Map<String, String> headers, String key) throws IOException, URISyntaxException {
+            URI uri = request.getUri(RESOLUTION_BASE);
+            String path = RESOLUTION_BASE.relativize(uri).toString();
+            ContentType contentType = request.getContentType();
+            byte[] body = contentType != null ? request.getRequestBodyBytes() : null;
+            String authScheme = "";
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (AUTHORIZATION.equalsIgnoreCase(header.getKey())) {
+                    authScheme = authScheme(header.getValue());
+                }
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + (body != null ? body.length : 0));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(key);
+            out.writeUTF(authScheme);
+            out.writeUTF(request.getHttpMethod().name());
+            out.writeUTF(path);
+            out.writeUTF(contentType != null ? contentType.toString() : "");
+            int count = 0;
+            for (String name : headers.keySet()) {
+                count += AUTHORIZATION.equalsIgnoreCase(name) ? 0 : 1;
+            }
+            out.writeInt(count);
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (!AUTHORIZATION.equalsIgnoreCase(header.getKey())) {
+                    out.writeUTF(header.getKey());
+                    out.writeUTF(header.getValue());
+                }
+            }
+            out.writeInt(body != null ? body.length : -1);
+            if (body != null) {
+                out.write(body);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private static Entry decode(byte[] data) throws IOException {
+            if (data == null) {
+                throw new IOException("Outbox request is not live");
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            String key = in.readUTF();
+            String authScheme = in.readUTF();
+            Request.HttpMethod method = Request.HttpMethod.valueOf(in.readUTF());
+            String path = in.readUTF();
+            String contentType = in.readUTF();
+            int count = in.readInt();
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                headers.put(in.readUTF(), in.readUTF());
+            }
+            int length = in.readInt();
+            byte[] body = null;
+            if (length >= 0) {
+                body = new byte[length];
+                in.readFully(body);
+            }
+            return new Entry(key, authScheme, method, path, contentType.isEmpty() ? null : contentType, headers, body);
+        }
+    }
+
+    /**
+     * A request sent again from the outbox, its response body left unparsed.
+     */
+    private static final class StoredRequest implements Request<String> {
+        private final Entry entry;
+
+        private StoredRequest(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public HttpMethod getHttpMethod() {
+            return entry.method;
+        }
+
+        @Override
+        public String getRequestBody() {
+            return entry.body != null ? new String(entry.body, java.nio.charset.StandardCharsets.UTF_8) : null;
+        }
+
+        @Override
+        public byte[] getRequestBodyBytes() {
+            return entry.body;
+        }
+
+        @Override
+        public ContentType getContentType() {
+            return entry.contentType != null ? ContentType.parse(entry.contentType) : null;
+        }
+
+        @Override
+        public Map<String, String> getRequestHeaders() {
+            return entry.headers;
+        }
+
+        @Override
+        public URI getUri(URI baseUri) {
+            return RequestUtils.resolveURI(baseUri, entry.path);
+        }
+
+        @Override
+        public ResponseParser<String> getResponseParser() {
+            return response -> response;
+        }
+
+        @Override
+        public boolean bearerTokenAuthRequired() {
+            return "Bearer".equalsIgnoreCase(entry.authScheme);
+        }
+
+        @Override
+        public boolean canUseBearerTokenAuth() {
+            return bearerTokenAuthRequired();
+        }
+    }
+
+    /**
+     * OutboxRequestClient Builder.
+     */
+    public static class Builder {
+        private RequestClient client;
+        private Path directory;
+        private Function<Request<?>, String> keyFunction = MetricsRecorder::pathTemplate;
+        private int segmentBytes = 64 * 1024 * 1024;
+        private long maxBytes = 1024L * 1024 * 1024;
+        private boolean sync = true;
+        private long replayIntervalMs = 1000;
+        private long minBackoffMs = 1000;
+        private long maxBackoffMs = 60000;
+        private boolean storeAmbiguousFailures = false;
+        private Listener listener = new Listener() {
+        };
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client the requests are handed to.
+         *
+         * @param client RequestClient
+         * @return Builder
+         */
+        public Builder setClient(RequestClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the directory of the outbox segment files, created if missing. Only one client may use a directory
+         * at a time.
+         *
+         * @param directory Path
+         * @return Builder
+         */
+        public Builder setDirectory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Set the function giving the ordering key of a request -- defaults to its path template, e.g.
+         * "/api/channels/tags/".
+         *
+         * @param keyFunction Function of Request to String
+         * @return Builder
+         */
+        public Builder setKeyFunction(Function<Request<?>, String> keyFunction) {
+            this.keyFunction = keyFunction;
+            return this;
+        }
+
+        /**
+         * Set the size of a segment file -- defaults to 64 MiB.
+         *
+         * @param segmentBytes int
+         * @return Builder
+         */
+        public Builder setSegmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * Set the maximum size of the requests waiting in the outbox, beyond which requests fail with their own
+         * error instead -- defaults to 1 GiB.
+         *
+         * @param maxBytes long
+         * @return Builder
+         */
+        public Builder setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Set whether every write is forced to disk before the request fails with an OutboxedRequestException
+         * -- defaults to true. Without it a crash of the machine, but not of the process, may lose requests.
+         *
+         * @param sync boolean
+         * @return Builder
+         */
+        public Builder setSync(boolean sync) {
+            this.sync = sync;
+            return this;
+        }
+
+        /**
+         * Set how often the outbox is replayed -- defaults to 1 second.
+         *
+         * @param replayIntervalMs long
+         * @return Builder
+         */
+        public Builder setReplayIntervalMs(long replayIntervalMs) {
+            this.replayIntervalMs = replayIntervalMs;
+            return this;
+        }
+
+        /**
+         * Set the first backoff of a key whose replay failed -- defaults to 1 second, doubled on every failure.
+         *
+         * @param minBackoffMs long
+         * @return Builder
+         */
+        public Builder setMinBackoffMs(long minBackoffMs) {
+            this.minBackoffMs = minBackoffMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum backoff of a key whose replay failed -- defaults to 60 seconds.
+         *
+         * @param maxBackoffMs long
+         * @return Builder
+         */
+        public Builder setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+            return this;
+        }
+
+        /**
+         * Set whether requests failing after they may have reached the API are stored too -- defaults to false.
+         * These are timeouts, I/O errors other than connection failures, and server errors other than a 503.
+         * Only enable it for requests that are safe to apply twice.
+         *
+         * @param storeAmbiguousFailures boolean
+         * @return Builder
+         */
+        public Builder setStoreAmbiguousFailures(boolean storeAmbiguousFailures) {
+            this.storeAmbiguousFailures = storeAmbiguousFailures;
+            return this;
+        }
+
+        /**
+         * Set the listener of the requests stored in the outbox -- defaults to none.
+         *
+         * @param listener Listener
+         * @return Builder
+         */
+        public Builder setListener(Listener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Build an OutboxRequestClient object, recovering the requests left in its directory. Will fail if any
+         * of the following preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The directory must be set.
+         * 3. The key function must be set.
+         * 4. The segment size must be at least 4 KiB.
+         * 5. The maximum size must be positive.
+         * 6. The replay interval must be positive.
+         * 7. The minimum backoff must be positive, and not above the maximum backoff.
+         * 8. The listener must be set.
+         * </pre>
+         *
+         * @return OutboxRequestClient
+         */
+        public OutboxRequestClient build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkNotNull(directory, "directory must be set");
+            Preconditions.checkNotNull(keyFunction, "key function must be set");
+            Preconditions.checkArgument(segmentBytes >= 4096, "segment bytes must be at least 4096");
+            Preconditions.checkArgument(maxBytes > 0, "max bytes must be positive");
+            Preconditions.checkArgument(replayIntervalMs > 0, "replay interval must be positive");
+            Preconditions.checkArgument(minBackoffMs > 0 && minBackoffMs <= maxBackoffMs, "min backoff must be positive and not above max backoff");
+            Preconditions.checkNotNull(listener, "listener must be set");
+
+            return new OutboxRequestClient(this);
+        }
+    }
+}
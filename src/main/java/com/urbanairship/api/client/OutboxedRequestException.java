@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+/**
+ * Exception a request fails with once the {@link OutboxRequestClient} has stored it on disk instead of sending it,
+ * because the API could not be reached or earlier requests of the same key were waiting in the outbox. The request
+ * is sent again in the background; its response is reported to the outbox listener, not to the caller.
+ */
+public class OutboxedRequestException extends RuntimeException {
+    private final long sequence;
+    private final String key;
+
+    public OutboxedRequestException(long sequence, String key, Throwable cause) {
+        super(String.format("Request %d stored in the outbox for %s", sequence, key), cause);
+        this.sequence = sequence;
+        this.key = key;
+    }
+
+    /**
+     * Get the outbox sequence number of the request.
+     *
+     * @return long
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the ordering key of the request.
+     *
+     * @return String
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Iterator over the items of a paginated listing. The first page is requested on the first call to
+ * {@link #hasNext()}. As soon as a page arrives, the request for the following one is issued as long as
+ * fewer than {@code maxPagesInFlight} pages are waiting to be consumed, so the next page loads while the
+ * current one is being iterated. Closing the iterator cancels the page in flight and stops the pagination.
+ * A page answered with a status outside 2xx fails the iteration with a {@link ClientException} carrying that status.
+ *
+ * @param <R> The page response type.
+ * @param <T> The item type.
+ */
+class PageIterator<R, T> implements Iterator<T>, Closeable {
+
+    private final UrbanAirshipClient client;
+    private final Paginator<R, T> paginator;
+    private final int maxPagesInFlight;
+
+    private final Object lock = new Object();
+    private final Deque<Collection<T>> pages = new ArrayDeque<>();
+    private CompletableFuture<Response<R>> inFlight;
+    private URI pendingNextPage;
+    private Throwable failure;
+    private boolean started;
+    private boolean closed;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    PageIterator(UrbanAirshipClient client, Paginator<R, T> paginator, int maxPagesInFlight) {
+        this.client = client;
+        this.paginator = paginator;
+        this.maxPagesInFlight = maxPagesInFlight;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            Collection<T> page = takePage();
+            if (page == null) {
+                return false;
+            }
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Stop the pagination, cancelling the page in flight if any.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            pages.clear();
+            pendingNextPage = null;
+            if (inFlight != null) {
+                inFlight.cancel(true);
+                inFlight = null;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private Collection<T> takePage() {
+        synchronized (lock) {
+            if (!started) {
+                started = true;
+                fetch(paginator.getFirstRequest());
+            }
+
+            while (pages.isEmpty() && failure == null && !closed && inFlight != null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new RuntimeException("Thread interrupted while retrieving the next page", e);
+                }
+            }
+
+            if (!pages.isEmpty()) {
+                Collection<T> page = pages.poll();
+                fetchNextPage();
+                return page;
+            }
+
+            if (failure != null) {
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+                throw new RuntimeException("Failed to retrieve the next page", failure);
+            }
+
+            return null;
+        }
+    }
+
+    private void fetchNextPage() {
+        if (pendingNextPage != null && inFlight == null && failure == null && !closed && pages.size() < maxPagesInFlight) {
+            URI next = pendingNextPage;
+            pendingNextPage = null;
+            fetch(paginator.getNextPageRequest(next));
+        }
+    }
+
+    private void fetch(Request<R> request) {
+        CompletableFuture<Response<R>> future;
+        try {
+            future = client.executeAsyncCF(request);
+        } catch (RuntimeException e) {
+            failure = e;
+            return;
+        }
+
+        inFlight = future;
+        future.whenComplete((response, throwable) -> onPage(future, response, throwable));
+    }
+
+    private void onPage(CompletableFuture<Response<R>> future, Response<R> response, Throwable throwable) {
+        synchronized (lock) {
+            if (closed || future != inFlight) {
+                return;
+            }
+            inFlight = null;
+
+            if (throwable != null) {
+                failure = unwrap(throwable);
+            } else if (response != null && (response.getStatus() < 200 || response.getStatus() >= 300)) {
+                // 401, 403 and 5xx already fail the future, any other non 2xx status ends the listing too.
+                failure = ClientException.newBuilder()
+                        .setStatusCode(response.getStatus())
+                        .setStatusText(String.format("Failed to retrieve the next page, status %d", response.getStatus()))
+                        .build();
+            } else if (response != null && response.getBody().isPresent()) {
+                R body = response.getBody().get();
+                Collection<T> items = paginator.getItems(body);
+                if (items != null && !items.isEmpty()) {
+                    pages.add(items);
+                }
+                Optional<URI> next = paginator.getNextPage(body);
+                pendingNextPage = next.orElse(null);
+                fetchNextPage();
+            }
+
+            lock.notifyAll();
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
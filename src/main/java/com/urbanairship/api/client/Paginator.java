@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Paginator describes how to walk a paginated listing endpoint: the request for the first page, how to build
+ * the request for a next page URI, and how to read the next page URI and the items from a page. It is handed to
+ * {@link UrbanAirshipClient#stream(Paginator)} to obtain a lazy stream over every item of the listing.
+ *
+ * Listing requests provide ready-made paginators, for example
+ * {@code client.stream(ChannelRequest.newRequest().paginator())}.
+ *
+ * @param <R> The page response type.
+ * @param <T> The item type.
+ */
+public class Paginator<R, T> {
+
+    private final Request<R> firstRequest;
+    private final Function<URI, ? extends Request<R>> nextPageRequest;
+    private final Function<R, Optional<String>> nextPage;
+    private final Function<R, ? extends Collection<T>> items;
+
+    private Paginator(Builder<R, T> builder) {
+        this.firstRequest = builder.firstRequest;
+        this.nextPageRequest = builder.nextPageRequest;
+        this.nextPage = builder.nextPage;
+        this.items = builder.items;
+    }
+
+    /**
+     * New Paginator Builder.
+     *
+     * @param <R> The page response type.
+     * @param <T> The item type.
+     * @return Paginator Builder.
+     */
+    public static <R, T> Builder<R, T> newBuilder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Get the request for the first page.
+     *
+     * @return Request
+     */
+    public Request<R> getFirstRequest() {
+        return firstRequest;
+    }
+
+    /**
+     * Build the request for a next page.
+     *
+     * @param nextPageUri The next page URI returned by the previous page.
+     * @return Request
+     */
+    public Request<R> getNextPageRequest(URI nextPageUri) {
+        return nextPageRequest.apply(nextPageUri);
+    }
+
+    /**
+     * Get the next page URI of a page, if any.
+     *
+     * @param page The page response.
+     * @return Optional next page URI.
+     */
+    public Optional<URI> getNextPage(R page) {
+        Optional<String> next = nextPage.apply(page);
+        if (next == null || !next.isPresent() || next.get().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(URI.create(next.get()));
+    }
+
+    /**
+     * Get the items of a page.
+     *
+     * @param page The page response.
+     * @return The page items.
+     */
+    public Collection<T> getItems(R page) {
+        return items.apply(page);
+    }
+
+    /**
+     * Paginator Builder.
+     *
+     * @param <R> The page response type.
+     * @param <T> The item type.
+     */
+    public static class Builder<R, T> {
+        private Request<R> firstRequest;
+        private Function<URI, ? extends Request<R>> nextPageRequest;
+        private Function<R, Optional<String>> nextPage;
+        private Function<R, ? extends Collection<T>> items;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the request for the first page.
+         *
+         * @param firstRequest Request
+         * @return Builder
+         */
+        public Builder<R, T> setFirstRequest(Request<R> firstRequest) {
+            this.firstRequest = firstRequest;
+            return this;
+        }
+
+        /**
+         * Set the function building the request for a next page URI.
+         *
+         * @param nextPageRequest Function
+         * @return Builder
+         */
+        public Builder<R, T> setNextPageRequest(Function<URI, ? extends Request<R>> nextPageRequest) {
+            this.nextPageRequest = nextPageRequest;
+            return this;
+        }
+
+        /**
+         * Set the function reading the next page URI from a page.
+         *
+         * @param nextPage Function
+         * @return Builder
+         */
+        public Builder<R, T> setNextPage(Function<R, Optional<String>> nextPage) {
+            this.nextPage = nextPage;
+            return this;
+        }
+
+        /**
+         * Set the function reading the items from a page.
+         *
+         * @param items Function
+         * @return Builder
+         */
+        public Builder<R, T> setItems(Function<R, ? extends Collection<T>> items) {
+            this.items = items;
+            return this;
+        }
+
+        /**
+         * Build a Paginator object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The first request must be set.
+         * 2. The next page request function must be set.
+         * 3. The next page function must be set.
+         * 4. The items function must be set.
+         * </pre>
+         *
+         * @return Paginator
+         */
+        public Paginator<R, T> build() {
+            Preconditions.checkNotNull(firstRequest, "first request must be set");
+            Preconditions.checkNotNull(nextPageRequest, "next page request function must be set");
+            Preconditions.checkNotNull(nextPage, "next page function must be set");
+            Preconditions.checkNotNull(items, "items function must be set");
+
+            return new Paginator<>(this);
+        }
+    }
+}
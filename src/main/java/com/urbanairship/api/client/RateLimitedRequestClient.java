@@ -0,0 +1,627 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RequestClient throttling the requests handed to another RequestClient, usually the {@link AsyncRequestClient}.
+ *
+ * Requests wait in a bounded queue until both of the following allow them through:
+ * <pre>
+ * 1. The token bucket of their {@link EndpointFamily}, if a rate was set for it.
+ * 2. An AIMD concurrency limit, growing while requests succeed quickly, halved on a 429 and reduced when the
+ *    latency goes over the threshold.
+ * </pre>
+ * A 429 response also pauses the bucket of its family for the Retry-After delay, when the header is present.
+ * When the queue is full, new requests are either rejected with a {@link RejectedExecutionException} or held
+ * until there is room, see {@link OverflowPolicy}. Held requests are bounded too: past {@code maxOverflow} of them,
+ * requests are rejected under either policy. The submitting thread is never blocked, requests may be
+ * submitted from the client I/O threads, e.g. from a response callback.
+ *
+ * <pre>
+ * UrbanAirshipClient client = UrbanAirshipClient.newBuilder()
+ *     .setKey("key")
+ *     .setSecret("secret")
+ *     .setClient(RateLimitedRequestClient.newBuilder()
+ *         .setClient(AsyncRequestClient.newBuilder().build())
+ *         .setRate(EndpointFamily.PUSH, 50, 10)
+ *         .build())
+ *     .build();
+ * </pre>
+ */
+public class RateLimitedRequestClient implements RequestClient {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitedRequestClient.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * What happens to a request submitted while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Fail the request with a RejectedExecutionException.
+         */
+        REJECT,
+        /**
+         * Hold the request until there is room in the queue, it is then queued and dispatched like any other. The
+         * submitting thread does not wait, callers needing backpressure wait on the returned futures. Held requests
+         * stay in memory with their bodies, up to the maximum overflow; beyond it requests are rejected.
+         */
+        AWAIT
+    }
+
+    private final RequestClient client;
+    private final Map<EndpointFamily, TokenBucket> buckets;
+    private final AimdLimit limit;
+    private final int maxQueueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxOverflow;
+    private final Ticker ticker;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private final Deque<Pending<?>> queue = new ArrayDeque<>();
+    private final Deque<Pending<?>> overflow = new ArrayDeque<>();
+    private int inFlight;
+    private long rejected;
+    private ScheduledFuture<?> scheduledDrain;
+    private long scheduledDrainNanos;
+    private boolean closed;
+
+    private RateLimitedRequestClient(Builder builder) {
+        this.client = builder.client;
+        this.ticker = builder.ticker;
+        this.buckets = new EnumMap<>(EndpointFamily.class);
+        for (Map.Entry<EndpointFamily, double[]> rate : builder.rates.entrySet()) {
+            buckets.put(rate.getKey(), new TokenBucket(rate.getValue()[0], (int) rate.getValue()[1], ticker));
+        }
+        this.limit = new AimdLimit(builder.initialConcurrency, builder.minConcurrency, builder.maxConcurrency,
+                builder.backoffRatio, TimeUnit.MILLISECONDS.toNanos(builder.latencyThresholdMs));
+        this.maxQueueSize = builder.maxQueueSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.maxOverflow = builder.maxOverflow;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ua-rate-limiter-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * New RateLimitedRequestClient Builder.
+     *
+     * @return RateLimitedRequestClient Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+        Pending<T> pending = new Pending<>(request, callback, headers, EndpointFamily.of(request));
+
+        synchronized (lock) {
+            if (closed) {
+                pending.result.completeExceptionally(new RejectedExecutionException("Rate limited client is closed"));
+                return pending.result;
+            }
+            if (queue.size() < maxQueueSize && overflow.isEmpty()) {
+                queue.add(pending);
+            } else if (overflowPolicy == OverflowPolicy.AWAIT && overflow.size() < maxOverflow) {
+                // Held outside the queue, so draining never scans more than the maximum queue size.
+                overflow.add(pending);
+            } else {
+                rejected++;
+                pending.result.completeExceptionally(new RejectedExecutionException(
+                        "Rate limiter queue is full, " + (queue.size() + overflow.size()) + " requests waiting"));
+                return pending.result;
+            }
+        }
+
+        pending.result.whenComplete((response, throwable) -> {
+            if (pending.result.isCancelled()) {
+                pending.cancel();
+            }
+        });
+        drain();
+        return pending.result;
+    }
+
+    /**
+     * Get the number of requests waiting in the queue, requests held until there is room included.
+     *
+     * @return int
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queue.size() + overflow.size();
+        }
+    }
+
+    /**
+     * Get the number of requests handed to the underlying client and not completed yet.
+     *
+     * @return int
+     */
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Get the current concurrency limit.
+     *
+     * @return int
+     */
+    public int getConcurrencyLimit() {
+        synchronized (lock) {
+            return limit.getLimit();
+        }
+    }
+
+    /**
+     * Get the permits currently available to an endpoint family.
+     *
+     * @param family The endpoint family.
+     * @return Optional number of permits, possibly fractional, empty if the family is not rate limited.
+     */
+    public Optional<Double> getAvailablePermits(EndpointFamily family) {
+        synchronized (lock) {
+            TokenBucket bucket = buckets.get(family);
+            return bucket == null ? Optional.empty() : Optional.of(bucket.getAvailablePermits());
+        }
+    }
+
+    /**
+     * Get the number of requests rejected because the queue was full.
+     *
+     * @return long
+     */
+    public long getRejectedCount() {
+        synchronized (lock) {
+            return rejected;
+        }
+    }
+
+    /**
+     * Get the underlying request client.
+     *
+     * @return RequestClient
+     */
+    public RequestClient getClient() {
+        return client;
+    }
+
+    /**
+     * Fail the queued requests and close the underlying client.
+     */
+    @Override
+    public void close() throws IOException {
+        List<Pending<?>> dropped;
+        synchronized (lock) {
+            closed = true;
+            dropped = new ArrayList<>(queue);
+            dropped.addAll(overflow);
+            queue.clear();
+            overflow.clear();
+        }
+        for (Pending<?> pending : dropped) {
+            pending.result.completeExceptionally(new CancellationException("Rate limited client closed"));
+        }
+        scheduler.shutdownNow();
+        client.close();
+    }
+
+    /**
+     * Hand every queued request allowed by the limits to the underlying client. Requests of a family out of
+     * tokens are skipped, so they do not hold back the other families; a drain is scheduled for when the first
+     * of them may go. Requests held while the queue was full take the room freed in the queue.
+     */
+    private void drain() {
+        List<Pending<?>> ready = new ArrayList<>();
+        synchronized (lock) {
+            long waitNanos;
+            boolean removed;
+            do {
+                refill();
+                waitNanos = Long.MAX_VALUE;
+                removed = false;
+                Iterator<Pending<?>> it = queue.iterator();
+                while (it.hasNext() && inFlight < limit.getLimit()) {
+                    Pending<?> pending = it.next();
+                    if (pending.result.isDone()) {
+                        it.remove();
+                        removed = true;
+                        continue;
+                    }
+                    TokenBucket bucket = buckets.get(pending.family);
+                    if (bucket != null && !bucket.tryAcquire()) {
+                        waitNanos = Math.min(waitNanos, bucket.nanosUntilAvailable());
+                        continue;
+                    }
+                    it.remove();
+                    removed = true;
+                    inFlight++;
+                    ready.add(pending);
+                }
+            } while (removed && !overflow.isEmpty() && inFlight < limit.getLimit());
+            refill();
+
+            if (waitNanos != Long.MAX_VALUE && !closed) {
+                scheduleDrain(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+        }
+
+        for (Pending<?> pending : ready) {
+            dispatch(pending);
+        }
+    }
+
+    /**
+     * Move the held requests into the queue, in submission order, as long as there is room. Called with the lock held.
+     */
+    private void refill() {
+        while (queue.size() < maxQueueSize && !overflow.isEmpty()) {
+            queue.add(overflow.poll());
+        }
+    }
+
+    private void scheduleDrain(long delayNanos) {
+        long at = ticker.read() + delayNanos;
+        if (scheduledDrain != null && !scheduledDrain.isDone() && scheduledDrainNanos <= at) {
+            return;
+        }
+        if (scheduledDrain != null) {
+            scheduledDrain.cancel(false);
+        }
+        scheduledDrainNanos = at;
+        try {
+            scheduledDrain = scheduler.schedule(this::scheduledDrain, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Rate limiter scheduler is shut down");
+        }
+    }
+
+    private void scheduledDrain() {
+        synchronized (lock) {
+            scheduledDrain = null;
+        }
+        drain();
+    }
+
+    private <T> void dispatch(final Pending<T> pending) {
+        final long start = ticker.read();
+        final AtomicBoolean released = new AtomicBoolean();
+        final CompletableFuture<Response<T>> viaCallback = new CompletableFuture<>();
+
+        Future<Response<T>> future;
+        try {
+            future = client.executeAsync(pending.request, new ResponseCallback() {
+                @Override
+                public void completed(Response response) {
+                    if (pending.callback != null) {
+                        pending.callback.completed(response);
+                    }
+                    @SuppressWarnings("unchecked")
+                    Response<T> typed = response;
+                    viaCallback.complete(typed);
+                }
+
+                @Override
+                public void error(Throwable throwable) {
+                    if (pending.callback != null) {
+                        pending.callback.error(throwable);
+                    }
+                    viaCallback.completeExceptionally(throwable);
+                }
+            }, pending.headers);
+        } catch (RuntimeException e) {
+            release(pending, start, null, released);
+            pending.result.completeExceptionally(e);
+            return;
+        }
+
+        pending.dispatched(future);
+        CompletableFuture<Response<T>> source = future instanceof CompletableFuture
+                ? (CompletableFuture<Response<T>>) future
+                : viaCallback;
+        source.whenComplete((response, throwable) -> {
+            release(pending, start, response, released);
+            if (throwable != null) {
+                pending.result.completeExceptionally(unwrap(throwable));
+            } else {
+                pending.result.complete(response);
+            }
+        });
+    }
+
+    private void release(Pending<?> pending, long start, Response<?> response, AtomicBoolean released) {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+
+        boolean rateLimited = response != null && response.getStatus() == TOO_MANY_REQUESTS;
+        synchronized (lock) {
+            inFlight--;
+            limit.onSample(start, ticker.read() - start, rateLimited);
+
+            TokenBucket bucket = buckets.get(pending.family);
+            if (rateLimited && bucket != null) {
+                Optional<Long> retryAfter = retryAfterMs(response);
+                if (retryAfter.isPresent()) {
+                    bucket.pause(TimeUnit.MILLISECONDS.toNanos(retryAfter.get()));
+                }
+            }
+        }
+        if (rateLimited) {
+            log.debug("Rate limited on " + pending.family + ", concurrency limit now " + getConcurrencyLimit());
+        }
+        drain();
+    }
+
+    private static Optional<Long> retryAfterMs(Response<?> response) {
+        for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+            if ("Retry-After".equalsIgnoreCase(header.getKey())) {
+                return RetryBackoff.parseRetryAfter(header.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * A request waiting for, or holding, a permit.
+     */
+    private class Pending<T> {
+        private final Request<T> request;
+        private final ResponseCallback callback;
+        private final Map<String, String> headers;
+        private final EndpointFamily family;
+        private final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+
+        private volatile Future<Response<T>> dispatched;
+
+        private Pending(Request<T> request, ResponseCallback callback, Map<String, String> headers, EndpointFamily family) {
+            this.request = request;
+            this.callback = callback;
+            this.headers = headers;
+            this.family = family;
+        }
+
+        private void dispatched(Future<Response<T>> future) {
+            dispatched = future;
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        }
+
+        private void cancel() {
+            Future<Response<T>> future = dispatched;
+            if (future != null) {
+                future.cancel(true);
+                return;
+            }
+            synchronized (lock) {
+                if (!queue.remove(this)) {
+                    overflow.remove(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * RateLimitedRequestClient Builder.
+     */
+    public static class Builder {
+        private RequestClient client;
+        private final Map<EndpointFamily, double[]> rates = new EnumMap<>(EndpointFamily.class);
+        private int initialConcurrency = 32;
+        private int minConcurrency = 1;
+        private int maxConcurrency = 256;
+        private double backoffRatio = 0.9;
+        private long latencyThresholdMs = 2000;
+        private int maxQueueSize = 10000;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.AWAIT;
+        private int maxOverflow = 100000;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client the requests are handed to.
+         *
+         * @param client RequestClient
+         * @return Builder
+         */
+        public Builder setClient(RequestClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Limit the request rate of an endpoint family. Families without a rate are only subject to the
+         * concurrency limit.
+         *
+         * @param family The endpoint family.
+         * @param permitsPerSecond The sustained number of requests per second.
+         * @param burst The number of requests that may be sent at once after a quiet period.
+         * @return Builder
+         */
+        public Builder setRate(EndpointFamily family, double permitsPerSecond, int burst) {
+            Preconditions.checkNotNull(family, "endpoint family cannot be null");
+            Preconditions.checkArgument(permitsPerSecond > 0, "permits per second must be positive");
+            Preconditions.checkArgument(burst > 0, "burst must be positive");
+            this.rates.put(family, new double[]{permitsPerSecond, burst});
+            return this;
+        }
+
+        /**
+         * Set the initial concurrency limit -- defaults to 32.
+         *
+         * @param initialConcurrency int
+         * @return Builder
+         */
+        public Builder setInitialConcurrency(int initialConcurrency) {
+            this.initialConcurrency = initialConcurrency;
+            return this;
+        }
+
+        /**
+         * Set the lowest the concurrency limit may go -- defaults to 1.
+         *
+         * @param minConcurrency int
+         * @return Builder
+         */
+        public Builder setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+            return this;
+        }
+
+        /**
+         * Set the highest the concurrency limit may go -- defaults to 256.
+         *
+         * @param maxConcurrency int
+         * @return Builder
+         */
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Set the ratio the concurrency limit is multiplied by after a slow request -- defaults to 0.9.
+         *
+         * @param backoffRatio double
+         * @return Builder
+         */
+        public Builder setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Set the latency above which a request reduces the concurrency limit, 0 to ignore latency -- defaults
+         * to 2 seconds.
+         *
+         * @param latencyThresholdMs long
+         * @return Builder
+         */
+        public Builder setLatencyThresholdMs(long latencyThresholdMs) {
+            this.latencyThresholdMs = latencyThresholdMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of requests queued for a permit, further requests are rejected or held depending
+         * on the overflow policy -- defaults to 10000.
+         *
+         * @param maxQueueSize int
+         * @return Builder
+         */
+        public Builder setMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Set what happens to requests submitted while the queue is full -- defaults to AWAIT. With AWAIT, every
+         * held request keeps its body in memory until it is dispatched, so a producer outpacing the rate limit
+         * grows the heap up to the maximum overflow. Use REJECT, or a lower maximum overflow, to keep memory flat.
+         *
+         * @param overflowPolicy OverflowPolicy
+         * @return Builder
+         */
+        public Builder setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of requests held behind a full queue under the AWAIT policy, further requests
+         * are rejected with a RejectedExecutionException -- defaults to 100000.
+         *
+         * @param maxOverflow int
+         * @return Builder
+         */
+        public Builder setMaxOverflow(int maxOverflow) {
+            this.maxOverflow = maxOverflow;
+            return this;
+        }
+
+        /**
+         * Set the time source, for tests.
+         *
+         * @param ticker Ticker
+         * @return Builder
+         */
+        Builder setTicker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Build a RateLimitedRequestClient object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The minimum concurrency must be positive.
+         * 3. The initial concurrency must be between the minimum and the maximum concurrency.
+         * 4. The backoff ratio must be in (0, 1).
+         * 5. The latency threshold cannot be negative.
+         * 6. The maximum queue size must be positive.
+         * 7. The overflow policy must be set, already defaults to AWAIT.
+         * 8. The maximum overflow cannot be negative.
+         * </pre>
+         *
+         * @return RateLimitedRequestClient
+         */
+        public RateLimitedRequestClient build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(minConcurrency > 0, "min concurrency must be positive");
+            Preconditions.checkArgument(minConcurrency <= initialConcurrency && initialConcurrency <= maxConcurrency,
+                    "initial concurrency must be between the min and max concurrency");
+            Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1, "backoff ratio must be in (0, 1)");
+            Preconditions.checkArgument(latencyThresholdMs >= 0, "latency threshold cannot be negative");
+            Preconditions.checkArgument(maxQueueSize > 0, "max queue size must be positive");
+            Preconditions.checkNotNull(overflowPolicy, "overflow policy must be set");
+            Preconditions.checkArgument(maxOverflow >= 0, "max overflow cannot be negative");
+
+            return new RateLimitedRequestClient(this);
+        }
+    }
+}
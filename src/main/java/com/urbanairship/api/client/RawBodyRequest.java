@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import org.apache.http.entity.ContentType;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Wraps a request so that its response body is never parsed into the model. The response carries only the
+ * status, the headers and the raw body bytes, see {@link Response#getBodyBytes()}; useful for high volume
+ * callers that only need a couple of fields and would rather read them from the bytes directly.
+ *
+ * @param <T> The response type of the wrapped request.
+ */
+public class RawBodyRequest<T> implements Request<T> {
+
+    private final Request<T> request;
+
+    private RawBodyRequest(Request<T> request) {
+        this.request = request;
+    }
+
+    /**
+     * Wrap a request so that its response body is left unparsed.
+     *
+     * @param request The request.
+     * @param <T> The response type of the request.
+     * @return RawBodyRequest
+     */
+    public static <T> RawBodyRequest<T> of(Request<T> request) {
+        Preconditions.checkNotNull(request, "request cannot be null");
+        return new RawBodyRequest<>(request);
+    }
+
+    @Override
+    public HttpMethod getHttpMethod() {
+        return request.getHttpMethod();
+    }
+
+    @Override
+    public String getRequestBody() {
+        return request.getRequestBody();
+    }
+
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return request.getRequestBodyBytes();
+    }
+
+    @Override
+    public Optional<BodyPublisher> getBodyPublisher() {
+        return request.getBodyPublisher();
+    }
+
+    @Override
+    public Optional<BodySink> getBodySink() {
+        return request.getBodySink();
+    }
+
+    @Override
+    public ContentType getContentType() {
+        return request.getContentType();
+    }
+
+    @Override
+    public Map<String, String> getRequestHeaders() {
+        return request.getRequestHeaders();
+    }
+
+    @Override
+    public RequestHeaders getStaticHeaders() {
+        return request.getStaticHeaders();
+    }
+
+    @Override
+    public URI getUri(URI baseUri) throws URISyntaxException {
+        return request.getUri(baseUri);
+    }
+
+    @Override
+    public ResponseParser<T> getResponseParser() {
+        return new RawBodyParser<>();
+    }
+
+    @Override
+    public Optional<Long> getTimeoutMs() {
+        return request.getTimeoutMs();
+    }
+
+    @Override
+    public boolean bearerTokenAuthRequired() {
+        return request.bearerTokenAuthRequired();
+    }
+
+    @Override
+    public boolean canUseBearerTokenAuth() {
+        return request.canUseBearerTokenAuth();
+    }
+
+    @Override
+    public String toString() {
+        return "RawBodyRequest{" +
+                "request=" + request +
+                '}';
+    }
+
+    /**
+     * Leaves the body unparsed. The client only keeps the raw body of responses read with this parser.
+     *
+     * @param <T> The response type.
+     */
+    static final class RawBodyParser<T> implements ResponseParser<T> {
+        @Override
+        public T parse(String response) {
+            return null;
+        }
+
+        @Override
+        public T parse(InputStream response) {
+            return null;
+        }
+    }
+}
@@ -8,7 +8,11 @@ import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * The base interface for UrbanAirshipClient API requests
@@ -33,9 +37,75 @@ public interface Request<T> {
 
     String getRequestBody();
 
+    /**
+     * Get the request body as encoded bytes, which is what the client sends. The default encodes
+     * {@link #getRequestBody()} with the charset of the content type, or UTF-8 when it has none. JSON requests
+     * override this to serialize straight to UTF-8 bytes without building an intermediate String.
+     *
+     * @return The body bytes, or null when the request has no body.
+     */
+    default byte[] getRequestBodyBytes() {
+        String body = getRequestBody();
+        if (body == null) {
+            return null;
+        }
+        ContentType contentType = getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return body.getBytes(charset);
+    }
+
+    /**
+     * Get a streaming body for the request. When present, the client sends the body from the publisher and
+     * does not call {@link #getRequestBody()}, so large bodies never need to fit in memory.
+     *
+     * @return Optional BodyPublisher, empty by default.
+     */
+    default Optional<BodyPublisher> getBodyPublisher() {
+        return Optional.empty();
+    }
+
+    /**
+     * Get a streaming destination for the response body. When present, the client hands a successful response
+     * body to the sink as it arrives rather than buffering it for the response parser, and the response has no body.
+     *
+     * @return Optional BodySink, empty by default.
+     */
+    default Optional<BodySink> getBodySink() {
+        return Optional.empty();
+    }
+
     ContentType getContentType();
 
-    Map<String, String> getRequestHeaders();
+    /**
+     * Get the headers specific to the request. Defaults to the static headers, see {@link #getStaticHeaders()}.
+     *
+     * @return Map of header names to values.
+     */
+    default Map<String, String> getRequestHeaders() {
+        RequestHeaders headers = getStaticHeaders();
+        return headers != null ? headers.asMap() : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Get the headers shared by every request of the class, declared once as a constant. When non-null, the client
+     * sends them in place of {@link #getRequestHeaders()} and reuses the header set it built for them the first time,
+     * so no header map is allocated per request.
+     *
+     * @return The static RequestHeaders, null by default.
+     */
+    default RequestHeaders getStaticHeaders() {
+        return null;
+    }
+
+    /**
+     * Get the total time the request may take, retries and their backoff included, overriding the client timeout.
+     * Honored by the {@link AsyncRequestClient}, see {@link TimeoutRequest} to set it on any request.
+     *
+     * @return Optional timeout in milliseconds, empty by default.
+     */
+    default Optional<Long> getTimeoutMs() {
+        return Optional.empty();
+    }
 
     URI getUri(URI baseUri) throws URISyntaxException;
 
@@ -1,7 +1,9 @@
 package com.urbanairship.api.client;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 /**
@@ -16,5 +18,36 @@ public interface RequestClient extends Closeable {
      * @param <T> type
      * @return The Future Response.
      */
-    public <T> Future<Response> executeAsync(final Request<T> request, final ResponseCallback callback, Map<String, String> headers);
+    public <T> Future<Response<T>> executeAsync(final Request<T> request, final ResponseCallback callback, Map<String, String> headers);
+
+    /**
+     * Executes the HTTP request and waits for the response. By default this waits on {@link #executeAsync} and
+     * throws the failure as is when it is unchecked or an IOException, such as a {@link ClientException} or a
+     * {@link ServerException}, so decorating clients keep the failures of the client they wrap. Other failures are
+     * wrapped in a RuntimeException.
+     * @param request the Request.
+     * @param callback the ResponseCallback.
+     * @param headers a Map of the headers.
+     * @param <T> type
+     * @return The Response.
+     * @throws IOException if the request could not be sent or its response read.
+     */
+    default <T> Response<T> execute(final Request<T> request, final ResponseCallback callback, Map<String, String> headers) throws IOException {
+        try {
+            return executeAsync(request, callback, headers).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread interrupted while retrieving response from future", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Failed to retrieve response from future", e);
+        }
+    }
 }
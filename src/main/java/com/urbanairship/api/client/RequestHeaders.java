@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
+
+import java.util.Map;
+
+/**
+ * An immutable set of headers shared by every request of a class. Instances are meant to be declared once as
+ * constants and returned from {@link Request#getStaticHeaders()}: the client caches the full header set it builds
+ * for each instance, so instances are compared by identity.
+ */
+public final class RequestHeaders {
+
+    /**
+     * JSON body, JSON response.
+     */
+    public static final RequestHeaders JSON = of(
+            HttpHeaders.CONTENT_TYPE, Request.CONTENT_TYPE_JSON,
+            HttpHeaders.ACCEPT, Request.UA_VERSION_JSON);
+
+    /**
+     * No body, JSON response.
+     */
+    public static final RequestHeaders ACCEPT_JSON = of(HttpHeaders.ACCEPT, Request.UA_VERSION_JSON);
+
+    private final ImmutableMap<String, String> headers;
+
+    private RequestHeaders(ImmutableMap<String, String> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Create a RequestHeaders with a single header.
+     *
+     * @param name The header name.
+     * @param value The header value.
+     * @return RequestHeaders
+     */
+    public static RequestHeaders of(String name, String value) {
+        return of(ImmutableMap.of(name, value));
+    }
+
+    /**
+     * Create a RequestHeaders with two headers.
+     *
+     * @param name1 The first header name.
+     * @param value1 The first header value.
+     * @param name2 The second header name.
+     * @param value2 The second header value.
+     * @return RequestHeaders
+     */
+    public static RequestHeaders of(String name1, String value1, String name2, String value2) {
+        return of(ImmutableMap.of(name1, value1, name2, value2));
+    }
+
+    /**
+     * Create a RequestHeaders from a map of headers.
+     *
+     * @param headers The headers, names mapped to values.
+     * @return RequestHeaders
+     */
+    public static RequestHeaders of(Map<String, String> headers) {
+        Preconditions.checkNotNull(headers, "headers cannot be null");
+        return new RequestHeaders(ImmutableMap.copyOf(headers));
+    }
+
+    /**
+     * Get the headers as a map.
+     *
+     * @return ImmutableMap of header names to values.
+     */
+    public ImmutableMap<String, String> asMap() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestHeaders{" +
+                "headers=" + headers +
+                '}';
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Optional;
+
+/**
+ * Measurements of a single request, from the moment it was handed to the HTTP client to the end of its last
+ * attempt. Durations are in nanoseconds and relative to that first moment, so retries and their backoff are
+ * included in them.
+ */
+public final class RequestMetrics {
+
+    private final Request.HttpMethod method;
+    private final String pathTemplate;
+    private final Optional<Integer> status;
+    private final Optional<Throwable> error;
+    private final int retries;
+    private final Optional<Long> connectNanos;
+    private final Optional<Long> firstByteNanos;
+    private final long parseNanos;
+    private final long totalNanos;
+    private final long bytesOut;
+    private final long bytesIn;
+
+    private RequestMetrics(Builder builder) {
+        this.method = builder.method;
+        this.pathTemplate = builder.pathTemplate;
+        this.status = Optional.ofNullable(builder.status);
+        this.error = Optional.ofNullable(builder.error);
+        this.retries = builder.retries;
+        this.connectNanos = Optional.ofNullable(builder.connectNanos);
+        this.firstByteNanos = Optional.ofNullable(builder.firstByteNanos);
+        this.parseNanos = builder.parseNanos;
+        this.totalNanos = builder.totalNanos;
+        this.bytesOut = builder.bytesOut;
+        this.bytesIn = builder.bytesIn;
+    }
+
+    /**
+     * New RequestMetrics Builder.
+     *
+     * @return RequestMetrics Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the HTTP method.
+     *
+     * @return Request.HttpMethod
+     */
+    public Request.HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Get the request path with its identifiers replaced by {@code {id}}, e.g. "/api/channels/{id}", suitable
+     * as a low cardinality metric tag.
+     *
+     * @return String
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Get the status code of the last response received.
+     *
+     * @return Optional status code, empty if no response was received.
+     */
+    public Optional<Integer> getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the error the request failed with.
+     *
+     * @return Optional Throwable, empty if the request completed.
+     */
+    public Optional<Throwable> getError() {
+        return error;
+    }
+
+    /**
+     * Get the number of retries the request used.
+     *
+     * @return int
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Get the time spent opening a new connection, TLS handshake included, for the last attempt.
+     *
+     * @return Optional duration, empty if a pooled connection was reused.
+     */
+    public Optional<Long> getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Get the time until the status line of the last response arrived.
+     *
+     * @return Optional duration, empty if no response was received.
+     */
+    public Optional<Long> getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    /**
+     * Get the time spent parsing the response body.
+     *
+     * @return long
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Get the time until the request completed or failed.
+     *
+     * @return long
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the size of the request body sent with the last attempt.
+     *
+     * @return long
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * Get the size of the last response body received.
+     *
+     * @return long
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestMetrics{" +
+                "method=" + method +
+                ", pathTemplate='" + pathTemplate + '\'' +
+                ", status=" + status +
+                ", error=" + error +
+                ", retries=" + retries +
+                ", connectNanos=" + connectNanos +
+                ", firstByteNanos=" + firstByteNanos +
+                ", parseNanos=" + parseNanos +
+                ", totalNanos=" + totalNanos +
+                ", bytesOut=" + bytesOut +
+                ", bytesIn=" + bytesIn +
+                '}';
+    }
+
+    /**
+     * RequestMetrics Builder.
+     */
+    public static class Builder {
+        private Request.HttpMethod method;
+        private String pathTemplate;
+        private Integer status;
+        private Throwable error;
+        private int retries;
+        private Long connectNanos;
+        private Long firstByteNanos;
+        private long parseNanos;
+        private long totalNanos;
+        private long bytesOut;
+        private long bytesIn;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the HTTP method.
+         *
+         * @param method Request.HttpMethod
+         * @return Builder
+         */
+        public Builder setMethod(Request.HttpMethod method) {
+            this.method = method;
+            return this;
+        }
+
+        /**
+         * Set the path template.
+         *
+         * @param pathTemplate String
+         * @return Builder
+         */
+        public Builder setPathTemplate(String pathTemplate) {
+            this.pathTemplate = pathTemplate;
+            return this;
+        }
+
+        /**
+         * Set the status code of the last response.
+         *
+         * @param status Integer
+         * @return Builder
+         */
+        public Builder setStatus(Integer status) {
+            this.status = status;
+            return this;
+        }
+
+        /**
+         * Set the error the request failed with.
+         *
+         * @param error Throwable
+         * @return Builder
+         */
+        public Builder setError(Throwable error) {
+            this.error = error;
+            return this;
+        }
+
+        /**
+         * Set the number of retries.
+         *
+         * @param retries int
+         * @return Builder
+         */
+        public Builder setRetries(int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        /**
+         * Set the connection time.
+         *
+         * @param connectNanos Long
+         * @return Builder
+         */
+        public Builder setConnectNanos(Long connectNanos) {
+            this.connectNanos = connectNanos;
+            return this;
+        }
+
+        /**
+         * Set the time to first byte.
+         *
+         * @param firstByteNanos Long
+         * @return Builder
+         */
+        public Builder setFirstByteNanos(Long firstByteNanos) {
+            this.firstByteNanos = firstByteNanos;
+            return this;
+        }
+
+        /**
+         * Set the parse time.
+         *
+         * @param parseNanos long
+         * @return Builder
+         */
+        public Builder setParseNanos(long parseNanos) {
+            this.parseNanos = parseNanos;
+            return this;
+        }
+
+        /**
+         * Set the total time.
+         *
+         * @param totalNanos long
+         * @return Builder
+         */
+        public Builder setTotalNanos(long totalNanos) {
+            this.totalNanos = totalNanos;
+            return this;
+        }
+
+        /**
+         * Set the request body size.
+         *
+         * @param bytesOut long
+         * @return Builder
+         */
+        public Builder setBytesOut(long bytesOut) {
+            this.bytesOut = bytesOut;
+            return this;
+        }
+
+        /**
+         * Set the response body size.
+         *
+         * @param bytesIn long
+         * @return Builder
+         */
+        public Builder setBytesIn(long bytesIn) {
+            this.bytesIn = bytesIn;
+            return this;
+        }
+
+        /**
+         * Build a RequestMetrics object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The method must be set.
+         * 2. The path template must be set.
+         * </pre>
+         *
+         * @return RequestMetrics
+         */
+        public RequestMetrics build() {
+            Preconditions.checkNotNull(method, "method must be set");
+            Preconditions.checkNotNull(pathTemplate, "path template must be set");
+
+            return new RequestMetrics(this);
+        }
+    }
+}
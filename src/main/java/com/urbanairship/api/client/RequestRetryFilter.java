@@ -4,7 +4,6 @@
 
 package com.urbanairship.api.client;
 
-import org.apache.commons.lang.math.RandomUtils;
 import org.asynchttpclient.filter.FilterContext;
 import org.asynchttpclient.filter.FilterException;
 import org.asynchttpclient.filter.ResponseFilter;
@@ -22,21 +21,30 @@ import java.util.function.Predicate;
  * If the client user decides to do so, a retry predicate may be created and passed in by the {@link UrbanAirshipClient} builder.
  * The default predicate logic allows for retries on all non-POST 5xxs. The maximum non-post request retry limit is also
  * configured in the {@link UrbanAirshipClient} builder and defaults to 10.
- * If the count is below the max retry limit and the predicate allows for a retry, the request will be replayed with an
- * exponential backoff. If the limit is reached and the predicate allows for a retry, a response is returned with the status code of the failed request.
+ * If the count is below the max retry limit and the predicate allows for a retry, the request will be replayed after a
+ * delay computed by the configured {@link RetryBackoff}. If the limit is reached and the predicate allows for a retry, a response is returned with the status code of the failed request.
+ *
+ * The filter runs on the Netty I/O thread, so it never waits for the backoff itself: it only records the retry on the
+ * ResponseAsyncHandler, and the {@link AsyncRequestClient} re-issues the request from its retry timer once the delay elapses.
  */
 public class RequestRetryFilter implements ResponseFilter {
 
     private static final Logger log = LoggerFactory.getLogger(RequestRetryFilter.class);
-    private static final int BASE_RETRY_TIME_MS = 5;
+    private static final String RETRY_AFTER_KEY = "Retry-After";
     private static final Predicate<FilterContext> DEFAULT_PREDICATE = input -> !input.getRequest().getMethod().equals("POST") && input.getResponseStatus().getStatusCode() >= 500;
 
     private final int maxRetries;
     private final Predicate<FilterContext> retryPredicate;
+    private final RetryBackoff backoff;
 
     public RequestRetryFilter(int maxRetries, Optional<Predicate<FilterContext>> retryPredicate) {
+        this(maxRetries, retryPredicate, RetryBackoff.newBuilder().build());
+    }
+
+    public RequestRetryFilter(int maxRetries, Optional<Predicate<FilterContext>> retryPredicate, RetryBackoff backoff) {
         this.maxRetries = maxRetries;
         this.retryPredicate = retryPredicate.isPresent() ? retryPredicate.get() : DEFAULT_PREDICATE;
+        this.backoff = backoff;
     }
 
     @Override
@@ -45,18 +53,13 @@ public class RequestRetryFilter implements ResponseFilter {
         if (ctx.getAsyncHandler() instanceof ResponseAsyncHandler) {
             ResponseAsyncHandler asyncHandler = (ResponseAsyncHandler) ctx.getAsyncHandler();
             if (asyncHandler.getRetryCount() < maxRetries && retryPredicate.test(ctx)) {
-                try {
-                    int sleepTime = BASE_RETRY_TIME_MS * Math.max(1, RandomUtils.nextInt(1 << (asyncHandler.getRetryCount() + 1)));
-                    log.info(String.format("Request failed with status code %s - waiting for %s ms before retrying request", statusCode, sleepTime));
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                asyncHandler.incrementRetryCount();
-                return new FilterContext.FilterContextBuilder<>(ctx)
-                    .request(ctx.getRequest())
-                    .replayRequest(true)
-                    .build();
+                Optional<String> retryAfter = ctx.getResponseHeaders() == null
+                    ? Optional.empty()
+                    : Optional.ofNullable(ctx.getResponseHeaders().get(RETRY_AFTER_KEY));
+                long delay = backoff.getDelayMs(asyncHandler.getRetryCount(), asyncHandler.getLastRetryDelayMs(), retryAfter);
+                log.info(String.format("Request failed with status code %s - waiting for %s ms before retrying request", statusCode, delay));
+                asyncHandler.scheduleRetry(delay);
+                return ctx;
             }
 
             if (asyncHandler.getRetryCount() >= maxRetries && retryPredicate.test(ctx)) {
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+/**
+ * Exception thrown when a request is still not over once its timeout elapsed, retries and their backoff included.
+ * The request was cancelled, nothing can be told of its outcome, unlike a {@link ServerException} which carries
+ * the response of the API.
+ */
+public class RequestTimeoutException extends RuntimeException {
+    private final long timeoutMs;
+    private final int retries;
+
+    public RequestTimeoutException(String message, long timeoutMs, int retries) {
+        super(message);
+        this.timeoutMs = timeoutMs;
+        this.retries = retries;
+    }
+
+    /**
+     * Get the timeout the request exceeded.
+     *
+     * @return long milliseconds
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Get the number of retries the request used before timing out.
+     *
+     * @return int
+     */
+    public int getRetries() {
+        return retries;
+    }
+}
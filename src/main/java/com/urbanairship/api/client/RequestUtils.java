@@ -13,7 +13,7 @@ import java.net.URISyntaxException;
 public class RequestUtils {
 
     private final static ObjectMapper mapper = new ObjectMapper();
-    public final static ResponseParser<GenericResponse> GENERIC_RESPONSE_PARSER = response -> mapper.readValue(response, GenericResponse.class);
+    public final static ResponseParser<GenericResponse> GENERIC_RESPONSE_PARSER = JsonResponseParser.of(mapper, GenericResponse.class);
 
     /**
      * A method to resolve base URIs without excluding the original path.
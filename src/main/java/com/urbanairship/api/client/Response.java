@@ -4,8 +4,11 @@
 
 package com.urbanairship.api.client;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -21,6 +24,8 @@ public class Response<T> {
     private final Optional<T> body;
     private final ImmutableMap<String, String> headers;
     private final int status;
+    private final ImmutableList<byte[]> bodyParts;
+    private volatile ByteBuffer bodyBytes;
 
     /**
      * Default constructor.
@@ -30,9 +35,22 @@ public class Response<T> {
      * @param status Response status.
      */
     Response(T body, Map<String, String> headers, int status) {
+        this(body, headers, status, ImmutableList.<byte[]>of());
+    }
+
+    /**
+     * Constructor keeping the raw response body.
+     *
+     * @param body Optional parsed api response body.
+     * @param headers Response headers.
+     * @param status Response status.
+     * @param bodyParts The raw response body, as received.
+     */
+    Response(T body, Map<String, String> headers, int status, List<byte[]> bodyParts) {
         this.body = Optional.ofNullable(body);
         this.headers = ImmutableMap.copyOf(headers);
         this.status = status;
+        this.bodyParts = ImmutableList.copyOf(bodyParts);
     }
 
     /**
@@ -44,6 +62,39 @@ public class Response<T> {
         return body;
     }
 
+    /**
+     * Gets the raw response body bytes, as received and before any parsing. The buffer is read-only and shares
+     * the received data when the body arrived in a single part; a body received in several parts is joined once,
+     * on the first call. Only responses to a {@link RawBodyRequest} keep their raw body, parsed responses and
+     * responses streamed to a {@link BodySink} have none.
+     *
+     * @return Optional raw response body.
+     */
+    public Optional<ByteBuffer> getBodyBytes() {
+        if (bodyParts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ByteBuffer bytes = bodyBytes;
+        if (bytes == null) {
+            if (bodyParts.size() == 1) {
+                bytes = ByteBuffer.wrap(bodyParts.get(0));
+            } else {
+                int length = 0;
+                for (byte[] part : bodyParts) {
+                    length += part.length;
+                }
+                bytes = ByteBuffer.allocate(length);
+                for (byte[] part : bodyParts) {
+                    bytes.put(part);
+                }
+                bytes.flip();
+            }
+            bodyBytes = bytes;
+        }
+        return Optional.of(bytes.asReadOnlyBuffer());
+    }
+
     /**
      * Gets the response headers.
      *
@@ -97,6 +148,7 @@ public class Response<T> {
         private T body = null;
         private Map<String, String> headers;
         private int status;
+        private List<byte[]> bodyParts = ImmutableList.of();
 
         /**
          * Set the response body.
@@ -104,7 +156,7 @@ public class Response<T> {
          * @param body The response body of type T.
          * @return Builder
          */
-        public Builder setBody(T body) {
+        public Builder<T> setBody(T body) {
             this.body = body;
             return this;
         }
@@ -115,7 +167,7 @@ public class Response<T> {
          * @param headers The response headers as a map.
          * @return Builder
          */
-        public Builder setHeaders(Map<String, String> headers) {
+        public Builder<T> setHeaders(Map<String, String> headers) {
             this.headers = headers;
             return this;
         }
@@ -126,17 +178,28 @@ public class Response<T> {
          * @param status The status code.
          * @return Builder
          */
-        public Builder setStatus(int status) {
+        public Builder<T> setStatus(int status) {
             this.status = status;
             return this;
         }
 
+        /**
+         * Set the raw response body parts, as received.
+         *
+         * @param bodyParts The raw body parts.
+         * @return Builder
+         */
+        Builder<T> setBodyParts(List<byte[]> bodyParts) {
+            this.bodyParts = bodyParts;
+            return this;
+        }
+
         /**
          * Build the Response instance.
          * @return The response instance.
          */
-        public Response build() {
-            return new Response<>(body, headers, status);
+        public Response<T> build() {
+            return new Response<>(body, headers, status, bodyParts);
         }
     }
 }
@@ -5,27 +5,41 @@
 package com.urbanairship.api.client;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.google.common.io.ByteStreams;
+import io.netty.channel.Channel;
 import io.netty.handler.codec.http.HttpHeaders;
-import org.apache.commons.lang.StringUtils;
 import org.asynchttpclient.AsyncHandler;
 import org.asynchttpclient.HttpResponseBodyPart;
 import org.asynchttpclient.HttpResponseStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLSession;
 
 /**
  * Asynchronous API response handler.
  * @param <T> The response type.
  */
-class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
+class ResponseAsyncHandler<T> implements AsyncHandler<Response<T>> {
     private static final Logger log = LoggerFactory.getLogger(ResponseAsyncHandler.class);
     private static final String CONTENT_TYPE_KEY = "Content-type";
+    private static final long NO_RETRY = -1;
 
     private final Response.Builder<T> responseBuilder = new Response.Builder<>();
     private final ClientException.Builder exceptionBuilder = ClientException.newBuilder();
@@ -34,13 +48,21 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
 
     private final Optional<ResponseCallback> clientCallback;
     private final ResponseParser<T> parser;
-    private final StringBuilder bodyBuilder = new StringBuilder();
+    private final Optional<BodySink> bodySink;
+    private final MetricsRecorder metrics;
+    private final boolean keepBodyParts;
+    private final List<byte[]> bodyParts = new ArrayList<>();
 
     private AtomicInteger retryCount = new AtomicInteger(0);
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final AtomicBoolean sinkNotified = new AtomicBoolean();
+    private volatile long pendingRetryDelayMs = NO_RETRY;
+    private volatile long lastRetryDelayMs = 0;
     private String exceptionContentType;
     private boolean isSuccessful;
     private boolean clientError;
     private boolean serverError;
+    private boolean streamingBody;
     private Integer statusCode;
     /**
      * ResponseAsyncHandler constructor.
@@ -49,13 +71,53 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
      * @param parser The response parser.
      */
     public ResponseAsyncHandler(Optional<ResponseCallback> clientCallback, ResponseParser<T> parser) {
+        this(clientCallback, parser, Optional.empty());
+    }
+
+    /**
+     * ResponseAsyncHandler constructor.
+     *
+     * @param clientCallback An optional ResponseCallback for handling the response on completion or error.
+     * @param parser The response parser, used for responses that are not streamed.
+     * @param bodySink An optional BodySink receiving successful response bodies as they arrive.
+     */
+    public ResponseAsyncHandler(Optional<ResponseCallback> clientCallback, ResponseParser<T> parser, Optional<BodySink> bodySink) {
+        this(clientCallback, parser, bodySink, new MetricsRecorder(ClientMetricsListener.NOOP, null, null));
+    }
+
+    ResponseAsyncHandler(Optional<ResponseCallback> clientCallback, ResponseParser<T> parser, Optional<BodySink> bodySink, MetricsRecorder metrics) {
         this.clientCallback = clientCallback;
         this.parser = parser;
+        this.bodySink = bodySink;
+        this.metrics = metrics;
+        // Only raw body requests expose the body bytes, parsed responses would otherwise retain the body twice.
+        this.keepBodyParts = parser instanceof RawBodyRequest.RawBodyParser;
+    }
+
+    @Override
+    public void onTcpConnectAttempt(InetSocketAddress remoteAddress) {
+        metrics.onConnectAttempt();
+    }
+
+    @Override
+    public void onTcpConnectSuccess(InetSocketAddress remoteAddress, Channel connection) {
+        metrics.onConnected();
+    }
+
+    @Override
+    public void onTlsHandshakeSuccess(SSLSession sslSession) {
+        metrics.onConnected();
     }
 
     @Override
     public State onStatusReceived(HttpResponseStatus responseStatus) throws Exception {
+        if (isRetryPending()) {
+            // The retry filter already decided to replay this request, drain the response without recording it.
+            return State.CONTINUE;
+        }
+
         statusCode = responseStatus.getStatusCode();
+        metrics.onStatus(statusCode);
 
         if (statusCode == 401 || statusCode == 403) {
             exceptionBuilder.setStatusCode(statusCode);
@@ -69,6 +131,8 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
         else {
             responseBuilder.setStatus(responseStatus.getStatusCode());
             isSuccessful = true;
+            // Only 2xx bodies are streamed, anything else is buffered as usual.
+            streamingBody = bodySink.isPresent() && statusCode >= 200 && statusCode < 300;
         }
 
         return State.CONTINUE;
@@ -76,6 +140,10 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
 
     @Override
     public State onHeadersReceived(HttpHeaders httpHeaders) throws Exception {
+        if (isRetryPending()) {
+            return State.CONTINUE;
+        }
+
         if (isSuccessful) {
             responseBuilder.setHeaders(getHeaders(httpHeaders));
         } else {
@@ -87,37 +155,67 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
 
     @Override
     public State onBodyPartReceived(HttpResponseBodyPart bodyPart) throws Exception {
-        String body = new String(bodyPart.getBodyPartBytes(), StandardCharsets.UTF_8);
+        if (isRetryPending()) {
+            return State.CONTINUE;
+        }
 
+        metrics.onBodyPart(bodyPart.length());
         if (clientError) {
             // The response body for an error won't be very big, so we can throw here without needing to aggregate.
-            RequestError error = RequestError.errorFromResponse(body, exceptionContentType);
+            RequestError error = RequestError.errorFromResponse(new String(bodyPart.getBodyPartBytes(), StandardCharsets.UTF_8), exceptionContentType);
             exceptionBuilder.setRequestError(error);
             throw exceptionBuilder.build();
         }
         else if (serverError) {
-            RequestError error = RequestError.errorFromResponse(body, exceptionContentType);
+            RequestError error = RequestError.errorFromResponse(new String(bodyPart.getBodyPartBytes(), StandardCharsets.UTF_8), exceptionContentType);
             serverExceptionBuilder.setRequestError(error);
             throw serverExceptionBuilder.build();
         }
 
-        bodyBuilder.append(body);
+        if (streamingBody) {
+            bodySink.get().onBodyPart(bodyPart.getBodyByteBuffer());
+            return State.CONTINUE;
+        }
+
+        // Keep the raw parts, they are decoded once by the parser rather than chunk by chunk.
+        bodyParts.add(bodyPart.getBodyPartBytes());
         return State.CONTINUE;
     }
 
     @Override
-    public Response onCompleted() throws Exception {
-        if (StringUtils.isNotBlank(bodyBuilder.toString())) {
+    public Response<T> onCompleted() throws Exception {
+        if (isRetryPending()) {
+            return null;
+        }
+
+        if (streamingBody) {
+            streamingBody = false;
+            sinkNotified.set(true);
+            bodySink.get().onComplete();
+        } else {
+            // Nothing was streamed, the sink still has to be released.
+            failSink(new IOException(String.format("Response body was not streamed, status %d", statusCode)));
+        }
+
+        if (!isBodyBlank()) {
+            if (keepBodyParts) {
+                responseBuilder.setBodyParts(bodyParts);
+            }
+            long parseStart = System.nanoTime();
             try {
-                responseBuilder.setBody(parser.parse(bodyBuilder.toString()));
+                responseBuilder.setBody(parser.parse(getBodyStream()));
             } catch (JsonParseException e) {
-                log.debug(String.format("Could not parse the response: %s", bodyBuilder.toString()), e);
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Could not parse the response: %s", getBodyString()), e);
+                }
                 onThrowable(e);
                 return responseBuilder.build();
+            } finally {
+                metrics.addParseNanos(System.nanoTime() - parseStart);
             }
         }
 
-        Response response = responseBuilder.build();
+        Response<T> response = responseBuilder.build();
         if (clientCallback.isPresent()) {
             clientCallback.get().completed(response);
         }
@@ -126,14 +224,78 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
         return response;
     }
 
+    /**
+     * Fail the request. Only the first failure is handled, a request timed out by the client is then cancelled
+     * and the cancellation must not reach the callback.
+     */
     @Override
     public void onThrowable(Throwable t) {
+        pendingRetryDelayMs = NO_RETRY;
+        if (!failed.compareAndSet(false, true)) {
+            return;
+        }
+        streamingBody = false;
+        failSink(t);
         log.error("Exception thrown during response processing", t);
         if (clientCallback.isPresent()) {
             clientCallback.get().error(t);
         }
     }
 
+    /**
+     * Notify the body sink, if any and not already notified, that the request did not stream a body to it.
+     *
+     * @param t The failure.
+     */
+    private void failSink(Throwable t) {
+        if (bodySink.isPresent() && sinkNotified.compareAndSet(false, true)) {
+            bodySink.get().onError(t);
+        }
+    }
+
+    /**
+     * Whether the received body is empty or only contains whitespace.
+     *
+     * @return boolean
+     */
+    private boolean isBodyBlank() {
+        for (byte[] part : bodyParts) {
+            for (byte b : part) {
+                if (!Character.isWhitespace(b)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exposes the received body parts as a single stream without copying them.
+     *
+     * @return The body as an InputStream.
+     */
+    private InputStream getBodyStream() {
+        final Iterator<byte[]> parts = bodyParts.iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return parts.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (!parts.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new ByteArrayInputStream(parts.next());
+            }
+        });
+    }
+
+    private String getBodyString() throws IOException {
+        return new String(ByteStreams.toByteArray(getBodyStream()), StandardCharsets.UTF_8);
+    }
+
     /**
      * Retrieves the response headers.
      * @param httpResponse The HttpResponse.
@@ -162,4 +324,44 @@ class ResponseAsyncHandler<T> implements AsyncHandler<Response> {
     public void incrementRetryCount() {
         retryCount.incrementAndGet();
     }
+
+    /**
+     * Record that the current response will be discarded and the request replayed after the given delay.
+     *
+     * @param delayMs The delay in milliseconds before the request is replayed.
+     */
+    void scheduleRetry(long delayMs) {
+        lastRetryDelayMs = delayMs;
+        pendingRetryDelayMs = delayMs;
+        incrementRetryCount();
+    }
+
+    /**
+     * Whether the current response is being discarded in favor of a retry.
+     *
+     * @return boolean
+     */
+    boolean isRetryPending() {
+        return pendingRetryDelayMs != NO_RETRY;
+    }
+
+    /**
+     * Consume the pending retry, resetting the handler for the next attempt.
+     *
+     * @return The optional delay in milliseconds before the request should be replayed.
+     */
+    Optional<Long> takePendingRetry() {
+        long delay = pendingRetryDelayMs;
+        pendingRetryDelayMs = NO_RETRY;
+        return delay == NO_RETRY ? Optional.empty() : Optional.of(delay);
+    }
+
+    /**
+     * Retrieves the delay used before the last retry.
+     *
+     * @return The delay in milliseconds, 0 if the request was never retried.
+     */
+    long getLastRetryDelayMs() {
+        return lastRetryDelayMs;
+    }
 }
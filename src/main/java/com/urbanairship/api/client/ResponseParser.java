@@ -4,8 +4,25 @@
 
 package com.urbanairship.api.client;
 
+import com.google.common.io.ByteStreams;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 public interface ResponseParser<T>  {
     T parse(String response) throws IOException;
+
+    /**
+     * Parse a response directly from its raw UTF-8 bytes. The default implementation decodes the stream into
+     * a String and delegates to {@link #parse(String)}; parsers backed by an ObjectMapper should override it
+     * to read the bytes without the intermediate copy, see {@link JsonResponseParser}.
+     *
+     * @param response The response body.
+     * @return The parsed response.
+     * @throws IOException if the response can not be read or parsed.
+     */
+    default T parse(InputStream response) throws IOException {
+        return parse(new String(ByteStreams.toByteArray(response), StandardCharsets.UTF_8));
+    }
 }
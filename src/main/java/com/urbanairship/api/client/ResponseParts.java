@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.uri.Uri;
+
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+/**
+ * Response statuses and body parts for the clients feeding a {@link ResponseAsyncHandler} without going through
+ * the AsyncHttpClient.
+ */
+final class ResponseParts {
+
+    private ResponseParts() {
+    }
+
+    /**
+     * Create a response status.
+     *
+     * @param uri The request URI.
+     * @param statusCode The status code.
+     * @param statusText The reason phrase, the standard one for the code when null.
+     * @param protocolMajorVersion The HTTP major version.
+     * @param protocolMinorVersion The HTTP minor version.
+     * @return HttpResponseStatus
+     */
+    static HttpResponseStatus status(URI uri, int statusCode, String statusText, int protocolMajorVersion, int protocolMinorVersion) {
+        return new Status(uri, statusCode, statusText, protocolMajorVersion, protocolMinorVersion);
+    }
+
+    /**
+     * Create a body part, taking ownership of the bytes.
+     *
+     * @param bytes The part bytes.
+     * @return HttpResponseBodyPart
+     */
+    static HttpResponseBodyPart bodyPart(byte[] bytes) {
+        return new BodyPart(bytes);
+    }
+
+    private static final class Status extends HttpResponseStatus {
+        private final int statusCode;
+        private final String statusText;
+        private final int protocolMajorVersion;
+        private final int protocolMinorVersion;
+
+        private Status(URI uri, int statusCode, String statusText, int protocolMajorVersion, int protocolMinorVersion) {
+            super(Uri.create(uri.toString()));
+            this.statusCode = statusCode;
+            this.statusText = statusText != null
+                    ? statusText
+                    : io.netty.handler.codec.http.HttpResponseStatus.valueOf(statusCode).reasonPhrase();
+            this.protocolMajorVersion = protocolMajorVersion;
+            this.protocolMinorVersion = protocolMinorVersion;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getStatusText() {
+            return statusText;
+        }
+
+        @Override
+        public String getProtocolName() {
+            return "HTTP";
+        }
+
+        @Override
+        public int getProtocolMajorVersion() {
+            return protocolMajorVersion;
+        }
+
+        @Override
+        public int getProtocolMinorVersion() {
+            return protocolMinorVersion;
+        }
+
+        @Override
+        public String getProtocolText() {
+            return "HTTP/" + protocolMajorVersion + "." + protocolMinorVersion;
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return null;
+        }
+    }
+
+    private static final class BodyPart extends HttpResponseBodyPart {
+        private final byte[] bytes;
+
+        private BodyPart(byte[] bytes) {
+            super(false);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public byte[] getBodyPartBytes() {
+            return bytes;
+        }
+
+        @Override
+        public ByteBuffer getBodyByteBuffer() {
+            return ByteBuffer.wrap(bytes);
+        }
+    }
+}
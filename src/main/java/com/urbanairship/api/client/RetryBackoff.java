@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang.StringUtils;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RetryBackoff computes how long the {@link AsyncRequestClient} waits before replaying a failed request.
+ *
+ * Two jitter strategies are supported:
+ * <pre>
+ * FULL         - a random multiple of base up to base * 2^(retry + 1), the historical client behavior.
+ * DECORRELATED - a random delay in [base, previous delay * 3].
+ * </pre>
+ * Every delay is capped at the configured maximum. When enabled, a {@code Retry-After} header (either delta-seconds
+ * or an HTTP-date) is treated as a lower bound for the delay, still subject to the cap.
+ */
+public class RetryBackoff {
+
+    private static final int MAX_EXPONENT = 30;
+
+    /**
+     * Jitter strategies used to spread retries of concurrent requests.
+     */
+    public enum Jitter {
+        FULL,
+        DECORRELATED
+    }
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Jitter jitter;
+    private final boolean respectRetryAfter;
+
+    private RetryBackoff(Builder builder) {
+        this.baseDelayMs = builder.baseDelayMs;
+        this.maxDelayMs = builder.maxDelayMs;
+        this.jitter = builder.jitter;
+        this.respectRetryAfter = builder.respectRetryAfter;
+    }
+
+    /**
+     * New RetryBackoff Builder.
+     *
+     * @return RetryBackoff Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the base delay in milliseconds.
+     *
+     * @return long
+     */
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    /**
+     * Get the maximum delay in milliseconds.
+     *
+     * @return long
+     */
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    /**
+     * Get the jitter strategy.
+     *
+     * @return Jitter
+     */
+    public Jitter getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Whether Retry-After response headers are honored.
+     *
+     * @return boolean
+     */
+    public boolean isRespectRetryAfter() {
+        return respectRetryAfter;
+    }
+
+    /**
+     * Compute the delay before the next retry.
+     *
+     * @param retryCount The number of retries already performed for the request.
+     * @param previousDelayMs The delay used before the previous retry, or 0 if this is the first one.
+     * @param retryAfter The optional Retry-After header value of the failed response.
+     * @return The delay in milliseconds.
+     */
+    public long getDelayMs(int retryCount, long previousDelayMs, Optional<String> retryAfter) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay;
+
+        if (jitter == Jitter.DECORRELATED) {
+            long upper = Math.max(baseDelayMs, Math.min(maxDelayMs, previousDelayMs * 3));
+            delay = random.nextLong(baseDelayMs, upper + 1);
+        } else {
+            long range = 1L << Math.min(retryCount + 1, MAX_EXPONENT);
+            delay = baseDelayMs * Math.max(1, random.nextLong(range));
+        }
+
+        if (respectRetryAfter && retryAfter.isPresent()) {
+            Optional<Long> retryAfterMs = parseRetryAfter(retryAfter.get());
+            if (retryAfterMs.isPresent()) {
+                delay = Math.max(delay, retryAfterMs.get());
+            }
+        }
+
+        return Math.min(delay, maxDelayMs);
+    }
+
+    /**
+     * Parse a Retry-After header value into milliseconds from now.
+     *
+     * @param value The header value, either delta-seconds or an HTTP-date.
+     * @return The optional delay in milliseconds, empty if the value could not be parsed.
+     */
+    static Optional<Long> parseRetryAfter(String value) {
+        if (StringUtils.isBlank(value)) {
+            return Optional.empty();
+        }
+
+        String trimmed = value.trim();
+        if (StringUtils.isNumeric(trimmed)) {
+            try {
+                return Optional.of(TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed)));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+
+        try {
+            Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Optional.of(Math.max(0, at.toEpochMilli() - System.currentTimeMillis()));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBackoff{" +
+                "baseDelayMs=" + baseDelayMs +
+                ", maxDelayMs=" + maxDelayMs +
+                ", jitter=" + jitter +
+                ", respectRetryAfter=" + respectRetryAfter +
+                '}';
+    }
+
+    /**
+     * RetryBackoff Builder.
+     */
+    public static class Builder {
+
+        private long baseDelayMs = 5;
+        private long maxDelayMs = TimeUnit.SECONDS.toMillis(10);
+        private Jitter jitter = Jitter.FULL;
+        private boolean respectRetryAfter = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the base delay in milliseconds -- defaults to 5.
+         *
+         * @param baseDelayMs long
+         * @return Builder
+         */
+        public Builder setBaseDelayMs(long baseDelayMs) {
+            this.baseDelayMs = baseDelayMs;
+            return this;
+        }
+
+        /**
+         * Set the maximum delay in milliseconds -- defaults to 10 seconds.
+         *
+         * @param maxDelayMs long
+         * @return Builder
+         */
+        public Builder setMaxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+            return this;
+        }
+
+        /**
+         * Set the jitter strategy -- defaults to FULL.
+         *
+         * @param jitter Jitter
+         * @return Builder
+         */
+        public Builder setJitter(Jitter jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Set whether Retry-After response headers are honored -- defaults to true.
+         *
+         * @param respectRetryAfter boolean
+         * @return Builder
+         */
+        public Builder setRespectRetryAfter(boolean respectRetryAfter) {
+            this.respectRetryAfter = respectRetryAfter;
+            return this;
+        }
+
+        /**
+         * Build a RetryBackoff object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The base delay must be positive.
+         * 2. The maximum delay must not be lower than the base delay.
+         * 3. The jitter strategy must be set, already defaults to FULL.
+         * </pre>
+         *
+         * @return RetryBackoff
+         */
+        public RetryBackoff build() {
+            Preconditions.checkArgument(baseDelayMs > 0, "base delay must be positive");
+            Preconditions.checkArgument(maxDelayMs >= baseDelayMs, "max delay cannot be lower than the base delay");
+            Preconditions.checkNotNull(jitter, "jitter strategy must be set");
+
+            return new RetryBackoff(this);
+        }
+    }
+}
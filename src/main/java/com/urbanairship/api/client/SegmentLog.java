@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of numbered records, stored in memory mapped segment files of a directory. A record is live
+ * from its append until it is acknowledged; acknowledgements are appended too, so the live records are found again
+ * after a restart. Segments are deleted oldest first once they hold no live record, and the few live records of an
+ * old segment are copied forward so that a long lived record does not pin every segment after it.
+ *
+ * Each record is framed by its type, length and CRC32; a torn write at the end of the last segment is detected
+ * and written over. Not thread safe, callers synchronize.
+ */
+class SegmentLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentLog.class);
+
+    private static final byte ENTRY = 1;
+    private static final byte ACK = 2;
+    private static final int FRAME_BYTES = 1 + 4 + 4;
+    private static final int SEQUENCE_BYTES = 8;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean sync;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<Long, Location> live = new HashMap<>();
+    private Segment active;
+    private long liveBytes;
+    private long lastSequence = -1;
+
+    /**
+     * Open the log of a directory, recovering the live records of its segments.
+     *
+     * @param directory The segment directory, created if missing.
+     * @param segmentBytes The size of a segment file; a record larger than that gets a segment of its own size.
+     * @param sync Whether every append and acknowledgement is forced to disk before returning.
+     * @throws IOException If a segment cannot be read.
+     */
+    SegmentLog(Path directory, int segmentBytes, boolean sync) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.sync = sync;
+
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            segments.put(id, new Segment(id, file, (int) Files.size(file)));
+        }
+        for (Segment segment : segments.values()) {
+            recover(segment);
+        }
+
+        active = segments.isEmpty() ? newSegment(segmentBytes) : segments.lastEntry().getValue();
+        compact();
+    }
+
+    /**
+     * Get the sequence numbers of the live records.
+     *
+     * @return List of sequence numbers, in increasing order.
+     */
+    List<Long> liveSequences() {
+        List<Long> sequences = new ArrayList<>(live.keySet());
+        sequences.sort(null);
+        return sequences;
+    }
+
+    /**
+     * Get the highest sequence number appended, acknowledged or not. Kept across restarts since the active segment,
+     * which holds the latest records, is never deleted.
+     *
+     * @return long, -1 if the log is empty.
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Append a record.
+     *
+     * @param sequence The record number, unique in the log.
+     * @param data The record data.
+     * @throws IOException If the segment file cannot be created.
+     */
+    void append(long sequence, byte[] data) throws IOException {
+        Location location = write(ENTRY, sequence, data);
+        live.put(sequence, location);
+        location.segment.live.add(sequence);
+        liveBytes += data.length;
+        lastSequence = Math.max(lastSequence, sequence);
+    }
+
+    /**
+     * Read the data of a live record.
+     *
+     * @param sequence The record number.
+     * @return byte[], null if the record is not live.
+     */
+    byte[] read(long sequence) {
+        Location location = live.get(sequence);
+        if (location == null) {
+            return null;
+        }
+        byte[] data = new byte[location.length];
+        MappedByteBuffer buffer = location.segment.buffer;
+        for (int i = 0; i < data.length; i++) {
+            data[i] = buffer.get(location.offset + i);
+        }
+        return data;
+    }
+
+    /**
+     * Acknowledge a record, which is then no longer live, and delete the segments left without live records.
+     *
+     * @param sequence The record number.
+     * @throws IOException If the segment file cannot be created.
+     */
+    void ack(long sequence) throws IOException {
+        Location location = live.remove(sequence);
+        if (location == null) {
+            return;
+        }
+        location.segment.live.remove(sequence);
+        liveBytes -= location.length;
+        write(ACK, sequence, new byte[0]);
+        compact();
+    }
+
+    /**
+     * Get the number of live records.
+     *
+     * @return int
+     */
+    int size() {
+        return live.size();
+    }
+
+    /**
+     * Get the size of the segment files.
+     *
+     * @return long bytes
+     */
+    long diskBytes() {
+        long bytes = 0;
+        for (Segment segment : segments.values()) {
+            bytes += segment.buffer.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the size of the live record data.
+     *
+     * @return long bytes
+     */
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Get the number of segment files.
+     *
+     * @return int
+     */
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    private Location write(byte type, long sequence, byte[] data) throws IOException {
+        int length = SEQUENCE_BYTES + data.length;
+        int recordBytes = FRAME_BYTES + length;
+        if (active.position + recordBytes > active.buffer.capacity()) {
+            active = newSegment(Math.max(segmentBytes, recordBytes));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+        crc.update(data, 0, data.length);
+
+        MappedByteBuffer buffer = active.buffer;
+        int start = active.position;
+        buffer.position(start + 1);
+        buffer.putInt(length);
+        buffer.putInt((int) crc.getValue());
+        buffer.putLong(sequence);
+        buffer.put(data);
+        // The type goes last, a record is only seen once it is whole.
+        buffer.put(start, type);
+        if (sync) {
+            buffer.force();
+        }
+        active.position = start + recordBytes;
+        return new Location(active, start + FRAME_BYTES + SEQUENCE_BYTES, data.length);
+    }
+
+    private void recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        try {
+            while (position + FRAME_BYTES + SEQUENCE_BYTES <= buffer.capacity()) {
+                byte type = buffer.get(position);
+                if (type != ENTRY && type != ACK) {
+                    break;
+                }
+                int length = buffer.getInt(position + 1);
+                int expectedCrc = buffer.getInt(position + 5);
+                if (length < SEQUENCE_BYTES || position + FRAME_BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                long sequence = buffer.getLong(position + FRAME_BYTES);
+                int dataOffset = position + FRAME_BYTES + SEQUENCE_BYTES;
+                int dataLength = length - SEQUENCE_BYTES;
+
+                CRC32 crc = new CRC32();
+                crc.update(type);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    crc.update((int) (sequence >>> shift));
+                }
+                for (int i = 0; i < dataLength; i++) {
+                    crc.update(buffer.get(dataOffset + i));
+                }
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+
+                lastSequence = Math.max(lastSequence, sequence);
+                Location previous = live.remove(sequence);
+                if (previous != null) {
+                    previous.segment.live.remove(sequence);
+                    liveBytes -= previous.length;
+                }
+                if (type == ENTRY) {
+                    live.put(sequence, new Location(segment, dataOffset, dataLength));
+                    segment.live.add(sequence);
+                    liveBytes += dataLength;
+                }
+                position += FRAME_BYTES + length;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // A torn record, everything from here on is written over.
+        }
+        if (position < buffer.capacity() && buffer.get(position) != 0) {
+            log.warn(String.format("Ignoring the torn end of segment %s from offset %d", segment.file, position));
+            for (int i = position; i < buffer.capacity() && i < position + FRAME_BYTES; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        segment.position = position;
+    }
+
+    /**
+     * Delete the oldest segments while they hold no live record, copying forward the few live records of the
+     * oldest one when they take less than a quarter of a segment.
+     */
+    private void compact() throws IOException {
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active) {
+                return;
+            }
+            if (!oldest.live.isEmpty()) {
+                long oldestLiveBytes = 0;
+                for (Long sequence : oldest.live) {
+                    oldestLiveBytes += live.get(sequence).length;
+                }
+                if (oldestLiveBytes * 4 > segmentBytes) {
+                    return;
+                }
+                for (Long sequence : new ArrayList<>(oldest.live)) {
+                    byte[] data = read(sequence);
+                    Location previous = live.remove(sequence);
+                    liveBytes -= previous.length;
+                    oldest.live.remove(sequence);
+                    append(sequence, data);
+                }
+            }
+            segments.remove(oldest.id);
+            oldest.channel.close();
+            Files.deleteIfExists(oldest.file);
+        }
+    }
+
+    private Segment newSegment(int bytes) throws IOException {
+        long id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, id, SUFFIX));
+        Segment segment = new Segment(id, file, bytes);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final Set<Long> live = new LinkedHashSet<>();
+        private int position;
+
+        private Segment(long id, Path file, int bytes) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+
+        private Location(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
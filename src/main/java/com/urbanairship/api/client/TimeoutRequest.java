@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import org.apache.http.entity.ContentType;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Wraps a request to bound the total time it may take, every retry and backoff included, see
+ * {@link Request#getTimeoutMs()}. A request still running once the timeout elapsed is cancelled and fails with a
+ * {@link RequestTimeoutException}, so callers can shed load rather than wait on a struggling API.
+ *
+ * @param <T> The response type of the wrapped request.
+ */
+public class TimeoutRequest<T> implements Request<T> {
+
+    private final Request<T> request;
+    private final long timeoutMs;
+
+    private TimeoutRequest(Request<T> request, long timeoutMs) {
+        this.request = request;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Wrap a request so that it fails once the timeout elapsed.
+     *
+     * @param request The request.
+     * @param timeoutMs The timeout in milliseconds, must be positive.
+     * @param <T> The response type of the request.
+     * @return TimeoutRequest
+     */
+    public static <T> TimeoutRequest<T> of(Request<T> request, long timeoutMs) {
+        Preconditions.checkNotNull(request, "request cannot be null");
+        Preconditions.checkArgument(timeoutMs > 0, "timeout must be positive");
+        return new TimeoutRequest<>(request, timeoutMs);
+    }
+
+    @Override
+    public HttpMethod getHttpMethod() {
+        return request.getHttpMethod();
+    }
+
+    @Override
+    public String getRequestBody() {
+        return request.getRequestBody();
+    }
+
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return request.getRequestBodyBytes();
+    }
+
+    @Override
+    public Optional<BodyPublisher> getBodyPublisher() {
+        return request.getBodyPublisher();
+    }
+
+    @Override
+    public Optional<BodySink> getBodySink() {
+        return request.getBodySink();
+    }
+
+    @Override
+    public ContentType getContentType() {
+        return request.getContentType();
+    }
+
+    @Override
+    public Map<String, String> getRequestHeaders() {
+        return request.getRequestHeaders();
+    }
+
+    @Override
+    public RequestHeaders getStaticHeaders() {
+        return request.getStaticHeaders();
+    }
+
+    @Override
+    public URI getUri(URI baseUri) throws URISyntaxException {
+        return request.getUri(baseUri);
+    }
+
+    @Override
+    public ResponseParser<T> getResponseParser() {
+        return request.getResponseParser();
+    }
+
+    @Override
+    public Optional<Long> getTimeoutMs() {
+        return Optional.of(timeoutMs);
+    }
+
+    @Override
+    public boolean bearerTokenAuthRequired() {
+        return request.bearerTokenAuthRequired();
+    }
+
+    @Override
+    public boolean canUseBearerTokenAuth() {
+        return request.canUseBearerTokenAuth();
+    }
+
+    @Override
+    public String toString() {
+        return "TimeoutRequest{" +
+                "request=" + request +
+                ", timeoutMs=" + timeoutMs +
+                '}';
+    }
+}
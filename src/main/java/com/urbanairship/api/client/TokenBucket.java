@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled continuously at a fixed rate, holding at most {@code burst} tokens. The bucket can also
+ * be paused, for instance until the time given by a Retry-After header. Not thread safe, callers synchronize.
+ */
+class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final Ticker ticker;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    TokenBucket(double permitsPerSecond, int burst, Ticker ticker) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.ticker = ticker;
+        this.tokens = burst;
+        this.lastRefillNanos = ticker.read();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Take a token if one is available.
+     *
+     * @return Whether a token was taken.
+     */
+    boolean tryAcquire() {
+        long now = refill();
+        if (now < pausedUntilNanos || tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Get the time until a token is available.
+     *
+     * @return The delay in nanoseconds, 0 if a token is available now.
+     */
+    long nanosUntilAvailable() {
+        long now = refill();
+        long untilRefilled = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+        return Math.max(untilRefilled, pausedUntilNanos - now);
+    }
+
+    /**
+     * Hand out no token for the given time. The bucket keeps refilling while paused.
+     *
+     * @param delayNanos The pause in nanoseconds.
+     */
+    void pause(long delayNanos) {
+        pausedUntilNanos = Math.max(pausedUntilNanos, ticker.read() + delayNanos);
+    }
+
+    /**
+     * Get the number of tokens currently available.
+     *
+     * @return The available tokens, possibly fractional.
+     */
+    double getAvailablePermits() {
+        refill();
+        return tokens;
+    }
+
+    private long refill() {
+        long now = ticker.read();
+        if (now > lastRefillNanos) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+        }
+        return now;
+    }
+}
@@ -13,12 +13,23 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The UrbanAirshipClient class handles HTTP requests to the Urban Airship API.
@@ -34,14 +45,24 @@ public class UrbanAirshipClient implements Closeable {
 
     private String userAgent;
 
+    private final Optional<Map<String, String>> basicAuthHeaders;
+    private final Optional<Map<String, String>> bearerAuthHeaders;
+    private final ConcurrentMap<RequestHeaders, Map<String, String>> basicHeaderCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<RequestHeaders, Map<String, String>> bearerHeaderCache = new ConcurrentHashMap<>();
+
     public static final String EU_URI = "https://go.airship.eu";
 
+    private static final int DEFAULT_MAX_PAGES_IN_FLIGHT = 1;
+
     private UrbanAirshipClient(Builder builder) {
         this.client = builder.client;
         this.key = builder.key;
         this.secret = Optional.ofNullable(builder.secret);
         this.bearerToken = Optional.ofNullable(builder.bearerToken);
         userAgent = getUserAgent(builder.key);
+        this.basicAuthHeaders = authHeaders(key, secret.map(appSecret ->
+                "Basic " + BaseEncoding.base64().encode((key + ":" + appSecret).getBytes(StandardCharsets.UTF_8))));
+        this.bearerAuthHeaders = authHeaders(key, bearerToken.map(token -> "Bearer " + token));
     }
 
     /**
@@ -53,59 +74,191 @@ public class UrbanAirshipClient implements Closeable {
         return new Builder();
     }
 
-    public <T> Future<Response> executeAsync(final Request<T> request, ResponseCallback callback) {
+    public <T> Future<Response<T>> executeAsync(final Request<T> request, ResponseCallback callback) {
         return client.executeAsync(request, callback, createHeaders(request));
     }
 
-    public <T> Future<Response> executeAsync(Request<T> request) {
+    public <T> Future<Response<T>> executeAsync(Request<T> request) {
         return executeAsync(request, null);
     }
 
-    public <T> Response execute(Request<T> request) throws IOException {
+    /**
+     * Execute a request asynchronously. The future is completed directly by the request client, on its I/O thread
+     * for the default client, so dependent stages should be light or use an async variant; see
+     * {@link #executeAsyncCF(Request, Executor)} to run them on an executor instead. Cancelling the future cancels
+     * the request.
+     *
+     * @param request The request.
+     * @param <T> The response body type.
+     * @return A future completed with the response, or exceptionally with the request failure.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Response<T>> executeAsyncCF(Request<T> request) {
+        final CompletableFuture<Response<T>> viaCallback = new CompletableFuture<>();
+        final Future<Response<T>> future = executeAsync(request, new ResponseCallback() {
+            @Override
+            public void completed(Response response) {
+                viaCallback.complete(response);
+            }
+
+            @Override
+            public void error(Throwable throwable) {
+                viaCallback.completeExceptionally(throwable);
+            }
+        });
+
+        final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        // The future of the default client is authoritative, other clients are followed through the callback.
+        CompletableFuture<Response<T>> source = future instanceof CompletableFuture
+                ? (CompletableFuture<Response<T>>) future
+                : viaCallback;
+        source.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(unwrap(throwable));
+            } else {
+                result.complete(response);
+            }
+        });
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled() && future != null) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Execute a request asynchronously, completing the returned future on the given executor so that dependent
+     * stages never run on the client I/O thread.
+     *
+     * @param request The request.
+     * @param executor The executor running the continuations.
+     * @param <T> The response body type.
+     * @return A future completed with the response, or exceptionally with the request failure.
+     */
+    public <T> CompletableFuture<Response<T>> executeAsyncCF(Request<T> request, final Executor executor) {
+        Preconditions.checkNotNull(executor, "executor cannot be null");
+
+        final CompletableFuture<Response<T>> source = executeAsyncCF(request);
+        final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        source.whenCompleteAsync((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(response);
+            }
+        }, executor);
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public <T> Response<T> execute(Request<T> request) throws IOException {
         return execute(request, null);
     }
 
-    public <T> Response execute(Request<T> request, ResponseCallback callback) throws IOException {
-        try {
-            return executeAsync(request, callback).get();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Thread interrupted while retrieving response from future", e);
-        } catch (ExecutionException e) {
-            throw new RuntimeException("Failed to retrieve response from future", e);
-        }
+    public <T> Response<T> execute(Request<T> request, ResponseCallback callback) throws IOException {
+        return client.execute(request, callback, createHeaders(request));
     }
 
-    private Map<String, String> createHeaders(Request request) {
-        Map<String, String> headers = new HashMap<>();
+    /**
+     * Stream every item of a paginated listing. Pages are fetched lazily: the first page is requested when the
+     * stream is first consumed, and the next page is requested while the current one is being consumed.
+     * Close the stream to stop the pagination early and cancel the page in flight.
+     *
+     * @param paginator The listing paginator, for example {@code ChannelRequest.newRequest().paginator()}.
+     * @param <R> The page response type.
+     * @param <T> The item type.
+     * @return A lazy stream over the listing items.
+     */
+    public <R, T> Stream<T> stream(Paginator<R, T> paginator) {
+        return stream(paginator, DEFAULT_MAX_PAGES_IN_FLIGHT);
+    }
 
-        headers.put("User-Agent", userAgent);
-        Map<String, String> requestHeaders = request.getRequestHeaders();
-        if (requestHeaders != null) {
-            for (Map.Entry<String, String> entry : requestHeaders.entrySet()) {
-                headers.put(entry.getKey(), entry.getValue());
-            }
-        }
+    /**
+     * Stream every item of a paginated listing, fetching up to {@code maxPagesInFlight} pages ahead of the
+     * consumer. At most that many pages are held in memory besides the one being consumed.
+     *
+     * @param paginator The listing paginator.
+     * @param maxPagesInFlight The maximum number of pages fetched ahead of the consumer.
+     * @param <R> The page response type.
+     * @param <T> The item type.
+     * @return A lazy stream over the listing items.
+     */
+    public <R, T> Stream<T> stream(Paginator<R, T> paginator, int maxPagesInFlight) {
+        Preconditions.checkNotNull(paginator, "paginator cannot be null");
+        Preconditions.checkArgument(maxPagesInFlight > 0, "max pages in flight must be positive");
+
+        PageIterator<R, T> iterator = new PageIterator<>(this, paginator, maxPagesInFlight);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
 
-        String auth;
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
 
+    private Map<String, String> createHeaders(Request request) {
+        boolean bearer;
         if (request.bearerTokenAuthRequired()) {
-            Preconditions.checkArgument(bearerToken.isPresent(), "Bearer token required for request: " + request);
-            auth = "Bearer " + getBearerToken().get();
+            Preconditions.checkArgument(bearerToken.isPresent(), "Bearer token required for request: %s", request);
+            bearer = true;
         } else if (getAppSecret().isPresent()) {
-            auth = "Basic " + BaseEncoding.base64().encode((getAppKey() + ":" + getAppSecret().get()).getBytes());
-        } else if (bearerToken.isPresent() && request.canUseBearerTokenAuth()){
-            auth = "Bearer " + getBearerToken().get();
+            bearer = false;
+        } else if (bearerToken.isPresent() && request.canUseBearerTokenAuth()) {
+            bearer = true;
         } else {
             throw new IllegalArgumentException("Bearer token auth not supported for this request, app secret must be set for request: " + request);
         }
+        Map<String, String> authHeaders = bearer ? bearerAuthHeaders.get() : basicAuthHeaders.get();
 
-        headers.put("Authorization", auth);
-        headers.put("X-UA-Appkey", getAppKey());
+        RequestHeaders staticHeaders = request.getStaticHeaders();
+        if (staticHeaders == null) {
+            return mergeHeaders(request.getRequestHeaders(), authHeaders);
+        }
 
+        // Static headers are constants, the merged set is built once per auth mode and reused.
+        ConcurrentMap<RequestHeaders, Map<String, String>> cache = bearer ? bearerHeaderCache : basicHeaderCache;
+        Map<String, String> headers = cache.get(staticHeaders);
+        if (headers == null) {
+            headers = Collections.unmodifiableMap(mergeHeaders(staticHeaders.asMap(), authHeaders));
+            Map<String, String> existing = cache.putIfAbsent(staticHeaders, headers);
+            if (existing != null) {
+                headers = existing;
+            }
+        }
         return headers;
     }
 
+    private Map<String, String> mergeHeaders(Map<String, String> requestHeaders, Map<String, String> authHeaders) {
+        Map<String, String> headers = new HashMap<>();
+
+        headers.put("User-Agent", userAgent);
+        if (requestHeaders != null) {
+            headers.putAll(requestHeaders);
+        }
+        headers.putAll(authHeaders);
+
+        return headers;
+    }
+
+    private static Optional<Map<String, String>> authHeaders(String appKey, Optional<String> auth) {
+        if (!auth.isPresent()) {
+            return Optional.empty();
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", auth.get());
+        headers.put("X-UA-Appkey", appKey);
+        return Optional.of(Collections.unmodifiableMap(headers));
+    }
+
     /**
      * Retrieve the client user agent.
      *
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.client;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Measurements of the warm-up an {@link AsyncRequestClient} runs before being returned by its builder: the
+ * resolution of the base URI host, then the connections opened to it in parallel, TLS handshakes included.
+ * Durations are in nanoseconds.
+ */
+public final class WarmUpReport {
+
+    private final URI baseUri;
+    private final List<InetAddress> addresses;
+    private final Optional<Long> resolveNanos;
+    private final int connectionsRequested;
+    private final List<Long> connectNanos;
+    private final long totalNanos;
+    private final Optional<Throwable> error;
+
+    private WarmUpReport(Builder builder) {
+        this.baseUri = builder.baseUri;
+        this.addresses = builder.addresses.build();
+        this.resolveNanos = Optional.ofNullable(builder.resolveNanos);
+        this.connectionsRequested = builder.connectionsRequested;
+        this.connectNanos = builder.connectNanos.build();
+        this.totalNanos = builder.totalNanos;
+        this.error = Optional.ofNullable(builder.error);
+    }
+
+    /**
+     * New WarmUpReport Builder.
+     *
+     * @return WarmUpReport Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the base URI warmed up.
+     *
+     * @return URI
+     */
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Get the addresses the base URI host resolved to.
+     *
+     * @return List of InetAddress, empty if the resolution failed.
+     */
+    public List<InetAddress> getAddresses() {
+        return addresses;
+    }
+
+    /**
+     * Get the time spent resolving the base URI host.
+     *
+     * @return Optional duration, empty if the resolution failed.
+     */
+    public Optional<Long> getResolveNanos() {
+        return resolveNanos;
+    }
+
+    /**
+     * Get the number of connections the warm-up tried to open.
+     *
+     * @return int
+     */
+    public int getConnectionsRequested() {
+        return connectionsRequested;
+    }
+
+    /**
+     * Get the number of connections opened and left in the pool.
+     *
+     * @return int
+     */
+    public int getConnectionsOpened() {
+        return connectNanos.size();
+    }
+
+    /**
+     * Get the time spent opening each connection, TLS handshake included.
+     *
+     * @return List of durations, one per connection opened.
+     */
+    public List<Long> getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Get the time the whole warm-up took.
+     *
+     * @return long
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the first error the warm-up ran into. Warm-up failures do not fail the client build, the connections
+     * missing are opened by the first requests instead.
+     *
+     * @return Optional Throwable, empty if every connection was opened.
+     */
+    public Optional<Throwable> getError() {
+        return error;
+    }
+
+    /**
+     * Whether every connection requested was opened.
+     *
+     * @return boolean
+     */
+    public boolean isComplete() {
+        return !error.isPresent() && getConnectionsOpened() == connectionsRequested;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpReport{" +
+                "baseUri=" + baseUri +
+                ", addresses=" + addresses +
+                ", resolveNanos=" + resolveNanos +
+                ", connectionsRequested=" + connectionsRequested +
+                ", connectNanos=" + connectNanos +
+                ", totalNanos=" + totalNanos +
+                ", error=" + error +
+                '}';
+    }
+
+    /**
+     * WarmUpReport Builder.
+     */
+    public static class Builder {
+        private URI baseUri;
+        private ImmutableList.Builder<InetAddress> addresses = ImmutableList.builder();
+        private Long resolveNanos;
+        private int connectionsRequested;
+        private ImmutableList.Builder<Long> connectNanos = ImmutableList.builder();
+        private long totalNanos;
+        private Throwable error;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the base URI.
+         *
+         * @param baseUri URI
+         * @return Builder
+         */
+        public Builder setBaseUri(URI baseUri) {
+            this.baseUri = baseUri;
+            return this;
+        }
+
+        /**
+         * Add resolved addresses.
+         *
+         * @param addresses List of InetAddress
+         * @return Builder
+         */
+        public Builder addAllAddresses(List<InetAddress> addresses) {
+            this.addresses.addAll(addresses);
+            return this;
+        }
+
+        /**
+         * Set the resolution time.
+         *
+         * @param resolveNanos Long
+         * @return Builder
+         */
+        public Builder setResolveNanos(Long resolveNanos) {
+            this.resolveNanos = resolveNanos;
+            return this;
+        }
+
+        /**
+         * Set the number of connections requested.
+         *
+         * @param connectionsRequested int
+         * @return Builder
+         */
+        public Builder setConnectionsRequested(int connectionsRequested) {
+            this.connectionsRequested = connectionsRequested;
+            return this;
+        }
+
+        /**
+         * Add the opening time of a connection.
+         *
+         * @param connectNanos long
+         * @return Builder
+         */
+        public Builder addConnectNanos(long connectNanos) {
+            this.connectNanos.add(connectNanos);
+            return this;
+        }
+
+        /**
+         * Set the total time.
+         *
+         * @param totalNanos long
+         * @return Builder
+         */
+        public Builder setTotalNanos(long totalNanos) {
+            this.totalNanos = totalNanos;
+            return this;
+        }
+
+        /**
+         * Set the first error.
+         *
+         * @param error Throwable
+         * @return Builder
+         */
+        public Builder setError(Throwable error) {
+            this.error = error;
+            return this;
+        }
+
+        /**
+         * Build a WarmUpReport object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The base URI must be set.
+         * 2. The number of connections requested must not be negative.
+         * </pre>
+         *
+         * @return WarmUpReport
+         */
+        public WarmUpReport build() {
+            Preconditions.checkNotNull(baseUri, "base URI must be set");
+            Preconditions.checkArgument(connectionsRequested >= 0, "connections requested must not be negative");
+
+            return new WarmUpReport(this);
+        }
+    }
+}
@@ -4,19 +4,43 @@
 
 package com.urbanairship.api.common.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanairship.api.common.parse.CommonObjectMapper;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public abstract class APIModelObject {
     public String toJSON() {
         try {
-            return CommonObjectMapper.getInstance().writeValueAsString(this);
-        } catch ( IOException e) {
+            return getObjectMapper().writeValueAsString(this);
+        } catch (IOException e) {
             return toJSON(e);
         }
     }
 
+    /**
+     * Serialize the object straight to UTF-8 JSON bytes, without an intermediate String.
+     *
+     * @return The JSON bytes.
+     */
+    public byte[] toJSONBytes() {
+        try {
+            return getObjectMapper().writeValueAsBytes(this);
+        } catch (IOException e) {
+            return toJSON(e).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Get the mapper the object is serialized with, overridden by each domain.
+     *
+     * @return ObjectMapper
+     */
+    protected ObjectMapper getObjectMapper() {
+        return CommonObjectMapper.getInstance();
+    }
+
     protected static String toJSON(Exception e) {
         return "{ \"exception\" : \"" + e.getClass().getName() + "\", \"message\" : \"" + e.getMessage() + "\" }";
 
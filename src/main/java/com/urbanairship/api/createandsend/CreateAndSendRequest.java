@@ -8,8 +8,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.createandsend.model.notification.CreateAndSendPayload;
@@ -19,10 +20,9 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The PushRequest class builds push and push validation requests to be executed in
@@ -32,6 +32,7 @@ public class CreateAndSendRequest implements Request<PushResponse> {
 
     private final static String API_PUSH_PATH = "/api/create-and-send";
     private final static String API_VALIDATE_PATH = "/api/create-and-send/validate";
+    private static final ResponseParser<PushResponse> RESPONSE_PARSER = JsonResponseParser.of(PushObjectMapper.getInstance(), PushResponse.class);
 
     private final List<CreateAndSendPayload> payloads = new ArrayList<>();
     private boolean validateOnly;
@@ -113,11 +114,8 @@ public class CreateAndSendRequest implements Request<PushResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -147,6 +145,15 @@ public class CreateAndSendRequest implements Request<PushResponse> {
         return arrayNode.toString();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        if (this.payloads.size() == 1) {
+            return this.payloads.get(0).toJSONBytes();
+        }
+
+        return getRequestBody().getBytes(StandardCharsets.UTF_8);
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         String path = validateOnly ? API_VALIDATE_PATH : API_PUSH_PATH;
@@ -155,7 +162,7 @@ public class CreateAndSendRequest implements Request<PushResponse> {
 
     @Override
     public ResponseParser<PushResponse> getResponseParser() {
-        return response -> PushObjectMapper.getInstance().readValue(response, PushResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
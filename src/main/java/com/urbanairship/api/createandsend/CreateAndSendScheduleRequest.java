@@ -8,8 +8,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.createandsend.model.notification.CreateAndSendSchedulePayload;
@@ -19,10 +20,9 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The PushRequest class builds schedule create and send requests to be executed in
@@ -31,6 +31,7 @@ import java.util.Map;
 public class CreateAndSendScheduleRequest implements Request<PushResponse> {
 
     private final static String API_SCHEDULE_PATH = "/api/schedules/create-and-send";
+    private static final ResponseParser<PushResponse> RESPONSE_PARSER = JsonResponseParser.of(PushObjectMapper.getInstance(), PushResponse.class);
 
     private final List<CreateAndSendSchedulePayload> payloads = new ArrayList<>();
 
@@ -100,11 +101,8 @@ public class CreateAndSendScheduleRequest implements Request<PushResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -134,6 +132,15 @@ public class CreateAndSendScheduleRequest implements Request<PushResponse> {
         return arrayNode.toString();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        if (this.payloads.size() == 1) {
+            return this.payloads.get(0).toJSONBytes();
+        }
+
+        return getRequestBody().getBytes(StandardCharsets.UTF_8);
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, API_SCHEDULE_PATH);
@@ -141,7 +148,7 @@ public class CreateAndSendScheduleRequest implements Request<PushResponse> {
 
     @Override
     public ResponseParser<PushResponse> getResponseParser() {
-        return response -> PushObjectMapper.getInstance().readValue(response, PushResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
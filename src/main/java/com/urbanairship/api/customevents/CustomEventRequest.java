@@ -2,8 +2,9 @@ package com.urbanairship.api.customevents;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.customevents.model.CustomEventPayload;
@@ -15,13 +16,12 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class CustomEventRequest implements Request<CustomEventResponse> {
 
     private final static String API_CUSTOM_EVENTS_PATH = "/api/custom-events/";
+    private static final ResponseParser<CustomEventResponse> RESPONSE_PARSER = JsonResponseParser.of(PushObjectMapper.getInstance(), CustomEventResponse.class);
 
     private final List<CustomEventPayload> payloads;
 
@@ -58,17 +58,23 @@ public class CustomEventRequest implements Request<CustomEventResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return PushObjectMapper.getInstance().writeValueAsBytes(payloads);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -78,7 +84,7 @@ public class CustomEventRequest implements Request<CustomEventResponse> {
 
     @Override
     public ResponseParser<CustomEventResponse> getResponseParser() {
-        return response -> PushObjectMapper.getInstance().readValue(response, CustomEventResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
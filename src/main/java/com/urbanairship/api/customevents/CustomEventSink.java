@@ -0,0 +1,836 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.customevents;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.urbanairship.api.client.BodyPublisher;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
+import com.urbanairship.api.client.RequestUtils;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.ResponseParser;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.customevents.model.CustomEventPayload;
+import com.urbanairship.api.customevents.model.CustomEventResponse;
+import com.urbanairship.api.push.parse.PushObjectMapper;
+import org.apache.http.entity.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * CustomEventSink sends a high rate stream of custom events in batches. Any number of threads can offer events:
+ * they are put on a bounded lock free queue without being serialized, and a single sender thread serializes them
+ * straight into the body of the current batch. A batch is sent once it holds {@code maxBatchSize} events, the next
+ * event would take it past {@code maxBatchBytes}, or its first event has waited {@code flushIntervalMs}. Batch
+ * bodies are written into fixed size buffers reused across batches, so a steady stream allocates no body arrays.
+ *
+ * When the queue is full, the {@link OverflowPolicy} decides what happens to an event: the producer waits for room,
+ * the event is dropped, or it is serialized and appended to a spill file on disk, replayed whenever the queue is
+ * empty. Spilled events are sent after the events queued in the meantime, and spill files left by a previous
+ * process are not replayed.
+ *
+ * Events get no individual futures; their fate is reported by the counters of the sink. At most
+ * {@code maxInFlight} batches are in flight, the sender waits for one to complete before sending more, which
+ * leaves the queue to absorb the bursts. Closing the sink sends every queued and spilled event and waits for
+ * the responses; it does not close the UrbanAirshipClient.
+ */
+public class CustomEventSink implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomEventSink.class);
+
+    private static final ObjectWriter WRITER = PushObjectMapper.getInstance().writerFor(CustomEventPayload.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * What to do with an event offered while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait for room in the queue.
+         */
+        BLOCK,
+        /**
+         * Drop the event.
+         */
+        DROP,
+        /**
+         * Append the event to the spill file, dropping it once the spill file is full.
+         */
+        SPILL
+    }
+
+    private final UrbanAirshipClient client;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final long flushIntervalNanos;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Optional<Spill> spill;
+
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final Semaphore permits;
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final Thread sender;
+    private volatile boolean senderParked;
+    private volatile boolean closed;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    // Only touched by the sender thread.
+    private Batch batch;
+    private BufferedReader replay;
+    private Path replayPath;
+
+    private CustomEventSink(Builder builder) {
+        this.client = builder.client;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxBatchBytes = builder.maxBatchBytes;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.flushIntervalMs);
+        this.capacity = builder.capacity;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.spill = builder.spillDirectory == null
+                ? Optional.empty()
+                : Optional.of(new Spill(builder.spillDirectory, builder.maxSpillBytes));
+        this.permits = new Semaphore(builder.maxInFlight);
+        this.sender = new ThreadFactoryBuilder()
+                .setNameFormat("ua-custom-event-sink-%d")
+                .setDaemon(true)
+                .build()
+                .newThread(this::run);
+        this.sender.start();
+    }
+
+    /**
+     * New CustomEventSink Builder.
+     *
+     * @return CustomEventSink Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Offer an event to the sink. Never blocks unless the overflow policy is {@link OverflowPolicy#BLOCK}.
+     *
+     * @param payload CustomEventPayload
+     * @return Whether the event was queued or spilled, false if it was dropped.
+     */
+    public boolean offer(CustomEventPayload payload) {
+        Preconditions.checkNotNull(payload, "Payload required when offering a custom event");
+        Preconditions.checkState(!closed, "Custom event sink is closed");
+
+        if (!reserve()) {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    while (!reserve()) {
+                        if (closed) {
+                            dropped.increment();
+                            return false;
+                        }
+                        LockSupport.parkNanos(this, BLOCKED_PARK_NANOS);
+                    }
+                    break;
+                case SPILL:
+                    if (spill.get().append(payload)) {
+                        spilled.increment();
+                        wakeSender();
+                        return true;
+                    }
+                    dropped.increment();
+                    return false;
+                default:
+                    dropped.increment();
+                    return false;
+            }
+        }
+
+        queue.offer(payload);
+        accepted.increment();
+        wakeSender();
+        return true;
+    }
+
+    /**
+     * Send every event offered so far, spilled events included.
+     *
+     * @return A future completed once every batch sent so far completed, whatever its outcome.
+     */
+    public CompletableFuture<Void> flush() {
+        Flush flush = new Flush(false);
+        queue.offer(flush);
+        wakeSender();
+        return flush.future;
+    }
+
+    /**
+     * Send every event offered so far, wait for the responses, then stop the sender thread.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        Flush flush = new Flush(true);
+        queue.offer(flush);
+        wakeSender();
+        flush.future.join();
+    }
+
+    /**
+     * Get the number of events put on the queue.
+     *
+     * @return long
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * Get the number of events dropped because the queue, or the spill file, was full.
+     *
+     * @return long
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the number of events appended to the spill file.
+     *
+     * @return long
+     */
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    /**
+     * Get the number of events delivered.
+     *
+     * @return long
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Get the number of events lost to a failed batch, or that could not be serialized within {@code maxBatchBytes}.
+     *
+     * @return long
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Get the number of batches sent.
+     *
+     * @return long
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Get the number of body bytes of the batches delivered.
+     *
+     * @return long
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Get the number of events waiting in the queue.
+     *
+     * @return int
+     */
+    public int getQueueSize() {
+        return queued.get();
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int size = queued.get();
+            if (size >= capacity) {
+                return false;
+            }
+            if (queued.compareAndSet(size, size + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void wakeSender() {
+        if (senderParked) {
+            LockSupport.unpark(sender);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Object item = queue.poll();
+            if (item instanceof Flush) {
+                Flush flush = (Flush) item;
+                drainSpill();
+                sendBatch();
+                CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0]))
+                        .whenComplete((ignored, throwable) -> flush.future.complete(null));
+                if (flush.last) {
+                    flush.future.join();
+                    // Events offered while the sink was closing.
+                    for (Object late = queue.poll(); late != null; late = queue.poll()) {
+                        if (!(late instanceof Flush)) {
+                            dropped.increment();
+                        } else {
+                            ((Flush) late).future.complete(null);
+                        }
+                    }
+                    return;
+                }
+                continue;
+            }
+            if (item != null) {
+                queued.decrementAndGet();
+                append(item);
+                continue;
+            }
+
+            byte[] spilledEvent = nextSpilled();
+            if (spilledEvent != null) {
+                append(spilledEvent);
+                continue;
+            }
+
+            long parkNanos = IDLE_PARK_NANOS;
+            if (batch != null) {
+                parkNanos = batch.startNanos + flushIntervalNanos - System.nanoTime();
+                if (parkNanos <= 0) {
+                    sendBatch();
+                    continue;
+                }
+            }
+            senderParked = true;
+            if (queue.isEmpty()) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+            senderParked = false;
+        }
+    }
+
+    /**
+     * Serialize an event, or copy a spilled one, at the end of the current batch.
+     */
+    private void append(Object event) {
+        if (batch == null) {
+            batch = new Batch(acquireBuffer());
+        }
+
+        int mark = batch.position;
+        try {
+            if (batch.count > 0) {
+                batch.write(',');
+            }
+            if (event instanceof byte[]) {
+                batch.write((byte[]) event);
+            } else {
+                WRITER.writeValue(batch, event);
+            }
+        } catch (IOException e) {
+            batch.position = mark;
+            if (!isOverflow(e)) {
+                log.error("Failed to serialize custom event", e);
+                failed.increment();
+            } else if (batch.count == 0) {
+                log.error("Custom event larger than the maximum batch size of " + maxBatchBytes + " bytes");
+                failed.increment();
+            } else {
+                sendBatch();
+                append(event);
+            }
+            return;
+        }
+
+        batch.count++;
+        if (batch.count >= maxBatchSize) {
+            sendBatch();
+        }
+    }
+
+    private static boolean isOverflow(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause == Batch.OVERFLOW) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendBatch() {
+        if (batch == null) {
+            return;
+        }
+        final Batch ready = batch;
+        batch = null;
+        if (ready.count == 0) {
+            buffers.offer(ready.buffer);
+            return;
+        }
+
+        // The batch buffer keeps a byte free for the closing bracket.
+        ready.buffer[ready.position++] = ']';
+        permits.acquireUninterruptibly();
+        batches.incrementAndGet();
+
+        CompletableFuture<Response<CustomEventResponse>> response;
+        try {
+            response = client.executeAsyncCF(new BatchRequest(ready.buffer, ready.position));
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+
+        final CompletableFuture<Response<CustomEventResponse>> tracked = response;
+        inFlight.add(tracked);
+        tracked.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.error("Failed to send " + ready.count + " custom events", throwable);
+                failed.add(ready.count);
+            } else if (!result.getBody().isPresent() || !result.getBody().get().isOk()) {
+                log.error("Custom event batch of " + ready.count + " events rejected, status " + result.getStatus()
+                        + ", response " + result.getBody().orElse(null));
+                failed.add(ready.count);
+            } else {
+                sent.add(ready.count);
+                bytesSent.addAndGet(ready.position);
+            }
+            buffers.offer(ready.buffer);
+            inFlight.remove(tracked);
+            permits.release();
+        });
+    }
+
+    private byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[maxBatchBytes];
+    }
+
+    private byte[] nextSpilled() {
+        if (!spill.isPresent()) {
+            return null;
+        }
+        try {
+            if (replay == null) {
+                replayPath = spill.get().rotate();
+                if (replayPath == null) {
+                    return null;
+                }
+                replay = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8);
+            }
+            String line = replay.readLine();
+            if (line != null) {
+                return line.getBytes(StandardCharsets.UTF_8);
+            }
+            replay.close();
+            replay = null;
+            spill.get().release(replayPath);
+        } catch (IOException e) {
+            log.error("Failed to replay custom event spill file " + replayPath, e);
+            replay = null;
+            spill.get().release(replayPath);
+        }
+        return null;
+    }
+
+    private void drainSpill() {
+        for (byte[] event = nextSpilled(); event != null || replay != null; event = nextSpilled()) {
+            if (event != null) {
+                append(event);
+            }
+        }
+    }
+
+    private static final class Flush {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final boolean last;
+
+        private Flush(boolean last) {
+            this.last = last;
+        }
+    }
+
+    /**
+     * The body of the batch being assembled, a JSON array written into a buffer of {@code maxBatchBytes}.
+     */
+    private static final class Batch extends OutputStream {
+        private static final IOException OVERFLOW = new IOException("Custom event batch is full") {
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+        };
+
+        private final byte[] buffer;
+        private final long startNanos = System.nanoTime();
+        private int position;
+        private int count;
+
+        private Batch(byte[] buffer) {
+            this.buffer = buffer;
+            this.buffer[position++] = '[';
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position >= buffer.length - 1) {
+                throw OVERFLOW;
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (position + length > buffer.length - 1) {
+                throw OVERFLOW;
+            }
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        @Override
+        public void close() {
+            // The buffer outlives the serializers writing into it.
+        }
+    }
+
+    /**
+     * Events spilled to disk, one JSON object per line. Producers append to the active file, the sender renames it
+     * away to replay it.
+     */
+    private static final class Spill {
+        private final Path directory;
+        private final long maxBytes;
+        private final AtomicLong bytes = new AtomicLong();
+        private Path active;
+        private OutputStream out;
+
+        private Spill(Path directory, long maxBytes) {
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized boolean append(CustomEventPayload payload) {
+            try {
+                byte[] json = WRITER.writeValueAsBytes(payload);
+                if (bytes.get() + json.length + 1 > maxBytes) {
+                    return false;
+                }
+                if (out == null) {
+                    active = Files.createTempFile(directory, "custom-events-", ".ndjson");
+                    out = new BufferedOutputStream(Files.newOutputStream(active, StandardOpenOption.WRITE));
+                }
+                out.write(json);
+                out.write('\n');
+                bytes.addAndGet(json.length + 1);
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to spill custom event to " + directory, e);
+                return false;
+            }
+        }
+
+        /**
+         * Close the active file and hand it over for replay.
+         *
+         * @return The file to replay, null if nothing was spilled since the last rotation.
+         */
+        private synchronized Path rotate() throws IOException {
+            if (out == null) {
+                return null;
+            }
+            out.close();
+            out = null;
+            return active;
+        }
+
+        /**
+         * Delete a replayed file.
+         */
+        private void release(Path replayed) {
+            try {
+                long size = Files.size(replayed);
+                Files.deleteIfExists(replayed);
+                bytes.addAndGet(-size);
+            } catch (IOException e) {
+                log.warn("Failed to delete custom event spill file " + replayed, e);
+            }
+        }
+    }
+
+    /**
+     * A custom events request whose body is a batch buffer.
+     */
+    private static class BatchRequest implements Request<CustomEventResponse> {
+        private final static String API_CUSTOM_EVENTS_PATH = "/api/custom-events/";
+        private static final ResponseParser<CustomEventResponse> RESPONSE_PARSER = JsonResponseParser.of(PushObjectMapper.getInstance(), CustomEventResponse.class);
+
+        private final byte[] buffer;
+        private final int length;
+
+        private BatchRequest(byte[] buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+
+        @Override
+        public ContentType getContentType() {
+            return ContentType.APPLICATION_JSON;
+        }
+
+        @Override
+        public RequestHeaders getStaticHeaders() {
+            return RequestHeaders.JSON;
+        }
+
+        @Override
+        public HttpMethod getHttpMethod() {
+            return HttpMethod.POST;
+        }
+
+        @Override
+        public String getRequestBody() {
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] getRequestBodyBytes() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        @Override
+        public Optional<BodyPublisher> getBodyPublisher() {
+            return Optional.of(new BodyPublisher() {
+                @Override
+                public long getContentLength() {
+                    return length;
+                }
+
+                @Override
+                public InputStream openStream() {
+                    return new ByteArrayInputStream(buffer, 0, length);
+                }
+            });
+        }
+
+        @Override
+        public URI getUri(URI baseUri) {
+            return RequestUtils.resolveURI(baseUri, API_CUSTOM_EVENTS_PATH);
+        }
+
+        @Override
+        public ResponseParser<CustomEventResponse> getResponseParser() {
+            return RESPONSE_PARSER;
+        }
+
+        @Override
+        public boolean bearerTokenAuthRequired() {
+            return true;
+        }
+
+        @Override
+        public boolean canUseBearerTokenAuth() {
+            return true;
+        }
+    }
+
+    /**
+     * CustomEventSink Builder.
+     */
+    public static class Builder {
+        private UrbanAirshipClient client;
+        private int maxBatchSize = 100;
+        private int maxBatchBytes = 1024 * 1024;
+        private long flushIntervalMs = 100;
+        private int capacity = 100000;
+        private int maxInFlight = 4;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private Path spillDirectory;
+        private long maxSpillBytes = 1024L * 1024 * 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client used to send the batches.
+         *
+         * @param client UrbanAirshipClient
+         * @return Builder
+         */
+        public Builder setClient(UrbanAirshipClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of events in a batch -- defaults to 100.
+         *
+         * @param maxBatchSize int
+         * @return Builder
+         */
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Set the maximum size of a batch body in bytes -- defaults to 1 MiB.
+         *
+         * @param maxBatchBytes int
+         * @return Builder
+         */
+        public Builder setMaxBatchBytes(int maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        /**
+         * Set how long the first event of a batch waits for more events, in milliseconds -- defaults to 100.
+         *
+         * @param flushIntervalMs long
+         * @return Builder
+         */
+        public Builder setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+            return this;
+        }
+
+        /**
+         * Set the number of events the queue holds -- defaults to 100000.
+         *
+         * @param capacity int
+         * @return Builder
+         */
+        public Builder setCapacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of batches in flight -- defaults to 4.
+         *
+         * @param maxInFlight int
+         * @return Builder
+         */
+        public Builder setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Set what happens to the events offered while the queue is full -- defaults to
+         * {@link OverflowPolicy#DROP}.
+         *
+         * @param overflowPolicy OverflowPolicy
+         * @return Builder
+         */
+        public Builder setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Set the directory of the spill files, required by {@link OverflowPolicy#SPILL}.
+         *
+         * @param spillDirectory Path
+         * @return Builder
+         */
+        public Builder setSpillDirectory(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * Set the maximum size of the spill files in bytes -- defaults to 1 GiB.
+         *
+         * @param maxSpillBytes long
+         * @return Builder
+         */
+        public Builder setMaxSpillBytes(long maxSpillBytes) {
+            this.maxSpillBytes = maxSpillBytes;
+            return this;
+        }
+
+        /**
+         * Build a CustomEventSink object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The maximum batch size must be positive.
+         * 3. The maximum batch bytes must be at least 3, room for a bracketed event.
+         * 4. The flush interval cannot be negative.
+         * 5. The capacity must be positive.
+         * 6. The maximum number of batches in flight must be positive.
+         * 7. The overflow policy must be set.
+         * 8. The spill directory must be a directory if the overflow policy is SPILL.
+         * 9. The maximum spill bytes must be positive.
+         * </pre>
+         *
+         * @return CustomEventSink
+         */
+        public CustomEventSink build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(maxBatchSize > 0, "max batch size must be positive");
+            Preconditions.checkArgument(maxBatchBytes >= 3, "max batch bytes must be at least 3");
+            Preconditions.checkArgument(flushIntervalMs >= 0, "flush interval cannot be negative");
+            Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+            Preconditions.checkArgument(maxInFlight > 0, "max in flight must be positive");
+            Preconditions.checkNotNull(overflowPolicy, "overflow policy must be set");
+            Preconditions.checkArgument(overflowPolicy != OverflowPolicy.SPILL
+                    || (spillDirectory != null && Files.isDirectory(spillDirectory)), "spill directory must be a directory");
+            Preconditions.checkArgument(maxSpillBytes > 0, "max spill bytes must be positive");
+
+            return new CustomEventSink(this);
+        }
+    }
+}
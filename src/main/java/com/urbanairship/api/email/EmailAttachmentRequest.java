@@ -6,14 +6,16 @@ package com.urbanairship.api.email;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.email.model.EmailAttachmentResponse;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,6 +37,8 @@ public class EmailAttachmentRequest implements Request<EmailAttachmentResponse>
         mapper.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<EmailAttachmentResponse> RESPONSE_PARSER = JsonResponseParser.of(mapper, EmailAttachmentResponse.class);
+
     /**
      * Build an email attachment request.
      *
@@ -83,11 +87,8 @@ public class EmailAttachmentRequest implements Request<EmailAttachmentResponse>
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -104,6 +105,15 @@ public class EmailAttachmentRequest implements Request<EmailAttachmentResponse>
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return mapper.writeValueAsBytes(this.payload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, EMAIL_ATTACHMENT_PATH);
@@ -111,7 +121,7 @@ public class EmailAttachmentRequest implements Request<EmailAttachmentResponse>
 
     @Override
     public ResponseParser<EmailAttachmentResponse> getResponseParser() {
-        return response -> mapper.readValue(response, EmailAttachmentResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
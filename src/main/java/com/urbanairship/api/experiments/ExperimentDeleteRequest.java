@@ -1,16 +1,14 @@
 package com.urbanairship.api.experiments;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The ExperimentRequest class builds delete experiment requests to be executed in
@@ -43,11 +41,8 @@ public class ExperimentDeleteRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
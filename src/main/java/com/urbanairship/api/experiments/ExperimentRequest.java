@@ -5,8 +5,9 @@
 package com.urbanairship.api.experiments;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.experiments.model.Experiment;
@@ -16,8 +17,6 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The ExperimentRequest class builds experiment requests to be executed in
@@ -27,6 +26,7 @@ public class ExperimentRequest implements Request<ExperimentResponse> {
 
     private final static String EXPERIMENT_PATH = "/api/experiments/";
     private final static String EXPERIMENT_VALIDATE_PATH = "/api/experiments/validate/";
+    private static final ResponseParser<ExperimentResponse> RESPONSE_PARSER = JsonResponseParser.of(ExperimentObjectMapper.getInstance(), ExperimentResponse.class);
 
     private final Experiment experiment;
     private boolean validateOnly;
@@ -63,11 +63,8 @@ public class ExperimentRequest implements Request<ExperimentResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -80,6 +77,11 @@ public class ExperimentRequest implements Request<ExperimentResponse> {
         return experiment.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return experiment.toJSONBytes();
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         String path  = validateOnly ? EXPERIMENT_VALIDATE_PATH : EXPERIMENT_PATH;
@@ -88,7 +90,7 @@ public class ExperimentRequest implements Request<ExperimentResponse> {
 
     @Override
     public ResponseParser<ExperimentResponse> getResponseParser() {
-        return response -> ExperimentObjectMapper.getInstance().readValue(response, ExperimentResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -4,16 +4,13 @@
 
 package com.urbanairship.api.experiments.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urbanairship.api.common.model.APIModelObject;
 import com.urbanairship.api.experiments.parse.ExperimentObjectMapper;
 
 public class ExperimentModelObject extends APIModelObject {
     @Override
-    public String toJSON() {
-        try {
-            return ExperimentObjectMapper.getInstance().writeValueAsString(this);
-        } catch ( Exception e ) {
-            return toJSON(e);
-        }
+    protected ObjectMapper getObjectMapper() {
+        return ExperimentObjectMapper.getInstance();
     }
 }
@@ -1,16 +1,18 @@
 package com.urbanairship.api.inbox;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.Constants;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.inbox.model.InboxBatchDeleteResponse;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +24,7 @@ import java.util.Map;
 public class InboxBatchDeleteRequest implements Request<InboxBatchDeleteResponse> {
     private final static ObjectMapper MAPPER = new ObjectMapper();
     private final static String API_INBOX_BATCH_DELETE = "/api/user/messages/batch-delete/";
+    private static final ResponseParser<InboxBatchDeleteResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, InboxBatchDeleteResponse.class);
     private final Map<String, List<String>> payload = new HashMap<>();
 
     private InboxBatchDeleteRequest(List<String> messageIds) {
@@ -44,11 +47,8 @@ public class InboxBatchDeleteRequest implements Request<InboxBatchDeleteResponse
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -65,6 +65,15 @@ public class InboxBatchDeleteRequest implements Request<InboxBatchDeleteResponse
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(payload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, API_INBOX_BATCH_DELETE);
@@ -72,7 +81,7 @@ public class InboxBatchDeleteRequest implements Request<InboxBatchDeleteResponse
 
     @Override
     public ResponseParser<InboxBatchDeleteResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response,InboxBatchDeleteResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -6,8 +6,8 @@ package com.urbanairship.api.inbox;
 
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -15,8 +15,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The InboxDeleteRequest class builds delete rich push requests to be executed in
@@ -47,10 +45,8 @@ public class InboxDeleteRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
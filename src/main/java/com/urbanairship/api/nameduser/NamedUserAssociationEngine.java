@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.nameduser;
+
+import com.google.common.base.Preconditions;
+import com.urbanairship.api.client.ClientException;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.nameduser.model.NamedUserAssociation;
+import com.urbanairship.api.nameduser.model.NamedUserUpdateChannel;
+import com.urbanairship.api.nameduser.model.NamedUserUpdateChannelAction;
+import com.urbanairship.api.nameduser.model.NamedUserUpdatePayload;
+import com.urbanairship.api.nameduser.model.NamedUserUpdateResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * NamedUserAssociationEngine associates, or disassociates, a stream of channels with their named users using as
+ * few {@link NamedUserUpdateRequest}s as possible, e.g. for a nightly reconciliation of millions of channels.
+ *
+ * The associations are read in windows of {@code windowSize}; the channels of a named user within a window share
+ * a request, up to {@code maxChannelsPerRequest} channels each. Reading the associations sorted by named user gets
+ * the fewest requests. At most {@code maxConcurrency} requests are in flight, reading waits for one to complete,
+ * so memory stays bounded however long the stream.
+ *
+ * Every association is reported to the {@link ResultCallback} once its request completes, on the client I/O thread;
+ * nothing is accumulated. A response outside 2xx, e.g. a 429, or one without an ok body is reported as an error.
+ * When a checkpoint file is set, the number of associations read and reported in full is written to it as the
+ * windows complete, by the thread calling {@link #run(Iterator)} rather than the I/O threads, and the next run
+ * skips them: a run that crashed resumes where it left off when given the same stream in the same order. At most
+ * the windows in flight at the crash are sent again, which the API accepts since associating a channel twice has no
+ * further effect. The checkpoint file is deleted once a run reads the stream to its end.
+ *
+ * <pre>
+ * NamedUserAssociationEngine engine = NamedUserAssociationEngine.newBuilder()
+ *     .setClient(client)
+ *     .setCheckpointFile(Paths.get("/var/lib/app/reconciliation.checkpoint"))
+ *     .setCallback(new NamedUserAssociationEngine.ResultCallback() {
+ *         public void completed(NamedUserAssociation association, NamedUserUpdateResponse response) { ... }
+ *         public void error(NamedUserAssociation association, Throwable throwable) { ... }
+ *     })
+ *     .build();
+ * engine.run(associations);
+ * </pre>
+ */
+public class NamedUserAssociationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(NamedUserAssociationEngine.class);
+
+    /**
+     * Receives the result of every association, from the client I/O threads.
+     */
+    public interface ResultCallback {
+
+        /**
+         * Called once the request carrying an association got a response.
+         *
+         * @param association The association.
+         * @param response The response of the request.
+         */
+        void completed(NamedUserAssociation association, NamedUserUpdateResponse response);
+
+        /**
+         * Called once the request carrying an association failed.
+         *
+         * @param association The association.
+         * @param throwable The request error.
+         */
+        void error(NamedUserAssociation association, Throwable throwable);
+    }
+
+    private final UrbanAirshipClient client;
+    private final NamedUserUpdateChannelAction action;
+    private final int windowSize;
+    private final int maxChannelsPerRequest;
+    private final int maxConcurrency;
+    private final Optional<Path> checkpointFile;
+    private final ResultCallback callback;
+
+    private final Object lock = new Object();
+    private final TreeMap<Long, Integer> windows = new TreeMap<>();
+    private long checkpoint;
+    // Confined to the thread calling run.
+    private long written;
+    private long skipped;
+    private long completed;
+    private long failed;
+    private long requests;
+
+    private NamedUserAssociationEngine(Builder builder) {
+        this.client = builder.client;
+        this.action = builder.action;
+        this.windowSize = builder.windowSize;
+        this.maxChannelsPerRequest = builder.maxChannelsPerRequest;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.checkpointFile = Optional.ofNullable(builder.checkpointFile);
+        this.callback = builder.callback;
+    }
+
+    /**
+     * New NamedUserAssociationEngine Builder.
+     *
+     * @return NamedUserAssociationEngine Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Send every association of a stream, skipping those a previous run checkpointed, and wait for the results.
+     * One run at a time.
+     *
+     * @param associations The associations, in the same order on every run when resuming from a checkpoint.
+     * @return The number of associations sent by this run.
+     * @throws IOException If the checkpoint file cannot be read or written.
+     * @throws InterruptedException If interrupted while waiting for requests; those in flight still complete.
+     */
+    public long run(Iterator<NamedUserAssociation> associations) throws IOException, InterruptedException {
+        long position = readCheckpoint();
+        synchronized (lock) {
+            windows.clear();
+            checkpoint = position;
+            skipped = 0;
+            completed = 0;
+            failed = 0;
+            requests = 0;
+        }
+
+        long skipping = 0;
+        while (skipping < position && associations.hasNext()) {
+            associations.next();
+            skipping++;
+        }
+        if (skipping > 0) {
+            log.info(String.format("Resuming named user associations after %d already sent", skipping));
+        }
+        synchronized (lock) {
+            skipped = skipping;
+        }
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        written = position;
+        long end = position;
+        while (associations.hasNext()) {
+            Map<String, List<NamedUserAssociation>> window = new LinkedHashMap<>();
+            int size = 0;
+            while (size < windowSize && associations.hasNext()) {
+                NamedUserAssociation association = associations.next();
+                window.computeIfAbsent(association.getNamedUserId(), k -> new ArrayList<>()).add(association);
+                size++;
+            }
+            end += size;
+
+            List<List<NamedUserAssociation>> chunks = new ArrayList<>();
+            for (List<NamedUserAssociation> namedUserAssociations : window.values()) {
+                for (int i = 0; i < namedUserAssociations.size(); i += maxChannelsPerRequest) {
+                    chunks.add(namedUserAssociations.subList(i, Math.min(namedUserAssociations.size(), i + maxChannelsPerRequest)));
+                }
+            }
+            synchronized (lock) {
+                windows.put(end, chunks.size());
+            }
+            for (List<NamedUserAssociation> chunk : chunks) {
+                permits.acquire();
+                flushCheckpoint();
+                send(chunk, end, permits);
+            }
+        }
+
+        // Every completed request releases a permit, the checkpoint is written as the last ones come in.
+        for (int i = 0; i < maxConcurrency; i++) {
+            permits.acquire();
+            flushCheckpoint();
+        }
+        permits.release(maxConcurrency);
+
+        if (checkpointFile.isPresent()) {
+            Files.deleteIfExists(checkpointFile.get());
+        }
+        return end - position;
+    }
+
+    /**
+     * Get the number of associations the last run skipped, checkpointed by an earlier run.
+     *
+     * @return long
+     */
+    public long getSkippedCount() {
+        synchronized (lock) {
+            return skipped;
+        }
+    }
+
+    /**
+     * Get the number of associations whose request got a response in the last run.
+     *
+     * @return long
+     */
+    public long getCompletedCount() {
+        synchronized (lock) {
+            return completed;
+        }
+    }
+
+    /**
+     * Get the number of associations whose request failed in the last run.
+     *
+     * @return long
+     */
+    public long getFailedCount() {
+        synchronized (lock) {
+            return failed;
+        }
+    }
+
+    /**
+     * Get the number of requests sent in the last run.
+     *
+     * @return long
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+
+    /**
+     * Get the number of associations read and reported in full, from the start of the stream.
+     *
+     * @return long
+     */
+    public long getCheckpoint() {
+        synchronized (lock) {
+            return checkpoint;
+        }
+    }
+
+    private void send(List<NamedUserAssociation> chunk, long windowEnd, Semaphore permits) {
+        NamedUserUpdatePayload.Builder payload = NamedUserUpdatePayload.newBuilder()
+                .setAction(action);
+        for (NamedUserAssociation association : chunk) {
+            payload.addNamedUserUpdateChannel(NamedUserUpdateChannel.newBuilder()
+                    .addChannel(association.getDeviceType(), association.getChannelId())
+                    .build());
+        }
+        NamedUserUpdateRequest request = NamedUserUpdateRequest.newRequest(chunk.get(0).getNamedUserId(), payload.build());
+
+        synchronized (lock) {
+            requests++;
+        }
+        CompletableFuture<Response<NamedUserUpdateResponse>> future;
+        try {
+            future = client.executeAsyncCF(request);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, thrown) -> {
+            try {
+                Throwable throwable = thrown != null ? thrown : failureOf(response);
+                synchronized (lock) {
+                    if (throwable == null) {
+                        completed += chunk.size();
+                    } else {
+                        failed += chunk.size();
+                    }
+                }
+                for (NamedUserAssociation association : chunk) {
+                    try {
+                        if (throwable == null) {
+                            callback.completed(association, response.getBody().get());
+                        } else {
+                            callback.error(association, throwable);
+                        }
+                    } catch (RuntimeException e) {
+                        log.error("Named user association callback failed", e);
+                    }
+                }
+                complete(windowEnd);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * The error a response stands for: a status outside 2xx, such as a 429 or a 400 the client returns rather than
+     * throws, a missing body, or a body that is not ok. Null for a successful response.
+     */
+    private static Throwable failureOf(Response<NamedUserUpdateResponse> response) {
+        if (response.getStatus() < 200 || response.getStatus() >= 300) {
+            return ClientException.newBuilder()
+                    .setStatusCode(response.getStatus())
+                    .setStatusText(String.format("Named user update failed, status %d", response.getStatus()))
+                    .build();
+        }
+        if (!response.getBody().isPresent()) {
+            return new IllegalStateException("Named user update response has no body, status " + response.getStatus());
+        }
+        if (!response.getBody().get().isOk()) {
+            return new IllegalStateException("Named user update failed: "
+                    + response.getBody().get().getError().orElse("unknown error"));
+        }
+        return null;
+    }
+
+    /**
+     * Count down the requests of a window and advance the checkpoint past every window reported in full, in order.
+     * The checkpoint is only written by {@link #flushCheckpoint()}, this runs on the client I/O threads.
+     */
+    private void complete(long windowEnd) {
+        synchronized (lock) {
+            windows.put(windowEnd, windows.get(windowEnd) - 1);
+            while (!windows.isEmpty() && windows.firstEntry().getValue() == 0) {
+                checkpoint = windows.pollFirstEntry().getKey();
+            }
+        }
+    }
+
+    /**
+     * Write the checkpoint if it advanced since it was last written. Called from the thread running the engine
+     * only, so the checkpoints land in order without holding the lock on disk I/O.
+     */
+    private void flushCheckpoint() throws IOException {
+        long position;
+        synchronized (lock) {
+            position = checkpoint;
+        }
+        if (position != written) {
+            writeCheckpoint(position);
+            written = position;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!checkpointFile.isPresent() || !Files.exists(checkpointFile.get())) {
+            return 0;
+        }
+        String value = new String(Files.readAllBytes(checkpointFile.get()), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid named user association checkpoint in " + checkpointFile.get(), e);
+        }
+    }
+
+    private void writeCheckpoint(long position) throws IOException {
+        if (!checkpointFile.isPresent()) {
+            return;
+        }
+        Path file = checkpointFile.get();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, Long.toString(position).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * NamedUserAssociationEngine Builder.
+     */
+    public static class Builder {
+        private UrbanAirshipClient client;
+        private NamedUserUpdateChannelAction action = NamedUserUpdateChannelAction.ASSOCIATE;
+        private int windowSize = 10000;
+        private int maxChannelsPerRequest = 100;
+        private int maxConcurrency = 8;
+        private Path checkpointFile;
+        private ResultCallback callback;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client the requests are sent with.
+         *
+         * @param client UrbanAirshipClient
+         * @return Builder
+         */
+        public Builder setClient(UrbanAirshipClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set whether the channels are associated or disassociated -- defaults to ASSOCIATE.
+         *
+         * @param action NamedUserUpdateChannelAction
+         * @return Builder
+         */
+        public Builder setAction(NamedUserUpdateChannelAction action) {
+            this.action = action;
+            return this;
+        }
+
+        /**
+         * Set the number of associations grouped per named user at a time -- defaults to 10000.
+         *
+         * @param windowSize int
+         * @return Builder
+         */
+        public Builder setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of channels in a request -- defaults to 100.
+         *
+         * @param maxChannelsPerRequest int
+         * @return Builder
+         */
+        public Builder setMaxChannelsPerRequest(int maxChannelsPerRequest) {
+            this.maxChannelsPerRequest = maxChannelsPerRequest;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of requests in flight -- defaults to 8.
+         *
+         * @param maxConcurrency int
+         * @return Builder
+         */
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Set the file the progress of a run is written to, and resumed from -- defaults to none.
+         *
+         * @param checkpointFile Path
+         * @return Builder
+         */
+        public Builder setCheckpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * Set the callback receiving the result of every association.
+         *
+         * @param callback ResultCallback
+         * @return Builder
+         */
+        public Builder setCallback(ResultCallback callback) {
+            this.callback = callback;
+            return this;
+        }
+
+        /**
+         * Build a NamedUserAssociationEngine object. Will fail if any of the following preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The action must be set.
+         * 3. The window size must be positive.
+         * 4. The maximum number of channels per request must be positive.
+         * 5. The maximum concurrency must be positive.
+         * 6. The callback must be set.
+         * </pre>
+         *
+         * @return NamedUserAssociationEngine
+         */
+        public NamedUserAssociationEngine build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkNotNull(action, "action must be set");
+            Preconditions.checkArgument(windowSize > 0, "window size must be positive");
+            Preconditions.checkArgument(maxChannelsPerRequest > 0, "max channels per request must be positive");
+            Preconditions.checkArgument(maxConcurrency > 0, "max concurrency must be positive");
+            Preconditions.checkNotNull(callback, "callback must be set");
+
+            return new NamedUserAssociationEngine(this);
+        }
+    }
+}
@@ -5,19 +5,21 @@
 package com.urbanairship.api.nameduser;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.google.common.collect.ImmutableList;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.nameduser.model.NamedUserListingResponse;
+import com.urbanairship.api.nameduser.model.NamedUserView;
 import com.urbanairship.api.nameduser.parse.NamedUserObjectMapper;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The NamedUserListingRequest class builds named user listing requests to be executed in
@@ -26,6 +28,7 @@ import java.util.Map;
 public class NamedUserListingRequest implements Request<NamedUserListingResponse> {
 
     private final static String API_NAMED_USERS_GET = "/api/named_users/";
+    private static final ResponseParser<NamedUserListingResponse> RESPONSE_PARSER = JsonResponseParser.of(NamedUserObjectMapper.getInstance(), NamedUserListingResponse.class);
 
     private final String path;
 
@@ -63,17 +66,29 @@ public class NamedUserListingRequest implements Request<NamedUserListingResponse
         return new NamedUserListingRequest(nextPage.getPath() + "?" + nextPage.getQuery());
     }
 
+    /**
+     * Create a paginator walking every page of this named user listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<NamedUserListingResponse, NamedUserView> paginator() {
+        return Paginator.<NamedUserListingResponse, NamedUserView>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(NamedUserListingRequest::newRequest)
+                .setNextPage(NamedUserListingResponse::getNextPage)
+                .setItems(response -> response.getNamedUserViews().orElse(ImmutableList.of()))
+                .build();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -93,7 +108,7 @@ public class NamedUserListingRequest implements Request<NamedUserListingResponse
 
     @Override
     public ResponseParser<NamedUserListingResponse> getResponseParser() {
-        return response -> NamedUserObjectMapper.getInstance().readValue(response, NamedUserListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
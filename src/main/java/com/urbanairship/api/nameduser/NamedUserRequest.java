@@ -5,9 +5,9 @@
 package com.urbanairship.api.nameduser;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.ChannelType;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -15,6 +15,7 @@ import com.urbanairship.api.nameduser.parse.NamedUserObjectMapper;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -105,11 +106,8 @@ public class NamedUserRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -119,6 +117,25 @@ public class NamedUserRequest implements Request<GenericResponse> {
 
     @Override
     public String getRequestBody() {
+        Map<String, String> requestPayload = buildPayload();
+        try {
+            return NamedUserObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception e) {
+            return "{ \"exception\" : \"" + e.getClass().getName() + "\", \"message\" : \"" + e.getMessage() + "\" }";
+        }
+    }
+
+    @Override
+    public byte[] getRequestBodyBytes() {
+        Map<String, String> requestPayload = buildPayload();
+        try {
+            return NamedUserObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception e) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private Map<String, String> buildPayload() {
         Preconditions.checkArgument(!payload.isEmpty(), "Request payload cannot be empty");
         Preconditions.checkArgument(payload.containsKey(CHANNEL_KEY) || payload.containsKey(EMAIL_KEY), "Channel ID or email address is required for named user association or disassociation requests.");
         Preconditions.checkArgument(!(payload.containsKey(CHANNEL_KEY) && payload.containsKey(EMAIL_KEY)), "Both Channel ID and email cannot be set. Set either the channel ID or the email address.");
@@ -127,11 +144,7 @@ public class NamedUserRequest implements Request<GenericResponse> {
             Preconditions.checkArgument(payload.containsKey(NAMED_USER_ID_KEY), "Named User ID required for named user association requests");
         }
 
-        try {
-            return NamedUserObjectMapper.getInstance().writeValueAsString(payload);
-        } catch (Exception e) {
-            return "{ \"exception\" : \"" + e.getClass().getName() + "\", \"message\" : \"" + e.getMessage() + "\" }";
-        }
+        return payload;
     }
 
     @Override
@@ -1,10 +1,11 @@
 package com.urbanairship.api.nameduser;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.model.attributes.ChannelAttributesPayload;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -12,13 +13,12 @@ import com.urbanairship.api.nameduser.model.NamedUserScopedPayload;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 public class NamedUserScopedRequest implements Request<GenericResponse> {
 
     private final ObjectMapper MAPPER = ChannelObjectMapper.getInstance();
     private final static String API_CHANNELS_ATTRIBUTES = "/api/named_users/scoped/";
+    private static final ResponseParser<GenericResponse> RESPONSE_PARSER = JsonResponseParser.of(ChannelObjectMapper.getInstance(), GenericResponse.class);
     private final String path;
     private final NamedUserScopedPayload payload;
 
@@ -48,17 +48,19 @@ public class NamedUserScopedRequest implements Request<GenericResponse> {
         return payload.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return payload.toJSONBytes();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -68,7 +70,7 @@ public class NamedUserScopedRequest implements Request<GenericResponse> {
 
     @Override
     public ResponseParser<GenericResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, GenericResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -5,8 +5,8 @@
 package com.urbanairship.api.nameduser;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -14,6 +14,7 @@ import com.urbanairship.api.nameduser.parse.NamedUserObjectMapper;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -121,11 +122,8 @@ public class NamedUserTagRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -135,6 +133,25 @@ public class NamedUserTagRequest implements Request<GenericResponse> {
 
     @Override
     public String getRequestBody() {
+        Map<String, Map<String, Set<String>>> requestPayload = buildPayload();
+        try {
+            return NamedUserObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception e) {
+            return "{ \"exception\" : \"" + e.getClass().getName() + "\", \"message\" : \"" + e.getMessage() + "\" }";
+        }
+    }
+
+    @Override
+    public byte[] getRequestBodyBytes() {
+        Map<String, Map<String, Set<String>>> requestPayload = buildPayload();
+        try {
+            return NamedUserObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception e) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private Map<String, Map<String, Set<String>>> buildPayload() {
         final Map<String, Map<String, Set<String>>> payload = new HashMap<String, Map<String, Set<String>>>();
 
         payload.put(AUDIENCE_KEY, audience);
@@ -156,11 +173,7 @@ public class NamedUserTagRequest implements Request<GenericResponse> {
             Preconditions.checkArgument(!payload.containsKey(REMOVE_KEY) && !payload.containsKey(ADD_KEY));
         }
 
-        try {
-            return NamedUserObjectMapper.getInstance().writeValueAsString(payload);
-        } catch (Exception e) {
-            return "{ \"exception\" : \"" + e.getClass().getName() + "\", \"message\" : \"" + e.getMessage() + "\" }";
-        }
+        return payload;
     }
 
     @Override
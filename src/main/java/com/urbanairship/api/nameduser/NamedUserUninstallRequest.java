@@ -1,16 +1,17 @@
 package com.urbanairship.api.nameduser;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.Constants;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -43,11 +44,8 @@ public class NamedUserUninstallRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -64,6 +62,15 @@ public class NamedUserUninstallRequest implements Request<GenericResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(payload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, API_NAMED_USERS_UNINSTALL_PATH);
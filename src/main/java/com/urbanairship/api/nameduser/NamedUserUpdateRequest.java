@@ -2,8 +2,9 @@ package com.urbanairship.api.nameduser;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.nameduser.model.NamedUserUpdatePayload;
@@ -14,12 +15,11 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 public class NamedUserUpdateRequest implements Request<NamedUserUpdateResponse> {
     private final static String API_NAMED_USER = "/api/named_users/";
     private final static ObjectMapper MAPPER = NamedUserObjectMapper.getInstance();
+    private static final ResponseParser<NamedUserUpdateResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, NamedUserUpdateResponse.class);
 
     private final String namedUser;
     private final String path;
@@ -53,17 +53,19 @@ public class NamedUserUpdateRequest implements Request<NamedUserUpdateResponse>
         return payload.toJSON();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        return payload.toJSONBytes();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -73,7 +75,7 @@ public class NamedUserUpdateRequest implements Request<NamedUserUpdateResponse>
 
     @Override
     public ResponseParser<NamedUserUpdateResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, NamedUserUpdateResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
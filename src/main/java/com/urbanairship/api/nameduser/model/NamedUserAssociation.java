@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.nameduser.model;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * A channel to associate with, or disassociate from, a named user, as read by the
+ * {@link com.urbanairship.api.nameduser.NamedUserAssociationEngine}.
+ */
+public class NamedUserAssociation {
+    private final String namedUserId;
+    private final String channelId;
+    private final NamedUserUpdateDeviceType deviceType;
+
+    private NamedUserAssociation(Builder builder) {
+        this.namedUserId = builder.namedUserId;
+        this.channelId = builder.channelId;
+        this.deviceType = builder.deviceType;
+    }
+
+    /**
+     * New NamedUserAssociation builder.
+     *
+     * @return Builder
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the named user ID.
+     *
+     * @return String namedUserId
+     */
+    public String getNamedUserId() {
+        return namedUserId;
+    }
+
+    /**
+     * Get the channel ID.
+     *
+     * @return String channelId
+     */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * Get the device type of the channel.
+     *
+     * @return NamedUserUpdateDeviceType deviceType
+     */
+    public NamedUserUpdateDeviceType getDeviceType() {
+        return deviceType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NamedUserAssociation that = (NamedUserAssociation) o;
+        return Objects.equal(namedUserId, that.namedUserId)
+                && Objects.equal(channelId, that.channelId)
+                && deviceType == that.deviceType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(namedUserId, channelId, deviceType);
+    }
+
+    @Override
+    public String toString() {
+        return "NamedUserAssociation{" +
+                "namedUserId=" + namedUserId +
+                ", channelId=" + channelId +
+                ", deviceType=" + deviceType +
+                '}';
+    }
+
+    /**
+     * NamedUserAssociation Builder
+     */
+    public static class Builder {
+        private String namedUserId;
+        private String channelId;
+        private NamedUserUpdateDeviceType deviceType;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the named user ID.
+         *
+         * @param namedUserId String
+         * @return Builder
+         */
+        public Builder setNamedUserId(String namedUserId) {
+            this.namedUserId = namedUserId;
+            return this;
+        }
+
+        /**
+         * Set the channel and its device type.
+         *
+         * @param deviceType NamedUserUpdateDeviceType
+         * @param channelId String
+         * @return Builder
+         */
+        public Builder setChannel(NamedUserUpdateDeviceType deviceType, String channelId) {
+            this.deviceType = deviceType;
+            this.channelId = channelId;
+            return this;
+        }
+
+        /**
+         * Build a NamedUserAssociation object. Will fail if any of the following preconditions are not met.
+         * <pre>
+         * 1. The named user ID must be set.
+         * 2. The channel ID must be set.
+         * 3. The device type must be set.
+         * </pre>
+         *
+         * @return NamedUserAssociation
+         */
+        public NamedUserAssociation build() {
+            Preconditions.checkArgument(StringUtils.isNotEmpty(namedUserId), "Named user ID must be set");
+            Preconditions.checkArgument(StringUtils.isNotEmpty(channelId), "Channel ID must be set");
+            Preconditions.checkNotNull(deviceType, "Device type must be set");
+
+            return new NamedUserAssociation(this);
+        }
+    }
+}
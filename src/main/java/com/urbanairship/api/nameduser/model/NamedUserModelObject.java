@@ -5,14 +5,8 @@ import com.urbanairship.api.common.model.APIModelObject;
 import com.urbanairship.api.nameduser.parse.NamedUserObjectMapper;
 
 public class NamedUserModelObject extends APIModelObject {
-    private final ObjectMapper MAPPER = NamedUserObjectMapper.getInstance();
-
     @Override
-    public String toJSON() {
-        try {
-            return MAPPER.writeValueAsString(this);
-        } catch (Exception e) {
-            return toJSON(e);
-        }
+    protected ObjectMapper getObjectMapper() {
+        return NamedUserObjectMapper.getInstance();
     }
 }
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2013-2016.  Urban Airship and Contributors
+ */
+
+package com.urbanairship.api.push;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
+import com.urbanairship.api.client.RequestUtils;
+import com.urbanairship.api.client.Response;
+import com.urbanairship.api.client.ResponseParser;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.push.model.PushPayload;
+import com.urbanairship.api.push.model.PushResponse;
+import com.urbanairship.api.push.parse.PushObjectMapper;
+import org.apache.http.entity.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PushBatcher coalesces individual pushes into batch push requests. Payloads can be added from any number of
+ * threads; a batch is sent as soon as it holds {@code maxBatchSize} payloads, would exceed {@code maxBatchBytes}
+ * of JSON, or its first payload has waited {@code lingerMs}.
+ *
+ * Each payload is serialized once, when it is added, and the batch body is assembled from those bytes in a
+ * single pass. Every caller gets a future for its own payload, completed with its slice of the batch response:
+ * the shared operation id and status, and the push, message, content URL and localized ids at the payload's
+ * position whenever the API returned exactly one per payload. When it did not, the slice carries none of those ids.
+ * Futures are completed on the client I/O thread, use the async variants of the CompletableFuture methods for
+ * anything expensive.
+ *
+ * The API validates a batch as a whole: a single invalid payload gets the entire batch rejected with a 400, and
+ * every caller of that batch is completed with the same error response, not only the one that added the bad payload.
+ * Validate payloads before adding them when one caller must not fail the others.
+ *
+ * Closing the batcher sends the pending batch; it does not close the UrbanAirshipClient.
+ */
+public class PushBatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PushBatcher.class);
+
+    private final UrbanAirshipClient client;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final long lingerMs;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+
+    private final Object lock = new Object();
+    private Batch batch = new Batch();
+    private ScheduledFuture<?> lingerTask;
+    private boolean closed;
+
+    private PushBatcher(Builder builder) {
+        this.client = builder.client;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxBatchBytes = builder.maxBatchBytes;
+        this.lingerMs = builder.lingerMs;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("ua-push-batcher-%d")
+                        .setDaemon(true)
+                        .build())
+                : builder.scheduler;
+    }
+
+    /**
+     * New PushBatcher Builder.
+     *
+     * @return PushBatcher Builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Add a payload to the current batch.
+     *
+     * @param payload PushPayload
+     * @return A future completed with the response slice for this payload.
+     */
+    public CompletableFuture<PushResponse> add(PushPayload payload) {
+        Preconditions.checkNotNull(payload, "Payload required when adding to a push batch");
+
+        CompletableFuture<PushResponse> future = new CompletableFuture<>();
+        byte[] json;
+        try {
+            json = PushObjectMapper.getInstance().writeValueAsBytes(payload);
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        List<Batch> ready = new ArrayList<>(2);
+        synchronized (lock) {
+            Preconditions.checkState(!closed, "Push batcher is closed");
+
+            if (!batch.isEmpty() && batch.sizeWith(json) > maxBatchBytes) {
+                ready.add(takeBatch());
+            }
+
+            batch.add(json, future);
+
+            if (batch.count() >= maxBatchSize || batch.size() >= maxBatchBytes) {
+                ready.add(takeBatch());
+            } else if (batch.count() == 1) {
+                final Batch lingering = batch;
+                lingerTask = scheduler.schedule(() -> flush(lingering), lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        for (Batch full : ready) {
+            send(full);
+        }
+        return future;
+    }
+
+    /**
+     * Send the current batch right away, if it holds any payload.
+     */
+    public void flush() {
+        Batch ready;
+        synchronized (lock) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            ready = takeBatch();
+        }
+        send(ready);
+    }
+
+    /**
+     * Send the pending batch and stop accepting payloads.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void flush(Batch lingering) {
+        Batch ready;
+        synchronized (lock) {
+            // The batch may already have been sent because it filled up.
+            if (batch != lingering || batch.isEmpty()) {
+                return;
+            }
+            ready = takeBatch();
+        }
+        send(ready);
+    }
+
+    private Batch takeBatch() {
+        Batch ready = batch;
+        batch = new Batch();
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return ready;
+    }
+
+    private void send(final Batch ready) {
+        final List<CompletableFuture<PushResponse>> futures = ready.futures;
+        CompletableFuture<Response<PushResponse>> response;
+        try {
+            response = client.executeAsyncCF(new BatchRequest(ready.toBytes()));
+        } catch (RuntimeException e) {
+            log.error("Failed to send push batch", e);
+            fail(futures, e);
+            return;
+        }
+
+        response.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                fail(futures, throwable);
+            } else if (!result.getBody().isPresent()) {
+                fail(futures, new IllegalStateException("Push batch response has no body, status " + result.getStatus()));
+            } else {
+                for (int i = 0; i < futures.size(); i++) {
+                    futures.get(i).complete(slice(result.getBody().get(), i, futures.size()));
+                }
+            }
+        });
+    }
+
+    private static void fail(List<CompletableFuture<PushResponse>> futures, Throwable throwable) {
+        for (CompletableFuture<PushResponse> future : futures) {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Extract the response for the payload at {@code index} of a batch of {@code count} payloads.
+     */
+    static PushResponse slice(PushResponse response, int index, int count) {
+        PushResponse.Builder builder = PushResponse.newBuilder()
+                .setOk(response.getOk());
+
+        if (response.getOperationId().isPresent()) {
+            builder.setOperationId(response.getOperationId().get());
+        }
+        if (response.getError().isPresent()) {
+            builder.setError(response.getError().get());
+        }
+        if (response.getErrorDetails().isPresent()) {
+            builder.setErrorDetails(response.getErrorDetails().get());
+        }
+
+        builder.addAllPushIds(slice(response.getPushIds(), index, count));
+        builder.addAllMessageIds(slice(response.getMessageIds(), index, count));
+        builder.addAllContentUrls(slice(response.getContentUrls(), index, count));
+        builder.addAllLocalizedIds(slice(response.getLocalizedIds(), index, count));
+
+        return builder.build();
+    }
+
+    private static List<String> slice(Optional<ImmutableList<String>> ids, int index, int count) {
+        if (!ids.isPresent()) {
+            return ImmutableList.of();
+        }
+        if (ids.get().size() != count) {
+            // The ids can not be attributed to payloads, handing them all over would credit every caller with them.
+            return ImmutableList.of();
+        }
+        return ImmutableList.of(ids.get().get(index));
+    }
+
+    /**
+     * The serialized payloads of a batch and their futures.
+     */
+    private static class Batch {
+        private final List<byte[]> payloads = new ArrayList<>();
+        private final List<CompletableFuture<PushResponse>> futures = new ArrayList<>();
+        // Size of the JSON array: brackets and separating commas included.
+        private int size = 2;
+
+        private void add(byte[] json, CompletableFuture<PushResponse> future) {
+            size = sizeWith(json);
+            payloads.add(json);
+            futures.add(future);
+        }
+
+        private int sizeWith(byte[] json) {
+            return size + json.length + (payloads.isEmpty() ? 0 : 1);
+        }
+
+        private boolean isEmpty() {
+            return payloads.isEmpty();
+        }
+
+        private int count() {
+            return payloads.size();
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private byte[] toBytes() {
+            if (payloads.size() == 1) {
+                return payloads.get(0);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+            out.write('[');
+            for (int i = 0; i < payloads.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                byte[] json = payloads.get(i);
+                out.write(json, 0, json.length);
+            }
+            out.write(']');
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * A push request whose body was already serialized by the batcher.
+     */
+    private static class BatchRequest implements Request<PushResponse> {
+        private final static String API_PUSH_PATH = "/api/push/";
+        private static final ResponseParser<PushResponse> RESPONSE_PARSER = JsonResponseParser.of(PushObjectMapper.getInstance(), PushResponse.class);
+
+        private final byte[] body;
+
+        private BatchRequest(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public ContentType getContentType() {
+            return ContentType.APPLICATION_JSON;
+        }
+
+        @Override
+        public RequestHeaders getStaticHeaders() {
+            return RequestHeaders.JSON;
+        }
+
+        @Override
+        public HttpMethod getHttpMethod() {
+            return HttpMethod.POST;
+        }
+
+        @Override
+        public String getRequestBody() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] getRequestBodyBytes() {
+            return body;
+        }
+
+        @Override
+        public URI getUri(URI baseUri) {
+            return RequestUtils.resolveURI(baseUri, API_PUSH_PATH);
+        }
+
+        @Override
+        public ResponseParser<PushResponse> getResponseParser() {
+            return RESPONSE_PARSER;
+        }
+
+        @Override
+        public boolean bearerTokenAuthRequired() {
+            return false;
+        }
+
+        @Override
+        public boolean canUseBearerTokenAuth() {
+            return true;
+        }
+    }
+
+    /**
+     * PushBatcher Builder.
+     */
+    public static class Builder {
+        private UrbanAirshipClient client;
+        private int maxBatchSize = 100;
+        private int maxBatchBytes = 1024 * 1024;
+        private long lingerMs = 50;
+        private ScheduledExecutorService scheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the client used to send the batches.
+         *
+         * @param client UrbanAirshipClient
+         * @return Builder
+         */
+        public Builder setClient(UrbanAirshipClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of payloads in a batch -- defaults to 100.
+         *
+         * @param maxBatchSize int
+         * @return Builder
+         */
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Set the maximum size in bytes of a batch body -- defaults to 1 MiB. A single payload larger than
+         * this is sent on its own.
+         *
+         * @param maxBatchBytes int
+         * @return Builder
+         */
+        public Builder setMaxBatchBytes(int maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        /**
+         * Set how long the first payload of a batch waits for more payloads, in milliseconds -- defaults to 50.
+         *
+         * @param lingerMs long
+         * @return Builder
+         */
+        public Builder setLingerMs(long lingerMs) {
+            this.lingerMs = lingerMs;
+            return this;
+        }
+
+        /**
+         * Set the scheduler running the linger timeouts -- defaults to a daemon thread owned by the batcher.
+         * A scheduler set here is not shut down when the batcher is closed.
+         *
+         * @param scheduler ScheduledExecutorService
+         * @return Builder
+         */
+        public Builder setScheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Build a PushBatcher object. Will fail if any of the following
+         * preconditions are not met.
+         * <pre>
+         * 1. The client must be set.
+         * 2. The maximum batch size must be positive.
+         * 3. The maximum batch bytes must be positive.
+         * 4. The linger time cannot be negative.
+         * </pre>
+         *
+         * @return PushBatcher
+         */
+        public PushBatcher build() {
+            Preconditions.checkNotNull(client, "client must be set");
+            Preconditions.checkArgument(maxBatchSize > 0, "max batch size must be positive");
+            Preconditions.checkArgument(maxBatchBytes > 0, "max batch bytes must be positive");
+            Preconditions.checkArgument(lingerMs >= 0, "linger time cannot be negative");
+
+            return new PushBatcher(this);
+        }
+    }
+}
@@ -4,12 +4,13 @@ package com.urbanairship.api.push;
  * Copyright (c) 2013-2016.  Urban Airship and Contributors
  */
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.push.model.PushPayload;
@@ -18,11 +19,11 @@ import com.urbanairship.api.push.parse.PushObjectMapper;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The PushRequest class builds push and push validation requests to be executed in
@@ -32,6 +33,7 @@ public class PushRequest implements Request<PushResponse> {
 
     private final static String API_PUSH_PATH = "/api/push/";
     private final static String API_VALIDATE_PATH = "/api/push/validate/";
+    private static final ResponseParser<PushResponse> RESPONSE_PARSER = JsonResponseParser.of(PushObjectMapper.getInstance(), PushResponse.class);
 
     private final List<PushPayload> payloads = new ArrayList<>();
     private boolean validateOnly;
@@ -113,11 +115,8 @@ public class PushRequest implements Request<PushResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -127,24 +126,36 @@ public class PushRequest implements Request<PushResponse> {
 
     @Override
     public String getRequestBody() {
-        if (this.payloads.size() == 1) {
-            return this.payloads.get(0).toJSON();
-        }
-
-        ObjectMapper mapper = new ObjectMapper();
+        return new String(getRequestBodyBytes(), StandardCharsets.UTF_8);
+    }
 
-        ArrayNode arrayNode = mapper.createArrayNode();
+    /**
+     * Get the request body as UTF-8 JSON: the payload for a single push, an array of payloads for a batch.
+     * The payloads are written in a single pass straight to the bytes, without an intermediate String or tree,
+     * and the body is returned in an array of its exact size.
+     *
+     * @return The request body.
+     */
+    @Override
+    public byte[] getRequestBodyBytes() {
+        ObjectMapper mapper = PushObjectMapper.getInstance();
+        try {
+            if (payloads.size() == 1) {
+                return mapper.writeValueAsBytes(payloads.get(0));
+            }
 
-        for (PushPayload pushPayload : this.payloads) {
-            try {
-                JsonNode pushJson = mapper.readTree(pushPayload.toJSON());
-                arrayNode.add(pushJson);
-            } catch (IOException e) {
-                e.printStackTrace();
+            ByteArrayBuilder buffer = new ByteArrayBuilder();
+            try (JsonGenerator generator = mapper.createGenerator(buffer)) {
+                generator.writeStartArray();
+                for (PushPayload payload : payloads) {
+                    mapper.writeValue(generator, payload);
+                }
+                generator.writeEndArray();
             }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize the push payloads", e);
         }
-
-        return arrayNode.toString();
     }
 
     @Override
@@ -155,7 +166,7 @@ public class PushRequest implements Request<PushResponse> {
 
     @Override
     public ResponseParser<PushResponse> getResponseParser() {
-        return response -> PushObjectMapper.getInstance().readValue(response, PushResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
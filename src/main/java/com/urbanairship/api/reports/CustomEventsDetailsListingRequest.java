@@ -3,21 +3,23 @@ package com.urbanairship.api.reports;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.DateFormats;
+import com.urbanairship.api.reports.model.CustomEventsDetailResponse;
 import com.urbanairship.api.reports.model.CustomEventsDetailsListingResponse;
 import com.urbanairship.api.reports.model.Precision;
-import org.apache.http.HttpHeaders;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.joda.time.DateTime;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The CustomEventsDetailsListingRequest class builds a request to the custom events details listing api
@@ -39,6 +41,8 @@ public class CustomEventsDetailsListingRequest implements Request<CustomEventsDe
         mapper.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<CustomEventsDetailsListingResponse> RESPONSE_PARSER = JsonResponseParser.of(mapper, CustomEventsDetailsListingResponse.class);
+
     private CustomEventsDetailsListingRequest(DateTime start, DateTime end, String path, boolean nextPageRequest) {
         this.path = path;
         this.nextPageRequest = nextPageRequest;
@@ -103,6 +107,21 @@ public class CustomEventsDetailsListingRequest implements Request<CustomEventsDe
         return this;
     }
 
+    /**
+     * Create a paginator walking every page of this custom event listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<CustomEventsDetailsListingResponse, CustomEventsDetailResponse> paginator() {
+        return Paginator.<CustomEventsDetailsListingResponse, CustomEventsDetailResponse>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(nextPage -> newRequest(start, end, nextPage))
+                .setNextPage(CustomEventsDetailsListingResponse::getNextPage)
+                .setItems(response -> response.getEvents().orElse(ImmutableList.of()))
+                .build();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
@@ -119,11 +138,8 @@ public class CustomEventsDetailsListingRequest implements Request<CustomEventsDe
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -160,7 +176,7 @@ public class CustomEventsDetailsListingRequest implements Request<CustomEventsDe
 
     @Override
     public ResponseParser<CustomEventsDetailsListingResponse> getResponseParser() {
-        return response -> mapper.readValue(response, CustomEventsDetailsListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
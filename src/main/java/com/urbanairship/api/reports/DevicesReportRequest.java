@@ -1,12 +1,13 @@
 package com.urbanairship.api.reports;
 
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.DateFormats;
 import com.urbanairship.api.reports.model.DevicesReport;
 import com.urbanairship.api.reports.parse.ReportsObjectMapper;
-import org.apache.http.HttpHeaders;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.joda.time.DateTime;
@@ -14,8 +15,6 @@ import org.joda.time.DateTime;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -24,6 +23,7 @@ import java.util.Optional;
  */
 public class DevicesReportRequest implements Request<DevicesReport> {
     private final static String API_DEVICES_REPORT = "/api/reports/devices/";
+    private static final ResponseParser<DevicesReport> RESPONSE_PARSER = JsonResponseParser.of(ReportsObjectMapper.getInstance(), DevicesReport.class);
     private final String path;
     private Optional<DateTime> date;
 
@@ -68,11 +68,8 @@ public class DevicesReportRequest implements Request<DevicesReport> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -95,7 +92,7 @@ public class DevicesReportRequest implements Request<DevicesReport> {
 
     @Override
     public ResponseParser<DevicesReport> getResponseParser() {
-        return response -> ReportsObjectMapper.getInstance().readValue(response, DevicesReport.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -6,16 +6,15 @@ package com.urbanairship.api.reports;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.reports.model.ExperimentOverviewReportResponse;
-import org.apache.http.HttpHeaders;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The ExperimentOverviewReportRequest class builds a request to the statistics and metadata about an experiment
@@ -32,6 +31,8 @@ public class ExperimentOverviewReportRequest implements Request<ExperimentOvervi
         MAPPER.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<ExperimentOverviewReportResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, ExperimentOverviewReportResponse.class);
+
     private ExperimentOverviewReportRequest(String path) {
         this.path = path;
     }
@@ -52,11 +53,8 @@ public class ExperimentOverviewReportRequest implements Request<ExperimentOvervi
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -76,7 +74,7 @@ public class ExperimentOverviewReportRequest implements Request<ExperimentOvervi
 
     @Override
     public ResponseParser<ExperimentOverviewReportResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, ExperimentOverviewReportResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
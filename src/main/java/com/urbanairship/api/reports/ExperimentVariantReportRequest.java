@@ -6,16 +6,15 @@ package com.urbanairship.api.reports;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.reports.model.ExperimentVariantReportResponse;
-import org.apache.http.HttpHeaders;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The ExperimentVariantReportRequest class builds a request to the individual variant
@@ -32,6 +31,8 @@ public class ExperimentVariantReportRequest implements Request<ExperimentVariant
         MAPPER.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<ExperimentVariantReportResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, ExperimentVariantReportResponse.class);
+
     private ExperimentVariantReportRequest(String path) {
         this.path = path;
     }
@@ -53,11 +54,8 @@ public class ExperimentVariantReportRequest implements Request<ExperimentVariant
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -77,7 +75,7 @@ public class ExperimentVariantReportRequest implements Request<ExperimentVariant
 
     @Override
     public ResponseParser<ExperimentVariantReportResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, ExperimentVariantReportResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
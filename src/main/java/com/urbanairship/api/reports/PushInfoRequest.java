@@ -4,18 +4,17 @@
 
 package com.urbanairship.api.reports;
 
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.reports.model.PushInfoResponse;
 import com.urbanairship.api.reports.parse.ReportsObjectMapper;
-import org.apache.http.HttpHeaders;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The SinglePushInfoRequest class builds a request to the individual push
@@ -24,6 +23,7 @@ import java.util.Map;
  */
 public class PushInfoRequest implements Request<PushInfoResponse> {
     private final static String API_PUSH_RESPONSE_STATS = "/api/reports/responses/";
+    private static final ResponseParser<PushInfoResponse> RESPONSE_PARSER = JsonResponseParser.of(ReportsObjectMapper.getInstance(), PushInfoResponse.class);
 
     private final String path;
 
@@ -47,11 +47,8 @@ public class PushInfoRequest implements Request<PushInfoResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -71,7 +68,7 @@ public class PushInfoRequest implements Request<PushInfoResponse> {
 
     @Override
     public ResponseParser<PushInfoResponse> getResponseParser() {
-        return response -> ReportsObjectMapper.getInstance().readValue(response, PushInfoResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
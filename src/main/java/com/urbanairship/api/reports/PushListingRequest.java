@@ -5,13 +5,17 @@
 package com.urbanairship.api.reports;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.DateFormats;
+import com.urbanairship.api.reports.model.PushInfoResponse;
 import com.urbanairship.api.reports.model.PushListingResponse;
 import com.urbanairship.api.reports.parse.ReportsObjectMapper;
-import org.apache.http.HttpHeaders;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.joda.time.DateTime;
@@ -19,8 +23,6 @@ import org.joda.time.DateTime;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 
@@ -30,6 +32,7 @@ import java.util.Optional;
  */
 public class PushListingRequest implements Request<PushListingResponse> {
     private final static String API_PUSH_RESPONSE_LISTING = "/api/reports/responses/list/";
+    private static final ResponseParser<PushListingResponse> RESPONSE_PARSER = JsonResponseParser.of(ReportsObjectMapper.getInstance(), PushListingResponse.class);
     private final String path;
     private final boolean nextPageRequest;
     private DateTime start;
@@ -142,17 +145,29 @@ public class PushListingRequest implements Request<PushListingResponse> {
         return this;
     }
 
+    /**
+     * Create a paginator walking every page of this push listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<PushListingResponse, PushInfoResponse> paginator() {
+        return Paginator.<PushListingResponse, PushInfoResponse>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(PushListingRequest::newRequest)
+                .setNextPage(PushListingResponse::getNextPage)
+                .setItems(response -> response.getPushInfoList().orElse(ImmutableList.of()))
+                .build();
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -188,7 +203,7 @@ public class PushListingRequest implements Request<PushListingResponse> {
 
     @Override
     public ResponseParser<PushListingResponse> getResponseParser() {
-        return response -> ReportsObjectMapper.getInstance().readValue(response, PushListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -1,14 +1,15 @@
 package com.urbanairship.api.reports;
 
 import com.google.common.base.Preconditions;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.DateFormats;
 import com.urbanairship.api.reports.model.Precision;
 import com.urbanairship.api.reports.model.ResponseReport;
 import com.urbanairship.api.reports.parse.ReportsObjectMapper;
-import org.apache.http.HttpHeaders;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.joda.time.DateTime;
@@ -16,8 +17,6 @@ import org.joda.time.DateTime;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The ResponseReportRequest class builds a request to the response report api
@@ -25,6 +24,7 @@ import java.util.Map;
  */
 public class ResponseReportRequest implements Request<ResponseReport> {
     private final static String API_RESPONSE_REPORT = "/api/reports/responses/";
+    private static final ResponseParser<ResponseReport> RESPONSE_PARSER = JsonResponseParser.of(ReportsObjectMapper.getInstance(), ResponseReport.class);
     private final String path;
     private final boolean nextPageRequest;
     private DateTime start;
@@ -81,11 +81,8 @@ public class ResponseReportRequest implements Request<ResponseReport> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -115,7 +112,7 @@ public class ResponseReportRequest implements Request<ResponseReport> {
 
     @Override
     public ResponseParser<ResponseReport> getResponseParser() {
-        return response -> ReportsObjectMapper.getInstance().readValue(response, ResponseReport.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -7,21 +7,20 @@ package com.urbanairship.api.reports;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.google.common.base.Preconditions;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.parse.DateFormats;
 import com.urbanairship.api.reports.model.Precision;
 import com.urbanairship.api.reports.model.WebResponseReportResponse;
-import org.apache.http.HttpHeaders;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.joda.time.DateTime;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The WebResponseReportRequest class builds a request to the the web interaction data for the given app key
@@ -42,6 +41,8 @@ public class WebResponseReportRequest implements Request<WebResponseReportRespon
         MAPPER.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<WebResponseReportResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, WebResponseReportResponse.class);
+
     private WebResponseReportRequest(String path, String appKey, DateTime start) {
         this.path = path;
         this.appKey =appKey;
@@ -87,11 +88,8 @@ public class WebResponseReportRequest implements Request<WebResponseReportRespon
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -132,7 +130,7 @@ public class WebResponseReportRequest implements Request<WebResponseReportRespon
 
     @Override
     public ResponseParser<WebResponseReportResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, WebResponseReportResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
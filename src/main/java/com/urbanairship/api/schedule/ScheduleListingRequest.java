@@ -1,8 +1,10 @@
 package com.urbanairship.api.schedule;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.schedule.model.ListAllSchedulesResponse;
@@ -13,8 +15,6 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -23,7 +23,7 @@ import java.util.UUID;
  */
 public class ScheduleListingRequest implements Request<ListAllSchedulesResponse> {
 
-    private static final ResponseParser<ListAllSchedulesResponse> LIST_PARSER = response -> ScheduleObjectMapper.getInstance().readValue(response, ListAllSchedulesResponse.class);
+    private static final ResponseParser<ListAllSchedulesResponse> LIST_PARSER = JsonResponseParser.of(ScheduleObjectMapper.getInstance(), ListAllSchedulesResponse.class);
 
     private static final ResponseParser<ListAllSchedulesResponse> SINGLE_LOOKUP_PARSER = response -> ListAllSchedulesResponse.newBuilder()
         .setCount(1)
@@ -87,6 +87,21 @@ public class ScheduleListingRequest implements Request<ListAllSchedulesResponse>
         return new ScheduleListingRequest(nextPage.getPath() + "?" + nextPage.getQuery(), LIST_PARSER);
     }
 
+    /**
+     * Create a paginator walking every page of this schedule listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<ListAllSchedulesResponse, SchedulePayloadResponse> paginator() {
+        return Paginator.<ListAllSchedulesResponse, SchedulePayloadResponse>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(ScheduleListingRequest::newRequest)
+                .setNextPage(ListAllSchedulesResponse::getNext_Page)
+                .setItems(ListAllSchedulesResponse::getSchedules)
+                .build();
+    }
+
     @Override
     public HttpMethod getHttpMethod() {
         return HttpMethod.GET;
@@ -103,11 +118,8 @@ public class ScheduleListingRequest implements Request<ListAllSchedulesResponse>
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -8,8 +8,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.schedule.model.SchedulePayload;
@@ -20,10 +21,9 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The ScheduleRequest class builds scheduled push requests to be executed in
@@ -33,6 +33,7 @@ public class ScheduleRequest implements Request<ScheduleResponse> {
 
     final static String API_SCHEDULE_PATH = "/api/schedules/";
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ResponseParser<ScheduleResponse> RESPONSE_PARSER = JsonResponseParser.of(ScheduleObjectMapper.getInstance(), ScheduleResponse.class);
 
     private final List<SchedulePayload> schedulePayloads = new ArrayList<>();
     private final String path;
@@ -88,11 +89,8 @@ public class ScheduleRequest implements Request<ScheduleResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -120,6 +118,15 @@ public class ScheduleRequest implements Request<ScheduleResponse> {
         return arrayNode.toString();
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        if (this.schedulePayloads.size() == 1) {
+            return this.schedulePayloads.get(0).toJSONBytes();
+        }
+
+        return getRequestBody().getBytes(StandardCharsets.UTF_8);
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, path);
@@ -127,7 +134,7 @@ public class ScheduleRequest implements Request<ScheduleResponse> {
 
     @Override
     public ResponseParser<ScheduleResponse> getResponseParser() {
-        return response -> ScheduleObjectMapper.getInstance().readValue(response, ScheduleResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -5,18 +5,19 @@
 package com.urbanairship.api.segments;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.segments.model.SegmentListingResponse;
+import com.urbanairship.api.segments.model.SegmentListingView;
 import com.urbanairship.api.segments.parse.SegmentObjectMapper;
 import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The SegmentListingRequest class builds segment listing requests to be executed in
@@ -24,6 +25,7 @@ import java.util.Map;
  */
 public class SegmentListingRequest implements Request<SegmentListingResponse> {
     private final static String API_SEGMENTS_PATH = "/api/segments/";
+    private static final ResponseParser<SegmentListingResponse> RESPONSE_PARSER = JsonResponseParser.of(SegmentObjectMapper.getInstance(), SegmentListingResponse.class);
 
     private final String path;
 
@@ -51,16 +53,29 @@ public class SegmentListingRequest implements Request<SegmentListingResponse> {
         return new SegmentListingRequest(nextPage.getPath() + "?" + nextPage.getQuery());
     }
 
+    /**
+     * Create a paginator walking every page of this segment listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<SegmentListingResponse, SegmentListingView> paginator() {
+        return Paginator.<SegmentListingResponse, SegmentListingView>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(SegmentListingRequest::newRequest)
+                .setNextPage(SegmentListingResponse::getNextPage)
+                .setItems(SegmentListingResponse::getSegmentListingViews)
+                .build();
+    }
+
     @Override
     public ContentType getContentType() {
         return null;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -80,7 +95,7 @@ public class SegmentListingRequest implements Request<SegmentListingResponse> {
 
     @Override
     public ResponseParser<SegmentListingResponse> getResponseParser() {
-        return response -> SegmentObjectMapper.getInstance().readValue(response, SegmentListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
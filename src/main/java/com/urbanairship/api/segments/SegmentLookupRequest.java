@@ -5,8 +5,9 @@
 package com.urbanairship.api.segments;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.segments.model.SegmentView;
@@ -16,8 +17,6 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The SegmentLookupRequest class builds segment lookup requests to be executed in
@@ -25,6 +24,7 @@ import java.util.Map;
  */
 public class SegmentLookupRequest implements Request<SegmentView> {
     private final static String API_SEGMENTS_PATH = "/api/segments/";
+    private static final ResponseParser<SegmentView> RESPONSE_PARSER = JsonResponseParser.of(SegmentObjectMapper.getInstance(), SegmentView.class);
     private final String path;
 
     private SegmentLookupRequest(String path) {
@@ -48,10 +48,8 @@ public class SegmentLookupRequest implements Request<SegmentView> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -71,7 +69,7 @@ public class SegmentLookupRequest implements Request<SegmentView> {
 
     @Override
     public ResponseParser<SegmentView> getResponseParser() {
-        return response -> SegmentObjectMapper.getInstance().readValue(response, SegmentView.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -6,8 +6,9 @@ package com.urbanairship.api.segments;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.push.model.audience.Selector;
@@ -18,8 +19,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 /**
  * The SegmentRequest class builds segment requests to be executed in
@@ -28,6 +28,7 @@ import java.util.Map;
 public class SegmentRequest implements Request<SegmentRequestResponse> {
     private final static ObjectMapper MAPPER = new ObjectMapper();
     private final static String API_SEGMENTS_PATH = "/api/segments/";
+    private static final ResponseParser<SegmentRequestResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, SegmentRequestResponse.class);
     private final SegmentView.Builder builder = SegmentView.newBuilder();
     private final String path;
 
@@ -87,10 +88,8 @@ public class SegmentRequest implements Request<SegmentRequestResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -111,6 +110,16 @@ public class SegmentRequest implements Request<SegmentRequestResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        SegmentView segment = builder.build();
+        try {
+            return SegmentObjectMapper.getInstance().writeValueAsBytes(segment);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, path);
@@ -118,7 +127,7 @@ public class SegmentRequest implements Request<SegmentRequestResponse> {
 
     @Override
     public ResponseParser<SegmentRequestResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, SegmentRequestResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -1,8 +1,9 @@
 package com.urbanairship.api.sms;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.sms.model.CustomSmsResponseMmsPayload;
@@ -13,8 +14,6 @@ import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Represents the Request to be used for using custom sms response.
@@ -22,6 +21,7 @@ import java.util.Map;
 public class CustomSmsResponseRequest implements Request<CustomSmsResponseResponse> {
 
     private final static String API_CUSTOM_SMS_RESPONSE = "/api/sms/custom-response";
+    private static final ResponseParser<CustomSmsResponseResponse> RESPONSE_PARSER = JsonResponseParser.of(SmsObjectMapper.getInstance(), CustomSmsResponseResponse.class);
     private CustomSmsResponseSmsPayload smsPayload = null;
     private CustomSmsResponseMmsPayload mmsPayload = null;
 
@@ -59,17 +59,25 @@ public class CustomSmsResponseRequest implements Request<CustomSmsResponseRespon
         return null;
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        if (smsPayload != null) {
+            return smsPayload.toJSONBytes();
+        }
+        if (mmsPayload != null) {
+            return mmsPayload.toJSONBytes();
+        }
+        return null;
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -79,7 +87,7 @@ public class CustomSmsResponseRequest implements Request<CustomSmsResponseRespon
 
     @Override
     public ResponseParser<CustomSmsResponseResponse> getResponseParser() {
-        return response -> SmsObjectMapper.getInstance().readValue(response, CustomSmsResponseResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -2,8 +2,8 @@ package com.urbanairship.api.sms;
 
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.sms.parse.SmsObjectMapper;
@@ -12,10 +12,9 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The KeywordInteractionRequest class builds keyword interaction request to be executed in
@@ -86,28 +85,39 @@ public class KeywordInteractionRequest implements Request<String> {
 
     @Override
     public String getRequestBody() {
-
-        payloadNode.put("keyword", keyword);
-        payloadNode.putPOJO("sender_ids", senderIds);
-
+        ObjectNode requestPayload = buildPayload();
         try {
-            return SmsObjectMapper.getInstance().writeValueAsString(payloadNode);
+            return SmsObjectMapper.getInstance().writeValueAsString(requestPayload);
         } catch (Exception ex) {
             return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return SmsObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ObjectNode buildPayload() {
+        payloadNode.put("keyword", keyword);
+        payloadNode.putPOJO("sender_ids", senderIds);
+
+        return payloadNode;
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
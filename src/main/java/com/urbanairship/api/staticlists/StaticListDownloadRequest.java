@@ -6,6 +6,7 @@ package com.urbanairship.api.staticlists;
 
 import com.google.common.base.Preconditions;
 import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.BodySink;
 import com.urbanairship.api.client.Request;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.common.CSVUtils;
@@ -29,6 +30,7 @@ public class StaticListDownloadRequest implements Request<String> {
     private final String path;
 
     private Optional<FileOutputStream> fileOutputStream = Optional.empty();
+    private Optional<BodySink> bodySink = Optional.empty();
 
     private StaticListDownloadRequest(String name) {
         this.path = API_LISTS_PATH + name + "/csv";
@@ -57,7 +59,8 @@ public class StaticListDownloadRequest implements Request<String> {
 
 
     /**
-     * Specify a file output stream to route the response data to.
+     * Specify a file output stream to route the response data to. The list is still buffered in memory and
+     * returned as the response body, use {@link #setBodySink(BodySink)} for large lists.
      *
      * @param fileOutputStream The output stream to write to.
      * @return StaticListDownloadRequest
@@ -67,6 +70,25 @@ public class StaticListDownloadRequest implements Request<String> {
         return this;
     }
 
+    /**
+     * Stream the list to a sink as it downloads, see {@link com.urbanairship.api.client.BodySinks} to write it to
+     * an output stream or a channel, or to process it row by row. The list is never held in memory and the
+     * response has no body. Takes precedence over {@link #setOutputStream(FileOutputStream)}.
+     *
+     * @param bodySink The sink to stream the list to.
+     * @return StaticListDownloadRequest
+     */
+    public StaticListDownloadRequest setBodySink(BodySink bodySink) {
+        Preconditions.checkNotNull(bodySink, "body sink cannot be null");
+        this.bodySink = Optional.of(bodySink);
+        return this;
+    }
+
+    @Override
+    public Optional<BodySink> getBodySink() {
+        return bodySink;
+    }
+
     @Override
     public ContentType getContentType() {
         return null;
@@ -4,8 +4,9 @@
 
 package com.urbanairship.api.staticlists;
 
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.staticlists.model.StaticListListingResponse;
@@ -15,8 +16,6 @@ import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -26,6 +25,7 @@ import java.util.Optional;
 public class StaticListListingRequest implements Request<StaticListListingResponse> {
     private final static String API_LISTS_PATH = "/api/lists/";
     private final static String TYPE_PARAM = "type";
+    private static final ResponseParser<StaticListListingResponse> RESPONSE_PARSER = JsonResponseParser.of(StaticListsObjectMapper.getInstance(), StaticListListingResponse.class);
     private Optional<ListType> type;
 
     public enum ListType {all, lifecycle, user}
@@ -60,10 +60,8 @@ public class StaticListListingRequest implements Request<StaticListListingRespon
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -89,7 +87,7 @@ public class StaticListListingRequest implements Request<StaticListListingRespon
 
     @Override
     public ResponseParser<StaticListListingResponse> getResponseParser() {
-        return response -> StaticListsObjectMapper.getInstance().readValue(response, StaticListListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
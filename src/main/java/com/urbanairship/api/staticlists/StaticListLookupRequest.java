@@ -5,8 +5,9 @@
 package com.urbanairship.api.staticlists;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.staticlists.model.StaticListView;
@@ -16,8 +17,6 @@ import org.apache.http.entity.ContentType;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The StaticListLookupRequest class builds static list lookup requests to be executed in
@@ -25,6 +24,7 @@ import java.util.Map;
  */
 public class StaticListLookupRequest implements Request<StaticListView> {
     private final static String API_LISTS_PATH = "/api/lists/";
+    private static final ResponseParser<StaticListView> RESPONSE_PARSER = JsonResponseParser.of(StaticListsObjectMapper.getInstance(), StaticListView.class);
     private final String path;
 
     private StaticListLookupRequest(String path) {
@@ -48,10 +48,8 @@ public class StaticListLookupRequest implements Request<StaticListView> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -71,7 +69,7 @@ public class StaticListLookupRequest implements Request<StaticListView> {
 
     @Override
     public ResponseParser<StaticListView> getResponseParser() {
-        return response -> StaticListsObjectMapper.getInstance().readValue(response, StaticListView.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
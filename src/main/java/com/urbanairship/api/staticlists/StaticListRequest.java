@@ -5,8 +5,8 @@
 package com.urbanairship.api.staticlists;
 
 import com.google.common.base.Preconditions;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.common.model.GenericResponse;
@@ -15,6 +15,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -99,11 +100,8 @@ public class StaticListRequest implements Request<GenericResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -116,17 +114,32 @@ public class StaticListRequest implements Request<GenericResponse> {
 
     @Override
     public String getRequestBody() {
-        if (!extras.isEmpty()) {
-            this.payload.put(EXTRAS_KEY, extras);
+        Map<String, Object> requestPayload = buildPayload();
+        try {
+            return StaticListsObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception ex) {
+            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
         }
+    }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        Map<String, Object> requestPayload = buildPayload();
         try {
-            return StaticListsObjectMapper.getInstance().writeValueAsString(this.payload);
+            return StaticListsObjectMapper.getInstance().writeValueAsBytes(requestPayload);
         } catch (Exception ex) {
-            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
         }
     }
 
+    private Map<String, Object> buildPayload() {
+        if (!extras.isEmpty()) {
+            this.payload.put(EXTRAS_KEY, extras);
+        }
+
+        return this.payload;
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, path);
@@ -6,16 +6,15 @@ package com.urbanairship.api.subscriptionlists;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.subscriptionlists.model.NamedUserSubscriptionListsListingResponse;
-import org.apache.http.HttpHeaders;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The NamedUserSubscriptionListsListingRequest class builds named user subscription lists listing requests to be executed in
@@ -31,6 +30,8 @@ public class NamedUserSubscriptionListsListingRequest implements Request<NamedUs
         MAPPER.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<NamedUserSubscriptionListsListingResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, NamedUserSubscriptionListsListingResponse.class);
+
 
     private NamedUserSubscriptionListsListingRequest(String path) { this.path = path; }
 
@@ -49,11 +50,8 @@ public class NamedUserSubscriptionListsListingRequest implements Request<NamedUs
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -73,7 +71,7 @@ public class NamedUserSubscriptionListsListingRequest implements Request<NamedUs
 
     @Override
     public ResponseParser<NamedUserSubscriptionListsListingResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, NamedUserSubscriptionListsListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -6,6 +6,7 @@ package com.urbanairship.api.subscriptionlists;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
@@ -31,6 +32,8 @@ public class SubscriptionListListingRequest implements Request<SubscriptionListL
         MAPPER.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<SubscriptionListListingResponse> RESPONSE_PARSER = JsonResponseParser.of(MAPPER, SubscriptionListListingResponse.class);
+
 
     private SubscriptionListListingRequest(String path) { this.path = path; }
 
@@ -73,7 +76,7 @@ public class SubscriptionListListingRequest implements Request<SubscriptionListL
 
     @Override
     public ResponseParser<SubscriptionListListingResponse> getResponseParser() {
-        return response -> MAPPER.readValue(response, SubscriptionListListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -7,16 +7,15 @@ package com.urbanairship.api.tags;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.tags.model.TagListListingResponse;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The TagListListingRequest class builds tag list listing requests to be executed in
@@ -32,6 +31,8 @@ public class TagListListingRequest implements Request<TagListListingResponse> {
         mapper.registerModule(new GuavaModule());
     }
 
+    private static final ResponseParser<TagListListingResponse> RESPONSE_PARSER = JsonResponseParser.of(mapper, TagListListingResponse.class);
+
     private TagListListingRequest() {}
 
     /**
@@ -49,10 +50,8 @@ public class TagListListingRequest implements Request<TagListListingResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -72,7 +71,7 @@ public class TagListListingRequest implements Request<TagListListingResponse> {
 
     @Override
     public ResponseParser<TagListListingResponse> getResponseParser() {
-        return response -> mapper.readValue(response, TagListListingResponse.class);
+        return RESPONSE_PARSER;
     }
     
 
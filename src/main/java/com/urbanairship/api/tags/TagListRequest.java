@@ -8,15 +8,16 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.channel.parse.ChannelObjectMapper;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import org.apache.http.entity.ContentType;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -130,7 +131,25 @@ public class TagListRequest implements Request<String> {
 
     @Override
     public String getRequestBody() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsString(requestPayload);
+        } catch (Exception ex) {
+            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
+        }
+    }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        ObjectNode requestPayload = buildPayload();
+        try {
+            return ChannelObjectMapper.getInstance().writeValueAsBytes(requestPayload);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private ObjectNode buildPayload() {
         if (!addTags.isEmpty()) {
             payload.putPOJO(ADD_KEY, addTags);        
         }
@@ -149,11 +168,7 @@ public class TagListRequest implements Request<String> {
 
         Preconditions.checkArgument(payload.has(NAME_KEY), "Name required when executing a tag list operation");
 
-        try {
-            return ChannelObjectMapper.getInstance().writeValueAsString(payload);
-        } catch (Exception ex) {
-            return "{ \"exception\" : \"" + ex.getClass().getName() + "\", \"message\" : \"" + ex.getMessage() + "\" }";
-        }
+        return payload;
     }
 
     @Override
@@ -162,11 +177,8 @@ public class TagListRequest implements Request<String> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -6,6 +6,8 @@ package com.urbanairship.api.tags;
 
 import com.google.common.base.Preconditions;
 import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.BodyPublisher;
+import com.urbanairship.api.client.BodyPublishers;
 import com.urbanairship.api.client.Request;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
@@ -18,6 +20,7 @@ import java.io.FileReader;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * The TagListUploadRequest class builds a tag list upload request to be executed in
@@ -105,6 +108,17 @@ public class TagListUploadRequest implements Request<String> {
         }
     }
 
+    /**
+     * Stream the csv file from disk, compressing it on the fly when gzip is enabled.
+     *
+     * @return Optional BodyPublisher reading the csv file.
+     */
+    @Override
+    public Optional<BodyPublisher> getBodyPublisher() {
+        BodyPublisher file = BodyPublishers.ofFile(csv);
+        return Optional.of(gzip ? BodyPublishers.gzip(file) : file);
+    }
+
     @Override
     public URI getUri(URI baseUri) {
         return RequestUtils.resolveURI(baseUri, path);
@@ -4,8 +4,9 @@
 
 package com.urbanairship.api.templates;
 
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.templates.model.TemplateResponse;
@@ -15,8 +16,6 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The TemplateDeleteRequest class builds template deletion requests to be executed in
@@ -24,6 +23,7 @@ import java.util.Map;
  */
 public class TemplateDeleteRequest implements Request<TemplateResponse> {
     private final static String API_TEMPLATES_DELETE = "/api/templates/";
+    private static final ResponseParser<TemplateResponse> RESPONSE_PARSER = JsonResponseParser.of(TemplatesObjectMapper.getInstance(), TemplateResponse.class);
     private final String path;
 
     private TemplateDeleteRequest(String path) {
@@ -56,10 +56,8 @@ public class TemplateDeleteRequest implements Request<TemplateResponse> {
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -69,7 +67,7 @@ public class TemplateDeleteRequest implements Request<TemplateResponse> {
 
     @Override
     public ResponseParser<TemplateResponse> getResponseParser() {
-        return response -> TemplatesObjectMapper.getInstance().readValue(response, TemplateResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
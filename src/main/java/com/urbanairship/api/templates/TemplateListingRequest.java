@@ -4,11 +4,16 @@
 
 package com.urbanairship.api.templates;
 
-import com.google.common.net.HttpHeaders;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.urbanairship.api.client.JsonResponseParser;
+import com.urbanairship.api.client.Paginator;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.templates.model.TemplateListingResponse;
+import com.urbanairship.api.templates.model.TemplateView;
 import com.urbanairship.api.templates.parse.TemplatesObjectMapper;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
@@ -16,8 +21,6 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * The TemplateListingRequest class builds template listing requests to be executed in
@@ -25,6 +28,7 @@ import java.util.Map;
  */
 public class TemplateListingRequest implements Request<TemplateListingResponse> {
     private final static String API_TEMPLATES_GET = "/api/templates/";
+    private static final ResponseParser<TemplateListingResponse> RESPONSE_PARSER = JsonResponseParser.of(TemplatesObjectMapper.getInstance(), TemplateListingResponse.class);
     private final String path;
     private Integer page;
     private Integer pageSize;
@@ -52,6 +56,17 @@ public class TemplateListingRequest implements Request<TemplateListingResponse>
         return new TemplateListingRequest(API_TEMPLATES_GET + templateId);
     }
 
+    /**
+     * Create a new TemplateListingRequest object using a next page URI.
+     *
+     * @param nextPage URI
+     * @return TemplateListingRequest
+     */
+    public static TemplateListingRequest newRequest(URI nextPage) {
+        Preconditions.checkNotNull(nextPage, "Next page URI cannot be null");
+        return new TemplateListingRequest(nextPage.getPath() + "?" + nextPage.getQuery());
+    }
+
     /**
      * Set the page URL parameter.
      *
@@ -74,6 +89,21 @@ public class TemplateListingRequest implements Request<TemplateListingResponse>
         return this;
     }
 
+    /**
+     * Create a paginator walking every page of this template listing, starting with this request.
+     * Use it with {@link com.urbanairship.api.client.UrbanAirshipClient#stream(Paginator)}.
+     *
+     * @return Paginator
+     */
+    public Paginator<TemplateListingResponse, TemplateView> paginator() {
+        return Paginator.<TemplateListingResponse, TemplateView>newBuilder()
+                .setFirstRequest(this)
+                .setNextPageRequest(TemplateListingRequest::newRequest)
+                .setNextPage(TemplateListingResponse::getNextPage)
+                .setItems(response -> response.getTemplates().orElse(ImmutableList.of()))
+                .build();
+    }
+
     @Override
     public HttpMethod getHttpMethod() {
         return HttpMethod.GET;
@@ -90,10 +120,8 @@ public class TemplateListingRequest implements Request<TemplateListingResponse>
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.ACCEPT_JSON;
     }
 
     @Override
@@ -119,7 +147,7 @@ public class TemplateListingRequest implements Request<TemplateListingResponse>
 
     @Override
     public ResponseParser<TemplateListingResponse> getResponseParser() {
-        return response -> TemplatesObjectMapper.getInstance().readValue(response, TemplateListingResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -4,8 +4,9 @@
 
 package com.urbanairship.api.templates;
 
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.templates.model.TemplatePushPayload;
@@ -16,10 +17,9 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The TemplatePushRequest object builds a template push request to be executed in the
@@ -28,6 +28,7 @@ import java.util.Map;
 public class TemplatePushRequest implements Request<TemplateResponse> {
     private final static String TEMPLATE_PUSH = "/api/templates/push/";
     private final static String TEMPLATE_PUSH_VALIDATE = TEMPLATE_PUSH + "validate/";
+    private static final ResponseParser<TemplateResponse> RESPONSE_PARSER = JsonResponseParser.of(TemplatesObjectMapper.getInstance(), TemplateResponse.class);
 
     private List<TemplatePushPayload> templatePushPayloads = new ArrayList<TemplatePushPayload>();
     private boolean validateOnly = false;
@@ -93,17 +94,26 @@ public class TemplatePushRequest implements Request<TemplateResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            if (templatePushPayloads.size() == 1) {
+                return TemplatesObjectMapper.getInstance().writeValueAsBytes(templatePushPayloads.get(0));
+            }
+            return TemplatesObjectMapper.getInstance().writeValueAsBytes(templatePushPayloads);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -114,7 +124,7 @@ public class TemplatePushRequest implements Request<TemplateResponse> {
 
     @Override
     public ResponseParser<TemplateResponse> getResponseParser() {
-        return response -> TemplatesObjectMapper.getInstance().readValue(response, TemplateResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
@@ -7,8 +7,9 @@ package com.urbanairship.api.templates;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.templates.model.PartialPushPayload;
@@ -21,9 +22,8 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The TemplateRequest class builds template creation and update requests to be executed in
@@ -32,6 +32,7 @@ import java.util.Map;
 public class TemplateRequest implements Request<TemplateResponse> {
 
     private static final String API_POST_TEMPLATE = "/api/templates/";
+    private static final ResponseParser<TemplateResponse> RESPONSE_PARSER = JsonResponseParser.of(TemplatesObjectMapper.getInstance(), TemplateResponse.class);
 
     private final TemplateView.Builder builder = TemplateView.newBuilder();
     private final String path;
@@ -129,17 +130,24 @@ public class TemplateRequest implements Request<TemplateResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        ObjectMapper mapper = TemplatesObjectMapper.getInstance().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        try {
+            return mapper.writeValueAsBytes(this.builder.build());
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -149,7 +157,7 @@ public class TemplateRequest implements Request<TemplateResponse> {
 
     @Override
     public ResponseParser<TemplateResponse> getResponseParser() {
-        return response -> TemplatesObjectMapper.getInstance().readValue(response, TemplateResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
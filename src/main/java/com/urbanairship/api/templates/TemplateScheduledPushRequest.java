@@ -1,7 +1,8 @@
 package com.urbanairship.api.templates;
 
-import com.google.common.net.HttpHeaders;
+import com.urbanairship.api.client.JsonResponseParser;
 import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.RequestHeaders;
 import com.urbanairship.api.client.RequestUtils;
 import com.urbanairship.api.client.ResponseParser;
 import com.urbanairship.api.schedule.model.ScheduleResponse;
@@ -13,14 +14,14 @@ import org.apache.http.entity.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class TemplateScheduledPushRequest implements Request<ScheduleResponse> {
     private final static String SCHEDULED_TEMPLATE_PUSH = "/api/templates/schedules/";
     private final static String TEMPLATE_PUSH_VALIDATE = SCHEDULED_TEMPLATE_PUSH + "validate/";
+    private static final ResponseParser<ScheduleResponse> RESPONSE_PARSER = JsonResponseParser.of(ScheduleObjectMapper.getInstance(), ScheduleResponse.class);
 
     private List<TemplateScheduledPushPayload> scheduledTemplatePushPayloads = new ArrayList<TemplateScheduledPushPayload>();
     private boolean validateOnly = false;
@@ -86,17 +87,26 @@ public class TemplateScheduledPushRequest implements Request<ScheduleResponse> {
         }
     }
 
+    @Override
+    public byte[] getRequestBodyBytes() {
+        try {
+            if (scheduledTemplatePushPayloads.size() == 1) {
+                return TemplatesObjectMapper.getInstance().writeValueAsBytes(scheduledTemplatePushPayloads.get(0));
+            }
+            return TemplatesObjectMapper.getInstance().writeValueAsBytes(scheduledTemplatePushPayloads);
+        } catch (Exception ex) {
+            return getRequestBody().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public ContentType getContentType() {
         return ContentType.APPLICATION_JSON;
     }
 
     @Override
-    public Map<String, String> getRequestHeaders() {
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
-        headers.put(HttpHeaders.ACCEPT, UA_VERSION_JSON);
-        return headers;
+    public RequestHeaders getStaticHeaders() {
+        return RequestHeaders.JSON;
     }
 
     @Override
@@ -107,7 +117,7 @@ public class TemplateScheduledPushRequest implements Request<ScheduleResponse> {
 
     @Override
     public ResponseParser<ScheduleResponse> getResponseParser() {
-        return response -> ScheduleObjectMapper.getInstance().readValue(response, ScheduleResponse.class);
+        return RESPONSE_PARSER;
     }
 
     @Override
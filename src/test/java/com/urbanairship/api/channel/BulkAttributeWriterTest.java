@@ -0,0 +1,336 @@
+package com.urbanairship.api.channel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.urbanairship.api.attributelists.AttributeListsUploadRequest;
+import com.urbanairship.api.channel.model.ChannelAttributesResponse;
+import com.urbanairship.api.channel.model.attributes.Attribute;
+import com.urbanairship.api.channel.model.attributes.AttributeAction;
+import com.urbanairship.api.channel.model.attributes.audience.AttributeAudienceType;
+import com.urbanairship.api.client.RecordingRequestClient;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.nameduser.NamedUserAttributeRequest;
+import com.urbanairship.api.nameduser.model.NamedUserAttributeResponse;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkAttributeWriterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final String LIST_NAME = "ua_attributes_sync";
+
+    private RecordingRequestClient requestClient;
+    private List<Request<?>> requests;
+    private List<String> bodies;
+    private volatile String error;
+    private UrbanAirshipClient client;
+
+    @Before
+    public void setUp() {
+        requestClient = new RecordingRequestClient(request -> {
+            Object body;
+            if (request instanceof ChannelAttributesRequest) {
+                ChannelAttributesResponse.Builder builder = ChannelAttributesResponse.newBuilder().setOk(error == null);
+                if (error != null) {
+                    builder.setError(error);
+                }
+                body = builder.build();
+            } else if (request instanceof NamedUserAttributeRequest) {
+                body = NamedUserAttributeResponse.newBuilder().setOk(true).build();
+            } else {
+                body = "{\"ok\":true}";
+            }
+            return RecordingRequestClient.response(200, body);
+        });
+        requests = requestClient.getRequests();
+        bodies = requestClient.getBodies();
+        client = requestClient.newClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testLastWriteWinsAndIdenticalChannelsShareARequest() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR).build();
+
+        CompletableFuture<Void> replaced = writer.write(AttributeAudienceType.IOS_CHANNEL, "ios-1", set("sport", "tennis"));
+        CompletableFuture<Void> first = writer.write(AttributeAudienceType.IOS_CHANNEL, "ios-1", set("sport", "golf"));
+        CompletableFuture<Void> second = writer.write(AttributeAudienceType.ANDROID_CHANNEL, "android-1", set("sport", "golf"));
+        CompletableFuture<Void> other = writer.write(AttributeAudienceType.CHANNEL, "web-1", set("sport", "chess"));
+        assertTrue(requests.isEmpty());
+
+        writer.flush();
+
+        assertEquals(2, requests.size());
+        JsonNode golf = body(0);
+        assertEquals(ImmutableSet.of("ios-1"), strings(golf.get("audience").get("ios_channel")));
+        assertEquals(ImmutableSet.of("android-1"), strings(golf.get("audience").get("android_channel")));
+        assertEquals(1, golf.get("attributes").size());
+        assertEquals("golf", golf.get("attributes").get(0).get("value").asText());
+        assertEquals("chess", body(1).get("attributes").get(0).get("value").asText());
+
+        for (CompletableFuture<Void> future : new CompletableFuture[]{replaced, first, second, other}) {
+            assertTrue(future.isDone());
+            future.get();
+        }
+        assertEquals(4, writer.getRecordCount());
+        assertEquals(2, writer.getRequestCount());
+        writer.close();
+    }
+
+    @Test
+    public void testNamedUsersAreSentPerNamedUser() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR).build();
+
+        writer.write(AttributeAudienceType.NAMED_USER_ID, "user-1", set("sport", "golf"));
+        writer.write(AttributeAudienceType.NAMED_USER_ID, "user-1", remove("score"));
+        writer.write(AttributeAudienceType.NAMED_USER_ID, "user-2", set("sport", "golf"));
+        writer.flush();
+
+        assertEquals(2, requests.size());
+        assertEquals(URI.create("https://go.urbanairship.com/api/named_users/user-1/attributes"),
+                requests.get(0).getUri(URI.create("https://go.urbanairship.com")));
+        JsonNode attributes = body(0).get("attributes");
+        assertEquals(2, attributes.size());
+        assertEquals("remove", attributes.get(0).get("action").asText());
+        assertEquals("score", attributes.get(0).get("key").asText());
+        assertEquals("set", attributes.get(1).get("action").asText());
+        writer.close();
+    }
+
+    @Test
+    public void testAudienceSizeSplitsRequests() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR).setMaxAudienceSize(2).build();
+
+        for (int i = 0; i < 5; i++) {
+            writer.write(AttributeAudienceType.CHANNEL, "channel-" + i, set("sport", "golf"));
+        }
+        writer.flush();
+
+        assertEquals(3, requests.size());
+        assertEquals(2, body(0).get("audience").get("channel").size());
+        assertEquals(1, body(2).get("audience").get("channel").size());
+        writer.close();
+    }
+
+    @Test
+    public void testLargeWindowIsUploaded() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR)
+                .setAttributeListName(LIST_NAME)
+                .setCsvThreshold(3)
+                .build();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(writer.write(AttributeAudienceType.IOS_CHANNEL, "ios-1", set("sport", "golf")));
+        futures.add(writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("team", "Red, \"Blue\"")));
+        futures.add(writer.write(AttributeAudienceType.NAMED_USER_ID, "user-1", set("sport", "chess")));
+        futures.add(writer.write(AttributeAudienceType.IOS_CHANNEL, "ios-1", remove("score")));
+        writer.close();
+
+        assertEquals(3, requests.size());
+        assertTrue(requests.get(0) instanceof AttributeListsUploadRequest);
+        assertEquals(URI.create("https://go.urbanairship.com/api/attribute-lists/" + LIST_NAME + "/csv"),
+                requests.get(0).getUri(URI.create("https://go.urbanairship.com")));
+        assertEquals("channel_id,sport,team\nios-1,golf,\nchannel-1,,\"Red, \"\"Blue\"\"\"\n", bodies.get(0));
+        assertEquals("named_user_id,sport\nuser-1,chess\n", bodies.get(1));
+
+        // Removals cannot be uploaded.
+        assertTrue(requests.get(2) instanceof ChannelAttributesRequest);
+        assertEquals("remove", body(2).get("attributes").get(0).get("action").asText());
+
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, writer.getUploadCount());
+        assertEquals(1, writer.getRequestCount());
+    }
+
+    @Test
+    public void testSmallWindowIsNotUploaded() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR)
+                .setAttributeListName(LIST_NAME)
+                .setCsvThreshold(3)
+                .build();
+
+        writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("sport", "golf"));
+        writer.write(AttributeAudienceType.CHANNEL, "channel-2", set("sport", "golf"));
+        writer.write(AttributeAudienceType.CHANNEL, "channel-3", setAt("sport", "golf", DateTime.now()));
+        writer.close();
+
+        assertEquals(0, writer.getUploadCount());
+        for (Request<?> request : requests) {
+            assertTrue(request instanceof ChannelAttributesRequest);
+        }
+    }
+
+    @Test
+    public void testConcurrencyCap() throws Exception {
+        requestClient.setHold(true);
+        BulkAttributeWriter writer = writer(ONE_HOUR).setMaxConcurrency(2).build();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(writer.write(AttributeAudienceType.CHANNEL, "channel-" + i, set("score", Integer.toString(i))));
+        }
+        writer.flush();
+
+        assertEquals(2, requests.size());
+        assertEquals(3, writer.getQueuedCount());
+
+        requestClient.releaseNext();
+        assertEquals(3, requests.size());
+        assertTrue(futures.get(0).isDone());
+        assertFalse(futures.get(1).isDone());
+
+        while (requestClient.getHeldCount() > 0) {
+            requestClient.releaseNext();
+        }
+        assertEquals(5, requests.size());
+        assertEquals(0, writer.getQueuedCount());
+        for (CompletableFuture<Void> future : futures) {
+            future.get();
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testQueueCap() throws Exception {
+        requestClient.setHold(true);
+        BulkAttributeWriter writer = writer(ONE_HOUR).setMaxConcurrency(1).setMaxQueued(1).build();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.write(AttributeAudienceType.CHANNEL, "channel-" + i, set("score", Integer.toString(i))));
+        }
+        writer.flush();
+
+        assertEquals(1, requests.size());
+        assertEquals(1, writer.getQueuedCount());
+        try {
+            futures.get(2).get();
+            fail("Expected the record to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        requestClient.releaseNext();
+        requestClient.releaseNext();
+        futures.get(0).get();
+        futures.get(1).get();
+        assertEquals(2, writer.getRequestCount());
+        writer.close();
+    }
+
+    @Test
+    public void testFailuresArePerRecord() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR).build();
+        error = "invalid attribute";
+
+        CompletableFuture<Void> channel = writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("score", "abc"));
+        CompletableFuture<Void> namedUser = writer.write(AttributeAudienceType.NAMED_USER_ID, "user-1", set("score", "1"));
+        writer.close();
+
+        namedUser.get();
+        try {
+            channel.get();
+            fail("Expected the request error");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertTrue(e.getCause().getMessage().contains("invalid attribute"));
+        }
+    }
+
+    @Test
+    public void testFlushByRecordCount() throws Exception {
+        BulkAttributeWriter writer = writer(ONE_HOUR).setMaxRecords(2).build();
+
+        writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("sport", "golf"));
+        writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("sport", "chess"));
+        assertTrue(requests.isEmpty());
+
+        // The full window is sent from the scheduler thread, not from the writing one.
+        writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("team", "red")).get(5, TimeUnit.SECONDS);
+        assertEquals(1, requests.size());
+        writer.close();
+    }
+
+    @Test
+    public void testFlushByLinger() throws Exception {
+        BulkAttributeWriter writer = writer(20).build();
+
+        writer.write(AttributeAudienceType.CHANNEL, "channel-1", set("sport", "golf")).get(5, TimeUnit.SECONDS);
+        assertEquals(1, requests.size());
+        writer.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAttributeListNamePrefix() {
+        writer(ONE_HOUR).setAttributeListName("sync").build();
+    }
+
+    private BulkAttributeWriter.Builder writer(long lingerMs) {
+        return BulkAttributeWriter.newBuilder()
+                .setClient(client)
+                .setLingerMs(lingerMs);
+    }
+
+    private static Attribute set(String key, String value) {
+        return Attribute.newBuilder()
+                .setAction(AttributeAction.SET)
+                .setKey(key)
+                .setValue(value)
+                .build();
+    }
+
+    private static Attribute setAt(String key, String value, DateTime timeStamp) {
+        return Attribute.newBuilder()
+                .setAction(AttributeAction.SET)
+                .setKey(key)
+                .setValue(value)
+                .setTimeStamp(timeStamp)
+                .build();
+    }
+
+    private static Attribute remove(String key) {
+        return Attribute.newBuilder()
+                .setAction(AttributeAction.REMOVE)
+                .setKey(key)
+                .build();
+    }
+
+    private JsonNode body(int index) throws IOException {
+        return MAPPER.readTree(bodies.get(index));
+    }
+
+    private static Set<String> strings(JsonNode array) {
+        Set<String> strings = new HashSet<>();
+        for (JsonNode node : array) {
+            strings.add(node.asText());
+        }
+        return strings;
+    }
+}
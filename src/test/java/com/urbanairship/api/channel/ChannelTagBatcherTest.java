@@ -0,0 +1,253 @@
+package com.urbanairship.api.channel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.urbanairship.api.channel.model.ChannelType;
+import com.urbanairship.api.client.RecordingRequestClient;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.common.model.GenericResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChannelTagBatcherTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private RecordingRequestClient requestClient;
+    private List<Request<?>> requests;
+    private UrbanAirshipClient client;
+
+    @Before
+    public void setUp() {
+        requestClient = new RecordingRequestClient(request -> RecordingRequestClient.response(200,
+                new GenericResponse(true, "operation-" + requests.size(), null, null, null, null)));
+        requests = requestClient.getRequests();
+        client = requestClient.newClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testIdenticalMutationsShareARequest() throws Exception {
+        ChannelTagBatcher batcher = batcher(ONE_HOUR);
+
+        List<CompletableFuture<GenericResponse>> futures = new ArrayList<>();
+        futures.add(batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a")));
+        futures.add(batcher.addTags(ChannelType.ANDROID, "android-1", "group", ImmutableSet.of("a")));
+        futures.add(batcher.addTags(ChannelType.ADM, "amazon-1", "group", ImmutableSet.of("a")));
+        futures.add(batcher.addTags(ChannelType.WEB, "web-1", "group", ImmutableSet.of("a")));
+        assertTrue(requests.isEmpty());
+
+        batcher.flush();
+
+        assertEquals(1, requests.size());
+        JsonNode body = body(0);
+        assertEquals(ImmutableSet.of("ios-1"), strings(body.get("audience").get("ios_channel")));
+        assertEquals(ImmutableSet.of("android-1"), strings(body.get("audience").get("android_channel")));
+        assertEquals(ImmutableSet.of("amazon-1"), strings(body.get("audience").get("amazon_channel")));
+        assertEquals(ImmutableSet.of("web-1"), strings(body.get("audience").get("channel")));
+        assertEquals(ImmutableSet.of("a"), strings(body.get("add").get("group")));
+        assertFalse(body.has("remove"));
+
+        for (CompletableFuture<GenericResponse> future : futures) {
+            assertEquals("operation-1", future.get().getOperationId().get());
+        }
+        assertEquals(4, batcher.getOperationCount());
+        assertEquals(1, batcher.getRequestCount());
+        batcher.close();
+    }
+
+    @Test
+    public void testMutationsFoldPerChannelAndGroup() throws Exception {
+        ChannelTagBatcher batcher = batcher(ONE_HOUR);
+
+        CompletableFuture<GenericResponse> add = batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a", "b"));
+        CompletableFuture<GenericResponse> repeat = batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a"));
+        CompletableFuture<GenericResponse> remove = batcher.removeTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("b", "c"));
+        CompletableFuture<GenericResponse> other = batcher.addTags(ChannelType.IOS, "ios-1", "other", ImmutableSet.of("x"));
+        batcher.flush();
+
+        assertEquals(1, requests.size());
+        JsonNode body = body(0);
+        assertEquals(ImmutableSet.of("a"), strings(body.get("add").get("group")));
+        assertEquals(ImmutableSet.of("x"), strings(body.get("add").get("other")));
+        assertEquals(ImmutableSet.of("b", "c"), strings(body.get("remove").get("group")));
+        assertFalse(body.get("remove").has("other"));
+
+        assertSame(add.get(), repeat.get());
+        assertSame(add.get(), remove.get());
+        assertSame(add.get(), other.get());
+        batcher.close();
+    }
+
+    @Test
+    public void testSetReplacesEarlierMutations() throws Exception {
+        ChannelTagBatcher batcher = batcher(ONE_HOUR);
+
+        batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a"));
+        batcher.removeTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("b"));
+        batcher.setTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("c", "d"));
+        batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("e"));
+        batcher.removeTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("d"));
+        batcher.flush();
+
+        assertEquals(1, requests.size());
+        JsonNode body = body(0);
+        assertEquals(ImmutableSet.of("c", "e"), strings(body.get("set").get("group")));
+        assertFalse(body.has("add"));
+        assertFalse(body.has("remove"));
+        batcher.close();
+    }
+
+    @Test
+    public void testSetIsSentApartFromAddAndRemove() throws Exception {
+        ChannelTagBatcher batcher = batcher(ONE_HOUR);
+
+        CompletableFuture<GenericResponse> set = batcher.setTags(ChannelType.IOS, "ios-1", "set-group", ImmutableSet.of("a"));
+        CompletableFuture<GenericResponse> add = batcher.addTags(ChannelType.IOS, "ios-1", "add-group", ImmutableSet.of("b"));
+        CompletableFuture<GenericResponse> sameSet = batcher.setTags(ChannelType.ANDROID, "android-1", "set-group", ImmutableSet.of("a"));
+        CompletableFuture<GenericResponse> otherAdd = batcher.addTags(ChannelType.ANDROID, "android-1", "add-group", ImmutableSet.of("c"));
+        batcher.flush();
+
+        assertEquals(3, requests.size());
+        JsonNode setBody = body(0);
+        assertEquals(ImmutableSet.of("ios-1"), strings(setBody.get("audience").get("ios_channel")));
+        assertEquals(ImmutableSet.of("android-1"), strings(setBody.get("audience").get("android_channel")));
+        assertEquals(ImmutableSet.of("a"), strings(setBody.get("set").get("set-group")));
+        assertFalse(setBody.has("add"));
+
+        assertEquals(ImmutableSet.of("b"), strings(body(1).get("add").get("add-group")));
+        assertEquals(ImmutableSet.of("c"), strings(body(2).get("add").get("add-group")));
+
+        assertEquals("operation-1", set.get().getOperationId().get());
+        assertEquals("operation-1", sameSet.get().getOperationId().get());
+        assertEquals("operation-2", add.get().getOperationId().get());
+        assertEquals("operation-3", otherAdd.get().getOperationId().get());
+        batcher.close();
+    }
+
+    @Test
+    public void testAudienceSizeSplitsRequests() throws Exception {
+        ChannelTagBatcher batcher = ChannelTagBatcher.newBuilder()
+                .setClient(client)
+                .setMaxAudienceSize(2)
+                .setLingerMs(ONE_HOUR)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            batcher.addTags(ChannelType.IOS, "ios-" + i, "group", ImmutableSet.of("a"));
+        }
+        batcher.flush();
+
+        assertEquals(3, requests.size());
+        assertEquals(2, body(0).get("audience").get("ios_channel").size());
+        assertEquals(2, body(1).get("audience").get("ios_channel").size());
+        assertEquals(1, body(2).get("audience").get("ios_channel").size());
+        batcher.close();
+    }
+
+    @Test
+    public void testFlushByChannelCount() throws Exception {
+        ChannelTagBatcher batcher = ChannelTagBatcher.newBuilder()
+                .setClient(client)
+                .setMaxChannels(2)
+                .setLingerMs(ONE_HOUR)
+                .build();
+
+        CompletableFuture<GenericResponse> first = batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a"));
+        batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("b"));
+        assertTrue(requests.isEmpty());
+
+        batcher.addTags(ChannelType.IOS, "ios-2", "group", ImmutableSet.of("a"));
+        assertEquals(2, requests.size());
+        assertTrue(first.isDone());
+
+        CompletableFuture<GenericResponse> pending = batcher.addTags(ChannelType.IOS, "ios-3", "group", ImmutableSet.of("a"));
+        assertFalse(pending.isDone());
+        batcher.close();
+        assertTrue(pending.isDone());
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    public void testFlushByLinger() throws Exception {
+        ChannelTagBatcher batcher = batcher(20);
+
+        CompletableFuture<GenericResponse> future = batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a"));
+        assertEquals("operation-1", future.get(5, TimeUnit.SECONDS).getOperationId().get());
+        assertEquals(1, requests.size());
+        batcher.close();
+    }
+
+    @Test
+    public void testErrorFailsEveryFuture() throws Exception {
+        ChannelTagBatcher batcher = batcher(ONE_HOUR);
+        requestClient.setFailure(new IOException("boom"));
+
+        CompletableFuture<GenericResponse> first = batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a"));
+        CompletableFuture<GenericResponse> second = batcher.addTags(ChannelType.IOS, "ios-2", "group", ImmutableSet.of("a"));
+        batcher.close();
+
+        for (CompletableFuture<GenericResponse> future : new CompletableFuture[]{first, second}) {
+            try {
+                future.get();
+                fail("Expected the request error");
+            } catch (ExecutionException e) {
+                assertEquals("boom", e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedBatcherRejectsMutations() {
+        ChannelTagBatcher batcher = batcher(ONE_HOUR);
+        batcher.close();
+        batcher.addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.of("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyAddIsRejected() {
+        batcher(ONE_HOUR).addTags(ChannelType.IOS, "ios-1", "group", ImmutableSet.<String>of());
+    }
+
+    private ChannelTagBatcher batcher(long lingerMs) {
+        return ChannelTagBatcher.newBuilder()
+                .setClient(client)
+                .setLingerMs(lingerMs)
+                .build();
+    }
+
+    private JsonNode body(int index) throws IOException {
+        return MAPPER.readTree(requests.get(index).getRequestBody());
+    }
+
+    private static Set<String> strings(JsonNode array) {
+        Set<String> strings = new HashSet<>();
+        for (JsonNode node : array) {
+            strings.add(node.asText());
+        }
+        return strings;
+    }
+}
@@ -12,11 +12,13 @@ import org.apache.http.entity.ContentType;
 import org.junit.Test;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class ChannelTagRequestTest {
@@ -55,6 +57,18 @@ public class ChannelTagRequestTest {
         assertEquals(jsonFromObject, jsonFromString);
     }
 
+    @Test
+    public void testBodyBytes() throws Exception {
+        ChannelTagRequest request = ChannelTagRequest.newRequest()
+            .addIOSChannel(UUID.randomUUID().toString())
+            .addTags("tag_group", ImmutableSet.of("caf\u00e9", "tag"));
+
+        byte[] body = request.getRequestBodyBytes();
+
+        assertArrayEquals(request.getRequestBody().getBytes(StandardCharsets.UTF_8), body);
+        assertEquals(MAPPER.readTree(body), MAPPER.readTree(request.getRequestBody()));
+    }
+
     @Test
     public void testRemoveTags() throws Exception {
         String iosChannel1 = UUID.randomUUID().toString();
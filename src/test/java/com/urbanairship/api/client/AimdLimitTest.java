@@ -0,0 +1,71 @@
+package com.urbanairship.api.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class AimdLimitTest {
+
+    private static final long THRESHOLD = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testAdditiveIncrease() {
+        AimdLimit limit = new AimdLimit(4, 1, 10, 0.9, THRESHOLD);
+
+        for (int i = 0; i < 4; i++) {
+            limit.onSample(0, TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertEquals(4, limit.getLimit());
+        limit.onSample(0, TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertEquals(5, limit.getLimit());
+
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(0, TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void testMultiplicativeDecrease() {
+        AimdLimit limit = new AimdLimit(40, 2, 100, 0.9, THRESHOLD);
+
+        limit.onSample(0, THRESHOLD * 2, false);
+        assertEquals(36, limit.getLimit());
+
+        long now = THRESHOLD * 2;
+        limit.onSample(now, TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertEquals(18, limit.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            now += TimeUnit.MILLISECONDS.toNanos(10);
+            limit.onSample(now, 0, true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void testDecreaseOncePerWindow() {
+        AimdLimit limit = new AimdLimit(40, 2, 100, 0.9, THRESHOLD);
+        long latency = TimeUnit.MILLISECONDS.toNanos(100);
+
+        // A burst of requests sent together and all rate limited.
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(0, latency + i, true);
+        }
+        assertEquals(20, limit.getLimit());
+
+        // A request sent after the decrease reflects the new limit.
+        limit.onSample(latency, latency, true);
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void testLatencyIgnoredWithoutThreshold() {
+        AimdLimit limit = new AimdLimit(1, 1, 10, 0.9, 0);
+
+        limit.onSample(0, TimeUnit.HOURS.toNanos(1), false);
+        assertEquals(2, limit.getLimit());
+    }
+}
@@ -0,0 +1,101 @@
+package com.urbanairship.api.client;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BodyPublishersTest {
+
+    private static final File TEST_CSV = new File("src/test/data/test.csv");
+
+    @Test
+    public void testOfFile() throws Exception {
+        BodyPublisher publisher = BodyPublishers.ofFile(TEST_CSV);
+
+        assertEquals(TEST_CSV.length(), publisher.getContentLength());
+        assertEquals(TEST_CSV, publisher.getFile().get());
+        try (InputStream in = publisher.openStream()) {
+            assertArrayEquals(Files.readAllBytes(TEST_CSV.toPath()), ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testGzipFile() throws Exception {
+        BodyPublisher publisher = BodyPublishers.gzip(BodyPublishers.ofFile(TEST_CSV));
+
+        assertEquals(-1, publisher.getContentLength());
+        assertFalse(publisher.getFile().isPresent());
+        assertArrayEquals(Files.readAllBytes(TEST_CSV.toPath()), gunzip(publisher));
+        // Every call opens a fresh stream so the body can be sent again on retry.
+        assertArrayEquals(Files.readAllBytes(TEST_CSV.toPath()), gunzip(publisher));
+    }
+
+    @Test
+    public void testGzipLargeBody() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            csv.append("named_user,user-").append(random.nextInt()).append('\n');
+        }
+        byte[] expected = csv.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] noise = new byte[300000];
+        random.nextBytes(noise);
+
+        assertArrayEquals(expected, gunzip(BodyPublishers.gzip(bytes(expected))));
+        assertArrayEquals(noise, gunzip(BodyPublishers.gzip(bytes(noise))));
+    }
+
+    @Test
+    public void testGzipEmptyBody() throws Exception {
+        assertArrayEquals(new byte[0], gunzip(BodyPublishers.gzip(bytes(new byte[0]))));
+    }
+
+    @Test
+    public void testGzipSingleByteReads() throws Exception {
+        byte[] expected = "a,b,c\n1,2,3\n".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream collected = new ByteArrayOutputStream();
+        try (InputStream in = BodyPublishers.gzip(bytes(expected)).openStream()) {
+            int b;
+            while ((b = in.read()) != -1) {
+                assertTrue(b >= 0 && b <= 255);
+                collected.write(b);
+            }
+        }
+
+        assertArrayEquals(expected, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(collected.toByteArray()))));
+    }
+
+    private static byte[] gunzip(BodyPublisher publisher) throws IOException {
+        try (InputStream in = new GZIPInputStream(publisher.openStream())) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    private static BodyPublisher bytes(final byte[] body) {
+        return new BodyPublisher() {
+            @Override
+            public long getContentLength() {
+                return body.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(body);
+            }
+        };
+    }
+}
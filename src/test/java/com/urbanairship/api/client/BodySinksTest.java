@@ -0,0 +1,93 @@
+package com.urbanairship.api.client;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BodySinksTest {
+
+    @Test
+    public void testOfOutputStream() throws Exception {
+        final List<Boolean> closed = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                closed.add(true);
+                super.close();
+            }
+        };
+
+        BodySink sink = BodySinks.ofOutputStream(out);
+        sink.onBodyPart(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+        sink.onBodyPart(ByteBuffer.wrap("xdefx".getBytes(StandardCharsets.UTF_8), 1, 3));
+        ByteBuffer direct = ByteBuffer.allocateDirect(2);
+        direct.put((byte) 'g').put((byte) 'h');
+        direct.flip();
+        sink.onBodyPart(direct);
+        sink.onComplete();
+
+        assertEquals("abcdefgh", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(1, closed.size());
+    }
+
+    @Test
+    public void testOfChannel() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BodySink sink = BodySinks.ofChannel(Channels.newChannel(out));
+        sink.onBodyPart(ByteBuffer.wrap("alias,a\n".getBytes(StandardCharsets.UTF_8)));
+        sink.onBodyPart(ByteBuffer.wrap("alias,b\n".getBytes(StandardCharsets.UTF_8)));
+        sink.onComplete();
+
+        assertArrayEquals("alias,a\nalias,b\n".getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testOfRowsSplitsAcrossParts() throws Exception {
+        byte[] body = "alias,stéven\r\nnamed_user,\"gates,bill\"\nios_channel,中文\nlast".getBytes(StandardCharsets.UTF_8);
+        List<String> expected = Arrays.asList("alias,stéven", "named_user,\"gates,bill\"", "ios_channel,中文", "last");
+
+        // Every possible split point, including the middle of multi-byte characters.
+        for (int split = 0; split <= body.length; split++) {
+            List<String> rows = new ArrayList<>();
+            BodySink sink = BodySinks.ofRows(rows::add);
+            sink.onBodyPart(ByteBuffer.wrap(body, 0, split));
+            sink.onBodyPart(ByteBuffer.wrap(body, split, body.length - split));
+            sink.onComplete();
+            assertEquals(expected, rows);
+        }
+
+        // One byte at a time.
+        List<String> rows = new ArrayList<>();
+        BodySink sink = BodySinks.ofRows(rows::add);
+        for (byte b : body) {
+            sink.onBodyPart(ByteBuffer.wrap(new byte[]{b}));
+        }
+        sink.onComplete();
+        assertEquals(expected, rows);
+    }
+
+    @Test
+    public void testOfRowsLongLine() throws Exception {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            line.append('x');
+        }
+
+        List<String> rows = new ArrayList<>();
+        BodySink sink = BodySinks.ofRows(rows::add);
+        sink.onBodyPart(ByteBuffer.wrap((line + "\n\n").getBytes(StandardCharsets.UTF_8)));
+        sink.onComplete();
+
+        assertEquals(Arrays.asList(line.toString(), ""), rows);
+    }
+}
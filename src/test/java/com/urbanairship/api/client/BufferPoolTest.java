@@ -0,0 +1,44 @@
+package com.urbanairship.api.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BufferPoolTest {
+
+    @Test
+    public void testBuffersAreReused() {
+        BufferPool pool = new BufferPool(1024, 2);
+
+        byte[] buffer = pool.acquire();
+        assertEquals(1024, buffer.length);
+        pool.release(buffer);
+        assertEquals(1, pool.size());
+
+        assertSame(buffer, pool.acquire());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        BufferPool pool = new BufferPool(16, 2);
+        byte[] first = pool.acquire();
+        byte[] second = pool.acquire();
+        byte[] third = pool.acquire();
+        assertNotSame(first, second);
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testForeignBuffersAreDropped() {
+        BufferPool pool = new BufferPool(16, 2);
+        pool.release(new byte[8]);
+        assertEquals(0, pool.size());
+    }
+}
@@ -0,0 +1,201 @@
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.client.CircuitBreakerRequestClient.State;
+import com.urbanairship.api.reports.DevicesReportRequest;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerRequestClientTest {
+
+    private static final String CHANNEL_ID = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+
+    private final List<CompletableFuture<Response<?>>> dispatched = new CopyOnWriteArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return now.get();
+        }
+    };
+
+    private final RequestClient delegate = new RequestClient() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+            CompletableFuture<Response<?>> future = new CompletableFuture<>();
+            dispatched.add(future);
+            return (Future<Response<T>>) (Future<?>) future;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private CircuitBreakerRequestClient client;
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testOpenCircuitFailsFast() throws Exception {
+        client = newClient();
+
+        for (int i = 0; i < 4; i++) {
+            execute(ChannelRequest.newRequest(CHANNEL_ID));
+            dispatched.get(i).completeExceptionally(ServerException.newBuilder().setStatusCode(503).build());
+        }
+        assertEquals(State.OPEN, client.getState("/api/channels/{id}"));
+
+        Future<Response<?>> rejected = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        assertEquals(4, dispatched.size());
+        try {
+            rejected.get();
+            fail("Request should have failed fast");
+        } catch (ExecutionException e) {
+            CircuitBreakerOpenException open = (CircuitBreakerOpenException) e.getCause();
+            assertEquals("/api/channels/{id}", open.getPathTemplate());
+            assertEquals(30000, open.getRetryAfterMs());
+        }
+        assertEquals(1, client.getRejectedCount());
+
+        // Other endpoints are not affected.
+        execute(DevicesReportRequest.newRequest());
+        assertEquals(5, dispatched.size());
+        assertEquals(ImmutableMap.of("/api/channels/{id}", State.OPEN, "/api/reports/devices/", State.CLOSED), client.getStates());
+    }
+
+    @Test
+    public void testClientErrorsAreNotFailures() throws Exception {
+        client = newClient();
+
+        for (int i = 0; i < 4; i++) {
+            execute(ChannelRequest.newRequest(CHANNEL_ID));
+            dispatched.get(i).completeExceptionally(ClientException.newBuilder().setStatusCode(404).build());
+        }
+        execute(ChannelRequest.newRequest(CHANNEL_ID));
+        dispatched.get(4).complete(response(500));
+
+        assertEquals(State.CLOSED, client.getState("/api/channels/{id}"));
+        assertEquals(0.2, client.getFailureRate("/api/channels/{id}").get(), 0.0001);
+        assertFalse(client.getFailureRate("/api/push/").isPresent());
+    }
+
+    @Test
+    public void testHalfOpenProbes() throws Exception {
+        client = newClient();
+
+        for (int i = 0; i < 4; i++) {
+            execute(ChannelRequest.newRequest(CHANNEL_ID));
+            dispatched.get(i).completeExceptionally(new RequestTimeoutException("timed out", 100, 0));
+        }
+        assertEquals(State.OPEN, client.getState("/api/channels/{id}"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        Future<Response<?>> probe = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        assertEquals(State.HALF_OPEN, client.getState("/api/channels/{id}"));
+        // A single probe is allowed, the next request fails fast while it is in flight.
+        assertTrue(execute(ChannelRequest.newRequest(CHANNEL_ID)).isDone());
+        assertEquals(5, dispatched.size());
+
+        dispatched.get(4).complete(response(200));
+        assertEquals(200, probe.get().getStatus());
+        assertEquals(State.CLOSED, client.getState("/api/channels/{id}"));
+    }
+
+    @Test
+    public void testCancellationPropagatesAndIsIgnored() throws Exception {
+        client = newClient();
+
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        future.cancel(true);
+
+        assertTrue(dispatched.get(0).isCancelled());
+        assertEquals(0, client.getFailureRate("/api/channels/{id}").get(), 0.0001);
+    }
+
+    @Test
+    public void testSlowCalls() throws Exception {
+        client = CircuitBreakerRequestClient.newBuilder()
+                .setClient(delegate)
+                .setMinimumCalls(2)
+                .setSlowCallThresholdMs(1000)
+                .setTicker(ticker)
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            execute(ChannelRequest.newRequest(CHANNEL_ID));
+            now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+            dispatched.get(i).complete(response(200));
+        }
+        assertEquals(State.OPEN, client.getState("/api/channels/{id}"));
+    }
+
+    @Test
+    public void testLeastRecentlyRequestedCircuitIsDropped() throws Exception {
+        client = CircuitBreakerRequestClient.newBuilder()
+                .setClient(delegate)
+                .setMaxCircuits(1)
+                .setTicker(ticker)
+                .build();
+
+        execute(ChannelRequest.newRequest(CHANNEL_ID));
+        dispatched.get(0).complete(response(500));
+        execute(DevicesReportRequest.newRequest());
+        dispatched.get(1).complete(response(200));
+
+        assertEquals(ImmutableMap.of("/api/reports/devices/", State.CLOSED), client.getStates());
+        assertFalse(client.getFailureRate("/api/channels/{id}").isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreshold() {
+        CircuitBreakerRequestClient.newBuilder()
+                .setClient(delegate)
+                .setFailureRateThreshold(1.5)
+                .build();
+    }
+
+    private CircuitBreakerRequestClient newClient() {
+        return CircuitBreakerRequestClient.newBuilder()
+                .setClient(delegate)
+                .setWindowSize(10)
+                .setMinimumCalls(4)
+                .setHalfOpenProbes(1)
+                .setTicker(ticker)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Response<?>> execute(Request<?> request) {
+        return (Future<Response<?>>) (Future<?>) client.executeAsync(request, null, ImmutableMap.<String, String>of());
+    }
+
+    private static Response<Object> response(int status) {
+        return new Response.Builder<Object>()
+                .setStatus(status)
+                .setHeaders(ImmutableMap.<String, String>of())
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+import com.urbanairship.api.client.CircuitBreakerRequestClient.State;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private long now = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return now;
+        }
+    };
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker(10, 4, 0.5, 0.75, TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(30), 2, ticker);
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreaker breaker = breaker();
+
+        call(breaker, true, FAST);
+        call(breaker, true, FAST);
+        call(breaker, false, FAST);
+        // Under the minimum calls, the rate is not evaluated yet.
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(2.0 / 3, breaker.getFailureRate(), 0.0001);
+
+        call(breaker, false, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), breaker.nanosUntilHalfOpen());
+    }
+
+    @Test
+    public void testOpensOnSlowCallRate() {
+        CircuitBreaker breaker = breaker();
+
+        call(breaker, false, SLOW);
+        call(breaker, false, SLOW);
+        call(breaker, false, FAST);
+        call(breaker, false, SLOW);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testWindowSlides() {
+        CircuitBreaker breaker = breaker();
+
+        for (int i = 0; i < 4; i++) {
+            call(breaker, false, FAST);
+            call(breaker, false, FAST);
+            call(breaker, true, FAST);
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+        // The window holds the last 10 calls, 4 of them failed.
+        assertEquals(0.4, breaker.getFailureRate(), 0.0001);
+
+        call(breaker, true, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+        call(breaker, true, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbesClose() {
+        CircuitBreaker breaker = openBreaker();
+
+        now += TimeUnit.SECONDS.toNanos(30);
+        assertEquals(0, breaker.nanosUntilHalfOpen());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onCall(false, FAST);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onCall(false, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate(), 0.0001);
+    }
+
+    @Test
+    public void testHalfOpenProbeFailureReopens() {
+        CircuitBreaker breaker = openBreaker();
+
+        now += TimeUnit.SECONDS.toNanos(30);
+        assertTrue(breaker.tryAcquire());
+        breaker.onCall(false, SLOW);
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), breaker.nanosUntilHalfOpen());
+    }
+
+    @Test
+    public void testIgnoredProbeGivesBackItsPermit() {
+        CircuitBreaker breaker = openBreaker();
+
+        now += TimeUnit.SECONDS.toNanos(30);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onIgnored();
+        assertTrue(breaker.tryAcquire());
+        breaker.onIgnored();
+        breaker.onIgnored();
+        breaker.onIgnored();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, FAST);
+        }
+        assertEquals(State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failed, long latencyNanos) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onCall(failed, latencyNanos);
+    }
+}
@@ -0,0 +1,262 @@
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.push.PushRequest;
+import com.urbanairship.api.push.model.DeviceType;
+import com.urbanairship.api.push.model.DeviceTypeData;
+import com.urbanairship.api.push.model.PushPayload;
+import com.urbanairship.api.push.model.audience.Selectors;
+import com.urbanairship.api.push.model.notification.Notifications;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HedgingRequestClientTest {
+
+    private static final String CHANNEL_ID = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+
+    private final List<CompletableFuture<Response<?>>> dispatched = new CopyOnWriteArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return now.get();
+        }
+    };
+
+    private final RequestClient delegate = new RequestClient() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+            CompletableFuture<Response<?>> future = new CompletableFuture<>();
+            dispatched.add(future);
+            return (Future<Response<T>>) (Future<?>) future;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private HedgingRequestClient client;
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testHedgeDelayIsLatencyPercentile() throws Exception {
+        client = newClient(10);
+
+        for (int i = 1; i <= 4; i++) {
+            completeAfter(i);
+            assertFalse(client.getHedgeDelayMs("/api/channels/{id}").isPresent());
+        }
+        completeAfter(5);
+
+        // 80th percentile of 1 to 5 ms.
+        assertEquals(4, client.getHedgeDelayMs("/api/channels/{id}").get().longValue());
+        assertFalse(client.getHedgeDelayMs("/api/push/").isPresent());
+        assertEquals(5, client.getRequestCount());
+        assertEquals(0, client.getHedgeCount());
+    }
+
+    @Test
+    public void testHedgeWins() throws Exception {
+        client = newClient(10);
+        warmUp();
+
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        waitFor(() -> dispatched.size() == 7);
+        CompletableFuture<Response<?>> primary = dispatched.get(5);
+        dispatched.get(6).complete(response(200));
+
+        assertEquals(200, future.get(5, TimeUnit.SECONDS).getStatus());
+        assertTrue(primary.isCancelled());
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(1, client.getHedgeWinCount());
+        assertEquals(1.0 / 6, client.getHedgeRate(), 0.0001);
+    }
+
+    @Test
+    public void testHedgeWinLatencySpansTheWholeRequest() throws Exception {
+        client = HedgingRequestClient.newBuilder()
+                .setClient(delegate)
+                .setPercentile(0.5)
+                .setWindowSize(5)
+                .setMinimumSamples(5)
+                .setTicker(ticker)
+                .build();
+        for (int i = 1; i <= 5; i++) {
+            completeAfter(i * 100);
+        }
+        assertEquals(300, client.getHedgeDelayMs("/api/channels/{id}").get().longValue());
+
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        waitFor(() -> dispatched.size() == 7);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        dispatched.get(6).complete(response(200));
+        future.get(5, TimeUnit.SECONDS);
+
+        // 400 ms from the original request, not the 100 ms of the hedge alone.
+        assertEquals(400, client.getHedgeDelayMs("/api/channels/{id}").get().longValue());
+    }
+
+    @Test
+    public void testPrimaryWinsCancelsHedge() throws Exception {
+        client = newClient(10);
+        warmUp();
+
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        waitFor(() -> dispatched.size() == 7);
+        dispatched.get(5).complete(response(200));
+
+        assertEquals(200, future.get(5, TimeUnit.SECONDS).getStatus());
+        assertTrue(dispatched.get(6).isCancelled());
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(0, client.getHedgeWinCount());
+    }
+
+    @Test
+    public void testFailureWaitsForOtherAttempt() throws Exception {
+        client = newClient(10);
+        warmUp();
+
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        waitFor(() -> dispatched.size() == 7);
+        dispatched.get(5).completeExceptionally(ServerException.newBuilder().setStatusCode(503).build());
+        assertFalse(future.isDone());
+
+        dispatched.get(6).complete(response(200));
+        assertEquals(200, future.get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void testFastFailureIsNotHedged() throws Exception {
+        client = newClient(10);
+        warmUp();
+
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        dispatched.get(5).completeExceptionally(ServerException.newBuilder().setStatusCode(503).build());
+        assertTrue(future.isDone());
+
+        Thread.sleep(50);
+        assertEquals(6, dispatched.size());
+        assertEquals(0, client.getHedgeCount());
+    }
+
+    @Test
+    public void testHedgeBudget() throws Exception {
+        client = HedgingRequestClient.newBuilder()
+                .setClient(delegate)
+                .setPercentile(0.8)
+                .setMinimumSamples(5)
+                .setMinHedgeDelayMs(1)
+                .setMaxHedgeRatio(0.01)
+                .setMaxHedgeBurst(1)
+                .setTicker(ticker)
+                .build();
+        warmUp();
+
+        execute(ChannelRequest.newRequest(CHANNEL_ID));
+        waitFor(() -> dispatched.size() == 7);
+        execute(ChannelRequest.newRequest(CHANNEL_ID));
+
+        Thread.sleep(50);
+        // The budget held a single hedge.
+        assertEquals(8, dispatched.size());
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(7, client.getRequestCount());
+    }
+
+    @Test
+    public void testOnlyGetsAreHedged() throws Exception {
+        client = newClient(10);
+
+        PushPayload payload = PushPayload.newBuilder()
+                .setAudience(Selectors.all())
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("Foo"))
+                .build();
+        Future<Response<?>> future = execute(PushRequest.newRequest(payload));
+
+        assertSame(dispatched.get(0), future);
+        assertEquals(0, client.getRequestCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        HedgingRequestClient.newBuilder()
+                .setClient(delegate)
+                .setPercentile(1)
+                .build();
+    }
+
+    private HedgingRequestClient newClient(double maxHedgeBurst) {
+        return HedgingRequestClient.newBuilder()
+                .setClient(delegate)
+                .setPercentile(0.8)
+                .setMinimumSamples(5)
+                .setMinHedgeDelayMs(1)
+                .setMaxHedgeBurst(maxHedgeBurst)
+                .setTicker(ticker)
+                .build();
+    }
+
+    /**
+     * Record 5 latencies of 1 to 5 ms, for a 4 ms hedge delay.
+     */
+    private void warmUp() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            completeAfter(i);
+        }
+    }
+
+    private void completeAfter(long latencyMs) throws Exception {
+        Future<Response<?>> future = execute(ChannelRequest.newRequest(CHANNEL_ID));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        dispatched.get(dispatched.size() - 1).complete(response(200));
+        future.get(5, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Response<?>> execute(Request<?> request) {
+        return (Future<Response<?>>) (Future<?>) client.executeAsync(request, null, ImmutableMap.<String, String>of());
+    }
+
+    private static Response<Object> response(int status) {
+        return new Response.Builder<Object>()
+                .setStatus(status)
+                .setHeaders(ImmutableMap.<String, String>of())
+                .build();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package com.urbanairship.api.client;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.channel.model.ChannelResponse;
+import com.urbanairship.api.push.PushRequest;
+import com.urbanairship.api.push.model.DeviceType;
+import com.urbanairship.api.push.model.DeviceTypeData;
+import com.urbanairship.api.push.model.PushPayload;
+import com.urbanairship.api.push.model.PushResponse;
+import com.urbanairship.api.push.model.audience.Selectors;
+import com.urbanairship.api.push.model.notification.Notifications;
+import com.urbanairship.api.staticlists.StaticListUploadRequest;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http2.DefaultHttp2DataFrame;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
+import io.netty.handler.codec.http2.DefaultHttp2ResetFrame;
+import io.netty.handler.codec.http2.DefaultHttp2WindowUpdateFrame;
+import io.netty.handler.codec.http2.Http2DataFrame;
+import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2FrameStream;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2ResetFrame;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Http2RequestClientTest {
+
+    private static final String PUSH_JSON = "{\"ok\":true,\"operation_id\":\"df6a6b50\",\"push_ids\":[\"PushID\"]}";
+    private static final String CHANNEL_ID = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+
+    private StubServer server;
+    private UrbanAirshipClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    private UrbanAirshipClient client(Http2RequestClient.Builder builder) {
+        client = UrbanAirshipClient.newBuilder()
+                .setKey("key")
+                .setSecret("secret")
+                .setClient(builder.setBaseUri("http://127.0.0.1:" + server.port()).build())
+                .build();
+        return client;
+    }
+
+    private static PushRequest pushRequest() {
+        return PushRequest.newRequest(PushPayload.newBuilder()
+                .setAudience(Selectors.all())
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("Foo"))
+                .build());
+    }
+
+    @Test
+    public void testPush() throws Exception {
+        server.respond(request -> StubResponse.json(202, PUSH_JSON));
+
+        Response<PushResponse> response = client(Http2RequestClient.newBuilder()).execute(pushRequest());
+
+        assertEquals(202, response.getStatus());
+        assertEquals("PushID", response.getBody().get().getPushIds().get().get(0));
+        assertEquals("application/json", response.getHeaders().get("content-type"));
+
+        StubRequest request = server.requests().get(0);
+        assertEquals("POST", request.headers.get(":method"));
+        assertEquals("http", request.headers.get(":scheme"));
+        assertEquals("/api/push/", request.headers.get(":path"));
+        assertEquals("127.0.0.1:" + server.port(), request.headers.get(":authority"));
+        assertEquals("key", request.headers.get("x-ua-appkey"));
+        assertEquals(Request.CONTENT_TYPE_JSON, request.headers.get("content-type"));
+        assertEquals(String.valueOf(request.body.length), request.headers.get("content-length"));
+        assertTrue(request.headers.get("authorization").startsWith("Basic "));
+        assertTrue(new String(request.body, StandardCharsets.UTF_8).contains("\"alert\":\"Foo\""));
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneConnection() throws Exception {
+        server.respond(request -> StubResponse.json(202, PUSH_JSON));
+        server.delayMs = 200;
+
+        UrbanAirshipClient client = client(Http2RequestClient.newBuilder());
+        List<Future<Response<PushResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(client.executeAsync(pushRequest()));
+        }
+        for (Future<Response<PushResponse>> future : futures) {
+            assertEquals(202, future.get(5, TimeUnit.SECONDS).getStatus());
+        }
+
+        assertEquals(1, server.connections.get());
+        assertEquals(50, server.peakStreams.get());
+    }
+
+    @Test
+    public void testMaxConcurrentStreams() throws Exception {
+        server.respond(request -> StubResponse.json(202, PUSH_JSON));
+        server.maxConcurrentStreams = 3;
+        server.delayMs = 20;
+
+        UrbanAirshipClient client = client(Http2RequestClient.newBuilder().setMaxConnections(1));
+        List<Future<Response<PushResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(client.executeAsync(pushRequest()));
+        }
+        for (Future<Response<PushResponse>> future : futures) {
+            assertEquals(202, future.get(5, TimeUnit.SECONDS).getStatus());
+        }
+
+        assertEquals(1, server.connections.get());
+        assertEquals(3, server.peakStreams.get());
+        assertEquals(0, server.refused.get());
+    }
+
+    @Test
+    public void testServerErrorRetry() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.respond(request -> calls.incrementAndGet() < 3
+                ? StubResponse.json(503, "{\"ok\":false,\"error\":\"unavailable\"}")
+                : StubResponse.json(200, "{\"ok\":true}"));
+
+        Response<ChannelResponse> response = client(Http2RequestClient.newBuilder()
+                .setRetryBackoff(RetryBackoff.newBuilder().setBaseDelayMs(1).build()))
+                .execute(RawBodyRequest.of(ChannelRequest.newRequest(CHANNEL_ID)));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(3, server.requests().size());
+        assertEquals("/api/channels/" + CHANNEL_ID, server.requests().get(2).headers.get(":path"));
+    }
+
+    @Test
+    public void testPostIsNotRetried() throws Exception {
+        server.respond(request -> StubResponse.json(503, "{\"ok\":false,\"error\":\"unavailable\"}"));
+
+        try {
+            client(Http2RequestClient.newBuilder()).executeAsync(pushRequest()).get(5, TimeUnit.SECONDS);
+            fail("Expected a ServerException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerException);
+            assertEquals(503, ((ServerException) e.getCause()).getStatusCode().intValue());
+        }
+        assertEquals(1, server.requests().size());
+    }
+
+    @Test
+    public void testClientError() throws Exception {
+        server.respond(request -> StubResponse.json(401, "{\"ok\":false,\"error\":\"Unauthorized\",\"error_code\":40101}"));
+
+        try {
+            client(Http2RequestClient.newBuilder()).executeAsync(pushRequest()).get(5, TimeUnit.SECONDS);
+            fail("Expected a ClientException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ClientException);
+            ClientException exception = (ClientException) e.getCause();
+            assertEquals(401, exception.getStatusCode());
+            assertEquals("Unauthorized", exception.getStatusText());
+            assertTrue(exception.getError().isPresent());
+        }
+    }
+
+    @Test
+    public void testRefusedStreamIsSentAgain() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.respond(request -> calls.incrementAndGet() == 1 ? null : StubResponse.json(202, PUSH_JSON));
+
+        CompletedMetrics metrics = new CompletedMetrics();
+        Response<PushResponse> response = client(Http2RequestClient.newBuilder().setMetricsListener(metrics))
+                .execute(pushRequest());
+
+        assertEquals(202, response.getStatus());
+        assertEquals(1, server.refused.get());
+        assertEquals(2, server.requests().size());
+        assertEquals(0, metrics.get().getRetries());
+    }
+
+    @Test
+    public void testLargeBodyFlowControl() throws Exception {
+        server.respond(request -> StubResponse.json(202, "{\"ok\":true}"));
+        byte[] csv = csv(300_000);
+        File file = File.createTempFile("http2", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), csv);
+
+        UrbanAirshipClient client = client(Http2RequestClient.newBuilder());
+        assertEquals(202, client.execute(StaticListUploadRequest.newRequest("list", file.getPath())).getStatus());
+        assertEquals(202, client.execute(StaticListUploadRequest.newRequest("list", file.getPath()).setGzipEnabled(true)).getStatus());
+
+        StubRequest plain = server.requests().get(0);
+        assertEquals("PUT", plain.headers.get(":method"));
+        assertEquals(String.valueOf(csv.length), plain.headers.get("content-length"));
+        assertArrayEquals(csv, plain.body);
+
+        StubRequest gzipped = server.requests().get(1);
+        assertEquals("gzip", gzipped.headers.get("content-encoding"));
+        assertArrayEquals(csv, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipped.body))));
+    }
+
+    @Test
+    public void testStreamedBodyIsReadOffTheIoThreads() throws Exception {
+        server.respond(request -> StubResponse.json(202, "{\"ok\":true}"));
+        byte[] csv = csv(200_000);
+        Set<String> readers = Collections.synchronizedSet(new HashSet<>());
+        BodyPublisher publisher = new BodyPublisher() {
+            @Override
+            public long getContentLength() {
+                return csv.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new FilterInputStream(new ByteArrayInputStream(csv)) {
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        readers.add(Thread.currentThread().getName());
+                        return super.read(b, off, len);
+                    }
+                };
+            }
+        };
+
+        Response<String> response = client(Http2RequestClient.newBuilder()).execute(new Request<String>() {
+            @Override
+            public HttpMethod getHttpMethod() {
+                return HttpMethod.PUT;
+            }
+
+            @Override
+            public String getRequestBody() {
+                return null;
+            }
+
+            @Override
+            public Optional<BodyPublisher> getBodyPublisher() {
+                return Optional.of(publisher);
+            }
+
+            @Override
+            public ContentType getContentType() {
+                return ContentType.TEXT_PLAIN;
+            }
+
+            @Override
+            public URI getUri(URI baseUri) {
+                return RequestUtils.resolveURI(baseUri, "/api/lists/list/csv");
+            }
+
+            @Override
+            public ResponseParser<String> getResponseParser() {
+                return body -> body;
+            }
+
+            @Override
+            public boolean bearerTokenAuthRequired() {
+                return false;
+            }
+
+            @Override
+            public boolean canUseBearerTokenAuth() {
+                return false;
+            }
+        });
+
+        assertEquals(202, response.getStatus());
+        assertArrayEquals(csv, server.requests().get(0).body);
+        assertTrue(readers.size() > 0);
+        for (String reader : readers) {
+            assertTrue(reader, reader.startsWith("ua-http2-body-"));
+        }
+    }
+
+    @Test
+    public void testRequestTimeout() throws Exception {
+        server.respond(request -> StubResponse.json(202, PUSH_JSON));
+        server.delayMs = 2000;
+
+        try {
+            client(Http2RequestClient.newBuilder().setRequestTimeoutMs(100L)).executeAsync(pushRequest()).get(5, TimeUnit.SECONDS);
+            fail("Expected a TimeoutException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        server.awaitStreamsClosed();
+        assertEquals(1, server.resets.get());
+    }
+
+    @Test
+    public void testTimeoutRequest() throws Exception {
+        server.respond(request -> StubResponse.json(202, PUSH_JSON));
+        server.delayMs = 2000;
+
+        try {
+            client(Http2RequestClient.newBuilder()).executeAsync(TimeoutRequest.of(pushRequest(), 100)).get(5, TimeUnit.SECONDS);
+            fail("Expected a RequestTimeoutException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestTimeoutException);
+            assertEquals(0, ((RequestTimeoutException) e.getCause()).getRetries());
+        }
+        server.awaitStreamsClosed();
+        assertEquals(1, server.resets.get());
+    }
+
+    @Test
+    public void testConnectionFailure() throws Exception {
+        server.close();
+
+        try {
+            client(Http2RequestClient.newBuilder()).executeAsync(pushRequest()).get(5, TimeUnit.SECONDS);
+            fail("Expected a connection failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxConnections() {
+        Http2RequestClient.newBuilder().setMaxConnections(0).build();
+    }
+
+    private static byte[] csv(int size) {
+        StringBuilder builder = new StringBuilder(size + 64);
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append("named_user,user-").append(i).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class CompletedMetrics implements ClientMetricsListener {
+        private final java.util.concurrent.CompletableFuture<RequestMetrics> completed = new java.util.concurrent.CompletableFuture<>();
+
+        @Override
+        public void onRequestCompleted(RequestMetrics metrics) {
+            completed.complete(metrics);
+        }
+
+        private RequestMetrics get() throws Exception {
+            return completed.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class StubRequest {
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private StubRequest(Map<String, String> headers, byte[] body) {
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    private static final class StubResponse {
+        private final int status;
+        private final byte[] body;
+
+        private StubResponse(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private static StubResponse json(int status, String body) {
+            return new StubResponse(status, body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A minimal h2c server: it reads requests, answers them with the responder, a null response refusing the
+     * stream, and keeps the client's send windows open.
+     */
+    private static final class StubServer implements Closeable {
+        private final EventLoopGroup group = new NioEventLoopGroup(1, new ThreadFactoryBuilder().setDaemon(true).build());
+        private final List<StubRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger openStreams = new AtomicInteger();
+        private final AtomicInteger peakStreams = new AtomicInteger();
+        private final AtomicInteger refused = new AtomicInteger();
+        private final AtomicInteger resets = new AtomicInteger();
+        private final Channel channel;
+
+        private volatile Function<StubRequest, StubResponse> responder;
+        private volatile int maxConcurrentStreams = 100;
+        private volatile long delayMs;
+
+        private StubServer() throws InterruptedException {
+            channel = new ServerBootstrap()
+                    .group(group)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            connections.incrementAndGet();
+                            channel.pipeline().addLast(
+                                    Http2FrameCodecBuilder.forServer()
+                                            .initialSettings(Http2Settings.defaultSettings().maxConcurrentStreams(maxConcurrentStreams))
+                                            .build(),
+                                    new StubConnection());
+                        }
+                    })
+                    .bind("127.0.0.1", 0)
+                    .sync()
+                    .channel();
+        }
+
+        private int port() {
+            return ((InetSocketAddress) channel.localAddress()).getPort();
+        }
+
+        private void respond(Function<StubRequest, StubResponse> responder) {
+            this.responder = responder;
+        }
+
+        private List<StubRequest> requests() {
+            synchronized (requests) {
+                return new ArrayList<>(requests);
+            }
+        }
+
+        private void awaitStreamsClosed() throws InterruptedException {
+            for (int i = 0; i < 100 && openStreams.get() > 0; i++) {
+                Thread.sleep(20);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (group.isShuttingDown()) {
+                return;
+            }
+            channel.close().syncUninterruptibly();
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+
+        private final class StubConnection extends ChannelInboundHandlerAdapter {
+            private final Map<Integer, Http2FrameStream> streams = new HashMap<>();
+            private final Map<Integer, Map<String, String>> headers = new HashMap<>();
+            private final Map<Integer, ByteArrayOutputStream> bodies = new HashMap<>();
+
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                try {
+                    if (msg instanceof Http2HeadersFrame) {
+                        Http2HeadersFrame frame = (Http2HeadersFrame) msg;
+                        int streamId = frame.stream().id();
+                        Map<String, String> requestHeaders = new HashMap<>();
+                        for (Map.Entry<CharSequence, CharSequence> header : frame.headers()) {
+                            requestHeaders.put(header.getKey().toString(), header.getValue().toString());
+                        }
+                        streams.put(streamId, frame.stream());
+                        headers.put(streamId, requestHeaders);
+                        bodies.put(streamId, new ByteArrayOutputStream());
+                        int open = openStreams.incrementAndGet();
+                        peakStreams.accumulateAndGet(open, Math::max);
+                        if (frame.isEndStream()) {
+                            onRequest(ctx, streamId);
+                        }
+                    } else if (msg instanceof Http2DataFrame) {
+                        Http2DataFrame frame = (Http2DataFrame) msg;
+                        int streamId = frame.stream().id();
+                        ByteBuf content = frame.content();
+                        content.readBytes(bodies.get(streamId), content.readableBytes());
+                        if (frame.initialFlowControlledBytes() > 0) {
+                            ctx.write(new DefaultHttp2WindowUpdateFrame(frame.initialFlowControlledBytes()).stream(frame.stream()));
+                        }
+                        if (frame.isEndStream()) {
+                            onRequest(ctx, streamId);
+                        }
+                    } else if (msg instanceof Http2ResetFrame) {
+                        int streamId = ((Http2ResetFrame) msg).stream().id();
+                        if (headers.remove(streamId) != null) {
+                            streams.remove(streamId);
+                            bodies.remove(streamId);
+                            resets.incrementAndGet();
+                            openStreams.decrementAndGet();
+                        }
+                    }
+                } finally {
+                    ReferenceCountUtil.release(msg);
+                }
+            }
+
+            @Override
+            public void channelReadComplete(ChannelHandlerContext ctx) {
+                ctx.flush();
+            }
+
+            private void onRequest(ChannelHandlerContext ctx, int streamId) {
+                StubRequest request = new StubRequest(headers.get(streamId), bodies.remove(streamId).toByteArray());
+                requests.add(request);
+                StubResponse response = responder.apply(request);
+
+                if (response == null) {
+                    headers.remove(streamId);
+                    openStreams.decrementAndGet();
+                    refused.incrementAndGet();
+                    ctx.write(new DefaultHttp2ResetFrame(Http2Error.REFUSED_STREAM).stream(streams.remove(streamId)));
+                } else if (delayMs > 0) {
+                    ctx.executor().schedule(() -> {
+                        writeResponse(ctx, streamId, response);
+                        ctx.flush();
+                    }, delayMs, TimeUnit.MILLISECONDS);
+                } else {
+                    writeResponse(ctx, streamId, response);
+                }
+            }
+
+            private void writeResponse(ChannelHandlerContext ctx, int streamId, StubResponse response) {
+                if (headers.remove(streamId) == null) {
+                    // Reset by the client in the meantime.
+                    return;
+                }
+                openStreams.decrementAndGet();
+
+                Http2FrameStream stream = streams.remove(streamId);
+                Http2Headers responseHeaders = new DefaultHttp2Headers()
+                        .status(String.valueOf(response.status))
+                        .set("content-type", "application/json");
+                ctx.write(new DefaultHttp2HeadersFrame(responseHeaders).stream(stream));
+                ctx.write(new DefaultHttp2DataFrame(Unpooled.wrappedBuffer(response.body), true).stream(stream));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.urbanairship.api.client;
+
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.push.PushRequest;
+import com.urbanairship.api.push.model.DeviceType;
+import com.urbanairship.api.push.model.DeviceTypeData;
+import com.urbanairship.api.push.model.PushPayload;
+import com.urbanairship.api.push.model.audience.Selectors;
+import com.urbanairship.api.push.model.notification.Notifications;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsRecorderTest {
+
+    @Test
+    public void testPathTemplate() {
+        assertEquals("/api/push/", MetricsRecorder.pathTemplate("/api/push/"));
+        assertEquals("/api/channels/{id}", MetricsRecorder.pathTemplate("/api/channels/9c36e8c7-5a73-47c0-9716-99fd3d4197d5"));
+        assertEquals("/api/schedules/{id}/", MetricsRecorder.pathTemplate("/api/schedules/1234/"));
+        assertEquals("/api/lists/{id}/csv", MetricsRecorder.pathTemplate("/api/lists/My-List/csv"));
+        assertEquals("/api/named_users/tags/", MetricsRecorder.pathTemplate("/api/named_users/tags/"));
+        assertEquals("/api/custom-events/", MetricsRecorder.pathTemplate("/api/custom-events/"));
+        assertEquals("/api/attribute-lists/", MetricsRecorder.pathTemplate("/api/attribute-lists/"));
+        assertEquals("/api/create-and-send", MetricsRecorder.pathTemplate("/api/create-and-send"));
+        assertEquals("/api/tag-lists", MetricsRecorder.pathTemplate("/api/tag-lists"));
+        assertEquals("/api/channels/sms/opt-out", MetricsRecorder.pathTemplate("/api/channels/sms/opt-out"));
+        assertEquals("/api/user/messages/batch-delete/", MetricsRecorder.pathTemplate("/api/user/messages/batch-delete/"));
+        assertEquals("/api/lists/{id}/csv", MetricsRecorder.pathTemplate("/api/lists/mylist/csv"));
+        assertEquals("/api/named_users/{id}/attributes", MetricsRecorder.pathTemplate("/api/named_users/user_1/attributes"));
+        assertEquals("/api/schedules/{id}/pause", MetricsRecorder.pathTemplate("/api/schedules/abc/pause"));
+        assertEquals("", MetricsRecorder.pathTemplate((String) null));
+    }
+
+    @Test
+    public void testRequestPathTemplate() {
+        assertEquals("/api/channels/{id}", MetricsRecorder.pathTemplate(ChannelRequest.newRequest("9c36e8c7-5a73-47c0-9716-99fd3d4197d5")));
+        assertEquals("/api/push/validate/", MetricsRecorder.pathTemplate(PushRequest.newRequest(PushPayload.newBuilder()
+                .setAudience(Selectors.all())
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("Foo"))
+                .build()).setValidateOnly(true)));
+    }
+}
@@ -0,0 +1,409 @@
+package com.urbanairship.api.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.google.common.collect.ImmutableMap;
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.channel.model.ChannelType;
+import com.urbanairship.api.nameduser.NamedUserRequest;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OutboxRequestClientTest {
+
+    private static final URI BASE = URI.create("https://go.urbanairship.com");
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final String ASSOCIATE = "/api/named_users/associate/";
+    private static final String DISASSOCIATE = "/api/named_users/disassociate/";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Map<String, String>> sentHeaders = new CopyOnWriteArrayList<>();
+    private volatile Throwable failure;
+
+    private final RequestClient delegate = new RequestClient() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+            CompletableFuture<Response<T>> future = new CompletableFuture<>();
+            try {
+                sent.add(request.getHttpMethod() + " " + request.getUri(BASE).getPath() + " " + request.getRequestBody());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            sentHeaders.add(headers);
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(new Response.Builder<T>()
+                        .setHeaders(ImmutableMap.<String, String>of())
+                        .setStatus(200)
+                        .build());
+            }
+            return future;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private OutboxRequestClient client;
+
+    @After
+    public void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testDeliversWhileReachable() throws Exception {
+        client = newClient().build();
+
+        Response<?> response = execute(associate("user-1")).get();
+        assertEquals(200, response.getStatus());
+        assertEquals(0, client.getPendingCount());
+        assertEquals(0, client.getStoredCount());
+    }
+
+    @Test
+    public void testStoresAndReplaysFailedRequests() throws Exception {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        client = newClient()
+                .setListener(new OutboxRequestClient.Listener() {
+                    @Override
+                    public void onDelivered(long sequence, String key, Response<String> response) {
+                        delivered.add(key + " " + sequence);
+                    }
+                })
+                .build();
+
+        failure = ServerException.newBuilder().setStatusCode(503).build();
+        OutboxedRequestException outboxed = outboxed(execute(associate("user-1")));
+        assertEquals(ASSOCIATE, outboxed.getKey());
+        assertTrue(outboxed.getCause() instanceof ServerException);
+
+        // Later requests of the key wait behind the first one without being tried.
+        failure = null;
+        OutboxedRequestException queued = outboxed(execute(associate("user-2")));
+        assertNull(queued.getCause());
+        assertEquals(outboxed.getSequence() + 1, queued.getSequence());
+        assertEquals(1, sent.size());
+
+        // Other keys are not affected.
+        execute(disassociate("user-3")).get();
+        assertEquals(2, client.getPendingCount(ASSOCIATE));
+        assertEquals(0, client.getPendingCount(DISASSOCIATE));
+
+        sent.clear();
+        client.replay();
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(0).startsWith("POST " + ASSOCIATE));
+        assertTrue(sent.get(0).contains("user-1"));
+        assertTrue(sent.get(1).contains("user-2"));
+        assertEquals(0, client.getPendingCount());
+        assertEquals(2, client.getDeliveredCount());
+        assertEquals(Arrays.asList(ASSOCIATE + " " + outboxed.getSequence(), ASSOCIATE + " " + queued.getSequence()), delivered);
+    }
+
+    @Test
+    public void testReplayBacksOffAndKeepsOrder() throws Exception {
+        client = newClient().setMinBackoffMs(ONE_HOUR).setMaxBackoffMs(ONE_HOUR).build();
+
+        failure = ServerException.newBuilder().setStatusCode(503).build();
+        outboxed(execute(associate("user-1")));
+        outboxed(execute(associate("user-2")));
+
+        sent.clear();
+        client.replay();
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).contains("user-1"));
+
+        // The key backs off, nothing is sent until it is over.
+        failure = null;
+        client.replay();
+        assertEquals(1, sent.size());
+        assertEquals(2, client.getPendingCount());
+    }
+
+    @Test
+    public void testDropsRequestsFailingForGood() throws Exception {
+        List<Throwable> dropped = new CopyOnWriteArrayList<>();
+        client = newClient()
+                .setListener(new OutboxRequestClient.Listener() {
+                    @Override
+                    public void onDropped(long sequence, String key, Throwable error) {
+                        dropped.add(error);
+                    }
+                })
+                .build();
+
+        failure = new ConnectException("Connection refused");
+        outboxed(execute(associate("user-1")));
+
+        failure = ClientException.newBuilder().setStatusCode(400).build();
+        client.replay();
+        assertEquals(0, client.getPendingCount());
+        assertEquals(1, client.getDroppedCount());
+        assertEquals(1, dropped.size());
+    }
+
+    @Test
+    public void testClientErrorsAreNotStored() throws Exception {
+        client = newClient().build();
+
+        failure = ClientException.newBuilder().setStatusCode(400).build();
+        try {
+            execute(associate("user-1")).get();
+            fail("Request should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ClientException);
+        }
+
+        failure = ClientException.newBuilder().setStatusCode(429).build();
+        outboxed(execute(associate("user-1")));
+        assertEquals(1, client.getStoredCount());
+    }
+
+    @Test
+    public void testAmbiguousFailuresAreOnlyStoredWhenEnabled() throws Exception {
+        client = newClient().build();
+
+        // The API may have processed a request that timed out, it is not sent again by default.
+        failure = new RequestTimeoutException("timed out", 1000, 0);
+        try {
+            execute(associate("user-1")).get();
+            fail("Request should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestTimeoutException);
+        }
+        failure = ServerException.newBuilder().setStatusCode(500).build();
+        try {
+            execute(associate("user-1")).get();
+            fail("Request should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerException);
+        }
+        assertEquals(0, client.getStoredCount());
+        client.close();
+
+        client = newClient().setStoreAmbiguousFailures(true).build();
+        failure = new RequestTimeoutException("timed out", 1000, 0);
+        outboxed(execute(associate("user-1")));
+        assertEquals(1, client.getStoredCount());
+    }
+
+    @Test
+    public void testStoresRateLimitedResponses() throws Exception {
+        WireMockServer server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        try {
+            server.stubFor(post(urlEqualTo(ASSOCIATE))
+                    .willReturn(aResponse()
+                            .withStatus(429)));
+            client = newClient()
+                    .setClient(AsyncRequestClient.newBuilder()
+                            .setBaseUri("http://localhost:" + server.port())
+                            .build())
+                    .setMinBackoffMs(1)
+                    .setMaxBackoffMs(1)
+                    .build();
+
+            OutboxedRequestException outboxed = outboxed(execute(associate("user-1")));
+            assertEquals(429, ((ClientException) outboxed.getCause()).getStatusCode());
+
+            // Still rate limited, the request stays in the outbox.
+            client.replay();
+            assertEquals(1, client.getPendingCount());
+            assertEquals(0, client.getDeliveredCount());
+
+            server.stubFor(post(urlEqualTo(ASSOCIATE))
+                    .willReturn(aResponse()
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"ok\":true}")
+                            .withStatus(200)));
+            Thread.sleep(10);
+            client.replay();
+            assertEquals(0, client.getPendingCount());
+            assertEquals(1, client.getDeliveredCount());
+            server.verify(3, postRequestedFor(urlEqualTo(ASSOCIATE)));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testReplayKeepsTheAuthScheme() throws Exception {
+        client = newClient().build();
+
+        failure = new ConnectException("Connection refused");
+        outboxed(execute(associate("user-1"), "Bearer first"));
+
+        // The last header seen is Basic, the request still goes out with its Bearer token.
+        failure = null;
+        execute(disassociate("user-2")).get();
+        sentHeaders.clear();
+        client.replay();
+        assertEquals(1, sentHeaders.size());
+        assertEquals("Bearer first", sentHeaders.get(0).get("Authorization"));
+        assertEquals(0, client.getPendingCount());
+
+        failure = new ConnectException("Connection refused");
+        outboxed(execute(associate("user-3"), "Bearer first"));
+        client.close();
+
+        // Once recovered, the request waits for a Bearer header, Basic ones are not used.
+        failure = null;
+        client = newClient().build();
+        execute(disassociate("user-4")).get();
+        sentHeaders.clear();
+        client.replay();
+        assertTrue(sentHeaders.isEmpty());
+        assertEquals(1, client.getPendingCount(ASSOCIATE));
+    }
+
+    @Test
+    public void testGetsAreNotStored() throws Exception {
+        client = newClient().build();
+
+        failure = ServerException.newBuilder().setStatusCode(503).build();
+        try {
+            execute(ChannelRequest.newRequest("9c36e8c7-5a73-47c0-9716-99fd3d4197d5")).get();
+            fail("Request should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerException);
+        }
+        assertEquals(0, client.getPendingCount());
+    }
+
+    @Test
+    public void testRecoversOutboxAfterRestart() throws Exception {
+        client = newClient().build();
+
+        failure = new ConnectException("Connection refused");
+        for (int i = 0; i < 3; i++) {
+            outboxed(execute(associate("user-" + i), "Bearer first"));
+        }
+        client.close();
+
+        failure = null;
+        sent.clear();
+        client = newClient().build();
+        assertEquals(3, client.getPendingCount(ASSOCIATE));
+
+        // The Authorization header is not on disk, replay waits for the client to see one.
+        client.replay();
+        assertTrue(sent.isEmpty());
+        execute(disassociate("user-9"), "Bearer second").get();
+        sent.clear();
+        sentHeaders.clear();
+        client.replay();
+
+        assertEquals(3, sent.size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(sent.get(i).contains("user-" + i));
+            assertEquals("Bearer second", sentHeaders.get(i).get("Authorization"));
+            assertEquals("application/vnd.urbanairship+json; version=3", sentHeaders.get(i).get("Accept"));
+        }
+        assertEquals(0, client.getPendingCount());
+
+        // Sequences are not reused once acknowledged.
+        client.close();
+        failure = new ConnectException("Connection refused");
+        client = newClient().build();
+        assertEquals(3, outboxed(execute(associate("user-4"))).getSequence());
+    }
+
+    @Test
+    public void testFailsWithCauseWhenFull() throws Exception {
+        client = newClient().setMaxBytes(100).build();
+
+        failure = ServerException.newBuilder().setStatusCode(503).build();
+        try {
+            execute(associate("user-1")).get();
+            fail("Request should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerException);
+        }
+        assertEquals(0, client.getPendingCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBackoffBounds() {
+        OutboxRequestClient.newBuilder()
+                .setClient(delegate)
+                .setDirectory(folder.getRoot().toPath())
+                .setMinBackoffMs(2000)
+                .setMaxBackoffMs(1000)
+                .build();
+    }
+
+    private OutboxRequestClient.Builder newClient() {
+        return OutboxRequestClient.newBuilder()
+                .setClient(delegate)
+                .setDirectory(folder.getRoot().toPath())
+                .setSegmentBytes(64 * 1024)
+                .setSync(false)
+                .setReplayIntervalMs(ONE_HOUR);
+    }
+
+    private Future<Response<?>> execute(Request<?> request) {
+        return execute(request, "Basic a2V5OnNlY3JldA==");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Response<?>> execute(Request<?> request, String authorization) {
+        Map<String, String> headers = ImmutableMap.of(
+                "Authorization", authorization,
+                "Accept", "application/vnd.urbanairship+json; version=3");
+        return (Future<Response<?>>) (Future<?>) client.executeAsync(request, null, headers);
+    }
+
+    private static OutboxedRequestException outboxed(Future<Response<?>> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Request should have been stored in the outbox");
+            return null;
+        } catch (ExecutionException e) {
+            return (OutboxedRequestException) e.getCause();
+        }
+    }
+
+    private static NamedUserRequest associate(String namedUserId) {
+        return NamedUserRequest.newAssociationRequest()
+                .setChannel("9c36e8c7-5a73-47c0-9716-99fd3d4197d5", ChannelType.ANDROID)
+                .setNamedUserId(namedUserId);
+    }
+
+    private static NamedUserRequest disassociate(String namedUserId) {
+        return NamedUserRequest.newDisassociationRequest()
+                .setChannel("9c36e8c7-5a73-47c0-9716-99fd3d4197d5", ChannelType.ANDROID)
+                .setNamedUserId(namedUserId);
+    }
+}
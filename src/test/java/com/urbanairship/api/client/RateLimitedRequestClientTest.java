@@ -0,0 +1,263 @@
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.urbanairship.api.channel.ChannelRequest;
+import com.urbanairship.api.reports.DevicesReportRequest;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitedRequestClientTest {
+
+    private final List<CompletableFuture<Response<?>>> dispatched = new CopyOnWriteArrayList<>();
+    private final List<Request<?>> requests = new CopyOnWriteArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return now.get();
+        }
+    };
+
+    private final RequestClient delegate = new RequestClient() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+            CompletableFuture<Response<?>> future = new CompletableFuture<>();
+            requests.add(request);
+            dispatched.add(future);
+            return (Future<Response<T>>) (Future<?>) future;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private RateLimitedRequestClient client;
+
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setInitialConcurrency(2)
+                .setTicker(ticker)
+                .build();
+
+        Future<Response<?>> first = execute(ChannelRequest.newRequest());
+        execute(ChannelRequest.newRequest());
+        Future<Response<?>> third = execute(ChannelRequest.newRequest());
+
+        assertEquals(2, dispatched.size());
+        assertEquals(2, client.getInFlight());
+        assertEquals(1, client.getQueueDepth());
+
+        dispatched.get(0).complete(response(200));
+        assertEquals(200, first.get().getStatus());
+        assertEquals(3, dispatched.size());
+        assertEquals(0, client.getQueueDepth());
+
+        dispatched.get(2).complete(response(200));
+        assertEquals(200, third.get().getStatus());
+    }
+
+    @Test
+    public void testRateLimitPerFamily() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setRate(EndpointFamily.CHANNELS, 1000, 2)
+                .setTicker(ticker)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            execute(ChannelRequest.newRequest());
+        }
+        execute(DevicesReportRequest.newRequest());
+
+        // The third channel request waits for a token, the report request is not held back by it.
+        assertEquals(3, dispatched.size());
+        assertEquals(EndpointFamily.REPORTS, EndpointFamily.of(requests.get(2)));
+        assertEquals(1, client.getQueueDepth());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        waitFor(() -> dispatched.size() == 4);
+        assertEquals(EndpointFamily.CHANNELS, EndpointFamily.of(requests.get(3)));
+    }
+
+    @Test
+    public void testTooManyRequests() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setRate(EndpointFamily.CHANNELS, 1000, 10)
+                .setInitialConcurrency(8)
+                .setTicker(ticker)
+                .build();
+
+        Future<Response<?>> first = execute(ChannelRequest.newRequest());
+        dispatched.get(0).complete(new Response.Builder<Object>()
+                .setStatus(429)
+                .setHeaders(ImmutableMap.of("Retry-After", "30"))
+                .build());
+
+        assertEquals(429, first.get().getStatus());
+        assertEquals(4, client.getConcurrencyLimit());
+
+        execute(ChannelRequest.newRequest());
+        assertEquals(1, dispatched.size());
+        assertEquals(1, client.getQueueDepth());
+
+        // Any submission drains the queue, no need to wait for the scheduled drain.
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        execute(ChannelRequest.newRequest());
+        assertEquals(3, dispatched.size());
+    }
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setInitialConcurrency(1)
+                .setMinConcurrency(1)
+                .setMaxQueueSize(1)
+                .setOverflowPolicy(RateLimitedRequestClient.OverflowPolicy.REJECT)
+                .setTicker(ticker)
+                .build();
+
+        execute(ChannelRequest.newRequest());
+        execute(ChannelRequest.newRequest());
+        Future<Response<?>> rejected = execute(ChannelRequest.newRequest());
+
+        try {
+            rejected.get();
+            fail("Expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, client.getRejectedCount());
+    }
+
+    @Test
+    public void testAwaitWhenQueueIsFull() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setInitialConcurrency(1)
+                .setMaxQueueSize(1)
+                .setTicker(ticker)
+                .build();
+
+        execute(ChannelRequest.newRequest());
+        execute(ChannelRequest.newRequest());
+
+        // The submitting thread is not blocked, the request is held behind the full queue.
+        Future<Response<?>> held = execute(ChannelRequest.newRequest());
+        assertFalse(held.isDone());
+        assertEquals(1, dispatched.size());
+        assertEquals(2, client.getQueueDepth());
+
+        dispatched.get(0).complete(response(200));
+        // The success raised the concurrency limit to 2, so the held request went out as well.
+        assertEquals(3, dispatched.size());
+        assertEquals(0, client.getQueueDepth());
+
+        dispatched.get(2).complete(response(200));
+        assertEquals(200, held.get().getStatus());
+    }
+
+    @Test
+    public void testRejectWhenOverflowIsFull() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setInitialConcurrency(1)
+                .setMaxQueueSize(1)
+                .setMaxOverflow(1)
+                .setTicker(ticker)
+                .build();
+
+        execute(ChannelRequest.newRequest());
+        execute(ChannelRequest.newRequest());
+        Future<Response<?>> held = execute(ChannelRequest.newRequest());
+        Future<Response<?>> rejected = execute(ChannelRequest.newRequest());
+
+        assertFalse(held.isDone());
+        try {
+            rejected.get();
+            fail("Expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, client.getRejectedCount());
+        assertEquals(2, client.getQueueDepth());
+    }
+
+    @Test
+    public void testCancelQueuedRequest() throws Exception {
+        client = RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setInitialConcurrency(1)
+                .setTicker(ticker)
+                .build();
+
+        Future<Response<?>> running = execute(ChannelRequest.newRequest());
+        Future<Response<?>> queued = execute(ChannelRequest.newRequest());
+
+        queued.cancel(true);
+        assertEquals(0, client.getQueueDepth());
+
+        running.cancel(true);
+        assertTrue(dispatched.get(0).isCancelled());
+        assertEquals(0, client.getInFlight());
+        assertEquals(1, dispatched.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        RateLimitedRequestClient.newBuilder()
+                .setClient(delegate)
+                .setInitialConcurrency(512)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Response<?>> execute(Request<?> request) {
+        return (Future<Response<?>>) (Future<?>) client.executeAsync(request, null, ImmutableMap.<String, String>of());
+    }
+
+    private static Response<Object> response(int status) {
+        return new Response.Builder<Object>()
+                .setStatus(status)
+                .setHeaders(ImmutableMap.<String, String>of())
+                .build();
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.urbanairship.api.client;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RequestClient stub for the tests of the components built on UrbanAirshipClient. It records the requests it is
+ * handed and answers each one with its responder, right away or, while held, once the test releases it. Setting a
+ * failure fails every request from then on.
+ */
+public class RecordingRequestClient implements RequestClient {
+
+    public static final URI BASE_URI = URI.create("https://go.urbanairship.com");
+
+    /**
+     * Builds the response to a request, throwing fails the request.
+     */
+    public interface Responder {
+        Response<?> respond(Request<?> request) throws Exception;
+    }
+
+    private final Responder responder;
+    private final List<Request<?>> requests = new CopyOnWriteArrayList<>();
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<Runnable> held = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile boolean hold;
+    private volatile Throwable failure;
+
+    public RecordingRequestClient(Responder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Build a response with the given status and body.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Response<T> response(int status, Object body) {
+        return new Response.Builder<T>()
+                .setBody((T) body)
+                .setHeaders(ImmutableMap.<String, String>of())
+                .setStatus(status)
+                .build();
+    }
+
+    /**
+     * Build an UrbanAirshipClient sending its requests to this stub, with both basic and bearer token auth.
+     */
+    public UrbanAirshipClient newClient() {
+        return UrbanAirshipClient.newBuilder()
+                .setKey("key")
+                .setSecret("secret")
+                .setBearerToken("token")
+                .setClient(this)
+                .build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+        try {
+            paths.add(request.getUri(BASE_URI).getPath());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+        requests.add(request);
+        bodies.add(request.getRequestBody());
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+        CompletableFuture<Response<T>> future = new CompletableFuture<>();
+        Runnable respond = () -> {
+            inFlight.decrementAndGet();
+            if (failure != null) {
+                future.completeExceptionally(failure);
+                return;
+            }
+            try {
+                future.complete((Response<T>) responder.respond(request));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (hold) {
+            held.add(respond);
+        } else {
+            respond.run();
+        }
+        return future;
+    }
+
+    /**
+     * Hold the responses of the requests sent from now on until they are released.
+     */
+    public void setHold(boolean hold) {
+        this.hold = hold;
+    }
+
+    /**
+     * Fail the requests answered from now on, null to answer them with the responder again.
+     */
+    public void setFailure(Throwable failure) {
+        this.failure = failure;
+    }
+
+    public int getHeldCount() {
+        return held.size();
+    }
+
+    /**
+     * Answer the oldest held request.
+     */
+    public void releaseNext() {
+        held.remove(0).run();
+    }
+
+    /**
+     * Answer the requests held so far, not the ones they cause to be sent.
+     */
+    public void releaseHeld() {
+        List<Runnable> ready = new ArrayList<>(held);
+        held.removeAll(ready);
+        for (Runnable respond : ready) {
+            respond.run();
+        }
+    }
+
+    public List<Request<?>> getRequests() {
+        return requests;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public List<String> getBodies() {
+        return bodies;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+    }
+}
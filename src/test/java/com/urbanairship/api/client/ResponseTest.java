@@ -34,12 +34,16 @@ import org.joda.time.Period;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ResponseTest {
 
@@ -411,4 +415,22 @@ public class ResponseTest {
 
     }
 
+    @Test
+    public void testBodyBytes() {
+        byte[] single = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+        Response<PushResponse> response = new Response<>(null, headers, 200, ImmutableList.of(single));
+
+        ByteBuffer bytes = response.getBodyBytes().get();
+        assertTrue(bytes.isReadOnly());
+        assertEquals(ByteBuffer.wrap(single), bytes);
+
+        Response<PushResponse> parts = new Response<>(null, headers, 200, ImmutableList.of(
+                "{\"ok\":".getBytes(StandardCharsets.UTF_8), "true}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ByteBuffer.wrap(single), parts.getBodyBytes().get());
+        // Reading one view does not consume the next.
+        parts.getBodyBytes().get().get();
+        assertEquals(single.length, parts.getBodyBytes().get().remaining());
+
+        assertFalse(new Response<>(null, headers, 204).getBodyBytes().isPresent());
+    }
 }
@@ -0,0 +1,122 @@
+package com.urbanairship.api.client;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBackoffTest {
+
+    @Test
+    public void testDefaults() {
+        RetryBackoff backoff = RetryBackoff.newBuilder().build();
+
+        assertEquals(5, backoff.getBaseDelayMs());
+        assertEquals(10000, backoff.getMaxDelayMs());
+        assertEquals(RetryBackoff.Jitter.FULL, backoff.getJitter());
+        assertTrue(backoff.isRespectRetryAfter());
+    }
+
+    @Test
+    public void testFullJitterBounds() {
+        RetryBackoff backoff = RetryBackoff.newBuilder()
+                .setBaseDelayMs(10)
+                .setMaxDelayMs(100000)
+                .build();
+
+        for (int i = 0; i < 1000; i++) {
+            long delay = backoff.getDelayMs(3, 0, Optional.empty());
+            assertTrue(delay >= 10);
+            assertTrue(delay < 10 * 16);
+            assertEquals(0, delay % 10);
+        }
+    }
+
+    @Test
+    public void testDecorrelatedJitterBounds() {
+        RetryBackoff backoff = RetryBackoff.newBuilder()
+                .setBaseDelayMs(10)
+                .setMaxDelayMs(100000)
+                .setJitter(RetryBackoff.Jitter.DECORRELATED)
+                .build();
+
+        for (int i = 0; i < 1000; i++) {
+            long delay = backoff.getDelayMs(5, 200, Optional.empty());
+            assertTrue(delay >= 10);
+            assertTrue(delay <= 600);
+        }
+
+        assertEquals(10, backoff.getDelayMs(0, 0, Optional.empty()));
+    }
+
+    @Test
+    public void testMaxDelayCap() {
+        RetryBackoff backoff = RetryBackoff.newBuilder()
+                .setBaseDelayMs(50)
+                .setMaxDelayMs(60)
+                .build();
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(backoff.getDelayMs(1000, 0, Optional.empty()) <= 60);
+        }
+    }
+
+    @Test
+    public void testRetryAfterSeconds() {
+        RetryBackoff backoff = RetryBackoff.newBuilder()
+                .setBaseDelayMs(1)
+                .setMaxDelayMs(60000)
+                .build();
+
+        assertEquals(2000, backoff.getDelayMs(0, 0, Optional.of("2")));
+    }
+
+    @Test
+    public void testRetryAfterIsCapped() {
+        RetryBackoff backoff = RetryBackoff.newBuilder()
+                .setBaseDelayMs(1)
+                .setMaxDelayMs(500)
+                .build();
+
+        assertEquals(500, backoff.getDelayMs(0, 0, Optional.of("120")));
+    }
+
+    @Test
+    public void testRetryAfterIgnored() {
+        RetryBackoff backoff = RetryBackoff.newBuilder()
+                .setBaseDelayMs(1)
+                .setMaxDelayMs(60000)
+                .setRespectRetryAfter(false)
+                .build();
+
+        assertTrue(backoff.getDelayMs(0, 0, Optional.of("30")) < 30000);
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals(Optional.of(5000L), RetryBackoff.parseRetryAfter(" 5 "));
+        assertFalse(RetryBackoff.parseRetryAfter("soon").isPresent());
+        assertFalse(RetryBackoff.parseRetryAfter("").isPresent());
+
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+        long delay = RetryBackoff.parseRetryAfter(date).get();
+        assertTrue(delay > 25000 && delay <= 30000);
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(30));
+        assertEquals(Optional.of(0L), RetryBackoff.parseRetryAfter(past));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxDelayBelowBase() {
+        RetryBackoff.newBuilder()
+                .setBaseDelayMs(100)
+                .setMaxDelayMs(10)
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.urbanairship.api.client;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SegmentLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendReadAck() throws Exception {
+        SegmentLog log = new SegmentLog(folder.getRoot().toPath(), SEGMENT_BYTES, false);
+        log.append(1, bytes("one"));
+        log.append(2, bytes("two"));
+
+        assertEquals(2, log.size());
+        assertEquals(6, log.liveBytes());
+        assertArrayEquals(bytes("one"), log.read(1));
+        assertArrayEquals(bytes("two"), log.read(2));
+
+        log.ack(1);
+        assertEquals(1, log.size());
+        assertNull(log.read(1));
+        assertEquals(Arrays.asList(2L), log.liveSequences());
+        assertEquals(2, log.lastSequence());
+        log.close();
+    }
+
+    @Test
+    public void testRecoversLiveRecords() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SegmentLog log = new SegmentLog(directory, SEGMENT_BYTES, true);
+        for (int i = 0; i < 10; i++) {
+            log.append(i, bytes("record-" + i));
+        }
+        log.ack(0);
+        log.ack(5);
+        log.close();
+
+        SegmentLog reopened = new SegmentLog(directory, SEGMENT_BYTES, true);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 6L, 7L, 8L, 9L), reopened.liveSequences());
+        assertEquals(9, reopened.lastSequence());
+        assertArrayEquals(bytes("record-7"), reopened.read(7));
+
+        reopened.append(10, bytes("record-10"));
+        reopened.close();
+        assertArrayEquals(bytes("record-10"), new SegmentLog(directory, SEGMENT_BYTES, true).read(10));
+    }
+
+    @Test
+    public void testIgnoresTornRecord() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SegmentLog log = new SegmentLog(directory, SEGMENT_BYTES, true);
+        log.append(1, bytes("whole"));
+        log.append(2, bytes("torn"));
+        log.close();
+
+        // Corrupt the last byte of the second record.
+        int offset = 2 * (9 + 8) + "whole".length() + "torn".length() - 1;
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("segment-00000000000000000000.log").toFile(), "rw")) {
+            file.seek(offset);
+            file.write('x');
+        }
+
+        SegmentLog reopened = new SegmentLog(directory, SEGMENT_BYTES, true);
+        assertEquals(Arrays.asList(1L), reopened.liveSequences());
+        reopened.append(3, bytes("after"));
+        reopened.close();
+
+        assertEquals(Arrays.asList(1L, 3L), new SegmentLog(directory, SEGMENT_BYTES, true).liveSequences());
+    }
+
+    @Test
+    public void testDeletesAcknowledgedSegments() throws Exception {
+        SegmentLog log = new SegmentLog(folder.getRoot().toPath(), SEGMENT_BYTES, false);
+        byte[] data = new byte[1000];
+        for (int i = 0; i < 20; i++) {
+            log.append(i, data);
+        }
+        assertEquals(5, log.segmentCount());
+
+        for (int i = 0; i < 19; i++) {
+            log.ack(i);
+        }
+        assertEquals(1, log.size());
+        assertEquals(1, log.segmentCount());
+        assertEquals(1, folder.getRoot().list().length);
+        log.close();
+    }
+
+    @Test
+    public void testCopiesForwardLongLivedRecords() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SegmentLog log = new SegmentLog(directory, SEGMENT_BYTES, false);
+        log.append(0, bytes("long lived"));
+        byte[] data = new byte[1000];
+        for (int i = 1; i <= 20; i++) {
+            log.append(i, data);
+        }
+        for (int i = 1; i <= 20; i++) {
+            log.ack(i);
+        }
+
+        assertEquals(1, log.segmentCount());
+        assertEquals(Arrays.asList(0L), log.liveSequences());
+        assertArrayEquals(bytes("long lived"), log.read(0));
+        log.close();
+
+        assertArrayEquals(bytes("long lived"), new SegmentLog(directory, SEGMENT_BYTES, false).read(0));
+    }
+
+    @Test
+    public void testRecordLargerThanSegment() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SegmentLog log = new SegmentLog(directory, SEGMENT_BYTES, false);
+        byte[] data = new byte[3 * SEGMENT_BYTES];
+        Arrays.fill(data, (byte) 7);
+        log.append(1, data);
+        log.close();
+
+        assertArrayEquals(data, new SegmentLog(directory, SEGMENT_BYTES, false).read(1));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
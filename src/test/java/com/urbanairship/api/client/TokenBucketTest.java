@@ -0,0 +1,56 @@
+package com.urbanairship.api.client;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    private long now = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return now;
+        }
+    };
+
+    @Test
+    public void testBurstThenRefill() {
+        TokenBucket bucket = new TokenBucket(10, 3, ticker);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.nanosUntilAvailable());
+
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        assertEquals(0, bucket.nanosUntilAvailable());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertEquals(3, bucket.getAvailablePermits(), 0.0001);
+    }
+
+    @Test
+    public void testPause() {
+        TokenBucket bucket = new TokenBucket(10, 3, ticker);
+
+        bucket.pause(TimeUnit.SECONDS.toNanos(2));
+        assertFalse(bucket.tryAcquire());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), bucket.nanosUntilAvailable());
+
+        now += TimeUnit.SECONDS.toNanos(1);
+        bucket.pause(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.nanosUntilAvailable());
+
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertTrue(bucket.tryAcquire());
+    }
+}
@@ -2,15 +2,22 @@ package com.urbanairship.api.client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.junit.WireMockClassRule;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.corba.se.spi.activation.Server;
 import com.urbanairship.api.channel.ChannelRequest;
 import com.urbanairship.api.channel.ChannelTagRequest;
 import com.urbanairship.api.channel.model.ChannelResponse;
 import com.urbanairship.api.channel.model.ChannelType;
+import com.urbanairship.api.channel.model.ChannelView;
+import com.urbanairship.api.common.model.GenericResponse;
 import com.urbanairship.api.common.parse.DateFormats;
 import com.urbanairship.api.customevents.CustomEventRequest;
 import com.urbanairship.api.customevents.model.CustomEventBody;
@@ -27,6 +34,7 @@ import com.urbanairship.api.nameduser.NamedUserListingRequest;
 import com.urbanairship.api.nameduser.NamedUserRequest;
 import com.urbanairship.api.nameduser.NamedUserTagRequest;
 import com.urbanairship.api.nameduser.model.NamedUserListingResponse;
+import com.urbanairship.api.push.PushBatcher;
 import com.urbanairship.api.push.PushRequest;
 import com.urbanairship.api.push.model.DeviceType;
 import com.urbanairship.api.push.model.DeviceTypeData;
@@ -59,6 +67,7 @@ import com.urbanairship.api.segments.SegmentListingRequest;
 import com.urbanairship.api.segments.SegmentLookupRequest;
 import com.urbanairship.api.segments.SegmentRequest;
 import com.urbanairship.api.segments.model.SegmentListingResponse;
+import com.urbanairship.api.segments.model.SegmentRequestResponse;
 import com.urbanairship.api.segments.model.SegmentView;
 import com.urbanairship.api.staticlists.StaticListDeleteRequest;
 import com.urbanairship.api.staticlists.StaticListDownloadRequest;
@@ -92,24 +101,39 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.ServerSocket;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.delete;
 import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
@@ -124,10 +148,12 @@ import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -334,6 +360,188 @@ public class UrbanAirshipClientTest {
         assertEquals(expected, uriNuResolved.toString());
     }
 
+    @Test
+    public void testPushBatcher() throws Exception {
+        stubFor(post(urlEqualTo("/api/push/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\" : true,\"operation_id\" : \"df6a6b50\", \"push_ids\":[\"id-0\", \"id-1\"]}")
+                .withStatus(202)));
+
+        PushBatcher batcher = PushBatcher.newBuilder()
+            .setClient(client)
+            .setMaxBatchSize(2)
+            .build();
+
+        List<CompletableFuture<PushResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            futures.add(batcher.add(PushPayload.newBuilder()
+                .setAudience(Selectors.namedUser("user-" + i))
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("Foo"))
+                .build()));
+        }
+
+        assertEquals("id-0", futures.get(0).get(5, TimeUnit.SECONDS).getPushIds().get().get(0));
+        assertEquals("id-1", futures.get(1).get(5, TimeUnit.SECONDS).getPushIds().get().get(0));
+        batcher.close();
+
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/api/push/")));
+        assertEquals(1, requests.size());
+        List<PushPayload> sent = PushObjectMapper.getInstance().readValue(requests.get(0).getBodyAsString(),
+            new TypeReference<List<PushPayload>>() {});
+        assertEquals(2, sent.size());
+        assertEquals(APP_JSON, requests.get(0).getHeader(CONTENT_TYPE_KEY));
+    }
+
+    @Test
+    public void testExecuteAsyncCFComposition() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/?id=user-1"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\":true,\"named_user\":{\"named_user_id\":\"user-1\",\"tags\":{},\"channels\":[]}}")
+                .withStatus(200)));
+        stubFor(post(urlEqualTo("/api/push/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\" : true,\"operation_id\" : \"df6a6b50\", \"push_ids\":[\"PushID\"]}")
+                .withStatus(202)));
+
+        CompletableFuture<Response<PushResponse>> push = client.executeAsyncCF(NamedUserListingRequest.newRequest("user-1"))
+            .thenCompose(lookup -> client.executeAsyncCF(PushRequest.newRequest(PushPayload.newBuilder()
+                .setAudience(Selectors.namedUser(lookup.getBody().get().getNamedUserView().get().getNamedUserId()))
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("Foo"))
+                .build())));
+
+        Response<PushResponse> response = push.get(5, TimeUnit.SECONDS);
+        assertEquals(202, response.getStatus());
+        assertEquals("PushID", response.getBody().get().getPushIds().get().get(0));
+
+        String sent = findAll(postRequestedFor(urlEqualTo("/api/push/"))).get(0).getBodyAsString();
+        assertTrue(sent.contains("user-1"));
+    }
+
+    @Test
+    public void testExecuteAsyncCFOnExecutor() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\":true,\"named_users\":[]}")
+                .withStatus(200)));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("continuations-%d")
+            .build());
+        try {
+            String thread = client.executeAsyncCF(NamedUserListingRequest.newRequest(), executor)
+                .thenApply(response -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+            assertEquals("continuations-0", thread);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncCFFailure() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\":false,\"error\":\"Unauthorized\"}")
+                .withStatus(401)));
+
+        try {
+            client.executeAsyncCF(NamedUserListingRequest.newRequest()).get(5, TimeUnit.SECONDS);
+            fail("Expected a ClientException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ClientException);
+            assertEquals(401, ((ClientException) e.getCause()).getStatusCode());
+        }
+    }
+
+    @Test
+    public void testRawBodyRequest() throws Exception {
+        String pushJSON = "{\"ok\" : true,\"operation_id\" : \"df6a6b50\", \"push_ids\":[\"PushID\"]}";
+        stubFor(post(urlEqualTo("/api/push/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(pushJSON)
+                .withStatus(202)));
+
+        Response<PushResponse> response = client.execute(RawBodyRequest.of(PushRequest.newRequest(PushPayload.newBuilder()
+            .setAudience(Selectors.all())
+            .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+            .setNotification(Notifications.alert("Foo"))
+            .build())));
+
+        assertEquals(202, response.getStatus());
+        assertFalse(response.getBody().isPresent());
+        assertEquals(pushJSON, StandardCharsets.UTF_8.decode(response.getBodyBytes().get()).toString());
+        verify(postRequestedFor(urlEqualTo("/api/push/"))
+            .withHeader(CONTENT_TYPE_KEY, equalTo(APP_JSON)));
+
+        // Parsed responses do not retain the raw body as well.
+        Response<PushResponse> parsed = client.execute(PushRequest.newRequest(PushPayload.newBuilder()
+            .setAudience(Selectors.all())
+            .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+            .setNotification(Notifications.alert("Foo"))
+            .build()));
+        assertTrue(parsed.getBody().isPresent());
+        assertFalse(parsed.getBodyBytes().isPresent());
+    }
+
+    @Test
+    public void testStaticRequestHeaders() throws Exception {
+        final List<Map<String, String>> sent = new ArrayList<>();
+        RequestClient capturing = new RequestClient() {
+            @Override
+            public <T> Future<Response<T>> executeAsync(Request<T> request, ResponseCallback callback, Map<String, String> headers) {
+                sent.add(headers);
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        UrbanAirshipClient basicClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("s\u00e9cret")
+            .setClient(capturing)
+            .build();
+        PushPayload payload = PushPayload.newBuilder()
+            .setAudience(Selectors.all())
+            .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+            .setNotification(Notifications.alert("Foo"))
+            .build();
+
+        basicClient.executeAsync(PushRequest.newRequest(payload));
+        basicClient.executeAsync(PushRequest.newRequest(payload));
+        basicClient.executeAsync(SegmentListingRequest.newRequest());
+
+        assertSame(sent.get(0), sent.get(1));
+        assertEquals("Basic " + BaseEncoding.base64().encode("key:s\u00e9cret".getBytes(StandardCharsets.UTF_8)),
+            sent.get(0).get("Authorization"));
+        assertEquals("key", sent.get(0).get("X-UA-Appkey"));
+        assertEquals(basicClient.getUserAgent("key"), sent.get(0).get("User-Agent"));
+        assertEquals(Request.CONTENT_TYPE_JSON, sent.get(0).get(HttpHeaders.CONTENT_TYPE));
+        assertEquals(Request.UA_VERSION_JSON, sent.get(0).get(HttpHeaders.ACCEPT));
+        assertFalse(sent.get(2).containsKey(HttpHeaders.CONTENT_TYPE));
+        assertEquals(sent.get(0).get("Authorization"), sent.get(2).get("Authorization"));
+
+        UrbanAirshipClient bearerClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setBearerToken("token")
+            .setClient(capturing)
+            .build();
+        bearerClient.executeAsync(PushRequest.newRequest(payload));
+
+        assertEquals("Bearer token", sent.get(3).get("Authorization"));
+        assertEquals(Request.UA_VERSION_JSON, sent.get(3).get(HttpHeaders.ACCEPT));
+    }
+
     /* Test the following attributes of the push method on the APIClient object
      1. Method produces a post request
      2. Request has proper headers
@@ -511,6 +719,388 @@ public class UrbanAirshipClientTest {
         assertEquals(response.getStatus(), 200);
     }
 
+    @Test
+    public void testMetricsListener() throws Exception {
+        String channelId = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+        stubFor(get(urlEqualTo("/api/channels/" + channelId)).inScenario("metrics")
+            .whenScenarioStateIs("Started")
+            .willReturn(aResponse()
+                .withStatus(503))
+            .willSetStateTo("Recovered"));
+        stubFor(get(urlEqualTo("/api/channels/" + channelId)).inScenario("metrics")
+            .whenScenarioStateIs("Recovered")
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\":true}")
+                .withStatus(200)));
+
+        CompletableFuture<RequestMetrics> completed = new CompletableFuture<>();
+        List<String> enqueued = new ArrayList<>();
+        AsyncRequestClient metricsClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + wireMockRule.port())
+            .setMaxRetries(2)
+            .setRetryPredicate(input -> input.getResponseStatus().getStatusCode() >= 500)
+            .setMetricsListener(new ClientMetricsListener() {
+                @Override
+                public void onRequestEnqueued(Request.HttpMethod method, String pathTemplate) {
+                    enqueued.add(method + " " + pathTemplate);
+                }
+
+                @Override
+                public void onRequestCompleted(RequestMetrics metrics) {
+                    completed.complete(metrics);
+                }
+            })
+            .build();
+
+        try (UrbanAirshipClient metricsUaClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(metricsClient)
+            .build()) {
+            metricsUaClient.execute(RawBodyRequest.of(ChannelRequest.newRequest(channelId)));
+
+            RequestMetrics metrics = completed.get(5, TimeUnit.SECONDS);
+            assertEquals(ImmutableList.of("GET /api/channels/{id}"), enqueued);
+            assertEquals(Request.HttpMethod.GET, metrics.getMethod());
+            assertEquals("/api/channels/{id}", metrics.getPathTemplate());
+            assertEquals(200, metrics.getStatus().get().intValue());
+            assertFalse(metrics.getError().isPresent());
+            assertEquals(1, metrics.getRetries());
+            assertEquals(11, metrics.getBytesIn());
+            assertEquals(0, metrics.getBytesOut());
+            assertTrue(metrics.getFirstByteNanos().get() <= metrics.getTotalNanos());
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        String channelId = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+        stubFor(get(urlEqualTo("/api/channels/" + channelId))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\":true}")
+                .withStatus(200)));
+
+        CompletableFuture<WarmUpReport> warmedUp = new CompletableFuture<>();
+        CompletableFuture<RequestMetrics> completed = new CompletableFuture<>();
+        AsyncRequestClient warmClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + wireMockRule.port())
+            .setWarmUpConnections(3)
+            .setMetricsListener(new ClientMetricsListener() {
+                @Override
+                public void onWarmUpCompleted(WarmUpReport report) {
+                    warmedUp.complete(report);
+                }
+
+                @Override
+                public void onRequestCompleted(RequestMetrics metrics) {
+                    completed.complete(metrics);
+                }
+            })
+            .build();
+
+        try (UrbanAirshipClient warmUaClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(warmClient)
+            .build()) {
+            assertTrue(warmedUp.isDone());
+            WarmUpReport report = warmClient.getWarmUpReport().get();
+            assertSame(warmedUp.get(), report);
+            assertTrue(report.isComplete());
+            assertEquals(3, report.getConnectionsRequested());
+            assertEquals(3, report.getConnectionsOpened());
+            assertFalse(report.getAddresses().isEmpty());
+            assertTrue(report.getResolveNanos().get() <= report.getTotalNanos());
+            assertEquals(3, findAll(anyRequestedFor(urlEqualTo("/"))).stream()
+                .filter(request -> RequestMethod.HEAD.equals(request.getMethod()))
+                .count());
+
+            warmUaClient.execute(RawBodyRequest.of(ChannelRequest.newRequest(channelId)));
+
+            // The request went out on a pooled connection.
+            assertFalse(completed.get(5, TimeUnit.SECONDS).getConnectNanos().isPresent());
+        }
+    }
+
+    @Test
+    public void testWarmUpIsCappedByMaxConnectionsPerHost() throws Exception {
+        AsyncRequestClient cappedClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + wireMockRule.port())
+            .setClientConfigBuilder(new DefaultAsyncHttpClientConfig.Builder().setMaxConnectionsPerHost(2))
+            .setWarmUpConnections(5)
+            .build();
+        try {
+            WarmUpReport report = cappedClient.getWarmUpReport().get();
+            assertEquals(2, report.getConnectionsRequested());
+            assertEquals(2, report.getConnectionsOpened());
+        } finally {
+            cappedClient.close();
+        }
+    }
+
+    @Test
+    public void testWarmUpFailureDoesNotFailBuild() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        AsyncRequestClient coldClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + closedPort)
+            .setWarmUpConnections(2)
+            .build();
+        try {
+            WarmUpReport report = coldClient.getWarmUpReport().get();
+            assertFalse(report.isComplete());
+            assertEquals(2, report.getConnectionsRequested());
+            assertEquals(0, report.getConnectionsOpened());
+            assertTrue(report.getError().isPresent());
+        } finally {
+            coldClient.close();
+        }
+
+        assertFalse(asyncRequestClient.getWarmUpReport().isPresent());
+    }
+
+    @Test
+    public void testBlockingRequestClient() throws Exception {
+        String pushJSON = "{\"ok\" : true,\"operation_id\" : \"df6a6b50\", \"push_ids\":[\"PushID\"]}";
+        stubFor(post(urlEqualTo("/api/push/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody(pushJSON)
+                .withStatus(202)));
+
+        try (UrbanAirshipClient blockingClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(BlockingRequestClient.newBuilder()
+                .setBaseUri("http://localhost:" + wireMockRule.port())
+                .build())
+            .build()) {
+            Response<PushResponse> response = blockingClient.execute(PushRequest.newRequest(PushPayload.newBuilder()
+                .setAudience(Selectors.all())
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("Foo"))
+                .build()));
+
+            assertEquals(202, response.getStatus());
+            assertEquals("PushID", response.getBody().get().getPushIds().get().get(0));
+
+            List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/api/push/")));
+            assertEquals(1, requests.size());
+            assertEquals(Request.CONTENT_TYPE_JSON, requests.get(0).getHeader(HttpHeaders.CONTENT_TYPE));
+            assertEquals(Request.UA_VERSION_JSON, requests.get(0).getHeader(HttpHeaders.ACCEPT));
+            assertEquals("key", requests.get(0).getHeader("X-UA-Appkey"));
+            assertTrue(requests.get(0).getBodyAsString().contains("\"alert\":\"Foo\""));
+        }
+    }
+
+    @Test
+    public void testExecuteThrowsTypedExceptions() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody("{\"ok\":false,\"error\":\"Unauthorized\"}")
+                .withStatus(401)));
+
+        // Up to 9.2.1 the failure came wrapped in a RuntimeException holding the ExecutionException, see CHANGELOG.
+        ClientException clientException = assertThrows(ClientException.class,
+            () -> client.execute(NamedUserListingRequest.newRequest()));
+        assertEquals(401, clientException.getStatusCode());
+    }
+
+    @Test
+    public void testDecoratedClientThrowsTypedExceptions() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody("{\"ok\":false,\"error\":\"Unauthorized\"}")
+                .withStatus(401)));
+
+        try (UrbanAirshipClient decoratedClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(CircuitBreakerRequestClient.newBuilder()
+                .setClient(RateLimitedRequestClient.newBuilder()
+                    .setClient(BlockingRequestClient.newBuilder()
+                        .setBaseUri("http://localhost:" + wireMockRule.port())
+                        .build())
+                    .build())
+                .build())
+            .build()) {
+            ClientException clientException = assertThrows(ClientException.class,
+                () -> decoratedClient.execute(NamedUserListingRequest.newRequest()));
+            assertEquals(401, clientException.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testBlockingRequestClientThrowsTypedExceptions() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody("{\"ok\":false,\"error\":\"Unauthorized\"}")
+                .withStatus(401)));
+        stubFor(post(urlEqualTo("/api/push/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody("{\"ok\":false,\"error\":\"Unavailable\"}")
+                .withStatus(503)));
+
+        try (UrbanAirshipClient blockingClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(BlockingRequestClient.newBuilder()
+                .setBaseUri("http://localhost:" + wireMockRule.port())
+                .build())
+            .build()) {
+            ClientException clientException = assertThrows(ClientException.class,
+                () -> blockingClient.execute(NamedUserListingRequest.newRequest()));
+            assertEquals(401, clientException.getStatusCode());
+
+            // POSTs are not retried by default.
+            ServerException serverException = assertThrows(ServerException.class,
+                () -> blockingClient.execute(PushRequest.newRequest(PushPayload.newBuilder()
+                    .setAudience(Selectors.all())
+                    .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                    .setNotification(Notifications.alert("Foo"))
+                    .build())));
+            assertEquals(503, serverException.getStatusCode().intValue());
+            assertEquals(1, findAll(postRequestedFor(urlEqualTo("/api/push/"))).size());
+
+            // The futures are complete once executeAsync returns.
+            Future<Response<NamedUserListingResponse>> future = blockingClient.executeAsync(NamedUserListingRequest.newRequest());
+            assertTrue(future.isDone());
+            try {
+                future.get();
+                fail("Expected a ClientException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ClientException);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockingRequestClientRetry() throws Exception {
+        String channelId = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+        stubFor(get(urlEqualTo("/api/channels/" + channelId)).inScenario("blocking")
+            .whenScenarioStateIs("Started")
+            .willReturn(aResponse()
+                .withStatus(503))
+            .willSetStateTo("Recovered"));
+        stubFor(get(urlEqualTo("/api/channels/" + channelId)).inScenario("blocking")
+            .whenScenarioStateIs("Recovered")
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody("{\"ok\":true}")
+                .withStatus(200)));
+
+        CompletableFuture<RequestMetrics> completed = new CompletableFuture<>();
+        try (UrbanAirshipClient blockingClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(BlockingRequestClient.newBuilder()
+                .setBaseUri("http://localhost:" + wireMockRule.port())
+                .setMetricsListener(new ClientMetricsListener() {
+                    @Override
+                    public void onRequestCompleted(RequestMetrics metrics) {
+                        completed.complete(metrics);
+                    }
+                })
+                .build())
+            .build()) {
+            Response<ChannelResponse> response = blockingClient.execute(RawBodyRequest.of(ChannelRequest.newRequest(channelId)));
+
+            assertEquals(200, response.getStatus());
+            assertEquals(2, findAll(getRequestedFor(urlEqualTo("/api/channels/" + channelId))).size());
+            RequestMetrics metrics = completed.get(5, TimeUnit.SECONDS);
+            assertEquals(1, metrics.getRetries());
+            assertEquals(11, metrics.getBytesIn());
+        }
+    }
+
+    @Test
+    public void testBlockingRequestClientTimeout() throws Exception {
+        String channelId = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+        stubFor(get(urlEqualTo("/api/channels/" + channelId))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withBody("{\"ok\":true}")
+                .withStatus(200)
+                .withFixedDelay(5000)));
+
+        try (UrbanAirshipClient blockingClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(BlockingRequestClient.newBuilder()
+                .setBaseUri("http://localhost:" + wireMockRule.port())
+                .build())
+            .build()) {
+            long start = System.nanoTime();
+            RequestTimeoutException e = assertThrows(RequestTimeoutException.class,
+                () -> blockingClient.execute(TimeoutRequest.of(ChannelRequest.newRequest(channelId), 200)));
+
+            assertEquals(200, e.getTimeoutMs());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        }
+    }
+
+    @Test
+    public void testBlockingRequestClientTimeoutBoundsRetries() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withStatus(503)));
+
+        try (UrbanAirshipClient blockingClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(BlockingRequestClient.newBuilder()
+                .setBaseUri("http://localhost:" + wireMockRule.port())
+                .setMaxRetries(1000)
+                .setRequestTimeoutMs(300L)
+                .build())
+            .build()) {
+            long start = System.nanoTime();
+            assertThrows(RequestTimeoutException.class, () -> blockingClient.execute(NamedUserListingRequest.newRequest()));
+
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        }
+    }
+
+    @Test
+    public void testBlockingRequestClientStreamedBody() throws Exception {
+        File csvFile = new File("src/test/data/test.csv");
+        String queryPathString = "/api/lists/testlist/csv";
+        stubFor(put(urlEqualTo(queryPathString))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                .withStatus(200)));
+
+        try (UrbanAirshipClient blockingClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(BlockingRequestClient.newBuilder()
+                .setBaseUri("http://localhost:" + wireMockRule.port())
+                .build())
+            .build()) {
+            Response<GenericResponse> response = blockingClient.execute(
+                StaticListUploadRequest.newRequest("testlist", csvFile.getAbsolutePath()).setGzipEnabled(true));
+            assertEquals(200, response.getStatus());
+        }
+
+        List<LoggedRequest> requests = findAll(putRequestedFor(urlEqualTo(queryPathString)));
+        assertEquals(1, requests.size());
+        assertEquals("gzip", requests.get(0).getHeader("Content-Encoding"));
+        byte[] body = requests.get(0).getBody();
+        if (body.length > 1 && body[0] == (byte) 0x1f && body[1] == (byte) 0x8b) {
+            body = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(body)));
+        }
+        assertArrayEquals(Files.readAllBytes(csvFile.toPath()), body);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testRetryIsNonBlocking() throws Exception {
@@ -561,6 +1151,184 @@ public class UrbanAirshipClientTest {
         }, 5, TimeUnit.MILLISECONDS);
     }
 
+    @Test
+    public void testRetryBackoffDoesNotBlockHealthyRequests() throws Exception {
+        // A single I/O thread makes any blocking backoff stall every other request on the client.
+        AsyncRequestClient singleThreadClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + wireMockRule.port())
+            .setMaxRetries(1)
+            .setClientConfigBuilder(new DefaultAsyncHttpClientConfig.Builder().setIoThreadsCount(1))
+            .setRetryBackoff(RetryBackoff.newBuilder()
+                .setBaseDelayMs(1000)
+                .setMaxDelayMs(1000)
+                .build())
+            .build();
+
+        UrbanAirshipClient backoffClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(singleThreadClient)
+            .build();
+
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "text/html")
+                .withBody("Service Unavailable")
+                .withStatus(503)));
+
+        String pushJSON = "{\"ok\" : true,\"operation_id\" : \"df6a6b50\", \"push_ids\":[\"PushID\"]}";
+        stubFor(post(urlEqualTo("/api/push/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(pushJSON)
+                .withStatus(201)));
+
+        PushPayload payload = PushPayload.newBuilder()
+            .setAudience(Selectors.all())
+            .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+            .setNotification(Notifications.alert("Foo"))
+            .build();
+
+        List<Future<Response<NamedUserListingResponse>>> backingOff = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            backingOff.add(backoffClient.executeAsync(NamedUserListingRequest.newRequest()));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (findAll(getRequestedFor(urlEqualTo("/api/named_users/"))).size() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            Response<PushResponse> response = backoffClient.execute(PushRequest.newRequest(payload));
+            assertEquals(201, response.getStatus());
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Healthy requests waited on backoff: " + elapsedMs + " ms", elapsedMs < 1000);
+        assertEquals(5, findAll(getRequestedFor(urlEqualTo("/api/named_users/"))).size());
+
+        for (Future<Response<NamedUserListingResponse>> future : backingOff) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected a ServerException once retries are exhausted");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ServerException);
+            }
+        }
+        assertEquals(10, findAll(getRequestedFor(urlEqualTo("/api/named_users/"))).size());
+
+        backoffClient.close();
+    }
+
+    @Test
+    public void testRetryAfterIsHonored() throws Exception {
+        AsyncRequestClient retryAfterClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + wireMockRule.port())
+            .setMaxRetries(1)
+            .build();
+
+        UrbanAirshipClient retryAfterUAClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(retryAfterClient)
+            .build();
+
+        stubFor(get(urlEqualTo("/api/named_users/")).inScenario("retry-after")
+            .whenScenarioStateIs("Started")
+            .willReturn(aResponse()
+                .withHeader("Retry-After", "1")
+                .withStatus(503))
+            .willSetStateTo("Retry"));
+
+        stubFor(get(urlEqualTo("/api/named_users/")).inScenario("retry-after")
+            .whenScenarioStateIs("Retry")
+            .willReturn(aResponse()
+                .withStatus(200)));
+
+        long start = System.nanoTime();
+        Response response = retryAfterUAClient.execute(NamedUserListingRequest.newRequest());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(200, response.getStatus());
+        assertTrue("Retry-After was not honored: " + elapsedMs + " ms", elapsedMs >= 1000);
+
+        retryAfterUAClient.close();
+    }
+
+    @Test
+    public void testRequestTimeoutBoundsRetries() throws Exception {
+        stubFor(get(urlEqualTo("/api/named_users/"))
+            .willReturn(aResponse()
+                .withStatus(503)));
+
+        CompletableFuture<RequestMetrics> completed = new CompletableFuture<>();
+        List<Throwable> callbackErrors = new ArrayList<>();
+        AsyncRequestClient timeoutClient = AsyncRequestClient.newBuilder()
+            .setBaseUri("http://localhost:" + wireMockRule.port())
+            .setMaxRetries(10)
+            .setRetryPredicate(input -> input.getResponseStatus().getStatusCode() >= 500)
+            .setRetryBackoff(RetryBackoff.newBuilder()
+                .setBaseDelayMs(200)
+                .setMaxDelayMs(200)
+                .build())
+            .setRequestTimeoutMs(350L)
+            .setMetricsListener(completed::complete)
+            .build();
+
+        try (UrbanAirshipClient timeoutUaClient = UrbanAirshipClient.newBuilder()
+            .setKey("key")
+            .setSecret("secret")
+            .setClient(timeoutClient)
+            .build()) {
+            long start = System.nanoTime();
+            Future<Response<NamedUserListingResponse>> future = timeoutUaClient.executeAsync(NamedUserListingRequest.newRequest(), new ResponseCallback() {
+                @Override
+                public void completed(Response response) {
+                }
+
+                @Override
+                public void error(Throwable throwable) {
+                    callbackErrors.add(throwable);
+                }
+            });
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            RequestTimeoutException timeout = (RequestTimeoutException) e.getCause();
+            assertEquals(350, timeout.getTimeoutMs());
+            assertTrue(timeout.getRetries() < 10);
+            assertTrue("timed out after " + elapsedMs + " ms", elapsedMs < 2000);
+
+            RequestMetrics metrics = completed.get(5, TimeUnit.SECONDS);
+            assertSame(timeout, metrics.getError().get());
+            assertEquals(1, callbackErrors.size());
+            assertSame(timeout, callbackErrors.get(0));
+        }
+    }
+
+    @Test
+    public void testRequestTimeoutCancelsInFlightAttempt() throws Exception {
+        String channelId = "9c36e8c7-5a73-47c0-9716-99fd3d4197d5";
+        stubFor(get(urlEqualTo("/api/channels/" + channelId))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody("{\"ok\":true}")
+                .withStatus(200)
+                .withFixedDelay(5000)));
+
+        // The client has no timeout, the request brings its own.
+        assertFalse(asyncRequestClient.getRequestTimeoutMs().isPresent());
+        long start = System.nanoTime();
+        Future<Response<ChannelResponse>> future = client.executeAsync(TimeoutRequest.of(ChannelRequest.newRequest(channelId), 200));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RequestTimeoutException);
+        assertEquals(0, ((RequestTimeoutException) e.getCause()).getRetries());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+    }
+
     @Test
     public void testClose() {
         asyncRequestClient = AsyncRequestClient.newBuilder()
@@ -1056,7 +1824,7 @@ public class UrbanAirshipClientTest {
                 .withStatus(204)));
 
         try {
-            Response<String> response = client.execute(ScheduleDeleteRequest.newRequest("puppies"));
+            Response<GenericResponse> response = client.execute(ScheduleDeleteRequest.newRequest("puppies"));
 
             // Verify components of the underlying HttpRequest
             verify(deleteRequestedFor(urlEqualTo("/api/schedules/puppies")));
@@ -1088,7 +1856,7 @@ public class UrbanAirshipClientTest {
             .removeTags("tag_group1", ImmutableSet.of("tag4", "tag5", "tag6"));
 
         try {
-            Response<String> response = client.execute(request);
+            Response<GenericResponse> response = client.execute(request);
 
             List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/api/channels/tags/")));
             assertEquals(1, requests.size());
@@ -1243,6 +2011,150 @@ public class UrbanAirshipClientTest {
         }
     }
 
+    @Test
+    public void testListChannelsLargeMultiByteResponse() throws Exception {
+        int channelCount = 2000;
+        StringBuilder body = new StringBuilder("{\"ok\": true, \"channels\": [");
+        for (int i = 0; i < channelCount; i++) {
+            if (i > 0) {
+                body.append(",");
+            }
+            body.append("{\"channel_id\": \"").append(new UUID(0, i)).append("\",")
+                .append("\"device_type\": \"ios\", \"installed\": true, \"opt_in\": true,")
+                .append("\"created\": \"2014-03-06T18:52:59\",")
+                .append("\"alias\": \"caf\u00e9-\u901a\u77e5-\ud83d\ude80-").append(i).append("\",")
+                .append("\"tags\": [\"\u00fcber\", \"\u30bf\u30b0\"]}");
+        }
+        body.append("]}");
+
+        stubFor(get(urlEqualTo("/api/channels/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json; charset=utf-8")
+                .withBody(body.toString())
+                .withStatus(200)));
+
+        Response<ChannelResponse> response = client.execute(ChannelRequest.newRequest());
+
+        assertEquals(200, response.getStatus());
+        List<ChannelView> channels = response.getBody().get().getChannelObjects().get();
+        assertEquals(channelCount, channels.size());
+        for (int i = 0; i < channelCount; i++) {
+            assertEquals("caf\u00e9-\u901a\u77e5-\ud83d\ude80-" + i, channels.get(i).getAlias().get());
+            assertEquals(ImmutableSet.of("\u00fcber", "\u30bf\u30b0"), channels.get(i).getTags());
+        }
+    }
+
+    private String channelPage(int first, int count, String nextPage) {
+        StringBuilder body = new StringBuilder("{\"ok\": true, \"channels\": [");
+        for (int i = first; i < first + count; i++) {
+            if (i > first) {
+                body.append(",");
+            }
+            body.append("{\"channel_id\": \"").append(new UUID(0, i)).append("\",")
+                .append("\"device_type\": \"ios\", \"installed\": true, \"opt_in\": true,")
+                .append("\"created\": \"2014-03-06T18:52:59\"}");
+        }
+        body.append("]");
+        if (nextPage != null) {
+            body.append(", \"next_page\": \"").append(nextPage).append("\"");
+        }
+        return body.append("}").toString();
+    }
+
+    private void stubChannelPages() {
+        stubFor(get(urlEqualTo("/api/channels/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(channelPage(0, 3, "https://go.urbanairship.com/api/channels?limit=3&start=page2"))
+                .withStatus(200)));
+
+        stubFor(get(urlEqualTo("/api/channels?limit=3&start=page2"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(channelPage(3, 3, "https://go.urbanairship.com/api/channels?limit=3&start=page3"))
+                .withStatus(200)));
+
+        stubFor(get(urlEqualTo("/api/channels?limit=3&start=page3"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(channelPage(6, 2, null))
+                .withStatus(200)));
+    }
+
+    @Test
+    public void testStreamChannelPages() {
+        stubChannelPages();
+
+        List<String> channelIds;
+        try (Stream<ChannelView> channels = client.stream(ChannelRequest.newRequest().paginator(), 2)) {
+            channelIds = channels.map(ChannelView::getChannelId).collect(Collectors.toList());
+        }
+
+        assertEquals(8, channelIds.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(new UUID(0, i).toString(), channelIds.get(i));
+        }
+        assertEquals(1, findAll(getRequestedFor(urlEqualTo("/api/channels/"))).size());
+        assertEquals(1, findAll(getRequestedFor(urlEqualTo("/api/channels?limit=3&start=page2"))).size());
+        assertEquals(1, findAll(getRequestedFor(urlEqualTo("/api/channels?limit=3&start=page3"))).size());
+    }
+
+    @Test
+    public void testStreamStopsEarly() throws Exception {
+        stubChannelPages();
+
+        try (Stream<ChannelView> channels = client.stream(ChannelRequest.newRequest().paginator())) {
+            assertEquals(2, channels.limit(2).count());
+        }
+
+        Thread.sleep(200);
+        assertEquals(1, findAll(getRequestedFor(urlEqualTo("/api/channels/"))).size());
+        assertEquals(0, findAll(getRequestedFor(urlEqualTo("/api/channels?limit=3&start=page3"))).size());
+    }
+
+    @Test
+    public void testStreamPropagatesPageErrors() {
+        stubFor(get(urlEqualTo("/api/channels/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(channelPage(0, 3, "https://go.urbanairship.com/api/channels?limit=3&start=page2"))
+                .withStatus(200)));
+
+        stubFor(get(urlEqualTo("/api/channels?limit=3&start=page2"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/vnd.urbanairship+json")
+                .withBody("{\"ok\" : false, \"error\" : \"Unauthorized\", \"error_code\" : 40101}")
+                .withStatus(401)));
+
+        Iterator<ChannelView> channels = client.stream(ChannelRequest.newRequest().paginator()).iterator();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new UUID(0, i).toString(), channels.next().getChannelId());
+        }
+        assertThrows(ClientException.class, channels::hasNext);
+    }
+
+    @Test
+    public void testStreamFailsOnRateLimitedPage() {
+        stubFor(get(urlEqualTo("/api/channels/"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/json")
+                .withBody(channelPage(0, 3, "https://go.urbanairship.com/api/channels?limit=3&start=page2"))
+                .withStatus(200)));
+
+        stubFor(get(urlEqualTo("/api/channels?limit=3&start=page2"))
+            .willReturn(aResponse()
+                .withHeader(CONTENT_TYPE_KEY, "application/vnd.urbanairship+json")
+                .withBody("{\"ok\" : false, \"error\" : \"Too many requests\"}")
+                .withStatus(429)));
+
+        Iterator<ChannelView> channels = client.stream(ChannelRequest.newRequest().paginator()).iterator();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new UUID(0, i).toString(), channels.next().getChannelId());
+        }
+        ClientException e = assertThrows(ClientException.class, channels::hasNext);
+        assertEquals(429, e.getStatusCode());
+    }
+
     @Test
     public void testNamedUserAssociation() {
 
@@ -1255,7 +2167,7 @@ public class UrbanAirshipClientTest {
             .setChannel(UUID.randomUUID().toString(), ChannelType.IOS);
 
         try {
-            Response<String> response = client.execute(request);
+            Response<GenericResponse> response = client.execute(request);
 
             // Verify components of the underlying HttpRequest
             verify(postRequestedFor(urlEqualTo("/api/named_users/associate/"))
@@ -1284,7 +2196,7 @@ public class UrbanAirshipClientTest {
             .setChannel(UUID.randomUUID().toString(), ChannelType.IOS);
 
         try {
-            Response<String> response = client.execute(request);
+            Response<GenericResponse> response = client.execute(request);
 
             // Verify components of the underlying HttpRequest
             verify(postRequestedFor(urlEqualTo("/api/named_users/disassociate/"))
@@ -1319,7 +2231,7 @@ public class UrbanAirshipClientTest {
             .removeTags("tag_group1", ImmutableSet.of("tag4", "tag5", "tag6"));
 
         try {
-            Response<String> response = client.execute(request);
+            Response<GenericResponse> response = client.execute(request);
 
             List<LoggedRequest> requests = findAll(postRequestedFor(urlEqualTo("/api/named_users/tags/")));
             assertEquals(1, requests.size());
@@ -2009,7 +2921,7 @@ public class UrbanAirshipClientTest {
         request.setDisplayName("test")
                 .setCriteria(compound);
 
-        Response<String> response = client.execute(request);
+        Response<SegmentRequestResponse> response = client.execute(request);
 
         verify(postRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(postRequestedFor(
@@ -2036,7 +2948,7 @@ public class UrbanAirshipClientTest {
         request.setDisplayName("test")
                 .setCriteria(compound);
 
-        Response<String> response = client.execute(request);
+        Response<SegmentRequestResponse> response = client.execute(request);
 
         verify(putRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(putRequestedFor(
@@ -2057,7 +2969,7 @@ public class UrbanAirshipClientTest {
 
         SegmentDeleteRequest request = SegmentDeleteRequest.newRequest("abc");
 
-        Response<String> response = client.execute(request);
+        Response<GenericResponse> response = client.execute(request);
 
         verify(deleteRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(deleteRequestedFor(
@@ -2163,7 +3075,7 @@ public class UrbanAirshipClientTest {
                         .withStatus(201)));
 
         StaticListRequest request = StaticListRequest.newRequest(listName);
-        Response<String> response = client.execute(request);
+        Response<GenericResponse> response = client.execute(request);
 
         verify(postRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(postRequestedFor(
@@ -2186,7 +3098,7 @@ public class UrbanAirshipClientTest {
 
         StaticListRequest request = StaticListRequest.newUpdateRequest(listName);
         request.setDescription("a new description");
-        Response<String> response = client.execute(request);
+        Response<GenericResponse> response = client.execute(request);
 
         verify(putRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(putRequestedFor(
@@ -2209,7 +3121,7 @@ public class UrbanAirshipClientTest {
                         .withStatus(200)));
 
         StaticListUploadRequest request = StaticListUploadRequest.newRequest(listName, csvFile);
-        Response<String> response = client.execute(request);
+        Response<GenericResponse> response = client.execute(request);
 
         verify(putRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(putRequestedFor(
@@ -2220,6 +3132,33 @@ public class UrbanAirshipClientTest {
         assertEquals(200, response.getStatus());
     }
 
+    @Test
+    public void testUploadStaticListGzip() throws Exception {
+        File csvFile = new File("src/test/data/test.csv");
+        String listName = "testlist";
+        String queryPathString = "/api/lists/" + listName + "/csv";
+
+        stubFor(put(urlEqualTo(queryPathString))
+                .willReturn(aResponse()
+                        .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                        .withStatus(200)));
+
+        StaticListUploadRequest request = StaticListUploadRequest.newRequest(listName, csvFile.getAbsolutePath())
+                .setGzipEnabled(true);
+        Response<GenericResponse> response = client.execute(request);
+
+        List<LoggedRequest> requests = findAll(putRequestedFor(urlEqualTo(queryPathString)));
+        assertEquals(1, requests.size());
+        assertEquals("gzip", requests.get(0).getHeader("Content-Encoding"));
+
+        byte[] body = requests.get(0).getBody();
+        if (body.length > 1 && body[0] == (byte) 0x1f && body[1] == (byte) 0x8b) {
+            body = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(body)));
+        }
+        assertArrayEquals(Files.readAllBytes(csvFile.toPath()), body);
+        assertEquals(200, response.getStatus());
+    }
+
     @Test
     public void testDownloadStaticList() throws Exception {
         FileOutputStream fileOutputStream = new FileOutputStream("src/test/data/out.csv");
@@ -2244,6 +3183,65 @@ public class UrbanAirshipClientTest {
         assertEquals(200, response.getStatus());
     }
 
+    @Test
+    public void testDownloadStaticListToSink() throws Exception {
+        String listName = "testlist";
+        String queryPathString = "/api/lists/" + listName + "/csv";
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            csv.append("named_user,\u00fcser-\u4e2d").append(i).append('\n');
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        stubFor(get(urlEqualTo(queryPathString))
+                .willReturn(aResponse()
+                        .withHeader(CONTENT_TYPE_KEY, TEXT_CSV)
+                        .withBody(body)
+                        .withStatus(200)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Response<String> response = client.execute(StaticListDownloadRequest.newRequest(listName)
+                .setBodySink(BodySinks.ofOutputStream(out)));
+
+        assertEquals(200, response.getStatus());
+        assertFalse(response.getBody().isPresent());
+        assertArrayEquals(body, out.toByteArray());
+
+        List<String> rows = new ArrayList<>();
+        client.execute(StaticListDownloadRequest.newRequest(listName)
+                .setBodySink(BodySinks.ofRows(rows::add)));
+
+        assertEquals(20000, rows.size());
+        assertEquals("named_user,\u00fcser-\u4e2d0", rows.get(0));
+        assertEquals("named_user,\u00fcser-\u4e2d19999", rows.get(19999));
+    }
+
+    @Test
+    public void testDownloadStaticListToSinkNotFound() throws Exception {
+        String queryPathString = "/api/lists/missing/csv";
+
+        stubFor(get(urlEqualTo(queryPathString))
+                .willReturn(aResponse()
+                        .withHeader(CONTENT_TYPE_KEY, APP_JSON)
+                        .withBody("{\"ok\":false,\"error\":\"Could not find static list\"}")
+                        .withStatus(404)));
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        Response<String> response = client.execute(StaticListDownloadRequest.newRequest("missing")
+                .setBodySink(BodySinks.ofOutputStream(out)));
+
+        assertEquals(404, response.getStatus());
+        assertTrue(closed.get());
+        assertEquals(0, out.size());
+    }
+
     @Test
     public void testDeleteStaticList() throws Exception {
         String listName = "testlist";
@@ -2254,7 +3252,7 @@ public class UrbanAirshipClientTest {
                         .withStatus(204)));
 
         StaticListDeleteRequest request = StaticListDeleteRequest.newRequest(listName);
-        Response<String> response = client.execute(request);
+        Response<GenericResponse> response = client.execute(request);
 
         verify(deleteRequestedFor(urlEqualTo(queryPathString)));
         List<LoggedRequest> requests = findAll(deleteRequestedFor(
@@ -2692,7 +3690,7 @@ public class UrbanAirshipClientTest {
                 .withStatus(204)));
 
         try {
-            Response<String> response = client.execute(ScheduleStatusRequest.pauseScheduleRequest("id"));
+            Response<GenericResponse> response = client.execute(ScheduleStatusRequest.pauseScheduleRequest("id"));
 
             // Verify components of the underlying HttpRequest
             verify(postRequestedFor(urlEqualTo("/api/schedules/id/pause")));
@@ -2716,7 +3714,7 @@ public class UrbanAirshipClientTest {
                 .withStatus(202)));
 
         try {
-            Response<String> response = client.execute(InboxDeleteRequest.newRequest("id"));
+            Response<GenericResponse> response = client.execute(InboxDeleteRequest.newRequest("id"));
 
             // Verify components of the underlying HttpRequest
             verify(deleteRequestedFor(urlEqualTo("/api/user/messages/id")));
@@ -2740,7 +3738,7 @@ public class UrbanAirshipClientTest {
                 .withStatus(204)));
 
         try {
-            Response<String> response = client.execute(ScheduleStatusRequest.resumeScheduleRequest("id"));
+            Response<GenericResponse> response = client.execute(ScheduleStatusRequest.resumeScheduleRequest("id"));
 
             // Verify components of the underlying HttpRequest
             verify(postRequestedFor(urlEqualTo("/api/schedules/id/resume")));
@@ -15,11 +15,13 @@ import org.joda.time.DateTimeZone;
 import org.junit.Test;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class CustomEventRequestTest {
@@ -79,6 +81,12 @@ public class CustomEventRequestTest {
         assertEquals(customEventRequestUnique.getRequestBody(), "[" + customEventPayload1.toJSON() + "]");
     }
 
+    @Test
+    public void testBodyBytes() throws Exception {
+        assertArrayEquals(customEventRequestMultiple.getRequestBody().getBytes(StandardCharsets.UTF_8),
+                customEventRequestMultiple.getRequestBodyBytes());
+    }
+
     @Test
     public void testMethod() throws Exception {
         assertEquals(customEventRequestUnique.getHttpMethod(), Request.HttpMethod.POST);
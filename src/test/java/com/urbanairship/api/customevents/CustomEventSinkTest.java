@@ -0,0 +1,273 @@
+package com.urbanairship.api.customevents;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.urbanairship.api.client.RecordingRequestClient;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.customevents.model.CustomEventBody;
+import com.urbanairship.api.customevents.model.CustomEventChannelType;
+import com.urbanairship.api.customevents.model.CustomEventPayload;
+import com.urbanairship.api.customevents.model.CustomEventResponse;
+import com.urbanairship.api.customevents.model.CustomEventUser;
+import com.urbanairship.api.push.parse.PushObjectMapper;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CustomEventSinkTest {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RecordingRequestClient requestClient;
+    private List<String> bodies;
+    private volatile boolean reject;
+    private UrbanAirshipClient client;
+
+    @Before
+    public void setUp() {
+        requestClient = new RecordingRequestClient(request -> RecordingRequestClient.response(reject ? 400 : 200,
+                new CustomEventResponse("operation", !reject, reject ? "rejected" : null, null)));
+        bodies = requestClient.getBodies();
+        client = requestClient.newClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testBatchesByCount() throws Exception {
+        CustomEventSink sink = sink().setMaxBatchSize(3).build();
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(sink.offer(event("event-" + i)));
+        }
+        sink.flush().get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, bodies.size());
+        assertEquals(3, json(0).size());
+        assertEquals(3, json(1).size());
+        assertEquals(1, json(2).size());
+        assertEquals("event-0", json(0).get(0).get("body").get("name").asText());
+        assertEquals("event-6", json(2).get(0).get("body").get("name").asText());
+        assertEquals(PushObjectMapper.getInstance().readTree(PushObjectMapper.getInstance().writeValueAsString(event("event-5"))), json(1).get(2));
+
+        assertEquals(7, sink.getAcceptedCount());
+        assertEquals(7, sink.getSentCount());
+        assertEquals(3, sink.getBatchCount());
+        assertEquals(bodies.get(0).length() + bodies.get(1).length() + bodies.get(2).length(), sink.getBytesSent());
+        sink.close();
+    }
+
+    @Test
+    public void testBatchesByBytes() throws Exception {
+        int eventBytes = PushObjectMapper.getInstance().writeValueAsBytes(event("event-0")).length;
+        int maxBatchBytes = 2 * eventBytes + 3;
+        CustomEventSink sink = sink().setMaxBatchBytes(maxBatchBytes).build();
+
+        for (int i = 0; i < 5; i++) {
+            sink.offer(event("event-" + i));
+        }
+        sink.flush().get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, bodies.size());
+        int events = 0;
+        for (int i = 0; i < bodies.size(); i++) {
+            assertTrue(bodies.get(i).getBytes(StandardCharsets.UTF_8).length <= maxBatchBytes);
+            events += json(i).size();
+        }
+        assertEquals(5, events);
+        assertEquals(5, sink.getSentCount());
+        sink.close();
+    }
+
+    @Test
+    public void testOversizedEventFails() throws Exception {
+        CustomEventSink sink = sink().setMaxBatchBytes(20).build();
+
+        sink.offer(event("event-0"));
+        sink.flush().get(5, TimeUnit.SECONDS);
+
+        assertTrue(bodies.isEmpty());
+        assertEquals(1, sink.getFailedCount());
+        sink.close();
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        CustomEventSink sink = sink().setFlushIntervalMs(20).build();
+
+        sink.offer(event("event-0"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sink.getSentCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, sink.getSentCount());
+        sink.close();
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception {
+        requestClient.setHold(true);
+        CustomEventSink sink = sink()
+                .setMaxBatchSize(1)
+                .setMaxInFlight(1)
+                .setCapacity(2)
+                .build();
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            accepted += sink.offer(event("event-" + i)) ? 1 : 0;
+        }
+        assertTrue(accepted <= 4);
+        assertEquals(accepted, sink.getAcceptedCount());
+        assertEquals(10 - accepted, sink.getDroppedCount());
+
+        CompletableFuture<Void> flush = sink.flush();
+        release(flush);
+        assertEquals(accepted, sink.getSentCount());
+        sink.close();
+    }
+
+    @Test
+    public void testSpillWhenFull() throws Exception {
+        requestClient.setHold(true);
+        CustomEventSink sink = sink()
+                .setMaxBatchSize(1)
+                .setMaxInFlight(1)
+                .setCapacity(2)
+                .setOverflowPolicy(CustomEventSink.OverflowPolicy.SPILL)
+                .setSpillDirectory(folder.getRoot().toPath())
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sink.offer(event("event-" + i)));
+        }
+        assertTrue(sink.getSpilledCount() >= 6);
+        assertEquals(10, sink.getAcceptedCount() + sink.getSpilledCount());
+
+        CompletableFuture<Void> flush = sink.flush();
+        release(flush);
+        assertEquals(10, sink.getSentCount());
+        assertEquals(0, sink.getDroppedCount());
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < bodies.size(); i++) {
+            names.add(json(i).get(0).get("body").get("name").asText());
+        }
+        assertEquals(10, names.size());
+        assertEquals(0, folder.getRoot().list().length);
+        sink.close();
+    }
+
+    @Test
+    public void testBlockWhenFull() throws Exception {
+        requestClient.setHold(true);
+        CustomEventSink sink = sink()
+                .setMaxBatchSize(1)
+                .setMaxInFlight(1)
+                .setCapacity(1)
+                .setOverflowPolicy(CustomEventSink.OverflowPolicy.BLOCK)
+                .build();
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                sink.offer(event("event-" + i));
+            }
+            done.set(true);
+        });
+        producer.start();
+
+        Thread.sleep(100);
+        assertFalse(done.get());
+
+        while (producer.isAlive()) {
+            requestClient.releaseHeld();
+            producer.join(10);
+        }
+        CompletableFuture<Void> flush = sink.flush();
+        release(flush);
+        assertEquals(5, sink.getSentCount());
+        assertEquals(0, sink.getDroppedCount());
+        sink.close();
+    }
+
+    @Test
+    public void testRejectedBatchFails() throws Exception {
+        reject = true;
+        CustomEventSink sink = sink().build();
+
+        sink.offer(event("event-0"));
+        sink.offer(event("event-1"));
+        sink.close();
+
+        assertEquals(2, sink.getFailedCount());
+        assertEquals(0, sink.getSentCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedSinkRejectsEvents() {
+        CustomEventSink sink = sink().build();
+        sink.close();
+        sink.offer(event("event-0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpillRequiresDirectory() {
+        sink().setOverflowPolicy(CustomEventSink.OverflowPolicy.SPILL).build();
+    }
+
+    private CustomEventSink.Builder sink() {
+        return CustomEventSink.newBuilder()
+                .setClient(client)
+                .setFlushIntervalMs(ONE_HOUR);
+    }
+
+    private void release(CompletableFuture<Void> flush) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!flush.isDone() && System.nanoTime() < deadline) {
+            requestClient.releaseHeld();
+            Thread.sleep(5);
+        }
+        flush.get(1, TimeUnit.SECONDS);
+    }
+
+    private JsonNode json(int index) throws IOException {
+        return PushObjectMapper.getInstance().readTree(bodies.get(index));
+    }
+
+    private static CustomEventPayload event(String name) {
+        return CustomEventPayload.newBuilder()
+                .setCustomEventBody(CustomEventBody.newBuilder()
+                        .setName(name)
+                        .setSessionId("session")
+                        .build())
+                .setCustomEventUser(CustomEventUser.newBuilder()
+                        .setCustomEventChannelType(CustomEventChannelType.ANDROID_CHANNEL)
+                        .setChannel("channel")
+                        .build())
+                .setOccurred(new DateTime(2024, 1, 1, 0, 0, DateTimeZone.UTC))
+                .build();
+    }
+}
@@ -0,0 +1,341 @@
+package com.urbanairship.api.nameduser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.urbanairship.api.client.ClientException;
+import com.urbanairship.api.client.RecordingRequestClient;
+import com.urbanairship.api.client.ServerException;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.nameduser.model.NamedUserAssociation;
+import com.urbanairship.api.nameduser.model.NamedUserUpdateChannelAction;
+import com.urbanairship.api.nameduser.model.NamedUserUpdateDeviceType;
+import com.urbanairship.api.nameduser.model.NamedUserUpdateResponse;
+import com.urbanairship.api.nameduser.parse.NamedUserObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NamedUserAssociationEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> completed = new CopyOnWriteArrayList<>();
+    private final List<String> failed = new CopyOnWriteArrayList<>();
+    private volatile String failingNamedUser;
+    private volatile String rateLimitedNamedUser;
+    private RecordingRequestClient requestClient;
+    private List<String> paths;
+    private List<String> bodies;
+    private UrbanAirshipClient client;
+
+    private final NamedUserAssociationEngine.ResultCallback callback = new NamedUserAssociationEngine.ResultCallback() {
+        @Override
+        public void completed(NamedUserAssociation association, NamedUserUpdateResponse response) {
+            assertTrue(response.isOk());
+            completed.add(association.getChannelId());
+        }
+
+        @Override
+        public void error(NamedUserAssociation association, Throwable throwable) {
+            failed.add(association.getChannelId());
+        }
+    };
+
+    @Before
+    public void setUp() {
+        requestClient = new RecordingRequestClient(request -> {
+            String path = request.getUri(RecordingRequestClient.BASE_URI).getPath();
+            if (failingNamedUser != null && path.endsWith("/" + failingNamedUser)) {
+                throw ServerException.newBuilder().setStatusCode(503).build();
+            }
+            if (rateLimitedNamedUser != null && path.endsWith("/" + rateLimitedNamedUser)) {
+                // The client returns a 429 as a response rather than throwing it.
+                return RecordingRequestClient.response(429, null);
+            }
+            return RecordingRequestClient.response(200, NamedUserUpdateResponse.newBuilder().setOk(true).build());
+        });
+        paths = requestClient.getPaths();
+        bodies = requestClient.getBodies();
+        client = requestClient.newClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testGroupsChannelsPerNamedUser() throws Exception {
+        NamedUserAssociationEngine engine = engine().setMaxChannelsPerRequest(2).build();
+
+        long sent = engine.run(Arrays.asList(
+                association("user-a", "channel-1"),
+                association("user-b", "channel-2"),
+                association("user-a", "channel-3"),
+                association("user-a", "channel-4")).iterator());
+
+        assertEquals(4, sent);
+        assertEquals(Arrays.asList("/api/named_users/user-a", "/api/named_users/user-a", "/api/named_users/user-b"), paths);
+        JsonNode first = NamedUserObjectMapper.getInstance().readTree(bodies.get(0));
+        assertEquals(2, first.get("associate").size());
+        assertEquals(1, NamedUserObjectMapper.getInstance().readTree(bodies.get(1)).get("associate").size());
+
+        assertEquals(4, completed.size());
+        assertTrue(completed.containsAll(Arrays.asList("channel-1", "channel-2", "channel-3", "channel-4")));
+        assertEquals(4, engine.getCompletedCount());
+        assertEquals(3, engine.getRequestCount());
+    }
+
+    @Test
+    public void testDisassociate() throws Exception {
+        NamedUserAssociationEngine engine = engine().setAction(NamedUserUpdateChannelAction.DISASSOCIATE).build();
+
+        engine.run(Arrays.asList(association("user-a", "channel-1")).iterator());
+
+        JsonNode body = NamedUserObjectMapper.getInstance().readTree(bodies.get(0));
+        assertEquals("channel-1", body.get("disassociate").get(0).get("channel_id").asText());
+    }
+
+    @Test
+    public void testBoundsConcurrency() throws Exception {
+        requestClient.setHold(true);
+        NamedUserAssociationEngine engine = engine().setMaxConcurrency(2).build();
+
+        List<NamedUserAssociation> associations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            associations.add(association("user-" + i, "channel-" + i));
+        }
+        Thread runner = new Thread(() -> {
+            try {
+                engine.run(associations.iterator());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        runner.start();
+
+        while (runner.isAlive()) {
+            Thread.sleep(5);
+            assertTrue(requestClient.getInFlight() <= 2);
+            requestClient.releaseHeld();
+            runner.join(5);
+        }
+        assertEquals(2, requestClient.getMaxInFlight());
+        assertEquals(10, completed.size());
+    }
+
+    @Test
+    public void testReportsFailures() throws Exception {
+        failingNamedUser = "user-b";
+        Path checkpoint = folder.getRoot().toPath().resolve("checkpoint");
+        NamedUserAssociationEngine engine = engine().setCheckpointFile(checkpoint).build();
+
+        engine.run(Arrays.asList(
+                association("user-a", "channel-1"),
+                association("user-b", "channel-2"),
+                association("user-b", "channel-3")).iterator());
+
+        assertEquals(Arrays.asList("channel-1"), completed);
+        assertEquals(Arrays.asList("channel-2", "channel-3"), failed);
+        assertEquals(2, engine.getFailedCount());
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testReportsRateLimitedResponses() throws Exception {
+        rateLimitedNamedUser = "user-b";
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        NamedUserAssociationEngine engine = engine()
+                .setCallback(new NamedUserAssociationEngine.ResultCallback() {
+                    @Override
+                    public void completed(NamedUserAssociation association, NamedUserUpdateResponse response) {
+                        completed.add(association.getChannelId());
+                    }
+
+                    @Override
+                    public void error(NamedUserAssociation association, Throwable throwable) {
+                        failed.add(association.getChannelId());
+                        errors.add(throwable);
+                    }
+                })
+                .build();
+
+        engine.run(Arrays.asList(
+                association("user-a", "channel-1"),
+                association("user-b", "channel-2")).iterator());
+
+        assertEquals(Arrays.asList("channel-1"), completed);
+        assertEquals(Arrays.asList("channel-2"), failed);
+        assertEquals(429, ((ClientException) errors.get(0)).getStatusCode());
+        assertEquals(1, engine.getCompletedCount());
+        assertEquals(1, engine.getFailedCount());
+    }
+
+    @Test
+    public void testCheckpointsEveryWindow() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("checkpoint");
+        List<String> positions = new CopyOnWriteArrayList<>();
+        NamedUserAssociationEngine engine = engine()
+                .setWindowSize(2)
+                .setMaxConcurrency(1)
+                .setCheckpointFile(checkpoint)
+                .setCallback(new NamedUserAssociationEngine.ResultCallback() {
+                    @Override
+                    public void completed(NamedUserAssociation association, NamedUserUpdateResponse response) {
+                        positions.add(read(checkpoint));
+                    }
+
+                    @Override
+                    public void error(NamedUserAssociation association, Throwable throwable) {
+                    }
+                })
+                .build();
+
+        List<NamedUserAssociation> associations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            associations.add(association("user-" + i, "channel-" + i));
+        }
+        engine.run(associations.iterator());
+
+        assertEquals(Arrays.asList("none", "none", "2", "2", "4"), positions);
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testCheckpointIsWrittenByTheRunThread() throws Exception {
+        requestClient.setHold(true);
+        Path checkpoint = folder.getRoot().toPath().resolve("checkpoint");
+        NamedUserAssociationEngine engine = engine()
+                .setWindowSize(1)
+                .setMaxConcurrency(2)
+                .setCheckpointFile(checkpoint)
+                .build();
+
+        CountDownLatch gate = new CountDownLatch(1);
+        Iterator<NamedUserAssociation> associations = new Iterator<NamedUserAssociation>() {
+            private final Iterator<NamedUserAssociation> delegate = Arrays.asList(
+                    association("user-a", "channel-1"),
+                    association("user-b", "channel-2")).iterator();
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 1) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return delegate.hasNext();
+            }
+
+            @Override
+            public NamedUserAssociation next() {
+                read++;
+                return delegate.next();
+            }
+        };
+        Thread runner = new Thread(() -> {
+            try {
+                engine.run(associations);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        runner.start();
+
+        // The response completes on this thread while the run thread waits for the next association.
+        waitForHeld();
+        requestClient.releaseNext();
+        assertEquals(1, engine.getCheckpoint());
+        assertEquals("none", read(checkpoint));
+
+        gate.countDown();
+        waitForHeld();
+        assertEquals("1", read(checkpoint));
+        requestClient.releaseNext();
+        runner.join(5000);
+
+        assertFalse(runner.isAlive());
+        assertEquals(Arrays.asList("channel-1", "channel-2"), completed);
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testResumesFromCheckpoint() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("checkpoint");
+        Files.write(checkpoint, "3".getBytes(StandardCharsets.UTF_8));
+        NamedUserAssociationEngine engine = engine().setCheckpointFile(checkpoint).build();
+
+        List<NamedUserAssociation> associations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            associations.add(association("user-" + i, "channel-" + i));
+        }
+        long sent = engine.run(associations.iterator());
+
+        assertEquals(2, sent);
+        assertEquals(3, engine.getSkippedCount());
+        assertEquals(Arrays.asList("channel-3", "channel-4"), completed);
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidCheckpoint() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("checkpoint");
+        Files.write(checkpoint, "garbage".getBytes(StandardCharsets.UTF_8));
+
+        engine().setCheckpointFile(checkpoint).build().run(Arrays.asList(association("user-a", "channel-1")).iterator());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCallbackRequired() {
+        NamedUserAssociationEngine.newBuilder().setClient(client).build();
+    }
+
+    private NamedUserAssociationEngine.Builder engine() {
+        return NamedUserAssociationEngine.newBuilder()
+                .setClient(client)
+                .setCallback(callback);
+    }
+
+    private void waitForHeld() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requestClient.getHeldCount() == 0) {
+            assertTrue("No request was sent in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.exists(file) ? new String(Files.readAllBytes(file), StandardCharsets.UTF_8) : "none";
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static NamedUserAssociation association(String namedUserId, String channelId) {
+        return NamedUserAssociation.newBuilder()
+                .setNamedUserId(namedUserId)
+                .setChannel(NamedUserUpdateDeviceType.ANDROID_CHANNEL, channelId)
+                .build();
+    }
+}
@@ -15,12 +15,14 @@ import org.apache.http.entity.ContentType;
 import org.junit.Test;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 
@@ -81,6 +83,11 @@ public class NamedUserUpdateRequestTest {
 
     NamedUserUpdateRequest request = NamedUserUpdateRequest.newRequest("named_user_id", namedUserUpdatePayload);
 
+    @Test
+    public void testBodyBytes() throws Exception {
+        assertArrayEquals(request.getRequestBody().getBytes(StandardCharsets.UTF_8), request.getRequestBodyBytes());
+    }
+
     @Test
     public void testContentType() throws Exception {
         assertEquals(request.getContentType(), ContentType.APPLICATION_JSON);
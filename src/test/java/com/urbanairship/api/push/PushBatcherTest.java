@@ -0,0 +1,255 @@
+package com.urbanairship.api.push;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.urbanairship.api.client.RecordingRequestClient;
+import com.urbanairship.api.client.Request;
+import com.urbanairship.api.client.UrbanAirshipClient;
+import com.urbanairship.api.push.model.DeviceType;
+import com.urbanairship.api.push.model.DeviceTypeData;
+import com.urbanairship.api.push.model.PushPayload;
+import com.urbanairship.api.push.model.PushResponse;
+import com.urbanairship.api.push.model.audience.Selectors;
+import com.urbanairship.api.push.model.notification.Notifications;
+import com.urbanairship.api.push.parse.PushObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PushBatcherTest {
+
+    private RecordingRequestClient requestClient;
+    private List<Request<?>> requests;
+    private UrbanAirshipClient client;
+
+    @Before
+    public void setUp() {
+        requestClient = new RecordingRequestClient(request -> {
+            int count = payloadCount(request);
+            PushResponse.Builder body = PushResponse.newBuilder()
+                    .setOk(true)
+                    .setOperationId("operation");
+            for (int i = 0; i < count; i++) {
+                body.addPushId("push-" + i);
+            }
+            return RecordingRequestClient.response(202, body.build());
+        });
+        requests = requestClient.getRequests();
+        client = requestClient.newClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    public void testFlushBySize() throws Exception {
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .setMaxBatchSize(3)
+                .setLingerMs(TimeUnit.HOURS.toMillis(1))
+                .build();
+
+        List<CompletableFuture<PushResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            futures.add(batcher.add(payload("alert " + i)));
+        }
+
+        assertEquals(2, requests.size());
+        assertFalse(futures.get(6).isDone());
+
+        for (int i = 0; i < 6; i++) {
+            PushResponse response = futures.get(i).get();
+            assertTrue(response.getOk());
+            assertEquals("operation", response.getOperationId().get());
+            assertEquals(ImmutableList.of("push-" + (i % 3)), response.getPushIds().get());
+        }
+
+        JsonNode body = PushObjectMapper.getInstance().readTree(requests.get(1).getRequestBody());
+        assertEquals(3, body.size());
+        assertEquals("alert 3", body.get(0).get("notification").get("alert").asText());
+        assertEquals(PushObjectMapper.getInstance().readValue(body.get(2).toString(), PushPayload.class), payload("alert 5"));
+
+        batcher.close();
+        assertEquals(3, requests.size());
+        assertTrue(futures.get(6).isDone());
+        assertEquals("alert 6", PushObjectMapper.getInstance().readTree(requests.get(2).getRequestBody())
+                .get("notification").get("alert").asText());
+    }
+
+    @Test
+    public void testFlushByBytes() throws Exception {
+        int payloadBytes = PushObjectMapper.getInstance().writeValueAsBytes(payload("alert 0")).length;
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .setMaxBatchBytes(2 + payloadBytes * 2 + 1)
+                .setLingerMs(TimeUnit.HOURS.toMillis(1))
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            batcher.add(payload("alert " + i));
+        }
+
+        assertEquals(2, requests.size());
+        for (Request<?> request : requests) {
+            assertEquals(2, PushObjectMapper.getInstance().readTree(request.getRequestBody()).size());
+        }
+        batcher.close();
+    }
+
+    @Test
+    public void testFlushByLinger() throws Exception {
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .setLingerMs(20)
+                .build();
+
+        CompletableFuture<PushResponse> first = batcher.add(payload("first"));
+        CompletableFuture<PushResponse> second = batcher.add(payload("second"));
+
+        assertEquals("push-1", second.get(5, TimeUnit.SECONDS).getPushIds().get().get(0));
+        assertEquals("push-0", first.get(5, TimeUnit.SECONDS).getPushIds().get().get(0));
+        assertEquals(1, requests.size());
+        batcher.close();
+    }
+
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .setMaxBatchSize(50)
+                .setLingerMs(5)
+                .build();
+
+        int threads = 8;
+        int perThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<CompletableFuture<PushResponse>> futures = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    futures.add(batcher.add(payload("alert " + i)));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        batcher.close();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(threads * perThread, futures.size());
+
+        int sent = 0;
+        for (Request<?> request : requests) {
+            int count = payloadCount(request);
+            assertTrue(count <= 50);
+            sent += count;
+        }
+        assertEquals(threads * perThread, sent);
+    }
+
+    @Test
+    public void testErrorFailsEveryPayload() throws Exception {
+        requestClient.setFailure(new RuntimeException("boom"));
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .setMaxBatchSize(2)
+                .build();
+
+        CompletableFuture<PushResponse> first = batcher.add(payload("first"));
+        CompletableFuture<PushResponse> second = batcher.add(payload("second"));
+
+        for (CompletableFuture<PushResponse> future : ImmutableList.of(first, second)) {
+            try {
+                future.get();
+                fail("Expected the batch failure");
+            } catch (ExecutionException e) {
+                assertEquals("boom", e.getCause().getMessage());
+            }
+        }
+        batcher.close();
+    }
+
+    @Test
+    public void testSliceWithUnattributableIds() {
+        PushResponse response = PushResponse.newBuilder()
+                .setOk(true)
+                .addAllPushIds(ImmutableList.of("a", "b", "c"))
+                .addAllMessageIds(ImmutableList.of("m0", "m1"))
+                .build();
+
+        PushResponse slice = PushBatcher.slice(response, 1, 2);
+        assertTrue(slice.getPushIds().get().isEmpty());
+        assertEquals(ImmutableList.of("m1"), slice.getMessageIds().get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterClose() {
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .build();
+        batcher.close();
+        batcher.add(payload("late"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        PushBatcher.newBuilder()
+                .setClient(client)
+                .setMaxBatchSize(0)
+                .build();
+    }
+
+    @Test
+    public void testBatchUri() throws Exception {
+        PushBatcher batcher = PushBatcher.newBuilder()
+                .setClient(client)
+                .build();
+        batcher.add(payload("alert"));
+        batcher.flush();
+
+        assertEquals(URI.create("https://go.urbanairship.com/api/push/"),
+                requests.get(0).getUri(URI.create("https://go.urbanairship.com")));
+        assertEquals(Request.HttpMethod.POST, requests.get(0).getHttpMethod());
+        batcher.close();
+    }
+
+    private static PushPayload payload(String alert) {
+        return PushPayload.newBuilder()
+                .setAudience(Selectors.namedUser("user"))
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert(alert))
+                .build();
+    }
+
+    private static int payloadCount(Request<?> request) {
+        try {
+            JsonNode body = PushObjectMapper.getInstance().readTree(request.getRequestBody());
+            return body.isArray() ? body.size() : 1;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
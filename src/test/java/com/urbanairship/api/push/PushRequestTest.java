@@ -1,5 +1,7 @@
 package com.urbanairship.api.push;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.net.HttpHeaders;
 import com.urbanairship.api.client.Request;
 import com.urbanairship.api.client.ResponseParser;
@@ -14,9 +16,11 @@ import org.apache.http.entity.ContentType;
 import org.junit.Test;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class PushRequestTest {
@@ -60,6 +64,32 @@ public class PushRequestTest {
         assertEquals(validateRequest.getRequestBody(), "[{\"audience\":\"ALL\",\"device_types\":[\"ios\"],\"notification\":{\"alert\":\"Foo\"}},{\"audience\":\"ALL\",\"device_types\":[\"ios\"],\"notification\":{\"alert\":\"Bar\"}},{\"audience\":{\"attribute\":\"pseudo\",\"operator\":\"equals\",\"value\":\"John\"},\"device_types\":[\"ios\"],\"notification\":{\"alert\":\"Baz\"}}]");
     }
 
+    @Test
+    public void testBodyBytes() throws Exception {
+        PushPayload unicode = PushPayload.newBuilder()
+                .setAudience(Selectors.namedUser("caf\u00e9"))
+                .setDeviceTypes(DeviceTypeData.of(DeviceType.IOS))
+                .setNotification(Notifications.alert("\u901a\u77e5 \ud83d\ude80"))
+                .build();
+
+        PushRequest single = PushRequest.newRequest(payload2);
+        assertArrayEquals(payload2.toJSON().getBytes(StandardCharsets.UTF_8), single.getRequestBodyBytes());
+        assertEquals(payload2.toJSON(), single.getRequestBody());
+
+        // Characters outside the BMP may be written as escaped surrogate pairs, compare the parsed JSON.
+        ObjectMapper mapper = PushObjectMapper.getInstance();
+        assertEquals(unicode, mapper.readValue(PushRequest.newRequest(unicode).getRequestBodyBytes(), PushPayload.class));
+
+        PushRequest batch = PushRequest.newRequest(payload).addPayload(unicode);
+        ArrayNode expected = mapper.createArrayNode()
+                .add(mapper.readTree(payload.toJSON()))
+                .add(mapper.readTree(unicode.toJSON()));
+        assertEquals(expected, mapper.readTree(batch.getRequestBodyBytes()));
+        // Serializing a request again, or another request afterwards, yields the same body.
+        assertEquals(batch.getRequestBody(), batch.getRequestBody());
+        assertEquals(payload2.toJSON(), single.getRequestBody());
+    }
+
     @Test
     public void testHeaders() throws Exception {
         Map<String, String> headers = new HashMap<>();
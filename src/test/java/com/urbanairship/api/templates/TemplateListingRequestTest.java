@@ -66,6 +66,10 @@ public class TemplateListingRequestTest {
 
         expectedUri = URI.create("https://go.urbanairship.com" + LOOKUP_PATH);
         Assert.assertEquals(lookupRequest.getUri(baseURI), expectedUri);
+
+        TemplateListingRequest nextPageRequest = TemplateListingRequest.newRequest(URI.create("https://go.urbanairship.com/api/templates/?page=2&page_size=10"));
+        expectedUri = URI.create("https://go.urbanairship.com/api/templates/?page=2&page_size=10");
+        Assert.assertEquals(nextPageRequest.getUri(baseURI), expectedUri);
     }
 
     @Test